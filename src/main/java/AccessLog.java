@@ -0,0 +1,361 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * An AccessLog records one line for every request that WebApp answers,
+ * without making request threads wait on any lock or on the file system.
+ * Request threads copy the details of each request into a fixed-shape record
+ * within a bounded, lock-free ring buffer, and a single background thread
+ * drains those records in batches and appends them to the log file.
+ *
+ * When the ring is full, new records are either dropped (and counted, so the
+ * log reports how many were lost) or their request threads wait for space,
+ * depending on this log's FullPolicy. This log is configured with the system
+ * properties campuspath.accesslog (the file to append to, or "off"),
+ * campuspath.accesslog.capacity and campuspath.accesslog.policy.
+ */
+public class AccessLog implements Closeable {
+
+    /**
+     * What a request thread does when the ring has no room for its record.
+     */
+    public enum FullPolicy {
+        // discard the record, and count it as dropped
+        DROP,
+        // wait until the background writer frees up space for it
+        BLOCK
+    }
+
+    public static final String FILE_PROPERTY = "campuspath.accesslog";
+    public static final String CAPACITY_PROPERTY = "campuspath.accesslog.capacity";
+    public static final String POLICY_PROPERTY = "campuspath.accesslog.policy";
+    public static final String DEFAULT_FILE = "access.log";
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    // the most records written between two flushes of the log file
+    private static final int BATCH_SIZE = 256;
+    // how long the writer sleeps when there are no records to write
+    private static final long IDLE_NANOS = 1_000_000;
+
+    // The fixed-shape record that describes one request. Records are
+    // allocated once with the ring, and reused for every request after that.
+    private static class Record {
+        long timeMillis;
+        String method;
+        String uri;
+        int status;
+        long bytes;
+        long durationNanos;
+        Throwable error;
+    }
+
+    private final Record[] records;
+    // sequences[i] == position when slot i can be written for that position,
+    // and == position + 1 once the record for that position is written
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // next position to claim
+    private long head = 0; // next position to write, used only by the writer
+    private final FullPolicy policy;
+    private final AtomicLong dropped = new AtomicLong();
+    private final PrintWriter out;
+    private final Thread writer;
+    private volatile boolean closed = false;
+
+    // the error reported by the request being handled on each thread, which
+    // is only set up while that request is passing through this log's filter
+    private static final ThreadLocal<Throwable[]> CURRENT_ERROR = new ThreadLocal<>();
+
+    /**
+     * Creates a log that appends to file, and starts its background writer.
+     *
+     * @param file     the file to append log lines to
+     * @param capacity the number of records the ring can hold, which is
+     *                 rounded up to a power of two
+     * @param policy   what to do when the ring is full
+     * @throws IOException if the file cannot be opened for appending
+     */
+    public AccessLog(Path file, int capacity, FullPolicy policy) throws IOException {
+        this(new PrintWriter(new BufferedWriter(Files.newBufferedWriter(file,
+                StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND, StandardOpenOption.WRITE))), capacity, policy);
+    }
+
+    /**
+     * Creates a log that writes to out, and starts its background writer.
+     *
+     * @param out      where log lines are written
+     * @param capacity the number of records the ring can hold, which is
+     *                 rounded up to a power of two
+     * @param policy   what to do when the ring is full
+     */
+    public AccessLog(PrintWriter out, int capacity, FullPolicy policy) {
+        if (capacity < 1 || capacity > (1 << 30))
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        int size = 1;
+        while (size < capacity)
+            size <<= 1;
+        this.records = new Record[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            records[i] = new Record();
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.policy = policy;
+        this.out = out;
+        this.writer = new Thread(this::writeRecords, "access-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Creates the log described by this program's system properties.
+     *
+     * @return the configured log, or null when logging is turned off
+     * @throws IOException if the configured file cannot be opened
+     * @throws IllegalArgumentException if any property has an invalid value
+     */
+    public static AccessLog createConfigured() throws IOException {
+        String file = System.getProperty(FILE_PROPERTY, DEFAULT_FILE).trim();
+        if (file.isEmpty() || file.equalsIgnoreCase("off"))
+            return null;
+        int capacity = DEFAULT_CAPACITY;
+        String value = System.getProperty(CAPACITY_PROPERTY);
+        if (value != null && !value.isBlank()) {
+            try {
+                capacity = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(CAPACITY_PROPERTY +
+                        " must be a positive integer, but was: " + value);
+            }
+        }
+        FullPolicy policy = FullPolicy.DROP;
+        value = System.getProperty(POLICY_PROPERTY);
+        if (value != null && !value.isBlank()) {
+            try {
+                policy = FullPolicy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(POLICY_PROPERTY +
+                        " must be drop or block, but was: " + value);
+            }
+        }
+        return new AccessLog(Path.of(file), capacity, policy);
+    }
+
+    /**
+     * Records that a request was answered. This never blocks under the DROP
+     * policy, and otherwise only blocks while the ring is full. Records
+     * logged after this log is closed are always dropped.
+     *
+     * @param timeMillis    when the request arrived, in epoch milliseconds
+     * @param method        the request's http method
+     * @param uri           the request's uri
+     * @param status        the status code of the response
+     * @param bytes         the number of body bytes sent in the response
+     * @param durationNanos how long the request took to answer
+     * @param error         the exception that interrupted this request, or
+     *                      null if there was none
+     * @return true if the record was logged, or false if it was dropped
+     */
+    public boolean log(long timeMillis, String method, String uri, int status, long bytes,
+            long durationNanos, Throwable error) {
+        if (closed) {
+            dropped.incrementAndGet(); // nothing will ever write this record
+            return false;
+        }
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long available = sequences.get(slot) - position;
+            if (available == 0) {
+                // the slot is free for this position, so try to claim it
+                if (tail.compareAndSet(position, position + 1))
+                    break;
+                position = tail.get();
+            } else if (available < 0) {
+                // the ring is full: the writer has not yet freed this slot
+                if (closed || policy == FullPolicy.DROP) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(this, IDLE_NANOS / 100);
+                position = tail.get();
+            } else
+                position = tail.get(); // another thread claimed this position
+        }
+        Record record = records[(int) position & mask];
+        record.timeMillis = timeMillis;
+        record.method = method;
+        record.uri = uri;
+        record.status = status;
+        record.bytes = bytes;
+        record.durationNanos = durationNanos;
+        record.error = error;
+        // publish the record, so that the writer can see every field above
+        sequences.set((int) position & mask, position + 1);
+        return true;
+    }
+
+    /**
+     * Returns the number of records that have been dropped because the ring
+     * was full.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Creates a filter that logs every exchange passing through it, along
+     * with any error that its handler reports through reportError.
+     *
+     * @return a filter to add to each HttpContext that should be logged
+     */
+    public Filter filter() {
+        return new Filter() {
+            @Override
+            public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+                long timeMillis = System.currentTimeMillis();
+                long startTime = System.nanoTime();
+                CountingOutputStream body = new CountingOutputStream(exchange.getResponseBody());
+                exchange.setStreams(null, body);
+                Throwable[] error = new Throwable[1];
+                CURRENT_ERROR.set(error);
+                try {
+                    chain.doFilter(exchange);
+                } finally {
+                    CURRENT_ERROR.remove();
+                    log(timeMillis, exchange.getRequestMethod(),
+                            exchange.getRequestURI().toString(), exchange.getResponseCode(),
+                            body.count, System.nanoTime() - startTime, error[0]);
+                }
+            }
+
+            @Override
+            public String description() {
+                return "Records every exchange in the access log";
+            }
+        };
+    }
+
+    /**
+     * Reports an error that interrupted the request being handled by the
+     * current thread. That error is written to the access log along with
+     * this request, or printed to standard error when the request is not
+     * being logged.
+     *
+     * @param error the exception that interrupted the current request
+     */
+    public static void reportError(Throwable error) {
+        Throwable[] current = CURRENT_ERROR.get();
+        if (current != null)
+            current[0] = error;
+        else
+            error.printStackTrace();
+    }
+
+    /**
+     * Writes every record that has already been logged, and then stops the
+     * background writer and closes the log file.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+    }
+
+    // the background writer's loop, which writes batches of records until
+    // this log is closed and every published record has been written
+    private void writeRecords() {
+        long reportedDrops = 0;
+        while (true) {
+            boolean closing = closed; // read before draining, so none are missed
+            int written = 0;
+            while (written < BATCH_SIZE && writeNextRecord())
+                written++;
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                out.printf("%s dropped %d access log records%n", Instant.now(),
+                        drops - reportedDrops);
+                reportedDrops = drops;
+            }
+            if (written < BATCH_SIZE) {
+                out.flush(); // the ring is empty, so write this batch out
+                if (closing)
+                    return;
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+        }
+    }
+
+    // writes the record at head when it has been published
+    private boolean writeNextRecord() {
+        int slot = (int) head & mask;
+        if (sequences.get(slot) != head + 1)
+            return false;
+        Record record = records[slot];
+        out.print(Instant.ofEpochMilli(record.timeMillis));
+        out.print(' ');
+        out.print(record.method);
+        out.print(' ');
+        out.print(record.uri);
+        out.print(' ');
+        out.print(record.status);
+        out.print(' ');
+        out.print(record.bytes);
+        out.print("B ");
+        out.printf(Locale.ROOT, "%.3fms%n", record.durationNanos / 1e6);
+        if (record.error != null)
+            record.error.printStackTrace(out);
+        // release the references held by this record, then free its slot
+        record.method = null;
+        record.uri = null;
+        record.error = null;
+        sequences.set(slot, head + mask + 1);
+        head++;
+        return true;
+    }
+
+    // counts the bytes written through it into a response body
+    private static class CountingOutputStream extends FilterOutputStream {
+        long count = 0;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
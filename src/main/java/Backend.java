@@ -2,8 +2,12 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.function.ObjIntConsumer;
 
 /**
  * The Backend class implements the BackendInterface and provides functionalities for managing a
@@ -13,6 +17,7 @@ import java.util.NoSuchElementException;
 public class Backend implements BackendInterface {
 
   private GraphADT<String, Double> graph; // Graph data structure storing locations as nodes and paths as weighted edges
+  private volatile long graphVersion = 0; // Incremented every time that new graph data is loaded
 
   /**
    * This method is a constructor which initializes the backend with a given graph.
@@ -32,6 +37,10 @@ public class Backend implements BackendInterface {
    */
   @Override
   public void loadGraphData(String filename) throws IOException {
+    // Collect the new data in a builder, sized for the graph that it replaces (which reloading the
+    // same file fits exactly), so that the graph can be filled in a single pass once it is read
+    GraphBuilder<String, Double> builder =
+        new GraphBuilder<>(graph.getNodeCount(), graph.getEdgeCount());
     // Remove all existing nodes in the graph before loading new data
     ArrayList<String> vertices = new ArrayList<>(graph.getAllNodes());
     for (String vertex : vertices) {
@@ -55,17 +64,44 @@ public class Backend implements BackendInterface {
         String target = restParts[0].trim().replaceAll("\"", "").replaceAll(";", "");
         // Extract the weight value, keeping only digits and decimal points
         double weight = Double.parseDouble(restParts[1].replaceAll("[^0-9.]", ""));
-        // Ensure both nodes exist before adding the edge
-        if (!graph.containsNode(source)) {
-          graph.insertNode(source);
-        }
-        if (!graph.containsNode(target)) {
-          graph.insertNode(target);
-        }
-        // Add the edge between the nodes
-        graph.insertEdge(source, target, weight);
+        // Add the edge between the nodes, which also adds any node that is new
+        builder.addEdge(source, target, weight);
       }
     }
+    builder.buildInto(graph);
+    // Let anything computed from the previous graph data know that it is stale
+    graphVersion++;
+  }
+
+  /**
+   * Returns a number identifying the graph data that is currently loaded, which increases every
+   * time that loadGraphData loads new data.
+   *
+   * @return the version of the currently loaded graph data
+   */
+  @Override
+  public long getGraphVersion() {
+    return graphVersion;
+  }
+
+  /**
+   * Returns the number of locations (nodes) in the currently loaded graph.
+   *
+   * @return the number of locations
+   */
+  @Override
+  public int getNodeCount() {
+    return graph.getNodeCount();
+  }
+
+  /**
+   * Returns the number of paths (directed edges) in the currently loaded graph.
+   *
+   * @return the number of paths between locations
+   */
+  @Override
+  public int getEdgeCount() {
+    return graph.getEdgeCount();
   }
 
   /**
@@ -110,25 +146,29 @@ public class Backend implements BackendInterface {
    */
   @Override
   public List<Double> findTimesOnShortestPath(String startLocation, String endLocation) {
-    // First get the list of locations on the shortest path
-    List<String> shortestPath = findLocationsOnShortestPath(startLocation, endLocation);
-    // Initialize the list to store walking times between consecutive locations
-    List<Double> timesOnShortestPath = new ArrayList<>();
-    // If no path exists, return the empty list immediately
-    if (shortestPath.isEmpty()) {
-      return timesOnShortestPath;
-    }
-    // Iterate through adjacent pairs of locations in the path
-    for (int i = 0; i < shortestPath.size() - 1; i++) {
-      try {
-        // Get the edge weight (walking time) between current location and the next one
-        timesOnShortestPath.add(graph.getEdge(shortestPath.get(i), shortestPath.get(i + 1)));
-        // If there's any error getting the edge, return an empty list
-      } catch (NoSuchElementException e) {
-        return new ArrayList<>();
-      }
+    try {
+      // The path found by one search already holds the time of each step along it
+      return findShortestPath(startLocation, endLocation).getWeights();
+    } catch (NoSuchElementException e) {
+      // If no path exists or locations are invalid, return an empty list
+      return new ArrayList<>();
     }
-    return timesOnShortestPath;
+  }
+
+  /**
+   * Returns the shortest path from startLocation to endLocation, with the walking time between
+   * each two locations along it, all read from a single search.
+   *
+   * @param startLocation the start location of the path
+   * @param endLocation   the end location of the path
+   * @return the shortest path from startLocation to endLocation
+   * @throws NoSuchElementException if either location does not exist, or if there is no path
+   *                                between them
+   */
+  @Override
+  public ShortestPath<String> findShortestPath(String startLocation, String endLocation)
+      throws NoSuchElementException {
+    return graph.shortestPath(startLocation, endLocation);
   }
 
   /**
@@ -143,38 +183,140 @@ public class Backend implements BackendInterface {
    */
   @Override
   public String getFurthestDestinationFrom(String startLocation) throws NoSuchElementException {
+    // The destination is the last location along the path to it
+    List<String> path = findPathToFurthestDestinationFrom(startLocation);
+    return path.get(path.size() - 1);
+  }
+
+  /**
+   * Returns the sequence of locations along the shortest path from startLocation to the most
+   * distant location that can be reached from it. Both come from the tree of shortest paths that
+   * is computed by a single search from startLocation.
+   *
+   * @param startLocation the location to find the most distant location from
+   * @return a list that begins with startLocation and ends with the most distant location
+   * @throws NoSuchElementException if startLocation does not exist, or if there are no other
+   *                                locations that can be reached from there
+   */
+  @Override
+  public List<String> findPathToFurthestDestinationFrom(String startLocation)
+      throws NoSuchElementException {
+    return findShortestPathToFurthestDestinationFrom(startLocation).getNodes();
+  }
+
+  /**
+   * Returns the shortest path from startLocation to the most distant location that can be reached
+   * from it, with the walking time between each of its locations. The destination, the path and
+   * those times all come from the tree of shortest paths that is computed by a single search from
+   * startLocation.
+   *
+   * @param startLocation the location to find the most distant location from
+   * @return the path that begins with startLocation and ends with the most distant location
+   * @throws NoSuchElementException if startLocation does not exist, or if there are no other
+   *                                locations that can be reached from there
+   */
+  @Override
+  public ShortestPath<String> findShortestPathToFurthestDestinationFrom(String startLocation)
+      throws NoSuchElementException {
     // Validate that the start location exists in the graph
     if(!graph.containsNode(startLocation)) {
       throw new NoSuchElementException("Start location does not exist");
     }
-    // Get all locations in the graph
-    List<String> allLocations = graph.getAllNodes();
+    // Find the cost of reaching every location with one search
+    ShortestPathTree<String> tree = graph.shortestPathTree(startLocation);
     // Variables to track the furthest location and its distance
     String furthest = null;
     double maxDistance = Double.NEGATIVE_INFINITY;
-    // Examine each location to find the furthest one
-    for (String location : allLocations) {
-      // Skip the start location itself
-      if (location.equals(startLocation)) {
+    // Examine each location in the same order as getListOfAllLocations, so
+    // ties are always broken in favor of the location listed first
+    for (String location : graph.getAllNodes()) {
+      // Skip the start location itself, and locations that can't be reached
+      if (location.equals(startLocation) || !tree.contains(location)) {
         continue;
       }
-      try {
-        // Calculate the shortest path cost (time) to this location
-        double distance = graph.shortestPathCost(startLocation, location);
-        // Update the furthest location if this one is more distant
-        if (distance > maxDistance) {
-          maxDistance = distance;
-          furthest = location;
-        }
-      } catch (NoSuchElementException e) {
-        // Skip locations that can't be reached from the start
-        continue;
+      double distance = tree.getCost(location);
+      // Update the furthest location if this one is more distant
+      if (distance > maxDistance) {
+        maxDistance = distance;
+        furthest = location;
       }
     }
     // If no reachable location was found, throw an exception
     if (furthest == null) {
       throw new NoSuchElementException("No locations can be reached from the start location");
     }
-    return furthest;
+    return tree.getShortestPathTo(furthest);
+  }
+
+  /**
+   * Returns the walking time in seconds along the shortest path for each of many (startLocation,
+   * endLocation) pairs. Pairs are grouped by their start location, so that every destination of
+   * each start location is answered by a single search.
+   *
+   * @param startLocations the start location of each pair
+   * @param endLocations   the end location of each pair
+   * @return the walking time of the shortest path for each pair, in the same order as the pairs,
+   * with Double.POSITIVE_INFINITY for any pair that has no such path
+   * @throws IllegalArgumentException if there are not the same number of start and end locations
+   */
+  @Override
+  public double[] findShortestPathCosts(List<String> startLocations, List<String> endLocations) {
+    if (startLocations.size() != endLocations.size()) {
+      throw new IllegalArgumentException("Expected the same number of start and end locations");
+    }
+    // Group the index of every pair by the pair's start location
+    Map<String, List<Integer>> pairsByStart = new LinkedHashMap<>();
+    for (int i = 0; i < startLocations.size(); i++) {
+      pairsByStart.computeIfAbsent(startLocations.get(i), start -> new ArrayList<>()).add(i);
+    }
+    double[] costs = new double[startLocations.size()];
+    Arrays.fill(costs, Double.POSITIVE_INFINITY);
+    // Then answer all of the destinations for each start with one search
+    for (Map.Entry<String, List<Integer>> group : pairsByStart.entrySet()) {
+      String start = group.getKey();
+      if (start == null || !graph.containsNode(start)) {
+        continue; // Pairs from unknown locations have no path
+      }
+      List<String> ends = new ArrayList<>(group.getValue().size());
+      for (int i : group.getValue()) {
+        ends.add(endLocations.get(i));
+      }
+      double[] groupCosts = graph.shortestPathCosts(start, ends);
+      for (int j = 0; j < groupCosts.length; j++) {
+        costs[group.getValue().get(j)] = groupCosts[j];
+      }
+    }
+    return costs;
+  }
+
+  /**
+   * Returns the walking time in seconds along the shortest path from every start location to
+   * every end location. Each row is answered by a single search from its start location, and the
+   * searches for different rows run in parallel.
+   *
+   * @param startLocations the start location of each row
+   * @param endLocations   the end location of each column
+   * @return the walking time of the shortest path from startLocations.get(i) to
+   * endLocations.get(j) in row i and column j, with Double.POSITIVE_INFINITY wherever there is no
+   * such path
+   */
+  @Override
+  public double[][] findShortestPathCostMatrix(List<String> startLocations,
+      List<String> endLocations) {
+    return graph.shortestPathCostMatrix(startLocations, endLocations);
+  }
+
+  /**
+   * Passes each row of the matrix that findShortestPathCostMatrix returns to rows, in order, as
+   * soon as it is ready.
+   *
+   * @param startLocations the start location of each row
+   * @param endLocations   the end location of each column
+   * @param rows           accepts each row along with the index of its start location
+   */
+  @Override
+  public void findShortestPathCostMatrix(List<String> startLocations, List<String> endLocations,
+      ObjIntConsumer<double[]> rows) {
+    graph.shortestPathCostMatrix(startLocations, endLocations, rows);
   }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 import java.io.IOException;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.ObjIntConsumer;
 
 /**
  * This is the interface that a backend developer will implement, so that
@@ -24,6 +25,26 @@ public interface BackendInterface {
    */
   public void loadGraphData(String filename) throws IOException;
 
+  /**
+   * Returns a number identifying the graph data that is currently loaded.
+   * This number increases every time that loadGraphData loads new data, so
+   * anything computed from an older version of the graph can be recognized.
+   * @return the version of the currently loaded graph data
+   */
+  public long getGraphVersion();
+
+  /**
+   * Returns the number of locations (nodes) in the currently loaded graph.
+   * @return the number of locations
+   */
+  public int getNodeCount();
+
+  /**
+   * Returns the number of paths (directed edges) in the currently loaded graph.
+   * @return the number of paths between locations
+   */
+  public int getEdgeCount();
+
   /**
    * Returns a list of all locations (node data) available in the graph.
    * @return list of all location names
@@ -52,6 +73,19 @@ public interface BackendInterface {
    */
   public List<Double> findTimesOnShortestPath(String startLocation, String endLocation);
 
+  /**
+   * Returns the shortest path from startLocation to endLocation: the locations
+   * along it, the walking time in seconds between each two of them, and the
+   * total walking time. All of these come from a single search.
+   * @param startLocation the start location of the path
+   * @param endLocation the end location of the path
+   * @return the shortest path from startLocation to endLocation
+   * @throws NoSuchElementException if either location does not exist, or if
+   *         there is no path between them
+   */
+  public ShortestPath<String> findShortestPath(String startLocation, String endLocation)
+    throws NoSuchElementException;
+
   /**
    * Returns the most distant location (the one that takes the longest time to 
    * reach) when comparing all shortest paths that begin from the provided 
@@ -64,4 +98,73 @@ public interface BackendInterface {
    */
   public String getFurthestDestinationFrom(String startLocation) throws NoSuchElementException;
 
+  /**
+   * Returns the sequence of locations along the shortest path from 
+   * startLocation to the most distant location that can be reached from it,
+   * which is the same location that getFurthestDestinationFrom returns.
+   * Both the destination and this path are found by a single search.
+   * @param startLocation the location to find the most distant location from
+   * @return a list that begins with startLocation and ends with the most 
+   *         distant location
+   * @throws NoSuchElementException if startLocation does not exist, or if
+   *         there are no other locations that can be reached from there
+   */
+  public List<String> findPathToFurthestDestinationFrom(String startLocation)
+    throws NoSuchElementException;
+
+  /**
+   * Returns the shortest path from startLocation to the most distant
+   * location that can be reached from it, which is the same path that
+   * findPathToFurthestDestinationFrom lists, along with the walking time
+   * between each of its locations.  All of these are found by a single search.
+   * @param startLocation the location to find the most distant location from
+   * @return the path that begins with startLocation and ends with the most 
+   *         distant location
+   * @throws NoSuchElementException if startLocation does not exist, or if
+   *         there are no other locations that can be reached from there
+   */
+  public ShortestPath<String> findShortestPathToFurthestDestinationFrom(String startLocation)
+    throws NoSuchElementException;
+
+  /**
+   * Returns the walking time in seconds along the shortest path for each of
+   * many (startLocation, endLocation) pairs: the pair at index i is made of
+   * startLocations.get(i) and endLocations.get(i).  Pairs that share a start
+   * location are all answered by a single search from that location.
+   * @param startLocations the start location of each pair
+   * @param endLocations the end location of each pair
+   * @return the walking time of the shortest path for each pair, in the same
+   *         order as the pairs, with Double.POSITIVE_INFINITY for any pair 
+   *         that has no such path
+   * @throws IllegalArgumentException if there are not the same number of 
+   *         start and end locations
+   */
+  public double[] findShortestPathCosts(List<String> startLocations, List<String> endLocations);
+
+  /**
+   * Returns the walking time in seconds along the shortest path from every 
+   * one of startLocations to every one of endLocations, with one row for 
+   * each start location and one column for each end location.  Each row is 
+   * answered by a single search from its start location.
+   * @param startLocations the start location of each row
+   * @param endLocations the end location of each column
+   * @return the walking time of the shortest path from startLocations.get(i)
+   *         to endLocations.get(j) in row i and column j, with 
+   *         Double.POSITIVE_INFINITY wherever there is no such path
+   */
+  public double[][] findShortestPathCostMatrix(List<String> startLocations,
+    List<String> endLocations);
+
+  /**
+   * Computes the same walking times as findShortestPathCostMatrix, but passes
+   * each row to rows as soon as it is ready, in order, rather than returning
+   * the whole matrix at once.  This suits matrices too large to hold in 
+   * memory.
+   * @param startLocations the start location of each row
+   * @param endLocations the end location of each column
+   * @param rows accepts each row along with the index of its start location
+   */
+  public void findShortestPathCostMatrix(List<String> startLocations,
+    List<String> endLocations, ObjIntConsumer<double[]> rows);
+
 }
\ No newline at end of file
@@ -1,5 +1,5 @@
+import java.util.ArrayList;
 import java.util.List;
-import java.util.LinkedList;
 import java.util.NoSuchElementException;
 
 /**
@@ -8,11 +8,16 @@ import java.util.NoSuchElementException;
  */
 public class BaseGraph<NodeType, EdgeType extends Number> {
 
-    // Each node contains unique data along with two lists of directed edges
+    // Each node contains unique data along with two lists of directed edges,
+    // which are kept in arrays, so that removing an edge can move the last
+    // edge in each list into its slot
     protected class Node {
         public NodeType data;
-        public List<Edge> edgesLeaving = new LinkedList<>();
-        public List<Edge> edgesEntering = new LinkedList<>();
+        public List<Edge> edgesLeaving = new ArrayList<>();
+        public List<Edge> edgesEntering = new ArrayList<>();
+        // this node's position within nodesByIndex, which can change when
+        // another node is removed
+        public int index;
 
         public Node(NodeType data) {
             this.data = data;
@@ -21,12 +26,22 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
 
     // Nodes can be retrieved from this map by their unique data
     protected MapADT<NodeType, Node> nodes = null;
+    // And from this list by their index, which numbers the nodes 0 through
+    // getNodeCount() - 1, so that searches can keep per node state in arrays
+    protected List<Node> nodesByIndex = new ArrayList<>();
+    // The index of each node's data, which is also the id that callers can
+    // refer to that node by
+    protected NodeDictionary<NodeType> ids = new NodeDictionary<>();
 
     // Each edge contains data/weight, and two nodes that it connects
     protected class Edge {
         public EdgeType data; // the weight or cost of this edge
         public Node predecessor;
         public Node successor;
+        // this edge's positions within predecessor.edgesLeaving and within
+        // successor.edgesEntering, which can change when another is removed
+        public int leavingSlot;
+        public int enteringSlot;
 
         public Edge(EdgeType data, Node pred, Node succ) {
             this.data = data;
@@ -36,7 +51,13 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
     }
 
     protected int edgeCount = 0;
-    // Edges can be retrieved through the edge lists in either connected node
+    // Edges can be retrieved through the edge lists in either connected node,
+    // and from this index by the ids of both nodes, unless it is disabled
+    protected EdgeIndex<Edge> edgeIndex = new EdgeIndex<>();
+
+    // Incremented by every change to the nodes, edges or weights of this
+    // graph, so that data precomputed from the graph can tell when it is stale
+    protected long modificationCount = 0;
 
     /**
      * Constructor for BaseGraph that provides the map the graph uses.
@@ -57,9 +78,14 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
      * @throws NullPointerException if data is null
      */
     public boolean insertNode(NodeType data) {
-        if (nodes.containsKey(data))
-            return false; // throws NPE when data's null
-        nodes.put(data, new Node(data));
+        int id = ids.add(data); // throws NPE when data's null
+        if (id < nodesByIndex.size())
+            return false;
+        Node newNode = new Node(data);
+        newNode.index = id;
+        nodes.put(data, newNode);
+        nodesByIndex.add(newNode);
+        modificationCount++;
         return true;
     }
 
@@ -74,18 +100,104 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
      */
     public boolean removeNode(NodeType data) {
         // remove this node from nodes collection
-        if (!nodes.containsKey(data))
-            return false; // throws NPE when data==null
-        Node oldNode = nodes.remove(data);
-        // remove all edges entering neighboring nodes from this one
-        for (Edge edge : oldNode.edgesLeaving)
-            edge.successor.edgesEntering.remove(edge);
+        int id = ids.remove(data); // throws NPE when data==null
+        if (id < 0)
+            return false;
+        Node oldNode = nodesByIndex.get(id);
+        nodes.remove(data);
+        // remove all edges entering neighboring nodes from this one (which
+        // includes any edge from this node to itself)
+        for (Edge edge : oldNode.edgesLeaving) {
+            unlinkEntering(edge);
+            if (edgeIndex != null)
+                edgeIndex.remove(edge.predecessor.index, edge.successor.index);
+            edgeCount--;
+        }
         // remove all edges leaving neighboring nodes toward this one
-        for (Edge edge : oldNode.edgesEntering)
-            edge.predecessor.edgesLeaving.remove(edge);
+        for (Edge edge : oldNode.edgesEntering) {
+            unlinkLeaving(edge);
+            if (edgeIndex != null)
+                edgeIndex.remove(edge.predecessor.index, edge.successor.index);
+            edgeCount--;
+        }
+        // keep indexes contiguous by moving the last node into this one's,
+        // just like ids did, and index its edges under its new index
+        Node lastNode = nodesByIndex.remove(nodesByIndex.size() - 1);
+        if (lastNode != oldNode) {
+            setEdgesIndexed(lastNode, false);
+            lastNode.index = oldNode.index;
+            nodesByIndex.set(lastNode.index, lastNode);
+            setEdgesIndexed(lastNode, true);
+        }
+        modificationCount++;
         return true;
     }
 
+    // adds or removes every edge to or from node in the edge index
+    private void setEdgesIndexed(Node node, boolean indexed) {
+        if (edgeIndex == null)
+            return;
+        for (List<Edge> edges : List.of(node.edgesLeaving, node.edgesEntering)) {
+            for (Edge edge : edges) {
+                if (indexed)
+                    edgeIndex.put(edge.predecessor.index, edge.successor.index, edge);
+                else
+                    edgeIndex.remove(edge.predecessor.index, edge.successor.index);
+            }
+        }
+    }
+
+    // removes edge from its predecessor's leaving edges, in constant time,
+    // by moving the last of those edges into its slot
+    private void unlinkLeaving(Edge edge) {
+        List<Edge> edges = edge.predecessor.edgesLeaving;
+        Edge last = edges.remove(edges.size() - 1);
+        if (last != edge) {
+            last.leavingSlot = edge.leavingSlot;
+            edges.set(last.leavingSlot, last);
+        }
+    }
+
+    // removes edge from its successor's entering edges, in constant time,
+    // by moving the last of those edges into its slot
+    private void unlinkEntering(Edge edge) {
+        List<Edge> edges = edge.successor.edgesEntering;
+        Edge last = edges.remove(edges.size() - 1);
+        if (last != edge) {
+            last.enteringSlot = edge.enteringSlot;
+            edges.set(last.enteringSlot, last);
+        }
+    }
+
+    /**
+     * Turns the index that finds each edge by the ids of its nodes on or off.
+     * With the index on, which it is for new graphs, finding, inserting and
+     * removing an edge take expected constant time. With it off, they scan
+     * the shorter of the predecessor's leaving and the successor's entering
+     * edges instead, which saves the memory of the index.
+     *
+     * @param enabled whether edges should be indexed
+     */
+    public void setEdgeIndexEnabled(boolean enabled) {
+        if (!enabled) {
+            edgeIndex = null;
+        } else if (edgeIndex == null) {
+            edgeIndex = new EdgeIndex<>(edgeCount);
+            for (Node node : nodesByIndex)
+                for (Edge edge : node.edgesLeaving)
+                    edgeIndex.put(node.index, edge.successor.index, edge);
+        }
+    }
+
+    /**
+     * Checks whether edges are indexed by the ids of their nodes.
+     *
+     * @return true when the edge index is on
+     */
+    public boolean isEdgeIndexEnabled() {
+        return edgeIndex != null;
+    }
+
     /**
      * Check whether the graph contains a node with the provided data.
      * 
@@ -94,7 +206,35 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
      *         false otherwise
      */
     public boolean containsNode(NodeType data) {
-        return nodes.containsKey(data);
+        return ids.getId(data) >= 0;
+    }
+
+    /**
+     * Returns the id of the node containing data: a number from 0 through
+     * getNodeCount() - 1 that the ById methods accept in place of that data.
+     * Ids do not change until a node is removed, which moves the node with
+     * the highest id into the removed node's id.
+     *
+     * @param data the data item contained in the node
+     * @return the id of that node
+     * @throws NoSuchElementException if no node contains data
+     */
+    public int getNodeId(NodeType data) {
+        int id = ids.getId(data);
+        if (id < 0)
+            throw new NoSuchElementException("No node contains " + data);
+        return id;
+    }
+
+    /**
+     * Returns the data contained in the node with an id.
+     *
+     * @param id the id of the node
+     * @return the data contained in that node
+     * @throws NoSuchElementException if no node has that id
+     */
+    public NodeType getNodeData(int id) {
+        return ids.getData(id);
     }
 
     /**
@@ -128,22 +268,46 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
      */
     public boolean insertEdge(NodeType pred, NodeType succ, EdgeType weight) {
         // find nodes associated with node data, and return false when not found
-        Node predNode = nodes.get(pred);
-        Node succNode = nodes.get(succ);
-        if (predNode == null || succNode == null)
+        int predId = ids.getId(pred);
+        int succId = ids.getId(succ);
+        if (predId < 0 || succId < 0)
             return false;
-        try {
+        return insertEdgeById(predId, succId, weight);
+    }
+
+    /**
+     * Insert a new directed edge between the nodes with two ids, or update
+     * the weight of the edge between them, exactly like insertEdge.
+     *
+     * @param predId is the id of the new edge's predecessor node
+     * @param succId is the id of the new edge's successor node
+     * @param weight is the non-negative data item stored in the new edge
+     * @return true if the edge could be inserted or updated, or
+     *         false if no nodes have those ids
+     */
+    public boolean insertEdgeById(int predId, int succId, EdgeType weight) {
+        if (predId < 0 || predId >= nodesByIndex.size() || succId < 0
+                || succId >= nodesByIndex.size())
+            return false;
+        Node predNode = nodesByIndex.get(predId);
+        Node succNode = nodesByIndex.get(succId);
+        Edge existingEdge = findEdge(predNode, succNode);
+        if (existingEdge != null) {
             // when an edge alread exists within the graph, update its weight
-            Edge existingEdge = getEdgeHelper(pred, succ);
             existingEdge.data = weight;
-        } catch (NoSuchElementException e) {
+        } else {
             // otherwise create a new edges
             Edge newEdge = new Edge(weight, predNode, succNode);
             this.edgeCount++;
-            // and insert it into each of its adjacent nodes' respective lists
+            // and insert it at the end of its adjacent nodes' respective lists
+            newEdge.leavingSlot = predNode.edgesLeaving.size();
             predNode.edgesLeaving.add(newEdge);
+            newEdge.enteringSlot = succNode.edgesEntering.size();
             succNode.edgesEntering.add(newEdge);
+            if (edgeIndex != null)
+                edgeIndex.put(predId, succId, newEdge);
         }
+        modificationCount++;
         return true;
     }
 
@@ -156,19 +320,19 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
      *         false if such an edge is not found in the graph
      */
     public boolean removeEdge(NodeType pred, NodeType succ) {
-        try {
-            // when an edge exists
-            Edge oldEdge = getEdgeHelper(pred, succ);
-            // remove it from the edge lists of each adjacent node
-            oldEdge.predecessor.edgesLeaving.remove(oldEdge);
-            oldEdge.successor.edgesEntering.remove(oldEdge);
-            // and decrement the edge count before removing
-            this.edgeCount--;
-            return true;
-        } catch (NoSuchElementException e) {
-            // when no such edge exists, return false instead
+        Edge oldEdge = findEdge(pred, succ);
+        // when no such edge exists, return false
+        if (oldEdge == null)
             return false;
-        }
+        // otherwise remove it from the edge lists of each adjacent node
+        unlinkLeaving(oldEdge);
+        unlinkEntering(oldEdge);
+        if (edgeIndex != null)
+            edgeIndex.remove(oldEdge.predecessor.index, oldEdge.successor.index);
+        // and decrement the edge count before removing
+        this.edgeCount--;
+        modificationCount++;
+        return true;
     }
 
     /**
@@ -179,12 +343,7 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
      * @return true if the edge is found in the graph, or false other
      */
     public boolean containsEdge(NodeType pred, NodeType succ) {
-        try {
-            getEdgeHelper(pred, succ);
-            return true;
-        } catch (NoSuchElementException e) {
-            return false;
-        }
+        return findEdge(pred, succ) != null;
     }
 
     /**
@@ -200,16 +359,165 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         return getEdgeHelper(pred, succ).data;
     }
 
+    /**
+     * Check if there is an edge between the nodes with two ids.
+     *
+     * @param predId the id of the source node for the edge
+     * @param succId the id of the target node for the edge
+     * @return true if the edge is found in the graph, or false otherwise
+     */
+    public boolean containsEdgeById(int predId, int succId) {
+        if (predId < 0 || predId >= nodesByIndex.size() || succId < 0
+                || succId >= nodesByIndex.size())
+            return false;
+        return findEdge(nodesByIndex.get(predId), nodesByIndex.get(succId)) != null;
+    }
+
+    /**
+     * Return the data associated with the edge between the nodes with two
+     * ids.
+     *
+     * @param predId the id of the source node for the edge
+     * @param succId the id of the target node for the edge
+     * @return the non-negative data from the edge between those nodes
+     * @throws NoSuchElementException if either node or the edge between them
+     *                                are not found within this graph
+     */
+    public EdgeType getEdgeById(int predId, int succId) {
+        if (predId < 0 || predId >= nodesByIndex.size())
+            throw new NoSuchElementException("No node has id " + predId);
+        if (succId < 0 || succId >= nodesByIndex.size())
+            throw new NoSuchElementException("No node has id " + succId);
+        return getEdgeHelper(nodesByIndex.get(predId), nodesByIndex.get(succId)).data;
+    }
+
     protected Edge getEdgeHelper(NodeType pred, NodeType succ) {
-        Node predNode = nodes.get(pred);
-        // search for edge through the predecessor's list of leaving edges
-        for (Edge edge : predNode.edgesLeaving)
-            // compare succ to the data in each leaving edge's successor
-            if (edge.successor.data.equals(succ))
-                return edge;
+        int predId = ids.getId(pred);
+        int succId = ids.getId(succ);
+        if (predId < 0 || succId < 0)
+            throw new NoSuchElementException("No edge from " + pred.toString() + " to " +
+                    succ.toString());
+        return getEdgeHelper(nodesByIndex.get(predId), nodesByIndex.get(succId));
+    }
+
+    // the edge from the node containing pred to the node containing succ, or
+    // null when either node or the edge between them is not in this graph
+    private Edge findEdge(NodeType pred, NodeType succ) {
+        int predId = ids.getId(pred);
+        int succId = ids.getId(succ);
+        if (predId < 0 || succId < 0)
+            return null;
+        return findEdge(nodesByIndex.get(predId), nodesByIndex.get(succId));
+    }
+
+    protected Edge getEdgeHelper(Node predNode, Node succNode) {
+        Edge edge = findEdge(predNode, succNode);
         // when no such edge can be found, throw NSE
-        throw new NoSuchElementException("No edge from " + pred.toString() + " to " +
-                succ.toString());
+        if (edge == null)
+            throw new NoSuchElementException("No edge from " + predNode.data.toString() +
+                    " to " + succNode.data.toString());
+        return edge;
+    }
+
+    /**
+     * Finds the edge from predNode to succNode, through the edge index, or
+     * else through the shorter of predNode's leaving edges and succNode's
+     * entering edges.
+     *
+     * @param predNode the source node for the edge
+     * @param succNode the target node for the edge
+     * @return the edge between those nodes, or null when there is none
+     */
+    protected Edge findEdge(Node predNode, Node succNode) {
+        if (edgeIndex != null)
+            return edgeIndex.get(predNode.index, succNode.index);
+        if (predNode.edgesLeaving.size() <= succNode.edgesEntering.size()) {
+            for (Edge edge : predNode.edgesLeaving)
+                if (edge.successor == succNode)
+                    return edge;
+        } else {
+            for (Edge edge : succNode.edgesEntering)
+                if (edge.predecessor == predNode)
+                    return edge;
+        }
+        return null;
+    }
+
+    /**
+     * Fills this graph, which must be empty, with the nodes that ids numbers
+     * and an edge from preds[i] to succs[i] weighing weights[i] for each i
+     * below edgeCount, in a single pass that never looks up a node or an
+     * edge. This is how GraphBuilder builds graphs, after it has removed any
+     * duplicate edges. This graph keeps ids as its own dictionary of nodes.
+     *
+     * @param ids       the data of each node, by id
+     * @param preds     the id of each edge's predecessor node
+     * @param succs     the id of each edge's successor node
+     * @param weights   the weight of each edge
+     * @param edgeCount the number of edges in those arrays
+     * @throws IllegalStateException if this graph is not empty
+     */
+    @SuppressWarnings("unchecked")
+    void load(NodeDictionary<NodeType> ids, int[] preds, int[] succs, Object[] weights,
+            int edgeCount) {
+        if (!nodesByIndex.isEmpty())
+            throw new IllegalStateException("Only empty graphs can be loaded");
+        int count = ids.size();
+        // size every list and table for exactly the nodes and edges it gets
+        int[] leavingCounts = new int[count];
+        int[] enteringCounts = new int[count];
+        for (int i = 0; i < edgeCount; i++) {
+            leavingCounts[preds[i]]++;
+            enteringCounts[succs[i]]++;
+        }
+        if (nodes instanceof HashtableMap)
+            ((HashtableMap<NodeType, Node>) nodes).ensureCapacity(count);
+        this.ids = ids;
+        nodesByIndex = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            Node node = new Node(ids.getData(id));
+            node.index = id;
+            node.edgesLeaving = new ArrayList<>(leavingCounts[id]);
+            node.edgesEntering = new ArrayList<>(enteringCounts[id]);
+            nodes.put(node.data, node);
+            nodesByIndex.add(node);
+        }
+        if (edgeIndex != null)
+            edgeIndex = new EdgeIndex<>(edgeCount);
+        for (int i = 0; i < edgeCount; i++) {
+            Node predNode = nodesByIndex.get(preds[i]);
+            Node succNode = nodesByIndex.get(succs[i]);
+            Edge edge = new Edge((EdgeType) weights[i], predNode, succNode);
+            edge.leavingSlot = predNode.edgesLeaving.size();
+            predNode.edgesLeaving.add(edge);
+            edge.enteringSlot = succNode.edgesEntering.size();
+            succNode.edgesEntering.add(edge);
+            if (edgeIndex != null)
+                edgeIndex.put(preds[i], succs[i], edge);
+        }
+        this.edgeCount = edgeCount;
+        modificationCount++;
+    }
+
+    /**
+     * Creates an immutable snapshot of the nodes and edges in this graph, with
+     * its edges packed into primitive arrays for faster searches. Changes that
+     * are made to this graph afterwards do not affect the snapshot.
+     *
+     * @return a snapshot of this graph as it is now
+     */
+    public CompressedGraph<NodeType> freeze() {
+        return new CompressedGraph<>(this);
+    }
+
+    /**
+     * Returns a number that changes whenever a node or edge is inserted,
+     * removed or updated within this graph.
+     *
+     * @return the number of modifications made to this graph
+     */
+    public long getModificationCount() {
+        return modificationCount;
     }
 
     /**
@@ -0,0 +1,107 @@
+import java.util.NoSuchElementException;
+
+/**
+ * This class answers point to point shortest path queries (shortestPathData
+ * and shortestPathCost) with a bidirectional Dijkstra search. A forward
+ * search from the start follows each node's edgesLeaving, while a backward
+ * search from the end follows each node's edgesEntering, and they take turns
+ * expanding whichever frontier is currently closer to its own origin. Once
+ * the two frontiers together are at least as far apart as the best path
+ * found through any node that both searches have reached, that path must be
+ * the shortest one. Each search then only explores about half the radius of
+ * a single search, which settles far fewer nodes on large graphs.
+ *
+ * Every other query (like shortestPathTree) is inherited from DijkstraGraph.
+ */
+public class BidirectionalDijkstraGraph<NodeType, EdgeType extends Number>
+    extends DijkstraGraph<NodeType, EdgeType> {
+
+  /**
+   * This helper method computes the shortest path from start to end with a
+   * bidirectional search, and returns the SearchNode at the end of that
+   * path, exactly like DijkstraGraph.computeShortestPathById. The costs of
+   * that path are summed forward from start along the edge weights that each
+   * search recorded, so they are equal to the costs that a forward search
+   * along the same path would find.
+   *
+   * @param start the id of the starting node for the path
+   * @param end   the id of the destination node for the path
+   * @return SearchNode for the final end node within the shortest path
+   * @throws NoSuchElementException when no path from start to end is found
+   */
+  @Override
+  protected SearchNode computeShortestPathById(int start, int end) {
+    // The lowest cost found so far from start to each node, the node before it and the weight of
+    // the edge from there, and the same for the cost from each node to end, the node after it and
+    // the weight of the edge to there, all in this thread's reused workspaces
+    SearchWorkspace forward = getWorkspace();
+    SearchWorkspace backward = getBackwardWorkspace();
+    IndexedDaryHeap forwardHeap = forward.getHeap();
+    IndexedDaryHeap backwardHeap = backward.getHeap();
+    forward.reach(start, 0.0, -1, 0.0);
+    forwardHeap.push(start, 0.0);
+    backward.reach(end, 0.0, -1, 0.0);
+    backwardHeap.push(end, 0.0);
+    // The cost of the best path found through a node reached by both searches
+    double best = start == end ? 0.0 : Double.POSITIVE_INFINITY;
+    int meeting = start == end ? start : -1;
+
+    while (true) {
+      double forwardMin = forwardHeap.isEmpty() ? Double.POSITIVE_INFINITY
+          : forward.getCost(forwardHeap.peek());
+      double backwardMin = backwardHeap.isEmpty() ? Double.POSITIVE_INFINITY
+          : backward.getCost(backwardHeap.peek());
+      // Any shorter path would have to leave both frontiers, so it costs at
+      // least forwardMin + backwardMin
+      if (forwardMin + backwardMin >= best) {
+        break;
+      }
+      if (forwardMin <= backwardMin) {
+        Node current = nodesByIndex.get(forwardHeap.pop());
+        for (Edge edge : current.edgesLeaving) {
+          int neighbor = edge.successor.index;
+          double weight = edge.data.doubleValue();
+          double newCost = forwardMin + weight;
+          if (newCost < forward.getCost(neighbor)) {
+            forward.reach(neighbor, newCost, current.index, weight);
+            forwardHeap.push(neighbor, newCost);
+            if (newCost + backward.getCost(neighbor) < best) {
+              best = newCost + backward.getCost(neighbor);
+              meeting = neighbor;
+            }
+          }
+        }
+      } else {
+        Node current = nodesByIndex.get(backwardHeap.pop());
+        for (Edge edge : current.edgesEntering) {
+          int neighbor = edge.predecessor.index;
+          double weight = edge.data.doubleValue();
+          double newCost = backwardMin + weight;
+          if (newCost < backward.getCost(neighbor)) {
+            backward.reach(neighbor, newCost, current.index, weight);
+            backwardHeap.push(neighbor, newCost);
+            if (forward.getCost(neighbor) + newCost < best) {
+              best = forward.getCost(neighbor) + newCost;
+              meeting = neighbor;
+            }
+          }
+        }
+      }
+    }
+    if (meeting < 0) {
+      throw new NoSuchElementException("No path found between the start and end nodes.");
+    }
+
+    // The forward search found the path to the meeting node, with its costs summed from start.
+    // Continue it along the backward path from there, summing the costs forward from start as a
+    // forward search along the same edges would.
+    SearchNode current = createSearchNodes(nodesByIndex.get(meeting), forward);
+    for (int index = meeting; backward.getPredecessor(index) >= 0;
+        index = backward.getPredecessor(index)) {
+      double weight = backward.getWeight(index);
+      current = new SearchNode(nodesByIndex.get(backward.getPredecessor(index)),
+          current.cost + weight, current, weight);
+    }
+    return current;
+  }
+}
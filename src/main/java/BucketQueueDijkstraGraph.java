@@ -0,0 +1,265 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This class answers point to point shortest path queries (shortestPathData
+ * and shortestPathCost) with Dial's algorithm: rather than a comparison based
+ * heap, the frontier of the search is kept in a circular array of buckets,
+ * where the bucket of a node with cost c is floor(c / resolution). Adding a
+ * node to a bucket, moving it to another one, and taking the next node from
+ * the lowest non-empty bucket all take constant time, which suits graphs whose
+ * weights, like walking times in seconds, are small positive numbers.
+ *
+ * Costs are never rounded: each node keeps its exact cost, and only the order
+ * in which nodes are taken from the frontier is quantized. Nodes that share a
+ * bucket may be taken out of order, so a node whose cost is lowered after it
+ * was taken is put back into the frontier and taken again. This corrects any
+ * quantization error, so every cost found is exactly the cost DijkstraGraph
+ * finds. The search stops once the lowest non-empty bucket is past the bucket
+ * of the end, since every node left then costs more than the end.
+ *
+ * The circular array needs one bucket for each multiple of the resolution up
+ * to the largest weight in this graph. When that would be more than
+ * MAX_BUCKETS (or when any weight is negative or not finite), queries fall back
+ * to DijkstraGraph's heap instead. Every other query (like shortestPathTree)
+ * is inherited from DijkstraGraph.
+ */
+public class BucketQueueDijkstraGraph<NodeType, EdgeType extends Number>
+    extends DijkstraGraph<NodeType, EdgeType> {
+
+  // Ten seconds, for weights that are walking times in seconds. Finer
+  // resolutions spend longer stepping through empty buckets than they save
+  // (see BucketQueueBenchmark), since few nodes ever share a bucket.
+  public static final double DEFAULT_RESOLUTION = 10.0;
+  public static final int MAX_BUCKETS = 1 << 16;
+
+  private final double resolution;
+  // the number of buckets needed for the current weights, or 0 when they
+  // do not fit, along with the modification count that was computed for
+  private volatile long bucketCountModification = -1;
+  private volatile int bucketCount = 0;
+  // the queue that each thread searches this graph with
+  private final ThreadLocal<DialQueue> queues = new ThreadLocal<>();
+
+  /**
+   * Creates an empty graph that quantizes costs to DEFAULT_RESOLUTION.
+   */
+  public BucketQueueDijkstraGraph() {
+    this(DEFAULT_RESOLUTION);
+  }
+
+  /**
+   * Creates an empty graph that quantizes costs to resolution. A finer
+   * resolution takes nodes out of order less often, but needs more buckets,
+   * which the search has to step through even when they are empty.
+   *
+   * @param resolution the range of costs that share a bucket, more than 0
+   */
+  public BucketQueueDijkstraGraph(double resolution) {
+    super();
+    if (!(resolution > 0.0) || Double.isInfinite(resolution)) {
+      throw new IllegalArgumentException("Resolution must be a positive number, but was "
+          + resolution);
+    }
+    this.resolution = resolution;
+  }
+
+  /**
+   * Returns the range of costs that share each bucket.
+   */
+  public double getResolution() {
+    return resolution;
+  }
+
+  /**
+   * Checks whether the weights of this graph fit into at most MAX_BUCKETS
+   * buckets, so that queries use the bucket queue rather than a heap.
+   *
+   * @return true when queries use the bucket queue
+   */
+  public boolean usesBuckets() {
+    return getBucketCount() > 0;
+  }
+
+  // the buckets that the circular array needs, or 0 when they are too many
+  private int getBucketCount() {
+    if (bucketCountModification != modificationCount) {
+      synchronized (this) {
+        if (bucketCountModification != modificationCount) {
+          double largest = 0.0;
+          boolean finite = true;
+          for (Node node : nodesByIndex) {
+            for (Edge edge : node.edgesLeaving) {
+              double weight = edge.data.doubleValue();
+              finite &= weight >= 0.0 && !Double.isInfinite(weight);
+              largest = Math.max(largest, weight);
+            }
+          }
+          // an edge can reach one bucket past its weight's, because of
+          // rounding in cost / resolution, and one more is kept for margin
+          double count = Math.floor(largest / resolution) + 3;
+          bucketCount = finite && count <= MAX_BUCKETS ? (int) count : 0;
+          bucketCountModification = modificationCount;
+        }
+      }
+    }
+    return bucketCount;
+  }
+
+  // Nodes waiting in a circular array of buckets, each a doubly linked list
+  // of node indexes. Like SearchWorkspace, everything is stamped with the
+  // generation of the search that set it, so emptying the queue is free.
+  private static class DialQueue {
+    final int[] heads; // the first index in each bucket
+    final int[] headStamps;
+    final int[] next; // the index after each index within its bucket
+    final int[] previous; // the index before each index, or -1 for heads
+    final long[] buckets; // the (unwrapped) bucket of each queued index
+    final int[] itemStamps;
+    int generation = 0;
+    int size = 0;
+    long current = 0; // no queued index is in a lower bucket
+
+    DialQueue(int capacity, int bucketCount) {
+      heads = new int[bucketCount];
+      headStamps = new int[bucketCount];
+      next = new int[capacity];
+      previous = new int[capacity];
+      buckets = new long[capacity];
+      itemStamps = new int[capacity];
+    }
+
+    void begin() {
+      generation++;
+      if (generation == 0) {
+        Arrays.fill(headStamps, 0);
+        Arrays.fill(itemStamps, 0);
+        generation = 1;
+      }
+      size = 0;
+      current = 0;
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    // puts index into bucket, taking it out of any bucket it is already in
+    void put(int index, long bucket) {
+      if (itemStamps[index] == generation) {
+        remove(index);
+      }
+      int slot = (int) (bucket % heads.length);
+      int head = headStamps[slot] == generation ? heads[slot] : -1;
+      next[index] = head;
+      previous[index] = -1;
+      if (head >= 0) {
+        previous[head] = index;
+      }
+      heads[slot] = index;
+      headStamps[slot] = generation;
+      buckets[index] = bucket;
+      itemStamps[index] = generation;
+      size++;
+    }
+
+    // moves current forward to the lowest non-empty bucket, and returns it
+    long lowestBucket() {
+      while (true) {
+        int slot = (int) (current % heads.length);
+        if (headStamps[slot] == generation && heads[slot] >= 0) {
+          return current;
+        }
+        current++;
+      }
+    }
+
+    // removes and returns an index from the lowest non-empty bucket
+    int pop() {
+      int index = heads[(int) (lowestBucket() % heads.length)];
+      remove(index);
+      return index;
+    }
+
+    private void remove(int index) {
+      int slot = (int) (buckets[index] % heads.length);
+      if (previous[index] >= 0) {
+        next[previous[index]] = next[index];
+      } else {
+        heads[slot] = next[index];
+      }
+      if (next[index] >= 0) {
+        previous[next[index]] = previous[index];
+      }
+      itemStamps[index] = 0;
+      size--;
+    }
+  }
+
+  // this thread's queue, emptied, with room for count indexes and buckets
+  private DialQueue getQueue(int count, int bucketCount) {
+    DialQueue queue = queues.get();
+    if (queue == null || queue.next.length < count || queue.heads.length != bucketCount) {
+      queue = new DialQueue(count, bucketCount);
+      queues.set(queue);
+    }
+    queue.begin();
+    return queue;
+  }
+
+  /**
+   * This helper method computes the shortest path from start to end with
+   * Dial's bucket queue, and returns the SearchNode at the end of that path,
+   * exactly like DijkstraGraph.computeShortestPathById. When the weights of
+   * this graph need more than MAX_BUCKETS buckets, it uses DijkstraGraph's
+   * heap.
+   *
+   * @param start the id of the starting node for the path
+   * @param end   the id of the destination node for the path
+   * @return SearchNode for the final end node within the shortest path
+   * @throws NoSuchElementException when no path from start to end is found
+   */
+  @Override
+  protected SearchNode computeShortestPathById(int start, int end) {
+    int bucketCount = getBucketCount();
+    if (bucketCount == 0) {
+      return super.computeShortestPathById(start, end);
+    }
+    SearchWorkspace workspace = getWorkspace();
+    DialQueue queue = getQueue(nodesByIndex.size(), bucketCount);
+    Node endNode = nodesByIndex.get(end);
+    int startIndex = start;
+    workspace.reach(startIndex, 0.0, -1, 0.0);
+    queue.put(startIndex, 0);
+    while (!queue.isEmpty()) {
+      // Once every node left is in a later bucket than the end, each costs
+      // more than the end, so none of them can lead to a cheaper path
+      if (workspace.isReached(endNode.index)
+          && queue.lowestBucket() > bucket(workspace.getCost(endNode.index))) {
+        break;
+      }
+      Node current = nodesByIndex.get(queue.pop());
+      double cost = workspace.getCost(current.index);
+      for (Edge edge : current.edgesLeaving) {
+        int neighbor = edge.successor.index;
+        double weight = edge.data.doubleValue();
+        double newCost = cost + weight;
+        // This also puts back nodes that were taken too early, within the
+        // same bucket as a node that turned out to be cheaper
+        if (newCost < workspace.getCost(neighbor)) {
+          workspace.reach(neighbor, newCost, current.index, weight);
+          queue.put(neighbor, bucket(newCost));
+        }
+      }
+    }
+    if (!workspace.isReached(endNode.index)) {
+      throw new NoSuchElementException("No path found between the start and end nodes.");
+    }
+    return createSearchNodes(endNode, workspace);
+  }
+
+  // the bucket for cost, which never decreases as cost increases
+  private long bucket(double cost) {
+    return (long) (cost / resolution);
+  }
+}
@@ -0,0 +1,186 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A CompressedGraph is an immutable snapshot of a BaseGraph, created by its
+ * freeze method (or directly by a GraphBuilder), that answers the same
+ * queries as DijkstraGraph. Rather than linked lists of Edge objects with
+ * boxed weights, its edges are kept in compressed sparse row (CSR) form: the
+ * edges leaving the node with index i are at positions offsets[i] through
+ * offsets[i + 1] - 1 of the targets and weights arrays, which hold the index
+ * of each edge's successor and its weight as a primitive double. The edges
+ * entering each node are kept the same way, in a reverse CSR with the index
+ * of each edge's predecessor.
+ *
+ * Nodes keep the indexes they had in the graph that was frozen, and edges
+ * keep the order of its edge lists, so every search settles nodes in exactly
+ * the same order as DijkstraGraph would, and finds exactly the same paths and
+ * costs. Like any SnapshotGraph, it can be shared by any number of threads,
+ * and every method that would modify it throws UnsupportedOperationException.
+ */
+public class CompressedGraph<NodeType> extends SnapshotGraph<NodeType> {
+
+    // every node's data, in the same order as the frozen graph's getAllNodes,
+    // or in the order of their ids when a GraphBuilder created this snapshot
+    private final List<NodeType> allNodes;
+    // the data of the node with each index, and the index of each node's data
+    private final NodeDictionary<NodeType> ids;
+    // the edges leaving each node: successor indexes and weights
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    // the edges entering each node: predecessor indexes and weights
+    private final int[] reverseOffsets;
+    private final int[] sources;
+    private final double[] reverseWeights;
+
+    /**
+     * Creates a snapshot of the nodes and edges that graph holds right now.
+     * Later changes to graph do not affect this snapshot.
+     *
+     * @param graph the graph to copy
+     */
+    CompressedGraph(BaseGraph<NodeType, ?> graph) {
+        super(createWorkspaces(graph.nodesByIndex.size()));
+        int count = graph.nodesByIndex.size();
+        int edgeCount = 0;
+        for (BaseGraph<NodeType, ?>.Node node : graph.nodesByIndex)
+            edgeCount += node.edgesLeaving.size();
+        allNodes = Collections.unmodifiableList(new ArrayList<>(graph.getAllNodes()));
+        ids = new NodeDictionary<>(graph.ids); // graph's ids are its nodes' indexes
+        offsets = new int[count + 1];
+        targets = new int[edgeCount];
+        weights = new double[edgeCount];
+        reverseOffsets = new int[count + 1];
+        sources = new int[edgeCount];
+        reverseWeights = new double[edgeCount];
+        int edge = 0;
+        int reverseEdge = 0;
+        for (BaseGraph<NodeType, ?>.Node node : graph.nodesByIndex) {
+            offsets[node.index] = edge;
+            for (BaseGraph<NodeType, ?>.Edge leaving : node.edgesLeaving) {
+                targets[edge] = leaving.successor.index;
+                weights[edge++] = leaving.data.doubleValue();
+            }
+            reverseOffsets[node.index] = reverseEdge;
+            for (BaseGraph<NodeType, ?>.Edge entering : node.edgesEntering) {
+                sources[reverseEdge] = entering.predecessor.index;
+                reverseWeights[reverseEdge++] = entering.data.doubleValue();
+            }
+        }
+        offsets[count] = edge;
+        reverseOffsets[count] = reverseEdge;
+    }
+
+    /**
+     * Creates a snapshot of the nodes that ids numbers, which it lists in the
+     * order of their ids, and of an edge from preds[i] to succs[i] weighing
+     * edgeWeights[i] for each i below edgeCount. The edges leaving and
+     * entering each node keep the order they are listed in here, which is
+     * the order they would have in a graph that they were inserted into.
+     * This snapshot keeps ids as its own dictionary of nodes, so it must not
+     * be changed afterwards.
+     *
+     * @param ids         the data of each node, by id
+     * @param preds       the id of each edge's predecessor node
+     * @param succs       the id of each edge's successor node
+     * @param edgeWeights the weight of each edge
+     * @param edgeCount   the number of edges in those arrays
+     */
+    CompressedGraph(NodeDictionary<NodeType> ids, int[] preds, int[] succs,
+            double[] edgeWeights, int edgeCount) {
+        super(createWorkspaces(ids.size()));
+        int count = ids.size();
+        this.ids = ids;
+        List<NodeType> nodeList = new ArrayList<>(count);
+        for (int index = 0; index < count; index++)
+            nodeList.add(ids.getData(index));
+        allNodes = Collections.unmodifiableList(nodeList);
+        offsets = new int[count + 1];
+        targets = new int[edgeCount];
+        weights = new double[edgeCount];
+        group(preds, succs, edgeWeights, edgeCount, offsets, targets, weights);
+        reverseOffsets = new int[count + 1];
+        sources = new int[edgeCount];
+        reverseWeights = new double[edgeCount];
+        group(succs, preds, edgeWeights, edgeCount, reverseOffsets, sources, reverseWeights);
+    }
+
+    // Groups the edges into rows by their keys, with a stable counting sort:
+    // the other ends and weights of the edges whose key is i go, in their
+    // original order, into positions offsets[i] through offsets[i + 1] - 1
+    // of ends and endWeights
+    private static void group(int[] keys, int[] others, double[] edgeWeights, int edgeCount,
+            int[] offsets, int[] ends, double[] endWeights) {
+        for (int i = 0; i < edgeCount; i++)
+            offsets[keys[i] + 1]++;
+        for (int i = 1; i < offsets.length; i++)
+            offsets[i] += offsets[i - 1];
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int i = 0; i < edgeCount; i++) {
+            int position = next[keys[i]]++;
+            ends[position] = others[i];
+            endWeights[position] = edgeWeights[i];
+        }
+    }
+
+    @Override
+    protected int getIndexCount() {
+        return ids.size();
+    }
+
+    @Override
+    protected NodeType getData(int index) {
+        return ids.getData(index);
+    }
+
+    @Override
+    protected int indexOf(NodeType data) {
+        return data == null ? -1 : ids.getId(data);
+    }
+
+    @Override
+    public List<NodeType> getAllNodes() {
+        return allNodes;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return ids.size();
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    // scans the shorter of from's leaving and to's entering edges
+    @Override
+    protected Double findEdgeWeight(int from, int to) {
+        if (offsets[from + 1] - offsets[from] <= reverseOffsets[to + 1] - reverseOffsets[to]) {
+            for (int edge = offsets[from]; edge < offsets[from + 1]; edge++)
+                if (targets[edge] == to)
+                    return weights[edge];
+        } else {
+            for (int edge = reverseOffsets[to]; edge < reverseOffsets[to + 1]; edge++)
+                if (sources[edge] == from)
+                    return reverseWeights[edge];
+        }
+        return null;
+    }
+
+    @Override
+    protected void relax(SearchWorkspace workspace, int index, double cost) {
+        IndexedDaryHeap heap = workspace.getHeap();
+        for (int edge = offsets[index]; edge < offsets[index + 1]; edge++) {
+            int neighbor = targets[edge];
+            double newCost = cost + weights[edge];
+            if (newCost < workspace.getCost(neighbor)) {
+                workspace.reach(neighbor, newCost, index, weights[edge]);
+                heap.push(neighbor, newCost);
+            }
+        }
+    }
+}
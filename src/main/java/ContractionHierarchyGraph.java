@@ -0,0 +1,519 @@
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This class answers point to point shortest path queries (shortestPathData
+ * and shortestPathCost) with a contraction hierarchy, which makes each query
+ * on a large graph orders of magnitude faster than a Dijkstra search.
+ *
+ * Preprocessing contracts the nodes one at a time, from least to most
+ * important. Contracting a node removes it from the remaining graph, and for
+ * each pair of its remaining neighbors u and w, adds a shortcut edge u to w
+ * (remembering the two edges it replaces) unless a witness search finds
+ * another path from u to w that is no longer. The next node to contract is
+ * the one with the lowest edge difference (the shortcuts its contraction
+ * adds, minus the edges it removes), plus the number of its neighbors that
+ * have already been contracted, which spreads contractions evenly.
+ *
+ * Every shortest path then climbs to more important nodes and descends from
+ * them again, so a query is a bidirectional search in which both searches
+ * only follow edges (and shortcuts) towards more important nodes. The
+ * shortcuts along the path found are recursively unpacked into the edges
+ * of this graph, and the cost of that path is summed forward along those
+ * edges, exactly as DijkstraGraph sums it.
+ *
+ * Every answer is identical to DijkstraGraph's, in both its path and cost.
+ * When several paths tie (to within the rounding of floating point sums),
+ * which one DijkstraGraph finds depends on the order it settles nodes and
+ * on that rounding, so no hierarchy can tell which it is. Contraction keeps
+ * every path that ties with the shortest one, queries detect when another
+ * path ties with the one they found, and those queries are answered by the
+ * search inherited from DijkstraGraph instead.
+ *
+ * The hierarchy is rebuilt by the first query after any change to this
+ * graph, like the one made by reloading its data. Every other query (like
+ * shortestPathTree) is inherited from DijkstraGraph.
+ */
+public class ContractionHierarchyGraph<NodeType, EdgeType extends Number>
+    extends DijkstraGraph<NodeType, EdgeType> {
+
+  // A witness search gives up after settling this many nodes, and a shortcut
+  // is added instead. This only costs extra shortcuts, never correctness.
+  private static final int WITNESS_SETTLE_LIMIT = 256;
+
+  /**
+   * An edge of this graph, or a shortcut for a path of two arcs through a
+   * node that was contracted. Arcs are never modified once they are created.
+   */
+  protected static class Arc {
+    final int from; // the index of the node this arc leaves
+    final int to; // the index of the node this arc enters
+    final double weight;
+    // the two arcs that this shortcut replaces, or null for graph edges
+    final Arc first;
+    final Arc second;
+    // whether another path that ties with this arc (or with any arc it
+    // replaces) was merged into it
+    final boolean tied;
+
+    Arc(int from, int to, double weight, Arc first, Arc second) {
+      this(from, to, weight, first, second, first != null && (first.tied || second.tied));
+    }
+
+    private Arc(int from, int to, double weight, Arc first, Arc second, boolean tied) {
+      this.from = from;
+      this.to = to;
+      this.weight = weight;
+      this.first = first;
+      this.second = second;
+      this.tied = tied;
+    }
+
+    // this same arc, marked as tied with another path
+    Arc asTied() {
+      return tied ? this : new Arc(from, to, weight, first, second, true);
+    }
+  }
+
+  /**
+   * The upward arcs of every node, which are only valid for the graph
+   * version that they were computed from.
+   */
+  protected static class Hierarchy {
+    // the modification count of the graph this was computed from
+    final long modificationCount;
+    // the arcs leaving each node index towards more important nodes
+    final Arc[][] upward;
+    // the arcs entering each node index from more important nodes
+    final Arc[][] downward;
+    // the same upward arcs grouped by the node they enter, and the same
+    // downward arcs grouped by the node they leave
+    final Arc[][] upwardEntering;
+    final Arc[][] downwardLeaving;
+    // the number of shortcuts among all of those arcs
+    final int shortcutCount;
+    // the most that floating point rounding can change the cost of any path,
+    // so paths whose costs differ by no more than this tie
+    final double tolerance;
+
+    Hierarchy(long modificationCount, Arc[][] upward, Arc[][] downward, Arc[][] upwardEntering,
+        Arc[][] downwardLeaving, int shortcutCount, double tolerance) {
+      this.modificationCount = modificationCount;
+      this.upward = upward;
+      this.downward = downward;
+      this.upwardEntering = upwardEntering;
+      this.downwardLeaving = downwardLeaving;
+      this.shortcutCount = shortcutCount;
+      this.tolerance = tolerance;
+    }
+  }
+
+  private volatile Hierarchy hierarchy = null;
+
+  /**
+   * Returns the hierarchy for this graph as it is now, contracting this
+   * graph first when it has changed since it was last contracted.
+   *
+   * @return the current hierarchy
+   */
+  protected Hierarchy getHierarchy() {
+    Hierarchy current = hierarchy;
+    if (current == null || current.modificationCount != modificationCount) {
+      synchronized (this) {
+        current = hierarchy;
+        if (current == null || current.modificationCount != modificationCount) {
+          current = new Contraction().contractAll();
+          hierarchy = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Returns the number of shortcuts that preprocessing added to this graph,
+   * contracting this graph first if it has changed.
+   *
+   * @return the number of shortcut arcs in the hierarchy
+   */
+  public int getShortcutCount() {
+    return getHierarchy().shortcutCount;
+  }
+
+  // The state of the remaining (uncontracted) graph during preprocessing
+  private class Contraction {
+    final int count = nodesByIndex.size();
+    // the arcs leaving and entering each node, between uncontracted nodes
+    final List<List<Arc>> leaving = new ArrayList<>(count);
+    final List<List<Arc>> entering = new ArrayList<>(count);
+    final boolean[] contracted = new boolean[count];
+    // how many of each node's neighbors have already been contracted
+    final int[] contractedNeighbors = new int[count];
+    final Arc[][] upward = new Arc[count][];
+    final Arc[][] downward = new Arc[count][];
+    int shortcutCount = 0;
+    // the witness search's costs, and the nodes whose costs it has set
+    final double[] witnessCosts = new double[count];
+    final int[] touched = new int[count];
+    int touchedCount = 0;
+    final IndexedDaryHeap witnessHeap = createHeap(count);
+    final double tolerance;
+
+    Contraction() {
+      for (int v = 0; v < count; v++) {
+        leaving.add(new ArrayList<>());
+        entering.add(new ArrayList<>());
+      }
+      double total = 0.0;
+      for (Node node : nodesByIndex) {
+        for (Edge edge : node.edgesLeaving) {
+          if (edge.successor == node) {
+            continue; // loops are never part of a shortest path
+          }
+          Arc arc = new Arc(node.index, edge.successor.index, edge.data.doubleValue(), null, null);
+          leaving.get(arc.from).add(arc);
+          entering.get(arc.to).add(arc);
+          total += arc.weight;
+        }
+      }
+      // no path costs more than the total of every weight, and each of the
+      // at most count additions along it rounds by less than half an ulp of
+      // that total, so this is a generous bound on the rounding of any cost
+      tolerance = 8.0 * (count + 1) * Math.ulp(total);
+      Arrays.fill(witnessCosts, Double.POSITIVE_INFINITY);
+    }
+
+    // contracts every node in order of priority, lazily updating priorities
+    Hierarchy contractAll() {
+      IndexedDaryHeap order = createHeap(count);
+      for (int v = 0; v < count; v++) {
+        order.push(v, priority(v));
+      }
+      while (!order.isEmpty()) {
+        int v = order.pop();
+        double priority = priority(v);
+        // contracting other nodes may have made this one less attractive
+        if (!order.isEmpty() && priority > order.getKey(order.peek())) {
+          order.push(v, priority);
+          continue;
+        }
+        contract(v);
+      }
+      return new Hierarchy(modificationCount, upward, downward, regroup(upward, true),
+          regroup(downward, false), shortcutCount, tolerance);
+    }
+
+    // groups every one of arcs by the node it enters when byTarget is true,
+    // and otherwise by the node it leaves
+    Arc[][] regroup(Arc[][] arcs, boolean byTarget) {
+      int[] sizes = new int[count];
+      for (Arc[] group : arcs) {
+        for (Arc arc : group) {
+          sizes[byTarget ? arc.to : arc.from]++;
+        }
+      }
+      Arc[][] grouped = new Arc[count][];
+      for (int v = 0; v < count; v++) {
+        grouped[v] = new Arc[sizes[v]];
+      }
+      for (Arc[] group : arcs) {
+        for (Arc arc : group) {
+          int v = byTarget ? arc.to : arc.from;
+          grouped[v][--sizes[v]] = arc;
+        }
+      }
+      return grouped;
+    }
+
+    // the edge difference of contracting v, plus its contracted neighbors
+    double priority(int v) {
+      int shortcuts = addShortcuts(v, false);
+      return shortcuts - leaving.get(v).size() - entering.get(v).size()
+          + contractedNeighbors[v];
+    }
+
+    // removes v from the remaining graph, keeping its arcs as upward arcs
+    void contract(int v) {
+      addShortcuts(v, true);
+      upward[v] = leaving.get(v).toArray(new Arc[0]);
+      downward[v] = entering.get(v).toArray(new Arc[0]);
+      for (Arc arc : upward[v]) {
+        entering.get(arc.to).remove(arc);
+        contractedNeighbors[arc.to]++;
+      }
+      for (Arc arc : downward[v]) {
+        leaving.get(arc.from).remove(arc);
+        contractedNeighbors[arc.from]++;
+      }
+      leaving.set(v, null);
+      entering.set(v, null);
+      contracted[v] = true;
+    }
+
+    // counts (or when add is true, adds) the shortcuts needed to contract v
+    int addShortcuts(int v, boolean add) {
+      int shortcuts = 0;
+      // shortcuts never start or end at v, so neither of these lists changes
+      List<Arc> outs = leaving.get(v);
+      for (Arc in : entering.get(v)) {
+        double maxCost = 0.0;
+        for (Arc out : outs) {
+          if (out.to != in.from) {
+            maxCost = Math.max(maxCost, in.weight + out.weight);
+          }
+        }
+        searchWitnesses(in.from, v, maxCost);
+        for (Arc out : outs) {
+          if (out.to == in.from) {
+            continue;
+          }
+          double cost = in.weight + out.weight;
+          if (witnessCosts[out.to] < cost - tolerance) {
+            continue; // a path that avoids v is shorter, and does not tie
+          }
+          shortcuts++;
+          if (add) {
+            addShortcut(new Arc(in.from, out.to, cost, in, out));
+          }
+        }
+      }
+      return shortcuts;
+    }
+
+    // adds shortcut, replacing any longer arc between the same nodes, and
+    // marking whichever arc is kept as tied when the other ties with it
+    void addShortcut(Arc shortcut) {
+      List<Arc> fromLeaving = leaving.get(shortcut.from);
+      for (int i = 0; i < fromLeaving.size(); i++) {
+        Arc existing = fromLeaving.get(i);
+        if (existing.to == shortcut.to) {
+          boolean tied = Math.abs(existing.weight - shortcut.weight) <= tolerance;
+          if (existing.weight <= shortcut.weight) {
+            if (tied && !existing.tied) {
+              // no shortcut replaces existing yet, so only these lists hold it
+              List<Arc> toEntering = entering.get(shortcut.to);
+              fromLeaving.set(i, existing.asTied());
+              toEntering.set(toEntering.indexOf(existing), fromLeaving.get(i));
+            }
+            return;
+          }
+          fromLeaving.remove(i);
+          entering.get(shortcut.to).remove(existing);
+          if (existing.first != null) {
+            shortcutCount--;
+          }
+          if (tied) {
+            shortcut = shortcut.asTied();
+          }
+          break;
+        }
+      }
+      fromLeaving.add(shortcut);
+      entering.get(shortcut.to).add(shortcut);
+      shortcutCount++;
+    }
+
+    // finds the costs from source to nodes within maxCost, avoiding
+    // excluded, settling at most WITNESS_SETTLE_LIMIT nodes
+    void searchWitnesses(int source, int excluded, double maxCost) {
+      for (int i = 0; i < touchedCount; i++) {
+        witnessCosts[touched[i]] = Double.POSITIVE_INFINITY;
+      }
+      touchedCount = 0;
+      witnessHeap.clear();
+      witnessCosts[source] = 0.0;
+      touched[touchedCount++] = source;
+      witnessHeap.push(source, 0.0);
+      int settled = 0;
+      while (!witnessHeap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+        int current = witnessHeap.pop();
+        double cost = witnessCosts[current];
+        if (cost > maxCost) {
+          break;
+        }
+        settled++;
+        for (Arc arc : leaving.get(current)) {
+          if (arc.to == excluded) {
+            continue;
+          }
+          double newCost = cost + arc.weight;
+          if (newCost < witnessCosts[arc.to]) {
+            if (witnessCosts[arc.to] == Double.POSITIVE_INFINITY) {
+              touched[touchedCount++] = arc.to;
+            }
+            witnessCosts[arc.to] = newCost;
+            witnessHeap.push(arc.to, newCost);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * This helper method computes the shortest path from start to end with a
+   * bidirectional search of the upward arcs of the hierarchy, and returns
+   * the SearchNode at the end of its unpacked path, exactly like
+   * DijkstraGraph.computeShortestPathById. When another path ties with the
+   * one found, this returns the one that DijkstraGraph's search finds.
+   *
+   * @param start the id of the starting node for the path
+   * @param end   the id of the destination node for the path
+   * @return SearchNode for the final end node within the shortest path
+   * @throws NoSuchElementException when no path from start to end is found
+   */
+  @Override
+  protected SearchNode computeShortestPathById(int start, int end) {
+    if (start == end) {
+      return new SearchNode(nodesByIndex.get(start), 0.0, null, 0.0);
+    }
+    Hierarchy hierarchy = getHierarchy();
+    double tolerance = hierarchy.tolerance;
+    // the cost from start to each node and the node before it, and the cost from each node to end
+    // and the node after it, in this thread's reused workspaces
+    SearchWorkspace forward = getWorkspace();
+    SearchWorkspace backward = getBackwardWorkspace();
+    IndexedDaryHeap forwardHeap = forward.getHeap();
+    IndexedDaryHeap backwardHeap = backward.getHeap();
+    forward.reach(start, 0.0, -1, 0.0);
+    forwardHeap.push(start, 0.0);
+    backward.reach(end, 0.0, -1, 0.0);
+    backwardHeap.push(end, 0.0);
+    double best = Double.POSITIVE_INFINITY;
+    int meeting = -1;
+    // the lowest cost of a path through any node where the searches meet other than meeting
+    double runnerUp = Double.POSITIVE_INFINITY;
+
+    while (true) {
+      // each search stops once it can no longer find a path that ties with the best one, so that
+      // every such path is seen
+      double forwardMin = forwardHeap.isEmpty() ? Double.POSITIVE_INFINITY
+          : forward.getCost(forwardHeap.peek());
+      double backwardMin = backwardHeap.isEmpty() ? Double.POSITIVE_INFINITY
+          : backward.getCost(backwardHeap.peek());
+      if (forwardMin > best + tolerance) {
+        forwardMin = Double.POSITIVE_INFINITY;
+      }
+      if (backwardMin > best + tolerance) {
+        backwardMin = Double.POSITIVE_INFINITY;
+      }
+      if (forwardMin == Double.POSITIVE_INFINITY && backwardMin == Double.POSITIVE_INFINITY) {
+        break;
+      }
+      if (forwardMin <= backwardMin) {
+        int current = forwardHeap.pop();
+        for (Arc arc : hierarchy.upward[current]) {
+          double newCost = forwardMin + arc.weight;
+          if (newCost < forward.getCost(arc.to)) {
+            forward.reach(arc.to, newCost, current, arc.weight);
+            forwardHeap.push(arc.to, newCost);
+            double through = newCost + backward.getCost(arc.to);
+            if (through < best) {
+              if (arc.to != meeting) {
+                runnerUp = best;
+                meeting = arc.to;
+              }
+              best = through;
+            } else if (arc.to != meeting) {
+              runnerUp = Math.min(runnerUp, through);
+            }
+          }
+        }
+      } else {
+        int current = backwardHeap.pop();
+        for (Arc arc : hierarchy.downward[current]) {
+          double newCost = backwardMin + arc.weight;
+          if (newCost < backward.getCost(arc.from)) {
+            backward.reach(arc.from, newCost, current, arc.weight);
+            backwardHeap.push(arc.from, newCost);
+            double through = forward.getCost(arc.from) + newCost;
+            if (through < best) {
+              if (arc.from != meeting) {
+                runnerUp = best;
+                meeting = arc.from;
+              }
+              best = through;
+            } else if (arc.from != meeting) {
+              runnerUp = Math.min(runnerUp, through);
+            }
+          }
+        }
+      }
+    }
+    if (meeting < 0) {
+      throw new NoSuchElementException("No path found between the start and end nodes.");
+    }
+    if (runnerUp <= best + tolerance) {
+      return super.computeShortestPathById(start, end); // a path through another node ties
+    }
+
+    // Collect the arcs along the path through the meeting node, in order. Each arc is found among
+    // the few upward arcs of its lower end, which only ever has one arc to each other node. The
+    // path ties with another when any of its nodes can be reached through two arcs at costs that
+    // tie, or when any of its arcs has been merged with a path that ties with it.
+    List<Arc> arcs = new ArrayList<>();
+    for (int index = meeting; index != start; index = forward.getPredecessor(index)) {
+      Arc arc = findArc(hierarchy.upward[forward.getPredecessor(index)], index);
+      if (arc.tied || isTied(hierarchy.upwardEntering[index], index, forward, tolerance)) {
+        return super.computeShortestPathById(start, end);
+      }
+      arcs.add(arc);
+    }
+    Collections.reverse(arcs);
+    for (int index = meeting; index != end; index = backward.getPredecessor(index)) {
+      Arc arc = findArc(hierarchy.downward[backward.getPredecessor(index)], index);
+      if (arc.tied || isTied(hierarchy.downwardLeaving[index], index, backward, tolerance)) {
+        return super.computeShortestPathById(start, end);
+      }
+      arcs.add(arc);
+    }
+    // Then unpack every shortcut into the graph edges that it replaces, and
+    // sum the costs along those edges from start, as a forward search would
+    SearchNode current = new SearchNode(nodesByIndex.get(start), 0.0, null, 0.0);
+    Deque<Arc> unpacking = new ArrayDeque<>();
+    for (Arc arc : arcs) {
+      unpacking.push(arc);
+      while (!unpacking.isEmpty()) {
+        Arc next = unpacking.pop();
+        if (next.first != null) {
+          unpacking.push(next.second);
+          unpacking.push(next.first);
+        } else {
+          current = new SearchNode(nodesByIndex.get(next.to), current.cost + next.weight,
+              current, next.weight);
+        }
+      }
+    }
+    return current;
+  }
+
+  // whether more than one of arcs, which each join index to another node,
+  // reaches index in search at a cost that ties with the lowest it found
+  private static boolean isTied(Arc[] arcs, int index, SearchWorkspace search,
+      double tolerance) {
+    double limit = search.getCost(index) + tolerance;
+    int reaching = 0;
+    for (Arc arc : arcs) {
+      int other = arc.to == index ? arc.from : arc.to;
+      if (search.getCost(other) + arc.weight <= limit && ++reaching > 1) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // the arc among the upward (or downward) arcs of one node that joins it to
+  // index, which the query followed
+  private static Arc findArc(Arc[] arcs, int index) {
+    for (Arc arc : arcs) {
+      if (arc.to == index || arc.from == index) {
+        return arc;
+      }
+    }
+    throw new IllegalStateException("The hierarchy has no arc to " + index);
+  }
+}
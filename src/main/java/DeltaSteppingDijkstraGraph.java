@@ -0,0 +1,395 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class answers single source queries (shortestPathCosts and
+ * shortestPathTree), which compute the cost of reaching every node from one
+ * start, with the delta-stepping algorithm, so that a search over a very
+ * large graph can use every core of a ForkJoinPool rather than just one.
+ *
+ * Nodes are kept in buckets of width delta by their cost so far, and the
+ * buckets are processed in order. Each edge is light when its weight is at
+ * most delta, and heavy otherwise. While the lowest bucket has nodes, the
+ * light edges of all of them are relaxed in parallel, which may put more
+ * nodes into that same bucket. Then the heavy edges of every node that was
+ * in that bucket are relaxed in parallel, which can only put nodes into
+ * later buckets. Costs are lowered with an atomic compare and set, so any
+ * number of threads can relax edges into the same node.
+ *
+ * A node whose cost is lowered after its edges were relaxed is simply put
+ * back into a bucket, so the costs found are exactly the least costs that
+ * DijkstraGraph finds, whatever delta is. A smaller delta does less of this
+ * extra work, but processes more buckets with less parallelism in each.
+ *
+ * Point to point queries (like shortestPathData) are inherited from
+ * DijkstraGraph, since its search stops as soon as the end is reached.
+ */
+public class DeltaSteppingDijkstraGraph<NodeType, EdgeType extends Number>
+    extends DijkstraGraph<NodeType, EdgeType> {
+
+  // a task relaxes the edges of at most this many nodes itself, and splits
+  // larger frontiers in half between two tasks
+  private static final int SEQUENTIAL_THRESHOLD = 256;
+
+  private final ForkJoinPool pool;
+  // the width of each bucket, or 0 to use the mean edge weight
+  private final double delta;
+  // the mean edge weight, along with the modification count it was computed for
+  private volatile long meanWeightModification = -1;
+  private volatile double meanWeight = 1.0;
+
+  /**
+   * Creates an empty graph that searches on the common ForkJoinPool, with a
+   * delta of the mean weight of its edges.
+   */
+  public DeltaSteppingDijkstraGraph() {
+    this(ForkJoinPool.commonPool(), 0.0);
+  }
+
+  /**
+   * Creates an empty graph that searches on pool, with buckets of width
+   * delta.
+   *
+   * @param pool  the pool whose threads relax edges in parallel
+   * @param delta the range of costs in each bucket, or 0.0 to use the mean
+   *              weight of the edges in this graph
+   */
+  public DeltaSteppingDijkstraGraph(ForkJoinPool pool, double delta) {
+    super();
+    if (pool == null) {
+      throw new IllegalArgumentException("A ForkJoinPool is required");
+    }
+    if (!(delta >= 0.0) || Double.isInfinite(delta)) {
+      throw new IllegalArgumentException("Delta must be 0 or a positive number, but was "
+          + delta);
+    }
+    this.pool = pool;
+    this.delta = delta;
+  }
+
+  /**
+   * Returns the width of each bucket for this graph as it is now.
+   */
+  public double getDelta() {
+    if (delta > 0.0) {
+      return delta;
+    }
+    if (meanWeightModification != modificationCount) {
+      synchronized (this) {
+        if (meanWeightModification != modificationCount) {
+          double total = 0.0;
+          long edges = 0;
+          for (Node node : nodesByIndex) {
+            for (Edge edge : node.edgesLeaving) {
+              total += edge.data.doubleValue();
+              edges++;
+            }
+          }
+          double mean = edges == 0 ? 0.0 : total / edges;
+          meanWeight = mean > 0.0 && !Double.isInfinite(mean) ? mean : 1.0;
+          meanWeightModification = modificationCount;
+        }
+      }
+    }
+    return meanWeight;
+  }
+
+  // A growable array of ints, for the node indexes in each bucket
+  private static class IntList {
+    int[] values = new int[8];
+    int size = 0;
+
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+  }
+
+  /**
+   * Computes the cost of the shortest path from the node at source to every
+   * node index, relaxing the edges of each bucket in parallel.
+   *
+   * @param source the index of the node to search from
+   * @return the cost for each node index, or Double.POSITIVE_INFINITY for
+   *         nodes that cannot be reached from source
+   */
+  protected double[] computeCosts(int source) {
+    int count = nodesByIndex.size();
+    double width = getDelta();
+    // Costs are stored as the bits of each double, for compareAndSet
+    AtomicLongArray costs = new AtomicLongArray(count);
+    long infinity = Double.doubleToLongBits(Double.POSITIVE_INFINITY);
+    for (int v = 0; v < count; v++) {
+      costs.set(v, infinity);
+    }
+    // The bucket that each index was last put into, or -1 once it is taken
+    // out, so that stale entries left in other buckets can be skipped
+    long[] queuedBucket = new long[count];
+    Arrays.fill(queuedBucket, -1);
+    // The last bucket whose heavy edges included each index's
+    long[] relaxedBucket = new long[count];
+    Arrays.fill(relaxedBucket, -1);
+    TreeMap<Long, IntList> buckets = new TreeMap<>();
+
+    costs.set(source, Double.doubleToLongBits(0.0));
+    queue(buckets, queuedBucket, source, 0);
+    while (!buckets.isEmpty()) {
+      Map.Entry<Long, IntList> lowest = buckets.pollFirstEntry();
+      long bucket = lowest.getKey();
+      IntList entries = lowest.getValue();
+      IntList removed = new IntList();
+      // Relax light edges until this bucket stays empty: they can put
+      // nodes back into it, which are then added to entries
+      int next = 0;
+      while (next < entries.size) {
+        IntList frontier = new IntList();
+        for (; next < entries.size; next++) {
+          int v = entries.values[next];
+          if (queuedBucket[v] == bucket) {
+            queuedBucket[v] = -1;
+            frontier.add(v);
+            if (relaxedBucket[v] != bucket) {
+              relaxedBucket[v] = bucket;
+              removed.add(v);
+            }
+          }
+        }
+        IntList improved = pool.invoke(new Relaxation(costs, frontier.values, 0,
+            frontier.size, width, true));
+        for (int i = 0; i < improved.size; i++) {
+          int v = improved.values[i];
+          long target = (long) (Double.longBitsToDouble(costs.get(v)) / width);
+          if (target == bucket) {
+            if (queuedBucket[v] != bucket) {
+              queuedBucket[v] = bucket;
+              entries.add(v);
+            }
+          } else {
+            queue(buckets, queuedBucket, v, target);
+          }
+        }
+      }
+      // Then relax the heavy edges of every node that was in this bucket,
+      // which can only lead to later buckets
+      IntList improved = pool.invoke(new Relaxation(costs, removed.values, 0, removed.size,
+          width, false));
+      for (int i = 0; i < improved.size; i++) {
+        int v = improved.values[i];
+        queue(buckets, queuedBucket, v,
+            (long) (Double.longBitsToDouble(costs.get(v)) / width));
+      }
+    }
+    double[] result = new double[count];
+    for (int v = 0; v < count; v++) {
+      result[v] = Double.longBitsToDouble(costs.get(v));
+    }
+    return result;
+  }
+
+  // puts v into bucket, unless it is already waiting there
+  private static void queue(TreeMap<Long, IntList> buckets, long[] queuedBucket, int v,
+      long bucket) {
+    if (queuedBucket[v] != bucket) {
+      queuedBucket[v] = bucket;
+      buckets.computeIfAbsent(bucket, b -> new IntList()).add(v);
+    }
+  }
+
+  // Relaxes the light (or heavy) edges leaving the indexes in part of an
+  // array, and returns every index whose cost that lowered
+  private class Relaxation extends RecursiveTask<IntList> {
+    private static final long serialVersionUID = 1L;
+
+    private final AtomicLongArray costs;
+    private final int[] frontier;
+    private final int from;
+    private final int to;
+    private final double width;
+    private final boolean light;
+
+    Relaxation(AtomicLongArray costs, int[] frontier, int from, int to, double width,
+        boolean light) {
+      this.costs = costs;
+      this.frontier = frontier;
+      this.from = from;
+      this.to = to;
+      this.width = width;
+      this.light = light;
+    }
+
+    @Override
+    protected IntList compute() {
+      if (to - from > SEQUENTIAL_THRESHOLD) {
+        int middle = (from + to) >>> 1;
+        Relaxation left = new Relaxation(costs, frontier, from, middle, width, light);
+        left.fork();
+        IntList right = new Relaxation(costs, frontier, middle, to, width, light).compute();
+        IntList improved = left.join();
+        for (int i = 0; i < right.size; i++) {
+          improved.add(right.values[i]);
+        }
+        return improved;
+      }
+      IntList improved = new IntList();
+      for (int i = from; i < to; i++) {
+        Node current = nodesByIndex.get(frontier[i]);
+        double cost = Double.longBitsToDouble(costs.get(current.index));
+        for (Edge edge : current.edgesLeaving) {
+          double weight = edge.data.doubleValue();
+          if ((weight <= width) == light && lower(edge.successor.index, cost + weight)) {
+            improved.add(edge.successor.index);
+          }
+        }
+      }
+      return improved;
+    }
+
+    // lowers the cost of index to cost, unless it is already at most that
+    private boolean lower(int index, double cost) {
+      long bits = Double.doubleToLongBits(cost);
+      while (true) {
+        long current = costs.get(index);
+        if (cost >= Double.longBitsToDouble(current)) {
+          return false;
+        }
+        if (costs.compareAndSet(index, current, bits)) {
+          return true;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the costs of the shortest paths from the node containing the
+   * start data to each of the nodes containing the end data, which are all
+   * computed by a single parallel search from start.
+   *
+   * @param start the data item in the starting node for every path
+   * @param ends  the data items in the destination nodes for each path
+   * @return the cost of the shortest path to each of the ends, in order, or
+   *         Double.POSITIVE_INFINITY for ends that cannot be reached
+   */
+  @Override
+  public double[] shortestPathCosts(NodeType start, List<NodeType> ends) {
+    int startIndex = ids.getId(start);
+    if (startIndex < 0) {
+      throw new NoSuchElementException("Start node not found in the graph.");
+    }
+    double[] all = computeCosts(startIndex);
+    double[] costs = new double[ends.size()];
+    int i = 0;
+    for (NodeType end : ends) {
+      int index = end == null ? -1 : ids.getId(end);
+      costs[i++] = index >= 0 ? all[index] : Double.POSITIVE_INFINITY;
+    }
+    return costs;
+  }
+
+  /**
+   * Returns the tree of shortest paths from the node containing the start
+   * data to every node that can be reached from it. The costs come from a
+   * single parallel search from start. Then nodes are listed in order of
+   * their costs, and each one's predecessor is the earliest listed node whose
+   * edge to it adds up to exactly its cost, which is the predecessor that
+   * DijkstraGraph chooses unless some of those nodes tie.
+   *
+   * @param start the data item in the starting node for every path
+   * @return the cost of, and the predecessor along, the shortest path to
+   *         every node reachable from start
+   */
+  @Override
+  public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+    int startIndex = ids.getId(start);
+    if (startIndex < 0) {
+      throw new NoSuchElementException("Start node not found in the graph.");
+    }
+    double[] costs = computeCosts(startIndex);
+    List<Integer> order = new ArrayList<>();
+    for (int v = 0; v < costs.length; v++) {
+      if (costs[v] != Double.POSITIVE_INFINITY) {
+        order.add(v);
+      }
+    }
+    order.sort((a, b) -> Double.compare(costs[a], costs[b]));
+    // The position of each node index within the tree, or -1 until it is listed
+    int[] positions = new int[costs.length];
+    Arrays.fill(positions, -1);
+    List<NodeType> listed = new ArrayList<>(order.size());
+    double[] listedCosts = new double[order.size()];
+    int[] parents = new int[order.size()];
+    double[] weights = new double[order.size()];
+    positions[startIndex] = 0;
+    listed.add(start);
+    parents[0] = -1;
+    // the index of the node at each position within the tree
+    int[] listedIndexes = new int[order.size()];
+    listedIndexes[0] = startIndex;
+    // Nodes of equal cost can depend on each other through zero weight edges,
+    // so each group of them is listed in two steps: first every node that
+    // already has a listed predecessor, and then, following the edges leaving
+    // each node of the group in the order they were listed, every node that
+    // was still waiting for one
+    boolean[] waiting = new boolean[costs.length];
+    int i = 0;
+    while (i < order.size()) {
+      double cost = costs[order.get(i)];
+      int first = listed.size();
+      int waitingCount = 0;
+      for (; i < order.size() && costs[order.get(i)] == cost; i++) {
+        Node node = nodesByIndex.get(order.get(i));
+        if (node.index == startIndex) {
+          continue;
+        }
+        int parent = -1;
+        double weight = 0.0;
+        for (Edge edge : node.edgesEntering) {
+          int position = positions[edge.predecessor.index];
+          if (position >= 0 && (parent < 0 || position < parent)
+              && costs[edge.predecessor.index] + edge.data.doubleValue() == cost) {
+            parent = position;
+            weight = edge.data.doubleValue();
+          }
+        }
+        if (parent >= 0) {
+          positions[node.index] = listed.size();
+          listedIndexes[listed.size()] = node.index;
+          listedCosts[listed.size()] = cost;
+          parents[listed.size()] = parent;
+          weights[listed.size()] = weight;
+          listed.add(node.data);
+        } else {
+          waiting[node.index] = true;
+          waitingCount++;
+        }
+      }
+      for (int p = first; p < listed.size() && waitingCount > 0; p++) {
+        for (Edge edge : nodesByIndex.get(listedIndexes[p]).edgesLeaving) {
+          Node node = edge.successor;
+          if (waiting[node.index] && cost + edge.data.doubleValue() == cost) {
+            waiting[node.index] = false;
+            waitingCount--;
+            positions[node.index] = listed.size();
+            listedIndexes[listed.size()] = node.index;
+            listedCosts[listed.size()] = cost;
+            parents[listed.size()] = p;
+            weights[listed.size()] = edge.data.doubleValue();
+            listed.add(node.data);
+          }
+        }
+      }
+      if (waitingCount > 0) {
+        throw new IllegalStateException("Inconsistent costs from parallel search");
+      }
+    }
+    return new ShortestPathTree<>(listed, listedCosts, parents, weights);
+  }
+}
@@ -7,6 +7,7 @@
 // Notes to Grader: <optional extra notes>
 
 import java.util.*;
+import java.util.function.ObjIntConsumer;
 
 /**
  * This class extends the BaseGraph data structure with additional methods for
@@ -25,7 +26,8 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
    * field. The total cost of this path is stored in its cost field. And the
    * predecessor SearchNode within this path is referened by the predecessor
    * field (this field is null within the SearchNode containing the starting
-   * node in its node field).
+   * node in its node field). The weight of the edge from the predecessor's
+   * node to this node is stored in its weight field (0.0 for the start).
    *
    * SearchNodes are Comparable and are sorted by cost so that the lowest cost
    * SearchNode has the highest priority within a java.util.PriorityQueue.
@@ -34,11 +36,13 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
     public Node node;
     public double cost;
     public SearchNode predecessor;
+    public double weight;
 
-    public SearchNode(Node node, double cost, SearchNode predecessor) {
+    public SearchNode(Node node, double cost, SearchNode predecessor, double weight) {
       this.node = node;
       this.cost = cost;
       this.predecessor = predecessor;
+      this.weight = weight;
     }
 
     public int compareTo(SearchNode other) {
@@ -57,6 +61,101 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
     super(new HashtableMap<>());
   }
 
+  /**
+   * Creates the heap that each search orders its frontier of nodes with.
+   * Subclasses can override this to tune or observe those heaps.
+   *
+   * @param capacity the number of node indexes that the heap must hold
+   * @return an empty heap for those indexes
+   */
+  protected IndexedDaryHeap createHeap(int capacity) {
+    return new IndexedDaryHeap(capacity);
+  }
+
+  // The workspaces that each thread searches this graph with, the second of which is only used
+  // by searches that need another one at the same time, like the backward half of a
+  // bidirectional search
+  private final ThreadLocal<SearchWorkspace> workspaces = new ThreadLocal<>();
+  private final ThreadLocal<SearchWorkspace> backwardWorkspaces = new ThreadLocal<>();
+
+  /**
+   * Returns this thread's workspace for searching this graph, emptied and
+   * ready for a new search. The workspace (and its heap, from createHeap) is
+   * only created again when this graph has more nodes than it can hold, so
+   * searches do not allocate any state of their own.
+   *
+   * @return an empty workspace that can hold every node index of this graph
+   */
+  protected SearchWorkspace getWorkspace() {
+    return getWorkspace(workspaces);
+  }
+
+  /**
+   * Returns this thread's second workspace for searching this graph, emptied
+   * and ready for a new search, which is reused exactly like the one from
+   * getWorkspace. Searches that keep two sets of costs at once, like the
+   * backward half of a bidirectional search, keep the second set in here.
+   *
+   * @return an empty workspace that can hold every node index of this graph
+   */
+  protected SearchWorkspace getBackwardWorkspace() {
+    return getWorkspace(backwardWorkspaces);
+  }
+
+  // empties this thread's workspace from workspaces, creating it first when
+  // there is none yet or it is too small for this graph
+  private SearchWorkspace getWorkspace(ThreadLocal<SearchWorkspace> workspaces) {
+    SearchWorkspace workspace = workspaces.get();
+    int count = nodesByIndex.size();
+    if (workspace == null || workspace.getCapacity() < count) {
+      workspace = new SearchWorkspace(createHeap(count));
+      workspaces.set(workspace);
+    }
+    workspace.begin();
+    return workspace;
+  }
+
+  // Runs every plain Dijkstra search over the indexes of this graph's nodes, by relaxing the edges
+  // leaving each settled node into this thread's workspace
+  private final SearchDriver<NodeType> driver = new SearchDriver<>() {
+    @Override
+    protected int getIndexCount() {
+      return nodesByIndex.size();
+    }
+
+    @Override
+    protected NodeType getData(int index) {
+      return nodesByIndex.get(index).data;
+    }
+
+    @Override
+    protected int indexOf(NodeType data) {
+      return data == null ? -1 : ids.getId(data);
+    }
+
+    @Override
+    protected SearchWorkspace getWorkspace() {
+      return DijkstraGraph.this.getWorkspace();
+    }
+
+    @Override
+    protected void relax(SearchWorkspace workspace, int index, double cost) {
+      IndexedDaryHeap heap = workspace.getHeap();
+      for (Edge edge : nodesByIndex.get(index).edgesLeaving) {
+        int neighbor = edge.successor.index;
+        double weight = edge.data.doubleValue();
+        double newCost = cost + weight;
+        // Only improvements are pushed, which lowers the neighbor's key when
+        // it is already in the heap. Since weights are non-negative, this
+        // never happens for nodes that are already settled.
+        if (newCost < workspace.getCost(neighbor)) {
+          workspace.reach(neighbor, newCost, index, weight);
+          heap.push(neighbor, newCost);
+        }
+      }
+    }
+  };
+
   /**
    * This helper method creates a network of SearchNodes while computing the
    * shortest path between the provided start and end locations. The
@@ -74,48 +173,53 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
    */
   protected SearchNode computeShortestPath(NodeType start, NodeType end) {
     // If the start or end nodes are not present in the graph, throw the appropriate exception
-    if (!containsNode(start) || !containsNode(end)) {
-      if (!containsNode(start)) {
-        throw new NoSuchElementException("Start node not found in the graph.");
-      } else {
-        throw new NoSuchElementException("End node not found in the graph.");
-      }
+    int startId = ids.getId(start);
+    if (startId < 0) {
+      throw new NoSuchElementException("Start node not found in the graph.");
     }
-    // Create the priority queue needed for dijkstra's algorithm
-    PriorityQueue<SearchNode> pq = new PriorityQueue<>();
-    // Get the start node from the graph and add it to the priority queue
-    Node startNode = nodes.get(start);
-    pq.add(new SearchNode(startNode, 0.0, null));
-    // Create a list to store the visited nodes in the dijkstra's shortest path
-    HashtableMap<Node, Boolean> visitedMap = new HashtableMap<>();
-    // While there are still nodes to explore in the priority queue
-    while (!pq.isEmpty()) {
-      // Get the node with the lowest cost from the priority queue
-      SearchNode current = pq.poll();
-      // If we already visited this node, we skip it
-      if (visitedMap.containsKey(current.node)) {
-        continue;
-      }
-      // Otherwise, mark this node as visited
-      visitedMap.put(current.node, true);
-      // If this is the destination node, return the final SearchNode
-      if (current.node.data.equals(end)) {
-        return current;
-      }
-      // Explore all outgoing edges from the current node
-      for (Edge edge : current.node.edgesLeaving) {
-        Node neighbor = edge.successor;
-        // If the neighbor hasn't been visited yet
-        if (!visitedMap.containsKey(neighbor)) {
-          // Calculate the cost to reach this neighbor
-          double newCost = current.cost + edge.data.doubleValue();
-          // Add the neighbor to the priority queue with the updated cost and predecessor
-          pq.add(new SearchNode(neighbor, newCost, current));
-        }
-      }
+    int endId = ids.getId(end);
+    if (endId < 0) {
+      throw new NoSuchElementException("End node not found in the graph.");
+    }
+    return computeShortestPathById(startId, endId);
+  }
+
+  /**
+   * Computes the shortest path between the nodes with two ids, exactly like
+   * computeShortestPath, once their data has been resolved into ids. The
+   * search engines that extend this class override this method, so that they
+   * answer queries by data and by id alike.
+   *
+   * @param start the id of the starting node for the path, which is in range
+   * @param end   the id of the destination node for the path, which is in
+   *              range
+   * @return SearchNode for the final end node within the shortest path
+   * @throws NoSuchElementException when no path from start to end is found
+   */
+  protected SearchNode computeShortestPathById(int start, int end) {
+    SearchWorkspace workspace = driver.computePath(start, end);
+    return createSearchNodes(nodesByIndex.get(end), workspace);
+  }
+
+  /**
+   * Creates the chain of SearchNodes that describes the shortest path to end,
+   * from the costs, predecessors and edge weights recorded in a workspace.
+   *
+   * @param end       the last node of the path, which must have been reached
+   * @param workspace the workspace of the search that found that path
+   * @return the SearchNode for end, linked back to the start of the path
+   */
+  protected SearchNode createSearchNodes(Node end, SearchWorkspace workspace) {
+    SearchNode last = new SearchNode(end, workspace.getCost(end.index), null, 0.0);
+    SearchNode current = last;
+    for (int index = workspace.getPredecessor(end.index); index >= 0;
+        index = workspace.getPredecessor(index)) {
+      current.weight = workspace.getWeight(current.node.index);
+      current.predecessor = new SearchNode(nodesByIndex.get(index), workspace.getCost(index),
+          null, 0.0);
+      current = current.predecessor;
     }
-    // If no path is found, throw the appropriate exception
-    throw new NoSuchElementException("No path found between the start and end nodes.");
+    return last;
   }
 
   /**
@@ -164,4 +268,176 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
     // Return the total cost of the shortest path
     return endNode.cost;
   }
-}
\ No newline at end of file
+
+  /**
+   * Returns the nodes along the shortest path from the node containing the
+   * start data to the node containing the end data, together with the weight
+   * of each edge along that path and the cost of reaching each of its nodes.
+   * All of these are read from the SearchNodes of a single search.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return the shortest path between these nodes
+   */
+  public ShortestPath<NodeType> shortestPath(NodeType start, NodeType end) {
+    return createShortestPath(computeShortestPath(start, end));
+  }
+
+  /**
+   * Returns the cost of the shortest path from the node with startId to the
+   * node with endId, exactly like shortestPathCost, without looking up any
+   * node's data.
+   *
+   * @param startId the id of the starting node for the path
+   * @param endId   the id of the destination node for the path
+   * @return the cost of the shortest path between these nodes
+   * @throws NoSuchElementException if either id is not a node's, or if there
+   *                                is no path between these nodes
+   */
+  public double shortestPathCostById(int startId, int endId) {
+    checkIds(startId, endId);
+    return computeShortestPathById(startId, endId).cost;
+  }
+
+  /**
+   * Returns the shortest path from the node with startId to the node with
+   * endId, exactly like shortestPath, without looking up either node's data.
+   *
+   * @param startId the id of the starting node for the path
+   * @param endId   the id of the destination node for the path
+   * @return the shortest path between these nodes
+   * @throws NoSuchElementException if either id is not a node's, or if there
+   *                                is no path between these nodes
+   */
+  public ShortestPath<NodeType> shortestPathById(int startId, int endId) {
+    checkIds(startId, endId);
+    return createShortestPath(computeShortestPathById(startId, endId));
+  }
+
+  // throws the same exceptions as computeShortestPath for ids out of range
+  private void checkIds(int startId, int endId) {
+    if (startId < 0 || startId >= nodesByIndex.size()) {
+      throw new NoSuchElementException("Start node not found in the graph.");
+    }
+    if (endId < 0 || endId >= nodesByIndex.size()) {
+      throw new NoSuchElementException("End node not found in the graph.");
+    }
+  }
+
+  // the ShortestPath described by the chain of SearchNodes ending at endNode
+  private ShortestPath<NodeType> createShortestPath(SearchNode endNode) {
+    int size = 0;
+    for (SearchNode current = endNode; current != null; current = current.predecessor) {
+      size++;
+    }
+    // Fill the path in from the end, since that is where the chain starts
+    List<NodeType> path = new ArrayList<>(Collections.nCopies(size, null));
+    double[] weights = new double[size - 1];
+    double[] costs = new double[size];
+    int i = size - 1;
+    for (SearchNode current = endNode; current != null; current = current.predecessor) {
+      path.set(i, current.node.data);
+      costs[i] = current.cost;
+      if (i > 0) {
+        weights[i - 1] = current.weight;
+      }
+      i--;
+    }
+    return new ShortestPath<>(path, weights, costs);
+  }
+
+  /**
+   * Returns the costs of the shortest paths from the node containing the
+   * start data to each of the nodes containing the end data. This method
+   * runs a single Dijkstra search from start, which stops as soon as every
+   * one of the ends has been reached.
+   *
+   * @param start the data item in the starting node for every path
+   * @param ends  the data items in the destination nodes for each path
+   * @return the cost of the shortest path to each of the ends, in order, or
+   *         Double.POSITIVE_INFINITY for ends that cannot be reached
+   */
+  public double[] shortestPathCosts(NodeType start, List<NodeType> ends) {
+    int startId = ids.getId(start);
+    if (startId < 0) {
+      throw new NoSuchElementException("Start node not found in the graph.");
+    }
+    return driver.computeCosts(startId, driver.new Targets(ends));
+  }
+
+  /**
+   * Returns the costs of the shortest paths from the node with startId to
+   * each of the nodes with endIds, exactly like shortestPathCosts, without
+   * looking up any node's data.
+   *
+   * @param startId the id of the starting node for every path
+   * @param endIds  the ids of the destination nodes for each path
+   * @return the cost of the shortest path to each of endIds, in order, or
+   *         Double.POSITIVE_INFINITY for ids that are not a node's, or that
+   *         cannot be reached
+   * @throws NoSuchElementException if startId is not a node's id
+   */
+  public double[] shortestPathCostsById(int startId, int[] endIds) {
+    if (startId < 0 || startId >= nodesByIndex.size()) {
+      throw new NoSuchElementException("Start node not found in the graph.");
+    }
+    return driver.computeCosts(startId, driver.new Targets(endIds));
+  }
+
+  /**
+   * Returns the costs of the shortest paths from each of the nodes containing
+   * the start data to each of the nodes containing the end data, as a dense
+   * matrix with one row for each start and one column for each end. Each row
+   * comes from a single Dijkstra search, which stops as soon as every one of
+   * the ends has been reached, and the searches for different starts run in
+   * parallel on the common ForkJoinPool.
+   *
+   * @param starts the data items in the starting nodes, one for each row
+   * @param ends   the data items in the destination nodes, one for each column
+   * @return the cost of the shortest path from starts.get(i) to ends.get(j)
+   *         in row i and column j, or Double.POSITIVE_INFINITY when either
+   *         node is not in the graph or there is no such path
+   */
+  public double[][] shortestPathCostMatrix(List<NodeType> starts, List<NodeType> ends) {
+    double[][] matrix = new double[starts.size()][];
+    shortestPathCostMatrix(starts, ends, (row, i) -> matrix[i] = row);
+    return matrix;
+  }
+
+  /**
+   * Computes the same rows as shortestPathCostMatrix, but passes each one to
+   * rows as soon as it is ready rather than holding all of them, so matrices
+   * that are too large to keep in memory can be written out as they go. The
+   * rows are computed in parallel, SearchDriver.MATRIX_BLOCK_SIZE at a time,
+   * and are always passed to rows in order on the thread that called this
+   * method.
+   *
+   * @param starts the data items in the starting nodes, one for each row
+   * @param ends   the data items in the destination nodes, one for each column
+   * @param rows   accepts each row of the matrix along with the index of its
+   *               start, which may keep that row
+   */
+  public void shortestPathCostMatrix(List<NodeType> starts, List<NodeType> ends,
+      ObjIntConsumer<double[]> rows) {
+    driver.computeCostMatrix(starts, ends, rows);
+  }
+
+  /**
+   * Returns the tree of shortest paths from the node containing the start
+   * data to every node that can be reached from it. This method runs a single
+   * Dijkstra search from start, which continues until every reachable node
+   * has been settled.
+   *
+   * @param start the data item in the starting node for every path
+   * @return the cost of, and the predecessor along, the shortest path to
+   *         every node reachable from start
+   * @throws NoSuchElementException if the start node cannot be found
+   */
+  public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+    int startIndex = ids.getId(start);
+    if (startIndex < 0) {
+      throw new NoSuchElementException("Start node not found in the graph.");
+    }
+    return driver.computeTree(startIndex);
+  }
+}
@@ -0,0 +1,156 @@
+import java.util.Arrays;
+
+/**
+ * An EdgeIndex maps each directed edge of a graph, identified by the ids of
+ * its predecessor and successor nodes, to a value (like the Edge object that
+ * stores its weight). Each pair of ids is packed into a single long key, and
+ * those keys are kept in an open addressing hash table of primitive longs, so
+ * finding, adding and removing an edge take expected constant time, however
+ * many edges its nodes have, without boxing any keys.
+ */
+public class EdgeIndex<ValueType> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // the key and value in each slot, where a null value marks an empty slot
+    private long[] keys;
+    private Object[] values;
+    private int size = 0;
+
+    /**
+     * Creates an empty index.
+     */
+    public EdgeIndex() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty index with room for capacity edges before it needs
+     * to grow.
+     *
+     * @param capacity the number of edges to make room for
+     */
+    public EdgeIndex(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(capacity, 1)) * 4;
+        keys = new long[slots];
+        values = new Object[slots];
+    }
+
+    /**
+     * Returns the number of edges in this index.
+     */
+    public int size() {
+        return size;
+    }
+
+    // packs the ids of an edge's two nodes into one key
+    private static long key(int pred, int succ) {
+        return ((long) pred << 32) | (succ & 0xffffffffL);
+    }
+
+    // the home slot of key, from its bits mixed by a multiplicative hash
+    private int home(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & (keys.length - 1);
+    }
+
+    // the slot holding key, or else the empty slot where it would go
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = home(key);
+        while (values[slot] != null && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Returns the value of the edge from pred to succ.
+     *
+     * @param pred the id of the edge's predecessor node
+     * @param succ the id of the edge's successor node
+     * @return the value of that edge, or null when there is none
+     */
+    @SuppressWarnings("unchecked")
+    public ValueType get(int pred, int succ) {
+        return (ValueType) values[findSlot(key(pred, succ))];
+    }
+
+    /**
+     * Sets the value of the edge from pred to succ.
+     *
+     * @param pred  the id of the edge's predecessor node
+     * @param succ  the id of the edge's successor node
+     * @param value the value of that edge, which is not null
+     * @throws NullPointerException if value is null
+     */
+    public void put(int pred, int succ, ValueType value) {
+        if (value == null)
+            throw new NullPointerException("Edges cannot be indexed to null");
+        long key = key(pred, succ);
+        int slot = findSlot(key);
+        if (values[slot] == null) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+                slot = findSlot(key);
+            }
+            size++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    /**
+     * Removes the edge from pred to succ from this index.
+     *
+     * @param pred the id of the edge's predecessor node
+     * @param succ the id of the edge's successor node
+     * @return the value that edge had, or null when there was none
+     */
+    @SuppressWarnings("unchecked")
+    public ValueType remove(int pred, int succ) {
+        int slot = findSlot(key(pred, succ));
+        ValueType value = (ValueType) values[slot];
+        if (value == null)
+            return null;
+        // empty the slot, and then move back any later key in the same run
+        // that could no longer be found past the gap this leaves
+        int mask = keys.length - 1;
+        int gap = slot;
+        values[gap] = null;
+        for (int next = (gap + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = home(keys[next]);
+            boolean reachable = gap <= next ? (gap < home && home <= next)
+                                            : (gap < home || home <= next);
+            if (!reachable) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                values[next] = null;
+                gap = next;
+            }
+        }
+        size--;
+        return value;
+    }
+
+    /**
+     * Removes every edge from this index.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    // recreates the hash table with slotCount slots
+    private void rehash(int slotCount) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[slotCount];
+        values = new Object[slotCount];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -4,6 +4,28 @@ import java.util.NoSuchElementException;
 public class Frontend implements FrontendInterface{
 
     private BackendInterface backend;
+
+    // HTML for start and end input fields and a button
+    private static final String SHORTEST_PATH_PROMPT_HTML = """
+        <label for="start">
+            Start
+        </label>
+        <input id="start" type="text"/>
+        <label for="end">
+            End
+        </label>
+        <input id="end" type="text"/>
+        <button> Find Shortest Path </button>
+        """;
+
+    // HTML for the "from" input field and button
+    private static final String FURTHEST_DESTINATION_PROMPT_HTML = """
+        <label for="from">
+            From
+        </label>
+        <input id="from" type="text"/>
+        <button> Furthest Destination From </button>
+        """;
     
     /**
      * Constructor for Frontend. Requires working backend.
@@ -18,27 +40,8 @@ public class Frontend implements FrontendInterface{
      */
     @Override
     public String generateShortestPathPromptHTML() {
-        // Generates HTML for start and end input fields and a button
-        String startLabel = """
-        <label for="start">
-            Start
-        </label>
-        """;
-        String startInput = """ 
-        <input id="start" type="text"/>
-        """;
-        String endLabel = """
-        <label for="end">
-            End
-        </label>
-        """;
-        String endInput = """ 
-        <input id="end" type="text"/>
-        """;
-        String button = """  
-        <button> Find Shortest Path </button>
-        """;
-        return startLabel + startInput + endLabel + endInput + button;
+        // this prompt never changes, so it is only ever built once
+        return SHORTEST_PATH_PROMPT_HTML;
     }
 
     /**
@@ -57,28 +60,33 @@ public class Frontend implements FrontendInterface{
             return startParagraph + "<p>Error: Incomplete input</p>";
         }
     
-        List<String> path = backend.findLocationsOnShortestPath(start, end);
+        //One search finds the path together with the time of each step
+        ShortestPath<String> route;
+        try {
+            route = backend.findShortestPath(start, end);
+        } catch (NoSuchElementException e) {
+            route = null;
+        }
 
         //No path exists
-        if (path == null || path.isEmpty()) {
+        if (route == null) {
             return startParagraph + "<p>Error: Could not find a valid path.</p>";
         }
     
-        //Build html list from pathList 
+        //Build html list from the route's locations
         StringBuilder pathList = new StringBuilder();
         pathList.append("<ol>");
-        for (String p : path) {
+        for (String p : route.getNodes()) {
             pathList.append("<li>" + p + "</li>");
         }
         pathList.append("</ol>");
     
-        List<Double> pathTimes = backend.findTimesOnShortestPath(start, end);
-        if (pathTimes == null || pathTimes.isEmpty()) {
+        //A route that never leaves its start has no travel times
+        if (route.size() < 2) {
             return startParagraph + "<p>Error: Could not retrieve travel times.</p>";
         }
     
-        //Converts pathtimes List to the sum.
-        double time = pathTimes.stream().mapToDouble(Double::doubleValue).sum();
+        double time = route.getCost();
         String timeParagraph = String.format("""
         <p>
             Total travel time: %.2f seconds.
@@ -93,19 +101,8 @@ public class Frontend implements FrontendInterface{
      */
     @Override
     public String generateFurthestDestinationFromPromptHTML() {
-        // Generates HTML for the "from" input field and button
-        String fromLabel = """
-        <label for="from">
-            From
-        </label>
-        """;
-        String fromInput = """ 
-        <input id="from" type="text"/>
-        """;
-        String button = """  
-        <button> Furthest Destination From </button>
-        """;
-        return fromLabel + fromInput + button;
+        // this prompt never changes, so it is only ever built once
+        return FURTHEST_DESTINATION_PROMPT_HTML;
     }
 
     /**
@@ -123,28 +120,24 @@ public class Frontend implements FrontendInterface{
         if (start.equals("")){
             return startParagraph + "<p>Error: Incomplete input</p>";
         }
-	String furthestDest;
+	//Gets the furthest destination and the shortest path to it, together
+	List<String> path;
 	try {
-     	   furthestDest = backend.getFurthestDestinationFrom(start);
+     	   path = backend.findPathToFurthestDestinationFrom(start);
 	}
 	catch (NoSuchElementException e){
              return startParagraph + "<p>Error: Invalid Input</p>";
 	}
-        if (furthestDest == null) {
+        if (path == null || path.isEmpty()) {
             return startParagraph + "<p>Error: Could not determine the furthest destination.</p>";
         }
+        String furthestDest = path.get(path.size() - 1);
     
         String destinationParagraph = String.format("""
         <p>
             Furthest destination found: %s.
         </p>
         """, furthestDest);
-	    //Gets shortest path    
-        List<String> path = backend.findLocationsOnShortestPath(start, furthestDest);
-        //No Path Exists
-        if (path == null || path.isEmpty()) {
-            return startParagraph + destinationParagraph + "<p>Error: Could not find a valid path.</p>";
-        }
     
         StringBuilder pathList = new StringBuilder();
         pathList.append("<ol>");
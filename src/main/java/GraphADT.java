@@ -1,5 +1,6 @@
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.ObjIntConsumer;
 
 /**
  * This ADT represents a directed graph data structure with only positive edge 
@@ -137,5 +138,82 @@ public interface GraphADT<NodeType, EdgeType extends Number> {
    *         start node to the end node
    */
   public double shortestPathCost(NodeType start, NodeType end);
+
+  /**
+   * Returns the shortest path from the node containing the start data to the
+   * node containing the end data: the data of each node along it, the weight
+   * of each of its edges, and the cost of reaching each of its nodes. All of
+   * this comes from a single search, so it is cheaper than calling 
+   * shortestPathData and then getEdge for each step along the path.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end the data item in the destination node for the path
+   * @return the shortest path between these nodes
+   * @throws NoSuchElementException if either the start or end node cannot
+   *         be found in the graph, or if there is no directed path from the
+   *         start node to the end node
+   */
+  public ShortestPath<NodeType> shortestPath(NodeType start, NodeType end);
+
+  /**
+   * Returns the costs of the shortest paths from the node containing the 
+   * start data to each of the nodes containing the end data. All of these 
+   * costs are computed by a single search from start, which stops as soon as
+   * every one of the ends has been reached.
+   *
+   * @param start the data item in the starting node for every path
+   * @param ends the data items in the destination nodes for each path
+   * @return an array with the cost of the shortest path to each of the ends,
+   *         in the same order as ends, containing Double.POSITIVE_INFINITY 
+   *         for ends that are not in the graph or that cannot be reached
+   * @throws NoSuchElementException if the start node cannot be found in the
+   *         graph
+   */
+  public double[] shortestPathCosts(NodeType start, List<NodeType> ends);
+
+  /**
+   * Returns the costs of the shortest paths from each of the nodes containing
+   * the start data to each of the nodes containing the end data, with one row
+   * for each start and one column for each end. Each row is computed by a 
+   * single search from its start, which stops as soon as every one of the 
+   * ends has been reached, and these searches may run in parallel.
+   *
+   * @param starts the data items in the starting nodes, one for each row
+   * @param ends the data items in the destination nodes, one for each column
+   * @return a matrix with the cost of the shortest path from starts.get(i) 
+   *         to ends.get(j) in row i and column j, containing 
+   *         Double.POSITIVE_INFINITY when either node is not in the graph or
+   *         when there is no such path
+   */
+  public double[][] shortestPathCostMatrix(List<NodeType> starts, List<NodeType> ends);
+
+  /**
+   * Computes the same matrix as shortestPathCostMatrix(starts, ends), but 
+   * passes each of its rows to rows as soon as they are ready, instead of 
+   * holding all of them at once.  This lets matrices that are too large to 
+   * keep in memory be written out one row at a time.  The rows are passed in 
+   * order, on the thread that called this method.
+   *
+   * @param starts the data items in the starting nodes, one for each row
+   * @param ends the data items in the destination nodes, one for each column
+   * @param rows accepts each row of the matrix, along with the index of the 
+   *        start that it belongs to
+   */
+  public void shortestPathCostMatrix(List<NodeType> starts, List<NodeType> ends,
+      ObjIntConsumer<double[]> rows);
+
+  /**
+   * Returns the tree of shortest paths from the node containing the start
+   * data to every node that can be reached from it.  This whole tree is 
+   * computed by a single search from start, so it is much cheaper than 
+   * calling shortestPathCost once for each destination.
+   *
+   * @param start the data item in the starting node for every path
+   * @return the cost of, and the predecessor along, the shortest path to 
+   *         every node reachable from start
+   * @throws NoSuchElementException if the start node cannot be found in the
+   *         graph
+   */
+  public ShortestPathTree<NodeType> shortestPathTree(NodeType start);
     
 }
\ No newline at end of file
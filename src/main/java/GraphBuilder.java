@@ -0,0 +1,224 @@
+import java.util.Arrays;
+
+/**
+ * A GraphBuilder collects the nodes and edges of a graph, like those read
+ * from a file, and then creates the whole graph at once, rather than
+ * inserting them one at a time. Inserting an edge into a graph looks up both
+ * of its nodes and checks whether there is already an edge between them. The
+ * builder instead numbers each node's data once, as it is added, and appends
+ * each edge to arrays of those numbers. Building then groups the edges by
+ * their predecessors to find any duplicates, of which the last one added
+ * wins, just like updating an edge's weight with insertEdge. Finally, it
+ * creates every node and edge in a single pass, with lists and tables that
+ * are already the right size.
+ *
+ * A builder can fill a DijkstraGraph (or any other empty BaseGraph, like one
+ * of the search engines), or create a CompressedGraph directly, without the
+ * Node and Edge objects in between. Either way, the result has exactly the
+ * nodes, ids, edges and edge orders that inserting the same nodes and edges
+ * one at a time would give it, so it finds exactly the same paths.
+ */
+public class GraphBuilder<NodeType, EdgeType extends Number> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // the number of nodes and edges to make room for, at first and after
+    // each build
+    private final int expectedNodes;
+    private final int expectedEdges;
+    // the id of each node's data, in the order that they were added
+    private NodeDictionary<NodeType> ids;
+    // the predecessor id, successor id and weight of each edge, in the order
+    // that they were added, of which only edgeCount are used
+    private int[] preds;
+    private int[] succs;
+    private Object[] weights;
+    private int edgeCount = 0;
+
+    /**
+     * Creates an empty builder.
+     */
+    public GraphBuilder() {
+        this(DEFAULT_CAPACITY, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty builder with room for the nodes and edges of a graph
+     * of the expected size before it needs to grow.
+     *
+     * @param expectedNodes the number of nodes to make room for
+     * @param expectedEdges the number of edges to make room for
+     */
+    public GraphBuilder(int expectedNodes, int expectedEdges) {
+        this.expectedNodes = Math.max(expectedNodes, 1);
+        this.expectedEdges = Math.max(expectedEdges, 1);
+        clear();
+    }
+
+    // empties this builder, and makes room for the expected nodes and edges
+    private void clear() {
+        ids = new NodeDictionary<>(expectedNodes);
+        preds = new int[expectedEdges];
+        succs = new int[expectedEdges];
+        weights = new Object[expectedEdges];
+        edgeCount = 0;
+    }
+
+    /**
+     * Adds a node to the graph being built, unless it was already added.
+     *
+     * @param data the data item stored in the node
+     * @return the id that the node will have in the graph
+     * @throws NullPointerException if data is null
+     */
+    public int addNode(NodeType data) {
+        return ids.add(data);
+    }
+
+    /**
+     * Adds a directed edge to the graph being built, along with its nodes
+     * when they have not been added yet. When an edge between the same nodes
+     * was already added, this weight replaces that edge's weight.
+     *
+     * @param pred   the data item contained in the edge's predecessor node
+     * @param succ   the data item contained in the edge's successor node
+     * @param weight the non-negative data item stored in the edge
+     * @throws NullPointerException if pred, succ or weight is null
+     */
+    public void addEdge(NodeType pred, NodeType succ, EdgeType weight) {
+        if (weight == null)
+            throw new NullPointerException("Edges cannot weigh null");
+        int predId = ids.add(pred);
+        int succId = ids.add(succ);
+        if (edgeCount == preds.length) {
+            preds = Arrays.copyOf(preds, edgeCount * 2);
+            succs = Arrays.copyOf(succs, edgeCount * 2);
+            weights = Arrays.copyOf(weights, edgeCount * 2);
+        }
+        preds[edgeCount] = predId;
+        succs[edgeCount] = succId;
+        weights[edgeCount++] = weight;
+    }
+
+    /**
+     * Returns the number of nodes that have been added to this builder.
+     */
+    public int getNodeCount() {
+        return ids.size();
+    }
+
+    /**
+     * Returns the number of edges that have been added to this builder,
+     * including any that duplicate earlier edges.
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Creates a DijkstraGraph with the nodes and edges added to this builder,
+     * and then empties this builder.
+     *
+     * @return the new graph
+     */
+    public DijkstraGraph<NodeType, EdgeType> build() {
+        DijkstraGraph<NodeType, EdgeType> graph = new DijkstraGraph<>();
+        buildInto(graph);
+        return graph;
+    }
+
+    /**
+     * Adds the nodes and edges added to this builder to graph, and then
+     * empties this builder. When graph is an empty BaseGraph, it is filled in
+     * a single pass. Otherwise, the nodes and edges are inserted into graph
+     * one at a time, in the order they were added, with each edge weight
+     * replacing the weight of any edge that graph already had between the
+     * same nodes.
+     *
+     * @param graph the graph to add the nodes and edges to
+     */
+    @SuppressWarnings("unchecked")
+    public void buildInto(GraphADT<NodeType, EdgeType> graph) {
+        removeDuplicates();
+        if (graph instanceof BaseGraph && graph.getNodeCount() == 0) {
+            ((BaseGraph<NodeType, EdgeType>) graph).load(ids, preds, succs, weights, edgeCount);
+        } else {
+            for (int id = 0; id < ids.size(); id++)
+                graph.insertNode(ids.getData(id));
+            for (int i = 0; i < edgeCount; i++)
+                graph.insertEdge(ids.getData(preds[i]), ids.getData(succs[i]),
+                        (EdgeType) weights[i]);
+        }
+        clear();
+    }
+
+    /**
+     * Creates an immutable CompressedGraph with the nodes and edges added to
+     * this builder, without creating a DijkstraGraph first, and then empties
+     * this builder. Its getAllNodes lists nodes in the order of their ids.
+     *
+     * @return the new snapshot
+     */
+    public CompressedGraph<NodeType> buildCompressed() {
+        removeDuplicates();
+        double[] edgeWeights = new double[edgeCount];
+        for (int i = 0; i < edgeCount; i++)
+            edgeWeights[i] = ((Number) weights[i]).doubleValue();
+        CompressedGraph<NodeType> snapshot =
+                new CompressedGraph<>(ids, preds, succs, edgeWeights, edgeCount);
+        clear();
+        return snapshot;
+    }
+
+    // Removes each edge between the same nodes as an earlier edge, after
+    // giving that earlier edge its weight, so that the last weight added for
+    // each pair of nodes wins while the edge keeps the position where it was
+    // first added. The edges that could be duplicates are brought together by
+    // a stable counting sort on their predecessors, and then each of those
+    // groups is checked by marking the successors seen within it.
+    private void removeDuplicates() {
+        int count = ids.size();
+        int[] starts = new int[count + 1];
+        for (int i = 0; i < edgeCount; i++)
+            starts[preds[i] + 1]++;
+        for (int id = 0; id < count; id++)
+            starts[id + 1] += starts[id];
+        int[] next = Arrays.copyOf(starts, count);
+        int[] sorted = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++)
+            sorted[next[preds[i]]++] = i;
+        // seenFrom[succ] is the last predecessor with an edge to succ that was
+        // checked, and firstEdge[succ] is that predecessor's first such edge
+        int[] seenFrom = new int[count];
+        Arrays.fill(seenFrom, -1);
+        int[] firstEdge = new int[count];
+        boolean[] duplicate = new boolean[edgeCount];
+        boolean anyDuplicates = false;
+        for (int pred = 0; pred < count; pred++) {
+            for (int position = starts[pred]; position < starts[pred + 1]; position++) {
+                int edge = sorted[position];
+                int succ = succs[edge];
+                if (seenFrom[succ] != pred) {
+                    seenFrom[succ] = pred;
+                    firstEdge[succ] = edge;
+                } else {
+                    weights[firstEdge[succ]] = weights[edge];
+                    duplicate[edge] = true;
+                    anyDuplicates = true;
+                }
+            }
+        }
+        if (!anyDuplicates)
+            return;
+        int kept = 0;
+        for (int i = 0; i < edgeCount; i++) {
+            if (!duplicate[i]) {
+                preds[kept] = preds[i];
+                succs[kept] = succs[i];
+                weights[kept++] = weights[i];
+            }
+        }
+        Arrays.fill(weights, kept, edgeCount, null);
+        edgeCount = kept;
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.Locale;
+
+/**
+ * This class creates the graph that WebApp answers its queries with, using
+ * the search engine configured through the campuspath.engine system
+ * property, for example:
+ *
+ *     java -Dcampuspath.engine=bidirectional WebApp 80
+ *
+ * Every engine finds paths of the same (shortest) cost, but when several
+ * paths tie, different engines may choose different ones among them.
+ */
+public class GraphEngines {
+
+    /**
+     * The search engines that can answer point to point queries.
+     */
+    public enum Engine {
+        // a single forward Dijkstra search from the start
+        DIJKSTRA,
+        // forward and backward Dijkstra searches that meet in the middle
+        BIDIRECTIONAL,
+        // an A* search guided by lower bounds from precomputed landmarks
+        LANDMARKS,
+        // bidirectional searches that only climb a precomputed node hierarchy
+        CONTRACTION_HIERARCHY,
+        // a forward search that orders its frontier in buckets of similar cost
+        BUCKET_QUEUE,
+        // a forward search, with parallel delta-stepping for single source queries
+        DELTA_STEPPING
+    }
+
+    public static final String ENGINE_PROPERTY = "campuspath.engine";
+    public static final Engine DEFAULT_ENGINE = Engine.DIJKSTRA;
+
+    /**
+     * Reads the engine from the campuspath.engine system property.
+     *
+     * @return the configured engine, or DEFAULT_ENGINE when none is set
+     * @throws IllegalArgumentException if the property names no known engine
+     */
+    public static Engine getConfiguredEngine() {
+        String engine = System.getProperty(ENGINE_PROPERTY);
+        if (engine == null || engine.isBlank())
+            return DEFAULT_ENGINE;
+        return parseEngine(engine);
+    }
+
+    /**
+     * Converts an engine name like "dijkstra" or "landmarks" into an Engine.
+     *
+     * @param name the case insensitive name of an engine
+     * @return the engine with that name
+     * @throws IllegalArgumentException if there is no engine with that name
+     */
+    public static Engine parseEngine(String name) {
+        String normalized = name.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        try {
+            return Engine.valueOf(normalized);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + ENGINE_PROPERTY + ": " + name);
+        }
+    }
+
+    /**
+     * Creates an empty graph that answers its queries with engine.
+     *
+     * @param engine the search engine to use
+     * @return a new, empty graph
+     */
+    public static <NodeType, EdgeType extends Number> DijkstraGraph<NodeType, EdgeType>
+            create(Engine engine) {
+        switch (engine) {
+        case DIJKSTRA:
+            return new DijkstraGraph<>();
+        case BIDIRECTIONAL:
+            return new BidirectionalDijkstraGraph<>();
+        case LANDMARKS:
+            return new LandmarkDijkstraGraph<>();
+        case CONTRACTION_HIERARCHY:
+            return new ContractionHierarchyGraph<>();
+        case BUCKET_QUEUE:
+            return new BucketQueueDijkstraGraph<>();
+        case DELTA_STEPPING:
+            return new DeltaSteppingDijkstraGraph<>();
+        default:
+            throw new IllegalArgumentException("Unsupported engine: " + engine);
+        }
+    }
+}
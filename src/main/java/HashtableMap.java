@@ -81,17 +81,19 @@ public class HashtableMap <KeyType, ValueType> implements MapADT <KeyType, Value
   }
 
   /**
-   * The rehashTable method is a private helper method which doubles the size of the hash table and
-   * reinserts all existing key-value pairs to maintain the hash table's performance. This method is
-   * called when the load factor exceeds our threshold of 0.80.
+   * The rehashTable method is a private helper method which grows the hash table to a new
+   * capacity and reinserts all existing key-value pairs to maintain the hash table's performance.
+   * This method is called with double the current capacity when the load factor exceeds our
+   * threshold of 0.80.
+   * @param capacity the number of buckets in the new hash table, a multiple of the current number
    */
 
   @SuppressWarnings("unchecked")
-  private void rehashTable() {
+  private void rehashTable(int capacity) {
     // Save a reference to our current table
     LinkedList<Pair>[] oldTable = table;
-    // Creates a new table with it being double the size of the old one
-    LinkedList<Pair>[] newTable = (LinkedList<Pair>[]) new LinkedList[oldTable.length * 2];
+    // Creates a new table with the new capacity
+    LinkedList<Pair>[] newTable = (LinkedList<Pair>[]) new LinkedList[capacity];
     // Initialize each linked list in the new table
     for (int i = 0; i < newTable.length; i++) {
       newTable[i] = new LinkedList<>();
@@ -137,7 +139,23 @@ public class HashtableMap <KeyType, ValueType> implements MapADT <KeyType, Value
     size++; // Increment the number of key-value pairs in the table
     // If the load exceeds 0.8, rehash the table to maintain the hashtable's performance
     if ((double) size / table.length >= 0.8) {
-      rehashTable();
+      rehashTable(table.length * 2);
+    }
+  }
+
+  /**
+   * Grows the hash table, when needed, to the capacity that putting expectedSize keys into this map
+   * one at a time would have grown it to, with a single rehash. Since each bucket keeps its keys in
+   * the order they were put, this does not change the order that getKeys lists them in.
+   * @param expectedSize the number of keys to make room for
+   */
+  public void ensureCapacity(int expectedSize) {
+    int capacity = table.length;
+    while ((double) expectedSize / capacity >= 0.8) {
+      capacity *= 2;
+    }
+    if (capacity > table.length) {
+      rehashTable(capacity);
     }
   }
 
@@ -0,0 +1,301 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * An HtmlTemplate is an html document that has been parsed once into the
+ * static bytes that never change between responses, and the named slots
+ * (placeholder comments like "<!-- RESPONSE GOES HERE -->") that are filled
+ * in differently for each response. Writing a response splices the encoded
+ * slot values between those static segments directly into an OutputStream,
+ * so the complete page never needs to be assembled as a String.
+ *
+ * Templates are immutable, and so can be shared by any number of threads.
+ */
+public class HtmlTemplate {
+
+    // static bytes before, between and after the slots in document order:
+    // there is always exactly one more segment than there are slots
+    private final byte[][] segments;
+    // for each slot in document order, the index of its placeholder within
+    // the placeholders array, which is also the index of its write argument
+    private final int[] slotArguments;
+    // placeholders that this template still expects values for, in the
+    // order that those values are passed to write and getContentLength
+    private final String[] placeholders;
+    // raw deflate encodings of the segments, created by the first call to
+    // gzip, which are reused for every compressed response after that
+    private volatile byte[][] deflatedSegments = null;
+
+    // the fixed header of every gzip response: deflate, no name or time
+    private static final byte[] GZIP_HEADER = {
+        0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    /**
+     * Parses an html template from source. Only the first occurrence of each
+     * placeholder is treated as a slot, and placeholders that do not occur
+     * within the source are accepted but have their values ignored.
+     *
+     * @param source       the complete text of the html template
+     * @param placeholders the text of each slot within that source, in the
+     *                     order that their values will be passed to write
+     */
+    public HtmlTemplate(String source, String... placeholders) {
+        // find where each placeholder first occurs in source
+        List<int[]> found = new ArrayList<>(); // {position, argument index}
+        for (int i = 0; i < placeholders.length; i++) {
+            int position = source.indexOf(placeholders[i]);
+            if (position >= 0)
+                found.add(new int[] { position, i });
+        }
+        found.sort((a, b) -> Integer.compare(a[0], b[0]));
+        // then cut the source into static segments around those slots
+        this.segments = new byte[found.size() + 1][];
+        this.slotArguments = new int[found.size()];
+        int segmentStart = 0;
+        for (int i = 0; i < found.size(); i++) {
+            int position = found.get(i)[0];
+            if (position < segmentStart)
+                throw new IllegalArgumentException("Placeholder " +
+                        placeholders[found.get(i)[1]] + " overlaps another placeholder.");
+            segments[i] = encode(source.substring(segmentStart, position));
+            slotArguments[i] = found.get(i)[1];
+            segmentStart = position + placeholders[found.get(i)[1]].length();
+        }
+        segments[found.size()] = encode(source.substring(segmentStart));
+        this.placeholders = placeholders.clone();
+    }
+
+    // used by bind to create templates from already parsed segments
+    private HtmlTemplate(byte[][] segments, int[] slotArguments, String[] placeholders) {
+        this.segments = segments;
+        this.slotArguments = slotArguments;
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * Reads and parses an html template from a file.
+     *
+     * @param filename     the path to the html template file
+     * @param placeholders the text of each slot within that file
+     * @return the parsed template
+     * @throws IOException if there was any problem reading from this file
+     */
+    public static HtmlTemplate load(String filename, String... placeholders)
+            throws IOException {
+        return new HtmlTemplate(Files.readString(Path.of(filename)), placeholders);
+    }
+
+    /**
+     * Creates a new template in which one placeholder is permanently filled
+     * with the provided value. This is useful for content that is the same
+     * within every response, since it is then encoded only once.
+     *
+     * @param placeholder one of the placeholders this template expects
+     * @param value       the text to permanently replace it with
+     * @return a template that no longer expects a value for placeholder
+     * @throws IllegalArgumentException if this template does not expect a
+     *                                  value for that placeholder
+     */
+    public HtmlTemplate bind(String placeholder, String value) {
+        int argument = Arrays.asList(placeholders).indexOf(placeholder);
+        if (argument < 0)
+            throw new IllegalArgumentException("Template has no placeholder " + placeholder);
+        // remove this placeholder from the list of expected write arguments
+        String[] remaining = new String[placeholders.length - 1];
+        for (int i = 0, j = 0; i < placeholders.length; i++)
+            if (i != argument)
+                remaining[j++] = placeholders[i];
+        // and merge its slot (if it occurs) into the surrounding segments
+        int slot = -1;
+        for (int i = 0; i < slotArguments.length; i++)
+            if (slotArguments[i] == argument)
+                slot = i;
+        int slotCount = slotArguments.length - (slot < 0 ? 0 : 1);
+        byte[][] newSegments = new byte[slotCount + 1][];
+        int[] newArguments = new int[slotCount];
+        for (int i = 0, j = 0; i < slotArguments.length; i++) {
+            if (i == slot)
+                continue; // segments around bound slot are joined below
+            newArguments[j] = slotArguments[i] - (slotArguments[i] > argument ? 1 : 0);
+            j++;
+        }
+        for (int i = 0, j = 0; i < segments.length; i++) {
+            if (i == slot) {
+                newSegments[j++] = concat(segments[i], encode(value), segments[i + 1]);
+                i++; // the segment following the bound slot was consumed
+            } else
+                newSegments[j++] = segments[i];
+        }
+        return new HtmlTemplate(newSegments, newArguments, remaining);
+    }
+
+    /**
+     * Returns the placeholders that this template still expects values for.
+     *
+     * @return placeholders in the order that their values are written
+     */
+    public List<String> getPlaceholders() {
+        return List.of(placeholders);
+    }
+
+    /**
+     * Computes the number of bytes that write will produce for these values.
+     *
+     * @param values the encoded value for each placeholder
+     * @return the length of the complete response in bytes
+     */
+    public long getContentLength(byte[]... values) {
+        checkValues(values);
+        long length = 0;
+        for (byte[] segment : segments)
+            length += segment.length;
+        for (int argument : slotArguments)
+            length += values[argument].length;
+        return length;
+    }
+
+    /**
+     * Writes the complete response for these values to out, alternating
+     * between this template's static segments and the slot values.
+     *
+     * @param out    the stream to write this response to
+     * @param values the encoded value for each placeholder
+     * @throws IOException if there is any problem writing to out
+     */
+    public void write(OutputStream out, byte[]... values) throws IOException {
+        checkValues(values);
+        for (int i = 0; i < slotArguments.length; i++) {
+            out.write(segments[i]);
+            out.write(values[slotArguments[i]]);
+        }
+        out.write(segments[segments.length - 1]);
+    }
+
+    /**
+     * Creates the gzip encoding of the response for these values. Each of
+     * this template's static segments is compressed only once, and then
+     * reused by every call, so each response only requires compressing its
+     * values. This works because every segment and value is compressed into
+     * deflate blocks that end on a byte boundary (using a sync flush), which
+     * are then simply concatenated within a single gzip member.
+     *
+     * @param values the encoded value for each placeholder
+     * @return the complete gzip encoded response
+     */
+    public byte[] gzip(byte[]... values) {
+        checkValues(values);
+        byte[][] deflated = getDeflatedSegments();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                (int) Math.min(Integer.MAX_VALUE, getContentLength(values) / 3 + 64));
+        out.writeBytes(GZIP_HEADER);
+        CRC32 crc = new CRC32();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            for (int i = 0; i < slotArguments.length; i++) {
+                out.writeBytes(deflated[i]);
+                crc.update(segments[i]);
+                byte[] value = values[slotArguments[i]];
+                deflate(deflater, value, out, false);
+                crc.update(value);
+                deflater.reset(); // values never refer back to each other
+            }
+        } finally {
+            deflater.end();
+        }
+        out.writeBytes(deflated[segments.length - 1]);
+        crc.update(segments[segments.length - 1]);
+        // the trailer holds the crc and length of the uncompressed response
+        writeIntLE(out, (int) crc.getValue());
+        writeIntLE(out, (int) getContentLength(values));
+        return out.toByteArray();
+    }
+
+    // compresses every segment the first time this is called: the last one
+    // ends the deflate stream, and every other is followed by more blocks
+    private byte[][] getDeflatedSegments() {
+        byte[][] deflated = deflatedSegments;
+        if (deflated == null) {
+            deflated = new byte[segments.length][];
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+            try {
+                for (int i = 0; i < segments.length; i++) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    deflate(deflater, segments[i], out, i == segments.length - 1);
+                    deflated[i] = out.toByteArray();
+                    deflater.reset();
+                }
+            } finally {
+                deflater.end();
+            }
+            deflatedSegments = deflated; // racing threads create equal arrays
+        }
+        return deflated;
+    }
+
+    // compresses input into independent raw deflate blocks, which either end
+    // the stream (when last) or end with a sync flush on a byte boundary
+    private static void deflate(Deflater deflater, byte[] input, ByteArrayOutputStream out,
+            boolean last) {
+        byte[] buffer = new byte[Math.max(64, input.length / 2 + 64)];
+        deflater.setInput(input);
+        if (last) {
+            deflater.finish();
+            while (!deflater.finished())
+                out.write(buffer, 0, deflater.deflate(buffer));
+        } else {
+            int count;
+            // a sync flush is complete once it no longer fills the buffer
+            do {
+                count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                out.write(buffer, 0, count);
+            } while (count == buffer.length);
+        }
+    }
+
+    private static void writeIntLE(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    /**
+     * Encodes html text into the bytes that are sent with each response.
+     *
+     * @param html the text to encode
+     * @return the UTF-8 encoding of that text
+     */
+    public static byte[] encode(String html) {
+        return html.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ensures the caller passed exactly one value per expected placeholder
+    private void checkValues(byte[][] values) {
+        if (values.length != placeholders.length)
+            throw new IllegalArgumentException("Expected " + placeholders.length +
+                    " template values, but found " + values.length);
+    }
+
+    // joins several byte arrays together into a single new array
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts)
+            length += part.length;
+        byte[] joined = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, joined, offset, part.length);
+            offset += part.length;
+        }
+        return joined;
+    }
+}
@@ -0,0 +1,228 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * An IndexedDaryHeap is a min priority queue of int indexes (like the index
+ * of each node within a graph), each with a double key. Unlike a
+ * java.util.PriorityQueue, it holds each index at most once and can lower
+ * the key of an index that it already holds (decrease-key), so a Dijkstra
+ * search never has to skip over stale entries. Everything is stored in
+ * primitive arrays, so no objects are allocated for its entries.
+ *
+ * Each slot of the heap has d children rather than two, which makes the
+ * heap shallower: pushes and decrease-keys, which are more common than pops
+ * within a shortest path search, then move through fewer levels.
+ */
+public class IndexedDaryHeap {
+
+    public static final int DEFAULT_ARITY = 4;
+
+    private final int arity;
+    // the index held in each slot of the heap, of which only size are used
+    private int[] heap;
+    // the slot holding each index, or -1 when that index is not in the heap
+    private int[] slots;
+    // the key of each index, which is only meaningful while it is held
+    private double[] keys;
+    private int size = 0;
+
+    // how many operations this heap has performed since it was created
+    private long pushCount = 0;
+    private long popCount = 0;
+    private long decreaseCount = 0;
+
+    /**
+     * Creates an empty heap for the indexes 0 through capacity - 1, whose
+     * slots each have DEFAULT_ARITY children.
+     *
+     * @param capacity one more than the largest index this heap can hold
+     */
+    public IndexedDaryHeap(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    /**
+     * Creates an empty heap for the indexes 0 through capacity - 1.
+     *
+     * @param capacity one more than the largest index this heap can hold
+     * @param arity    the number of children of each slot, at least 2
+     */
+    public IndexedDaryHeap(int capacity, int arity) {
+        if (arity < 2)
+            throw new IllegalArgumentException("Arity must be at least 2, but was " + arity);
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.slots = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(slots, -1);
+    }
+
+    /**
+     * Returns one more than the largest index this heap can hold.
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Returns the number of indexes within this heap.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether this heap holds no indexes.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether this heap currently holds index.
+     */
+    public boolean contains(int index) {
+        return slots[index] >= 0;
+    }
+
+    /**
+     * Returns the key of an index within this heap.
+     *
+     * @throws NoSuchElementException if index is not within this heap
+     */
+    public double getKey(int index) {
+        if (slots[index] < 0)
+            throw new NoSuchElementException("Index " + index + " is not in the heap");
+        return keys[index];
+    }
+
+    /**
+     * Adds index to this heap with key, or lowers its key to key if it is
+     * already held with a larger one.
+     *
+     * @param index the index to add or update
+     * @param key   the new key for that index
+     * @return true if index was added or its key was lowered, or false if it
+     *         was already held with a key no larger than key
+     */
+    public boolean push(int index, double key) {
+        int slot = slots[index];
+        if (slot >= 0) {
+            if (key >= keys[index])
+                return false;
+            keys[index] = key;
+            decreaseCount++;
+            siftUp(slot, index);
+            return true;
+        }
+        keys[index] = key;
+        pushCount++;
+        siftUp(size++, index);
+        return true;
+    }
+
+    /**
+     * Returns the index with the smallest key, without removing it.
+     *
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public int peek() {
+        if (size == 0)
+            throw new NoSuchElementException("The heap is empty");
+        return heap[0];
+    }
+
+    /**
+     * Removes and returns the index with the smallest key. Its key can still
+     * be read from the caller's own records, since getKey no longer applies.
+     *
+     * @return the index that had the smallest key
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public int pop() {
+        if (size == 0)
+            throw new NoSuchElementException("The heap is empty");
+        int top = heap[0];
+        slots[top] = -1;
+        popCount++;
+        size--;
+        if (size > 0)
+            siftDown(0, heap[size]);
+        return top;
+    }
+
+    /**
+     * Removes every index from this heap. This only touches the slots that
+     * are in use, so clearing a nearly empty heap is cheap.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            slots[heap[i]] = -1;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of indexes that have been added to this heap.
+     */
+    public long getPushCount() {
+        return pushCount;
+    }
+
+    /**
+     * Returns the number of indexes that have been popped from this heap.
+     */
+    public long getPopCount() {
+        return popCount;
+    }
+
+    /**
+     * Returns the number of times the key of a held index was lowered.
+     */
+    public long getDecreaseCount() {
+        return decreaseCount;
+    }
+
+    // moves index up from slot until its parent's key is no larger
+    private void siftUp(int slot, int index) {
+        double key = keys[index];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) / arity;
+            int parent = heap[parentSlot];
+            if (keys[parent] <= key)
+                break;
+            heap[slot] = parent;
+            slots[parent] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = index;
+        slots[index] = slot;
+    }
+
+    // moves index down from slot until no child has a smaller key
+    private void siftDown(int slot, int index) {
+        double key = keys[index];
+        while (true) {
+            int firstChild = slot * arity + 1;
+            if (firstChild >= size)
+                break;
+            int lastChild = Math.min(firstChild + arity, size);
+            int minSlot = firstChild;
+            double minKey = keys[heap[firstChild]];
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                double childKey = keys[heap[child]];
+                if (childKey < minKey) {
+                    minSlot = child;
+                    minKey = childKey;
+                }
+            }
+            if (minKey >= key)
+                break;
+            int minIndex = heap[minSlot];
+            heap[slot] = minIndex;
+            slots[minIndex] = slot;
+            slot = minSlot;
+        }
+        heap[slot] = index;
+        slots[index] = slot;
+    }
+}
@@ -0,0 +1,255 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Request handlers for the JSON API that WebApp serves to programmatic
+ * clients like kiosks and mobile apps. These answer the same questions as
+ * the html pages, through the same BackendInterface calls, but skip the
+ * Frontend and template entirely by streaming compact JSON straight into the
+ * exchange's response body:
+ *
+ *     /api/path?start=A&end=B
+ *         {"start":"A","end":"B","path":["A",...,"B"],"seconds":[...],"total":...}
+ *     /api/furthest?from=A
+ *         {"from":"A","destination":"Z","path":["A",...,"Z"],"seconds":[...],"total":...}
+ *
+ *     POST /api/batch with a body like [["A","B"],["C","D"],...]
+ *         {"seconds":[...]}
+ *
+ * The batch endpoint answers the walking time for every (start, end) pair in
+ * its body, in the same order as those pairs, with null for any pair that
+ * has no path.
+ *
+ * Requests with missing arguments are answered with status 400, and those
+ * naming unknown locations or unreachable destinations with status 404. In
+ * both cases the body is an object like {"error":"..."}.
+ */
+public class JsonApi {
+
+    private static final String CONTENT_TYPE = "application/json; charset=utf-8";
+    // the most (start, end) pairs accepted within a single batch request
+    static final int MAX_BATCH_SIZE = 100_000;
+
+    /**
+     * One of the endpoints of this API, like handlePath or handleFurthest.
+     */
+    public interface Endpoint {
+        void handle(HttpExchange exchange, BackendInterface backend) throws IOException;
+    }
+
+    /**
+     * Creates an HttpHandler that answers requests with endpoint, using the
+     * backend that is current when each request arrives. Any unexpected
+     * exception thrown by endpoint is reported to the access log, and
+     * answered with status 500. Every request is timed and counted in route.
+     *
+     * @param endpoint the endpoint that requests are answered by
+     * @param backend  supplies the backend to answer each request with
+     * @param route    the metrics to record each request in
+     * @param kind     the kind of request that endpoint answers
+     * @return a handler that can be registered with an HttpServer context
+     */
+    public static HttpHandler handler(Endpoint endpoint, Supplier<BackendInterface> backend,
+            ServerMetrics.Route route, ServerMetrics.Kind kind) {
+        return exchange -> {
+            ServerMetrics.Request request = route.begin();
+            try {
+                endpoint.handle(exchange, backend.get());
+            } catch (Exception e) {
+                AccessLog.reportError(e);
+                // attempt to send 500 Server Error Response to client
+                try { exchange.sendResponseHeaders(500, -1); }
+                catch (IOException i) {} // do nothing when this fails
+            } finally {
+                exchange.close();
+                request.end(kind, exchange.getResponseCode());
+            }
+        };
+    }
+
+    /**
+     * Answers a shortest path request from its start and end arguments.
+     *
+     * @param exchange the request to respond to
+     * @param backend  used to compute the shortest path
+     * @throws IOException if there is any problem sending the response
+     */
+    public static void handlePath(HttpExchange exchange, BackendInterface backend)
+            throws IOException {
+        Map<String, String> args = parseArguments(exchange);
+        if (args == null)
+            return;
+        String start = args.get("start");
+        String end = args.get("end");
+        if (start == null || end == null || start.isEmpty() || end.isEmpty()) {
+            sendError(exchange, 400, "Both start and end arguments are required.");
+            return;
+        }
+        ShortestPath<String> route;
+        try {
+            route = backend.findShortestPath(start, end);
+        } catch (NoSuchElementException e) {
+            sendError(exchange, 404, "Could not find a valid path.");
+            return;
+        }
+        try (JsonWriter json = beginResponse(exchange, 200)) {
+            json.beginObject()
+                .name("start").value(start)
+                .name("end").value(end);
+            writeRoute(json, route.getNodes(), route.getWeights());
+            json.endObject();
+        }
+    }
+
+    /**
+     * Answers a furthest destination request from its from argument.
+     *
+     * @param exchange the request to respond to
+     * @param backend  used to compute the furthest destination
+     * @throws IOException if there is any problem sending the response
+     */
+    public static void handleFurthest(HttpExchange exchange, BackendInterface backend)
+            throws IOException {
+        Map<String, String> args = parseArguments(exchange);
+        if (args == null)
+            return;
+        String from = args.get("from");
+        if (from == null || from.isEmpty()) {
+            sendError(exchange, 400, "The from argument is required.");
+            return;
+        }
+        ShortestPath<String> route;
+        try {
+            route = backend.findShortestPathToFurthestDestinationFrom(from);
+        } catch (NoSuchElementException e) {
+            sendError(exchange, 404, e.getMessage());
+            return;
+        }
+        try (JsonWriter json = beginResponse(exchange, 200)) {
+            json.beginObject()
+                .name("from").value(from)
+                .name("destination").value(route.getEnd());
+            writeRoute(json, route.getNodes(), route.getWeights());
+            json.endObject();
+        }
+    }
+
+    /**
+     * Answers a batch of (start, end) pairs posted as a JSON array of two
+     * element arrays, with the walking time of the shortest path for each.
+     *
+     * @param exchange the request to respond to
+     * @param backend  used to compute the walking times
+     * @throws IOException if there is any problem sending the response
+     */
+    public static void handleBatch(HttpExchange exchange, BackendInterface backend)
+            throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            sendError(exchange, 405, "Batches must be sent with POST.");
+            return;
+        }
+        List<String> starts = new ArrayList<>();
+        List<String> ends = new ArrayList<>();
+        try {
+            JsonReader reader = new JsonReader(new BufferedReader(
+                    new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)));
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (starts.size() == MAX_BATCH_SIZE) {
+                    sendError(exchange, 413, "Batches may contain at most " +
+                            MAX_BATCH_SIZE + " pairs.");
+                    return;
+                }
+                reader.beginArray();
+                starts.add(reader.nextString());
+                ends.add(reader.nextString());
+                reader.endArray();
+            }
+            reader.endArray();
+            reader.endDocument();
+        } catch (JsonReader.MalformedJsonException e) {
+            sendError(exchange, 400, "Expected an array of [start, end] pairs: " +
+                    e.getMessage());
+            return;
+        } finally {
+            ServerMetrics.endParse();
+        }
+        double[] seconds = backend.findShortestPathCosts(starts, ends);
+        try (JsonWriter json = beginResponse(exchange, 200)) {
+            json.beginObject().name("seconds").beginArray();
+            for (double cost : seconds)
+                json.value(cost); // infinite costs are written as null
+            json.endArray().endObject();
+        }
+    }
+
+    // writes the path, seconds and total members that describe one route
+    private static void writeRoute(JsonWriter json, List<String> path, List<Double> times)
+            throws IOException {
+        json.name("path").beginArray();
+        for (String location : path)
+            json.value(location);
+        json.endArray();
+        double total = 0.0;
+        json.name("seconds").beginArray();
+        for (double seconds : times) {
+            json.value(seconds);
+            total += seconds;
+        }
+        json.endArray();
+        json.name("total").value(total);
+    }
+
+    // reads the arguments from this exchange's query, or responds with an
+    // error and returns null when that query cannot be parsed
+    static Map<String, String> parseArguments(HttpExchange exchange) throws IOException {
+        try {
+            return WebApp.parseQuery(exchange.getRequestURI().getQuery());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return null;
+        } finally {
+            ServerMetrics.endParse();
+        }
+    }
+
+    /**
+     * Sends the headers for a JSON response whose length is not known ahead
+     * of time, and returns a writer for streaming its body.
+     *
+     * @param exchange the request to respond to
+     * @param status   the http status code of this response
+     * @return a writer that streams into the response body
+     * @throws IOException if there is any problem sending the headers
+     */
+    static JsonWriter beginResponse(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, 0); // 0 sends a chunked body
+        return new JsonWriter(exchange.getResponseBody());
+    }
+
+    /**
+     * Sends an object with a single error member as the response.
+     *
+     * @param exchange the request to respond to
+     * @param status   the http status code of this response
+     * @param message  describes what went wrong
+     * @throws IOException if there is any problem sending the response
+     */
+    static void sendError(HttpExchange exchange, int status, String message)
+            throws IOException {
+        try (JsonWriter json = beginResponse(exchange, status)) {
+            json.beginObject().name("error").value(message).endObject();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A JsonReader reads the arrays and strings of a JSON document one token at
+ * a time from a Reader, which is all that the JSON API needs to read request
+ * bodies like [["A","B"],["C","D"]]. Any other kind of value is rejected.
+ */
+public class JsonReader {
+
+    private final Reader in;
+    // the next unread character, or -1 at the end of input
+    private int next;
+    // whether a comma has to be consumed before the next array element
+    private boolean needsComma = false;
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * Creates a reader over JSON text.
+     *
+     * @param in the source of the JSON text, which should be buffered
+     * @throws IOException if there is any problem reading from in
+     */
+    public JsonReader(Reader in) throws IOException {
+        this.in = in;
+        this.next = in.read();
+    }
+
+    /**
+     * Consumes the opening bracket of an array.
+     *
+     * @throws IOException if the next value is not an array
+     */
+    public void beginArray() throws IOException {
+        beginValue();
+        expect('[');
+        needsComma = false;
+    }
+
+    /**
+     * Consumes the closing bracket of an array.
+     *
+     * @throws IOException if the current array has more elements
+     */
+    public void endArray() throws IOException {
+        skipWhitespace();
+        expect(']');
+        needsComma = true;
+    }
+
+    /**
+     * Checks whether the current array has another element.
+     *
+     * @return true if another element follows, or false at the array's end
+     * @throws IOException if there is any problem reading from the input
+     */
+    public boolean hasNext() throws IOException {
+        skipWhitespace();
+        return next != ']' && next != -1;
+    }
+
+    /**
+     * Reads the next value, which must be a string.
+     *
+     * @return that string with all escape sequences decoded
+     * @throws IOException if the next value is not a string
+     */
+    public String nextString() throws IOException {
+        beginValue();
+        expect('"');
+        text.setLength(0);
+        while (next != '"') {
+            if (next == -1 || next < 0x20)
+                throw error("Unterminated string");
+            if (next == '\\') {
+                advance();
+                switch (next) {
+                case '"': case '\\': case '/': text.append((char) next); break;
+                case 'b': text.append('\b'); break;
+                case 'f': text.append('\f'); break;
+                case 'n': text.append('\n'); break;
+                case 'r': text.append('\r'); break;
+                case 't': text.append('\t'); break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        advance();
+                        int digit = Character.digit(next, 16);
+                        if (digit < 0)
+                            throw error("Invalid unicode escape");
+                        code = code * 16 + digit;
+                    }
+                    text.append((char) code);
+                    break;
+                default:
+                    throw error("Invalid escape sequence");
+                }
+            } else
+                text.append((char) next);
+            advance();
+        }
+        advance();
+        needsComma = true;
+        return text.toString();
+    }
+
+    /**
+     * Checks that nothing but whitespace follows the values read so far.
+     *
+     * @throws IOException if there is more input
+     */
+    public void endDocument() throws IOException {
+        skipWhitespace();
+        if (next != -1)
+            throw error("Unexpected content after end of document");
+    }
+
+    // consumes the comma that separates this value from the previous one
+    private void beginValue() throws IOException {
+        skipWhitespace();
+        if (needsComma) {
+            expect(',');
+            skipWhitespace();
+        }
+    }
+
+    private void expect(char c) throws IOException {
+        if (next != c)
+            throw error("Expected '" + c + "'");
+        advance();
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (next == ' ' || next == '\t' || next == '\n' || next == '\r')
+            advance();
+    }
+
+    private void advance() throws IOException {
+        next = in.read();
+    }
+
+    private IOException error(String message) {
+        return new MalformedJsonException(message + (next == -1 ? " at end of input"
+                : " before '" + (char) next + "'"));
+    }
+
+    /**
+     * Thrown when the JSON text being read does not have the expected shape.
+     */
+    public static class MalformedJsonException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public MalformedJsonException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A JsonWriter streams compact JSON text directly to an OutputStream. Strings
+ * are escaped and UTF-8 encoded character by character into a fixed size
+ * buffer, so writing a document allocates almost nothing beyond that buffer
+ * and the text of any floating point numbers.
+ *
+ * This writer does not validate the structure of the document it writes:
+ * callers are responsible for balancing their begin and end calls, and for
+ * writing a name before each value within an object.
+ */
+public class JsonWriter implements Closeable {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    private static final byte[] NULL = "null".getBytes();
+    private static final byte[] TRUE = "true".getBytes();
+    private static final byte[] FALSE = "false".getBytes();
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count = 0;
+    // whether a comma must be written before the next name or value
+    private boolean needsComma = false;
+
+    /**
+     * Creates a writer with an 8 KiB buffer.
+     *
+     * @param out the stream that JSON text is written to
+     */
+    public JsonWriter(OutputStream out) {
+        this(out, 8192);
+    }
+
+    /**
+     * Creates a writer with a buffer of the provided size.
+     *
+     * @param out        the stream that JSON text is written to
+     * @param bufferSize the number of bytes to collect before writing to out
+     */
+    public JsonWriter(OutputStream out, int bufferSize) {
+        if (bufferSize < 8)
+            throw new IllegalArgumentException("Buffer must hold at least 8 bytes");
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        separate();
+        write('{');
+        needsComma = false;
+        return this;
+    }
+
+    public JsonWriter endObject() throws IOException {
+        write('}');
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        separate();
+        write('[');
+        needsComma = false;
+        return this;
+    }
+
+    public JsonWriter endArray() throws IOException {
+        write(']');
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Writes the name of the next member within an object.
+     *
+     * @param name the member's name
+     * @return this writer, so that its value can be written next
+     * @throws IOException if there is any problem writing to the stream
+     */
+    public JsonWriter name(String name) throws IOException {
+        separate();
+        writeString(name);
+        write(':');
+        needsComma = false;
+        return this;
+    }
+
+    /**
+     * Writes a string value, or null when value is null.
+     */
+    public JsonWriter value(String value) throws IOException {
+        separate();
+        if (value == null)
+            write(NULL);
+        else
+            writeString(value);
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Writes a number value. JSON has no representation for infinite or NaN
+     * values, so those are written as null.
+     */
+    public JsonWriter value(double value) throws IOException {
+        separate();
+        if (Double.isNaN(value) || Double.isInfinite(value))
+            write(NULL);
+        else if (value == (long) value && Math.abs(value) < 1e15)
+            writeLong((long) value);
+        else
+            writeAscii(Double.toString(value));
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        separate();
+        writeLong(value);
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        separate();
+        write(value ? TRUE : FALSE);
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        separate();
+        write(NULL);
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Writes any buffered text to the underlying stream, and flushes it.
+     */
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    /**
+     * Writes any buffered text to the underlying stream, and closes it.
+     */
+    @Override
+    public void close() throws IOException {
+        drain();
+        out.close();
+    }
+
+    // writes a comma when this is not the first value in an object or array
+    private void separate() throws IOException {
+        if (needsComma)
+            write(',');
+    }
+
+    // writes a quoted and escaped string, encoded as UTF-8
+    private void writeString(String text) throws IOException {
+        write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                write('\\');
+                write(c);
+            } else if (c < 0x20) {
+                switch (c) {
+                case '\n': write('\\'); write('n'); break;
+                case '\r': write('\\'); write('r'); break;
+                case '\t': write('\\'); write('t'); break;
+                default:
+                    write('\\'); write('u'); write('0'); write('0');
+                    write(HEX[c >> 4]); write(HEX[c & 0xF]);
+                }
+            } else if (c < 0x80) {
+                write(c);
+            } else if (c < 0x800) {
+                write(0xC0 | (c >> 6));
+                write(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                write(0xF0 | (codePoint >> 18));
+                write(0x80 | ((codePoint >> 12) & 0x3F));
+                write(0x80 | ((codePoint >> 6) & 0x3F));
+                write(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                write('?'); // unpaired surrogates cannot be encoded
+            } else {
+                write(0xE0 | (c >> 12));
+                write(0x80 | ((c >> 6) & 0x3F));
+                write(0x80 | (c & 0x3F));
+            }
+        }
+        write('"');
+    }
+
+    // writes the decimal digits of value without creating a String
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            write('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10)
+            divisor *= 10;
+        for (; divisor > 0; divisor /= 10)
+            write('0' + (int) ((value / divisor) % 10));
+    }
+
+    private void writeAscii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++)
+            write(text.charAt(i));
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        for (byte b : bytes)
+            write(b);
+    }
+
+    private void write(int b) throws IOException {
+        if (count == buffer.length)
+            drain();
+        buffer[count++] = (byte) b;
+    }
+
+    private void drain() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
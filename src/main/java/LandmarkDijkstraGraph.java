@@ -0,0 +1,263 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This class answers point to point shortest path queries (shortestPathData
+ * and shortestPathCost) with an A* search that is guided towards the end by
+ * landmarks (the ALT algorithm: A*, Landmarks and the Triangle inequality).
+ * The graph has no coordinates to estimate distances from, so instead a few
+ * landmark nodes are chosen, and the cost of the shortest path from each
+ * landmark to every node, and from every node to each landmark, is computed
+ * ahead of time. For any landmark L, the triangle inequality then bounds the
+ * remaining cost from a node v to the end t from below:
+ *
+ *     cost(v, t) >= cost(L, t) - cost(L, v)
+ *     cost(v, t) >= cost(v, L) - cost(t, L)
+ *
+ * The largest of these bounds is the A* heuristic. It never overestimates,
+ * so the paths found are still the shortest ones, but nodes that lead away
+ * from the end are expanded much later (or never).
+ *
+ * The landmark tables are rebuilt by the first query after any change to
+ * this graph, like the one made by reloading its data. Every other query
+ * (like shortestPathTree) is inherited from DijkstraGraph.
+ */
+public class LandmarkDijkstraGraph<NodeType, EdgeType extends Number>
+    extends DijkstraGraph<NodeType, EdgeType> {
+
+  public static final int DEFAULT_LANDMARK_COUNT = 8;
+
+  // Heuristics are shrunk by this fraction, so that rounding errors in the
+  // precomputed costs can never make them overestimate
+  private static final double HEURISTIC_SLACK = 1e-9;
+
+  /**
+   * The costs between the chosen landmarks and every node, which are only
+   * valid for the graph version that they were computed from.
+   */
+  protected static class LandmarkTables {
+    // the modification count of the graph these tables were computed from
+    final long modificationCount;
+    // the node index of each landmark
+    final int[] landmarks;
+    // fromLandmark[l][v] is the cost from landmark l to node index v
+    final double[][] fromLandmark;
+    // toLandmark[l][v] is the cost from node index v to landmark l
+    final double[][] toLandmark;
+
+    LandmarkTables(long modificationCount, int[] landmarks, double[][] fromLandmark,
+        double[][] toLandmark) {
+      this.modificationCount = modificationCount;
+      this.landmarks = landmarks;
+      this.fromLandmark = fromLandmark;
+      this.toLandmark = toLandmark;
+    }
+  }
+
+  private final int landmarkCount;
+  private volatile LandmarkTables tables = null;
+
+  /**
+   * Creates an empty graph that chooses DEFAULT_LANDMARK_COUNT landmarks.
+   */
+  public LandmarkDijkstraGraph() {
+    this(DEFAULT_LANDMARK_COUNT);
+  }
+
+  /**
+   * Creates an empty graph that chooses up to landmarkCount landmarks. More
+   * landmarks give tighter bounds, but take more time and memory to
+   * precompute, and more time to evaluate for each node.
+   *
+   * @param landmarkCount the number of landmarks to choose, at least 1
+   */
+  public LandmarkDijkstraGraph(int landmarkCount) {
+    super();
+    if (landmarkCount < 1) {
+      throw new IllegalArgumentException("At least one landmark is required");
+    }
+    this.landmarkCount = landmarkCount;
+  }
+
+  /**
+   * Returns the landmark tables for this graph as it is now, computing them
+   * first when this graph has changed since they were last computed.
+   *
+   * @return the current landmark tables
+   */
+  protected LandmarkTables getLandmarkTables() {
+    LandmarkTables current = tables;
+    if (current == null || current.modificationCount != modificationCount) {
+      synchronized (this) {
+        current = tables;
+        if (current == null || current.modificationCount != modificationCount) {
+          current = computeLandmarkTables();
+          tables = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Returns the data of each landmark that queries are currently guided by,
+   * choosing those landmarks first if this graph has changed.
+   *
+   * @return the landmarks' node data, in the order they were chosen
+   */
+  public List<NodeType> getLandmarks() {
+    List<NodeType> landmarks = new ArrayList<>();
+    for (int index : getLandmarkTables().landmarks) {
+      landmarks.add(nodesByIndex.get(index).data);
+    }
+    return landmarks;
+  }
+
+  // Chooses landmarks by farthest point selection: each new landmark is the
+  // node whose cost from its nearest existing landmark is the largest, which
+  // spreads the landmarks towards the edges of the graph. Nodes that no
+  // landmark can reach are chosen first, so every component gets one.
+  private LandmarkTables computeLandmarkTables() {
+    int count = nodesByIndex.size();
+    int landmarks = Math.min(landmarkCount, count);
+    int[] chosen = new int[landmarks];
+    double[][] fromLandmark = new double[landmarks][];
+    double[][] toLandmark = new double[landmarks][];
+    // the cost from the nearest chosen landmark to each node
+    double[] nearest = new double[count];
+    Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+    // the first landmark is the node furthest from an arbitrary node
+    double[] seed = count == 0 ? new double[0] : computeCosts(0, false);
+    for (int l = 0; l < landmarks; l++) {
+      double[] distances = l == 0 ? seed : nearest;
+      int next = -1;
+      for (int v = 0; v < count; v++) {
+        if (l > 0 && nearest[v] == 0.0) {
+          continue; // already a landmark (or equally close to one)
+        }
+        // an unreachable (infinite) cost counts as further than any other
+        if (next < 0 || distances[v] > distances[next]) {
+          next = v;
+        }
+      }
+      if (next < 0) {
+        // every node is at cost zero from some landmark: no need for more
+        chosen = Arrays.copyOf(chosen, l);
+        fromLandmark = Arrays.copyOf(fromLandmark, l);
+        toLandmark = Arrays.copyOf(toLandmark, l);
+        break;
+      }
+      chosen[l] = next;
+      fromLandmark[l] = computeCosts(next, false);
+      toLandmark[l] = computeCosts(next, true);
+      for (int v = 0; v < count; v++) {
+        nearest[v] = Math.min(nearest[v], fromLandmark[l][v]);
+      }
+    }
+    return new LandmarkTables(modificationCount, chosen, fromLandmark, toLandmark);
+  }
+
+  /**
+   * Computes the cost of the shortest path from the node at source to every
+   * node index, or from every node index to source when backward is true.
+   *
+   * @param source   the index of the node to search from
+   * @param backward whether to follow edges in reverse (edgesEntering)
+   * @return the cost for each node index, or Double.POSITIVE_INFINITY for
+   *         nodes that are not connected to source in that direction
+   */
+  protected double[] computeCosts(int source, boolean backward) {
+    int count = nodesByIndex.size();
+    double[] costs = new double[count];
+    Arrays.fill(costs, Double.POSITIVE_INFINITY);
+    IndexedDaryHeap heap = createHeap(count);
+    costs[source] = 0.0;
+    heap.push(source, 0.0);
+    while (!heap.isEmpty()) {
+      Node current = nodesByIndex.get(heap.pop());
+      double cost = costs[current.index];
+      for (Edge edge : backward ? current.edgesEntering : current.edgesLeaving) {
+        int neighbor = (backward ? edge.predecessor : edge.successor).index;
+        double newCost = cost + edge.data.doubleValue();
+        if (newCost < costs[neighbor]) {
+          costs[neighbor] = newCost;
+          heap.push(neighbor, newCost);
+        }
+      }
+    }
+    return costs;
+  }
+
+  /**
+   * Computes the landmark lower bound on the cost from node index v to the
+   * node index end.
+   *
+   * @param tables the landmark tables to compute this bound from
+   * @param v      the index of the node to estimate the remaining cost from
+   * @param end    the index of the destination node
+   * @return a cost that is never more than the shortest path from v to end
+   */
+  protected static double lowerBound(LandmarkTables tables, int v, int end) {
+    double bound = 0.0;
+    for (int l = 0; l < tables.landmarks.length; l++) {
+      double[] from = tables.fromLandmark[l];
+      double[] to = tables.toLandmark[l];
+      // each bound only holds when both of its costs are finite
+      if (from[end] != Double.POSITIVE_INFINITY && from[v] != Double.POSITIVE_INFINITY) {
+        bound = Math.max(bound, from[end] - from[v]);
+      }
+      if (to[v] != Double.POSITIVE_INFINITY && to[end] != Double.POSITIVE_INFINITY) {
+        bound = Math.max(bound, to[v] - to[end]);
+      }
+    }
+    return bound * (1.0 - HEURISTIC_SLACK);
+  }
+
+  /**
+   * This helper method computes the shortest path from start to end with an
+   * A* search guided by the landmark lower bounds, and returns the SearchNode
+   * at the end of that path, exactly like
+   * DijkstraGraph.computeShortestPathById.
+   *
+   * @param start the id of the starting node for the path
+   * @param end   the id of the destination node for the path
+   * @return SearchNode for the final end node within the shortest path
+   * @throws NoSuchElementException when no path from start to end is found
+   */
+  @Override
+  protected SearchNode computeShortestPathById(int start, int end) {
+    LandmarkTables tables = getLandmarkTables();
+    // The lowest cost found so far to each node, and the node before it along that path
+    SearchWorkspace workspace = getWorkspace();
+    IndexedDaryHeap heap = workspace.getHeap();
+    // The lower bound from each node to the end, computed when first reached, is kept as that
+    // node's cost in the second workspace, which this one-directional search has no other use for
+    SearchWorkspace bounds = getBackwardWorkspace();
+    workspace.reach(start, 0.0, -1, 0.0);
+    bounds.reach(start, lowerBound(tables, start, end), -1, 0.0);
+    heap.push(start, bounds.getCost(start));
+    while (!heap.isEmpty()) {
+      // Nodes are expanded in order of their cost plus their bound to the end
+      Node current = nodesByIndex.get(heap.pop());
+      if (current.index == end) {
+        return createSearchNodes(current, workspace);
+      }
+      double cost = workspace.getCost(current.index);
+      for (Edge edge : current.edgesLeaving) {
+        int neighbor = edge.successor.index;
+        double weight = edge.data.doubleValue();
+        double newCost = cost + weight;
+        if (newCost < workspace.getCost(neighbor)) {
+          workspace.reach(neighbor, newCost, current.index, weight);
+          if (!bounds.isReached(neighbor)) {
+            bounds.reach(neighbor, lowerBound(tables, neighbor, end), -1, 0.0);
+          }
+          heap.push(neighbor, newCost + bounds.getCost(neighbor));
+        }
+      }
+    }
+    throw new NoSuchElementException("No path found between the start and end nodes.");
+  }
+}
@@ -0,0 +1,234 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
+/**
+ * A NavigatorDaemon keeps a warm campus navigator resident between requests
+ * that arrive through index.cgi. Rather than starting a new JVM that reparses
+ * campus.dot for every page, the cgi program forwards its query string over
+ * a local Unix-domain socket to this daemon, and copies the html that comes
+ * back to standard out. When no daemon is listening, the cgi program answers
+ * the query itself, exactly as it did before this daemon existed.
+ *
+ * The main method of this class is that cgi program: index.cgi runs
+ * java NavigatorDaemon "$QUERY_STRING", which only loads the rest of the
+ * navigator when it has to fall back to WebApp.handleSingleResponse.
+ *
+ * The socket path is configured with the campuspath.daemon.socket system
+ * property, and defaults to campus-navigator.sock in the working directory.
+ * Each connection carries exactly one query: the client writes the query
+ * string followed by a newline, and the daemon writes the complete page and
+ * then closes the connection.
+ */
+public class NavigatorDaemon implements Closeable {
+
+    /**
+     * Writes the complete page for one query string.
+     */
+    public interface Responder {
+        void respond(String query, OutputStream out) throws IOException;
+    }
+
+    public static final String SOCKET_PROPERTY = "campuspath.daemon.socket";
+    public static final String DEFAULT_SOCKET = "campus-navigator.sock";
+
+    // queries longer than this are rejected rather than buffered
+    private static final int MAX_QUERY_LENGTH = 64 * 1024;
+
+    private final Path socket;
+    private final Executor executor;
+    private final Responder responder;
+    private final ServerSocketChannel server;
+    private final Thread acceptor;
+
+    /**
+     * Binds a daemon to socket, replacing any stale socket file left behind
+     * by a daemon that did not shut down cleanly. Connections are not
+     * accepted until start is called.
+     *
+     * @param socket    the path of the Unix-domain socket to listen on
+     * @param executor  runs each connection, or null to answer every
+     *                  connection on the accepting thread
+     * @param responder writes the page for each forwarded query
+     * @throws IOException if another daemon is already listening on socket,
+     *                     or the socket cannot be bound
+     */
+    public NavigatorDaemon(Path socket, Executor executor, Responder responder)
+            throws IOException {
+        if (Files.exists(socket)) {
+            if (isListening(socket))
+                throw new IOException("A daemon is already listening on " + socket);
+            Files.delete(socket);
+        }
+        this.socket = socket;
+        this.executor = executor;
+        this.responder = responder;
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        this.server.bind(UnixDomainSocketAddress.of(socket));
+        // not a daemon thread, since accepting is all this process is for
+        this.acceptor = new Thread(this::acceptConnections, "navigator-daemon");
+    }
+
+    /**
+     * Answers the query string passed as the only argument, by forwarding it
+     * to the daemon listening on the configured socket, or through
+     * WebApp.handleSingleResponse when there is none, and writes the page to
+     * standard out.
+     *
+     * @param args the query string to answer, exactly as index.cgi read it
+     */
+    public static void main(String[] args) {
+        if (args.length != 1)
+            throw new IllegalArgumentException("You must pass the query string to answer.");
+        try {
+            if (forward(getConfiguredSocket(), args[0], System.out))
+                return;
+        } catch (IOException e) {
+            // part of the page has already been written, so it cannot be retried
+            System.out.println("Exception Thrown: " + e.toString());
+            return;
+        }
+        WebApp.handleSingleResponse(args[0]);
+    }
+
+    /**
+     * Reads the socket path from the campuspath.daemon.socket property.
+     *
+     * @return the configured path, or DEFAULT_SOCKET when none is set
+     */
+    public static Path getConfiguredSocket() {
+        String socket = System.getProperty(SOCKET_PROPERTY);
+        if (socket == null || socket.isBlank())
+            return Path.of(DEFAULT_SOCKET);
+        return Path.of(socket.trim());
+    }
+
+    /**
+     * Starts accepting connections on a background thread.
+     */
+    public void start() {
+        acceptor.start();
+    }
+
+    /**
+     * Stops accepting connections and removes the socket file. Connections
+     * that have already been accepted are still answered.
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        Files.deleteIfExists(socket);
+    }
+
+    /**
+     * Forwards a query to the daemon listening on socket, and copies the page
+     * that it sends back to out.
+     *
+     * @param socket the path of the daemon's Unix-domain socket
+     * @param query  the query string to answer, exactly as index.cgi read it
+     * @param out    the stream to copy the page to
+     * @return true if the daemon answered this query, or false if there is
+     *         no daemon listening (or it failed before sending anything), in
+     *         which case nothing was written to out
+     * @throws IOException if the daemon failed part way through its page
+     */
+    public static boolean forward(Path socket, String query, OutputStream out)
+            throws IOException {
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(socket));
+        } catch (IOException | UnsupportedOperationException e) {
+            return false; // no daemon is listening, or this platform has none
+        }
+        try (channel) {
+            OutputStream request = Channels.newOutputStream(channel);
+            request.write((query + "\n").getBytes(StandardCharsets.UTF_8));
+            request.flush();
+            channel.shutdownOutput();
+            InputStream response = Channels.newInputStream(channel);
+            byte[] buffer = new byte[8192];
+            int count;
+            try {
+                count = response.read(buffer);
+            } catch (IOException e) {
+                return false; // the daemon dropped this connection unanswered
+            }
+            if (count < 0)
+                return false;
+            // from here on the page is streamed, so it cannot be retried
+            while (count >= 0) {
+                out.write(buffer, 0, count);
+                count = response.read(buffer);
+            }
+            out.flush();
+            return true;
+        }
+    }
+
+    // checks whether some process is accepting connections on socket
+    private static boolean isListening(Path socket) {
+        try {
+            SocketChannel.open(UnixDomainSocketAddress.of(socket)).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // the acceptor's loop, which runs until this daemon is closed
+    private void acceptConnections() {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                AccessLog.reportError(e);
+                continue;
+            }
+            if (executor == null)
+                answer(channel);
+            else
+                executor.execute(() -> answer(channel));
+        }
+    }
+
+    // reads one query from channel, and writes its page back before closing
+    private void answer(SocketChannel channel) {
+        try (channel) {
+            String query = readQuery(new BufferedInputStream(Channels.newInputStream(channel)));
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            responder.respond(query, out);
+            out.flush();
+        } catch (IOException e) {
+            // the client falls back when nothing reached it, or reports it
+        }
+    }
+
+    // reads the bytes up to the first newline (or the end of the stream)
+    private static String readQuery(InputStream in) throws IOException {
+        ByteArrayOutputStream query = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) >= 0 && b != '\n') {
+            if (query.size() >= MAX_QUERY_LENGTH)
+                throw new IOException("Query is longer than " + MAX_QUERY_LENGTH + " bytes");
+            query.write(b);
+        }
+        return query.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,204 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A NodeDictionary interns the data of a graph's nodes into dense int ids:
+ * the n distinct data items that it holds are numbered 0 through n - 1, so
+ * that searches can keep per node state in arrays and callers can refer to
+ * nodes by id, rather than looking up their data (like a long building name)
+ * over and over again.
+ *
+ * Finding the data with an id is a single array access. Finding the id of
+ * some data uses an open addressing hash table of ids, which also keeps the
+ * hash code of each data item, so that equals is only called on data whose
+ * hash code matches exactly.
+ *
+ * Ids stay dense when data is removed: the data with the highest id moves
+ * into the removed data's id, exactly like the indexes of BaseGraph's nodes.
+ */
+public class NodeDictionary<NodeType> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // the data and hash code of each id, of which only size are used
+    private Object[] data;
+    private int[] hashes;
+    private int size = 0;
+    // The hash table: each slot holds 1 + the id of the data that hashes
+    // there (or to an earlier slot that was full), or 0 when it is empty.
+    // It is always less than half full, so every probe ends at an empty slot.
+    private int[] slots;
+
+    /**
+     * Creates an empty dictionary.
+     */
+    public NodeDictionary() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty dictionary with room for capacity data items before
+     * it needs to grow.
+     *
+     * @param capacity the number of data items to make room for
+     */
+    public NodeDictionary(int capacity) {
+        capacity = Math.max(capacity, 1);
+        data = new Object[capacity];
+        hashes = new int[capacity];
+        slots = new int[Integer.highestOneBit(capacity) * 4];
+    }
+
+    /**
+     * Creates a dictionary that numbers the same data as other, with the
+     * same ids. Later changes to either dictionary do not affect the other.
+     *
+     * @param other the dictionary to copy
+     */
+    public NodeDictionary(NodeDictionary<NodeType> other) {
+        size = other.size;
+        data = Arrays.copyOf(other.data, Math.max(size, 1));
+        hashes = Arrays.copyOf(other.hashes, data.length);
+        slots = other.slots.clone();
+    }
+
+    /**
+     * Returns the number of data items in this dictionary, which is one more
+     * than the highest id.
+     */
+    public int size() {
+        return size;
+    }
+
+    // the hash code of data, with its high bits mixed into its low bits
+    private static int hash(Object data) {
+        int hash = data.hashCode(); // throws NPE when data is null
+        return hash ^ (hash >>> 16);
+    }
+
+    // the slot that holds id, or else the empty slot where data would go
+    private int findSlot(Object data, int hash) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && (this.data[id] == data || this.data[id].equals(data)))
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the id of data.
+     *
+     * @param data the data to find the id of
+     * @return the id of data, or -1 when it is not in this dictionary
+     * @throws NullPointerException if data is null
+     */
+    public int getId(Object data) {
+        int slot = findSlot(data, hash(data));
+        return slots[slot] - 1;
+    }
+
+    /**
+     * Returns the data with an id.
+     *
+     * @param id the id of the data to return
+     * @return the data with that id
+     * @throws NoSuchElementException if no data has that id
+     */
+    @SuppressWarnings("unchecked")
+    public NodeType getData(int id) {
+        if (id < 0 || id >= size)
+            throw new NoSuchElementException("No node has id " + id);
+        return (NodeType) data[id];
+    }
+
+    /**
+     * Adds data to this dictionary, with the next unused id, unless it is
+     * already there. Either way, this returns the id of data, so callers can
+     * tell whether data was added by comparing that id with the size of this
+     * dictionary before they called this method.
+     *
+     * @param data the data to add
+     * @return the id of data
+     * @throws NullPointerException if data is null
+     */
+    public int add(NodeType data) {
+        int hash = hash(data);
+        int slot = findSlot(data, hash);
+        if (slots[slot] != 0)
+            return slots[slot] - 1;
+        if (size == this.data.length) {
+            this.data = Arrays.copyOf(this.data, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        this.data[id] = data;
+        hashes[id] = hash;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        } else {
+            slots[slot] = id + 1;
+        }
+        return id;
+    }
+
+    /**
+     * Removes data from this dictionary. The data with the highest id then
+     * moves into the id that data had, unless data itself had that id.
+     *
+     * @param data the data to remove
+     * @return the id that data had, or -1 when it was not in this dictionary
+     * @throws NullPointerException if data is null
+     */
+    public int remove(Object data) {
+        int slot = findSlot(data, hash(data));
+        int id = slots[slot] - 1;
+        if (id < 0)
+            return -1;
+        deleteSlot(slot);
+        int last = --size;
+        if (id != last) {
+            // move the last data into the removed id, and point its slot there
+            this.data[id] = this.data[last];
+            hashes[id] = hashes[last];
+            slots[findSlot(this.data[id], hashes[id])] = id + 1;
+        }
+        this.data[last] = null;
+        return id;
+    }
+
+    // Empties slot, and then moves back any later slot in the same run that
+    // could no longer be found past the gap this leaves
+    private void deleteSlot(int slot) {
+        int mask = slots.length - 1;
+        int gap = slot;
+        slots[gap] = 0;
+        for (int next = (gap + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+            int home = hashes[slots[next] - 1] & mask;
+            // the entry in next can move into gap unless its home slot lies
+            // cyclically within (gap, next]
+            boolean reachable = gap <= next ? (gap < home && home <= next)
+                                            : (gap < home || home <= next);
+            if (!reachable) {
+                slots[gap] = slots[next];
+                slots[next] = 0;
+                gap = next;
+            }
+        }
+    }
+
+    // recreates the hash table with slotCount slots
+    private void rehash(int slotCount) {
+        slots = new int[slotCount];
+        int mask = slotCount - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (slots[slot] != 0)
+                slot = (slot + 1) & mask;
+            slots[slot] = id + 1;
+        }
+    }
+}
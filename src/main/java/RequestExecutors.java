@@ -0,0 +1,163 @@
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class creates the executors that WebApp can run its requests on. The
+ * mode and accept backlog are configured through the system properties
+ * campuspath.executor and campuspath.backlog, for example:
+ *
+ *     java -Dcampuspath.executor=virtual -Dcampuspath.backlog=256 WebApp 80
+ */
+public class RequestExecutors {
+
+    /**
+     * The ways that requests can be executed.
+     */
+    public enum Mode {
+        // every request runs on the HttpServer's single dispatcher thread
+        DISPATCHER,
+        // a fixed pool with one platform thread per available processor
+        PLATFORM,
+        // a work-stealing ForkJoinPool sized to the available processors
+        WORK_STEALING,
+        // a new virtual thread per request (requires JDK 21 or later)
+        VIRTUAL
+    }
+
+    public static final String MODE_PROPERTY = "campuspath.executor";
+    public static final String BACKLOG_PROPERTY = "campuspath.backlog";
+    public static final Mode DEFAULT_MODE = Mode.PLATFORM;
+    public static final int DEFAULT_BACKLOG = 128;
+
+    /**
+     * Reads the execution mode from the campuspath.executor system property.
+     *
+     * @return the configured mode, or DEFAULT_MODE when none is configured
+     * @throws IllegalArgumentException if the property names no known mode
+     */
+    public static Mode getConfiguredMode() {
+        String mode = System.getProperty(MODE_PROPERTY);
+        if (mode == null || mode.isBlank())
+            return DEFAULT_MODE;
+        return parseMode(mode);
+    }
+
+    /**
+     * Reads the accept backlog from the campuspath.backlog system property.
+     *
+     * @return the configured backlog, or DEFAULT_BACKLOG when none is set
+     * @throws IllegalArgumentException if the property is not a positive int
+     */
+    public static int getConfiguredBacklog() {
+        String backlog = System.getProperty(BACKLOG_PROPERTY);
+        if (backlog == null || backlog.isBlank())
+            return DEFAULT_BACKLOG;
+        try {
+            int value = Integer.parseInt(backlog.trim());
+            if (value > 0)
+                return value;
+        } catch (NumberFormatException e) {
+            // reported below along with non-positive values
+        }
+        throw new IllegalArgumentException(BACKLOG_PROPERTY +
+                " must be a positive integer, but was: " + backlog);
+    }
+
+    /**
+     * Converts a mode name like "work-stealing" or "virtual" into a Mode.
+     *
+     * @param name the case insensitive name of a mode
+     * @return the mode with that name
+     * @throws IllegalArgumentException if there is no mode with that name
+     */
+    public static Mode parseMode(String name) {
+        String normalized = name.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        try {
+            return Mode.valueOf(normalized);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + MODE_PROPERTY + ": " + name);
+        }
+    }
+
+    /**
+     * Checks whether this JVM can create virtual threads.
+     *
+     * @return true when running on JDK 21 or later, or false otherwise
+     */
+    public static boolean isVirtualThreadSupported() {
+        return findVirtualThreadFactory() != null;
+    }
+
+    /**
+     * Returns the mode that create actually uses for a requested mode, which
+     * is WORK_STEALING when virtual threads are requested on a JVM that does
+     * not support them, and the requested mode otherwise.
+     *
+     * @param mode the requested way that requests should be executed
+     * @return the way that create will execute them
+     */
+    public static Mode getSupportedMode(Mode mode) {
+        if (mode == Mode.VIRTUAL && !isVirtualThreadSupported())
+            return Mode.WORK_STEALING;
+        return mode;
+    }
+
+    /**
+     * Creates an executor that runs requests in the requested mode. When
+     * virtual threads are requested on a JVM that does not support them,
+     * a work-stealing pool is created instead, as getSupportedMode reports.
+     *
+     * @param mode the way that requests should be executed
+     * @return a new executor, or null for the DISPATCHER mode so that the
+     *         HttpServer keeps using its own dispatcher thread
+     */
+    public static ExecutorService create(Mode mode) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        switch (mode) {
+        case DISPATCHER:
+            return null;
+        case PLATFORM:
+            return Executors.newFixedThreadPool(processors, new RequestThreadFactory());
+        case WORK_STEALING:
+            return Executors.newWorkStealingPool(processors);
+        case VIRTUAL:
+            Method factory = findVirtualThreadFactory();
+            if (factory != null) {
+                try {
+                    return (ExecutorService) factory.invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    // fall back to a work-stealing pool below
+                }
+            }
+            return Executors.newWorkStealingPool(processors);
+        default:
+            throw new IllegalArgumentException("Unsupported mode: " + mode);
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor is looked up reflectively,
+    // so that this class still compiles and runs on JDK 17
+    private static Method findVirtualThreadFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    // names platform request threads, and lets the JVM exit without them
+    private static class RequestThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "request-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
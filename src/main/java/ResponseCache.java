@@ -0,0 +1,251 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least recently used cache of rendered responses. Each
+ * response is stored under a key built from its normalized query arguments,
+ * along with the version of the graph that it was computed from. As soon as
+ * a lookup or insertion uses a newer graph version than the cached entries,
+ * every entry is discarded, so that reloading the graph never serves stale
+ * responses.
+ *
+ * This cache is safe to share between all of the threads handling requests.
+ */
+public class ResponseCache {
+
+    public static final String ENTRIES_PROPERTY = "campuspath.cache.entries";
+    public static final int DEFAULT_ENTRIES = 256;
+
+    /**
+     * A rendered response: the values spliced into the page template for
+     * it, along with the strong entity tag that identifies its exact bytes.
+     * The gzip encoding of this response is created the first time that it
+     * is requested, and then also reused by every later request.
+     */
+    public static class Entry {
+        private final HtmlTemplate template;
+        private final byte[][] values;
+        private final String etag;
+        private final long graphVersion;
+        private volatile byte[] gzipBody = null;
+
+        private Entry(HtmlTemplate template, byte[][] values, String etag,
+                long graphVersion) {
+            this.template = template;
+            this.values = values;
+            this.etag = etag;
+            this.graphVersion = graphVersion;
+        }
+
+        public long getContentLength() {
+            return template.getContentLength(values);
+        }
+
+        /**
+         * Writes the uncompressed response to out.
+         */
+        public void write(OutputStream out) throws IOException {
+            template.write(out, values);
+        }
+
+        /**
+         * Returns the gzip encoding of this response, which only requires
+         * compressing the template values the first time that it is called.
+         */
+        public byte[] getGzipBody() {
+            byte[] body = gzipBody;
+            if (body == null)
+                gzipBody = body = template.gzip(values); // racing threads agree
+            return body;
+        }
+
+        /**
+         * Returns the entity tag of either the uncompressed or the gzip
+         * encoded representation of this response, which must differ.
+         */
+        public String getETag(boolean gzip) {
+            return gzip ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag;
+        }
+
+        public long getGraphVersion() {
+            return graphVersion;
+        }
+
+        /**
+         * Checks an If-None-Match header against the entity tag of one of
+         * this entry's representations, using the weak comparison that http
+         * requires for this header.
+         *
+         * @param ifNoneMatch the header's value, which may be null
+         * @param gzip        whether the gzip representation is being sent
+         * @return true when the client already has this response
+         */
+        public boolean matches(String ifNoneMatch, boolean gzip) {
+            if (ifNoneMatch == null)
+                return false;
+            String etag = getETag(gzip);
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.equals("*"))
+                    return true;
+                if (tag.startsWith("W/"))
+                    tag = tag.substring(2);
+                if (tag.equals(etag))
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+    private long graphVersion = Long.MIN_VALUE; // version of the cached entries
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Creates a cache holding at most maxEntries responses.
+     *
+     * @param maxEntries the number of responses that can be cached, where 0
+     *                   disables caching altogether
+     */
+    public ResponseCache(int maxEntries) {
+        if (maxEntries < 0)
+            throw new IllegalArgumentException("maxEntries must not be negative");
+        this.maxEntries = maxEntries;
+        // access ordered, so that the least recently used entry is evicted
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Creates a cache sized by the campuspath.cache.entries system property.
+     *
+     * @return the configured cache
+     * @throws IllegalArgumentException if that property is not a valid size
+     */
+    public static ResponseCache createConfigured() {
+        String entries = System.getProperty(ENTRIES_PROPERTY);
+        if (entries == null || entries.isBlank())
+            return new ResponseCache(DEFAULT_ENTRIES);
+        try {
+            return new ResponseCache(Integer.parseInt(entries.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(ENTRIES_PROPERTY +
+                    " must be a non-negative integer, but was: " + entries);
+        }
+    }
+
+    /**
+     * Builds the cache key for a request from only the query arguments that
+     * affect its response, so that equivalent queries share one entry.
+     *
+     * @param args the arguments parsed from a request's query
+     * @return the normalized key for that request
+     */
+    public static String key(Map<String, String> args) {
+        // mirrors the choice of response made by WebApp.generateResponseHTML
+        if (args.containsKey("start") && args.containsKey("end"))
+            return "path\0" + args.get("start") + "\0" + args.get("end");
+        if (args.containsKey("from"))
+            return "furthest\0" + args.get("from");
+        return "prompt";
+    }
+
+    /**
+     * Looks up the response cached for key.
+     *
+     * @param key          the normalized key of the request
+     * @param graphVersion the version of the graph that is currently loaded
+     * @return the cached response, or null when there is none for this key
+     *         and graph version
+     */
+    public synchronized Entry get(String key, long graphVersion) {
+        invalidateIfStale(graphVersion);
+        Entry entry = entries.get(key);
+        if (entry == null)
+            misses++;
+        else
+            hits++;
+        return entry;
+    }
+
+    /**
+     * Caches a rendered response, and returns the entry it is stored in.
+     *
+     * @param key          the normalized key of the request
+     * @param graphVersion the version of the graph the response came from
+     * @param template     the page template the response is spliced into
+     * @param values       the encoded values for that template's slots
+     * @return the entry for this response, which is returned even when this
+     *         cache is disabled, or the graph has since been reloaded
+     * @throws IOException if that response could not be rendered
+     */
+    public Entry put(String key, long graphVersion, HtmlTemplate template,
+            byte[]... values) throws IOException {
+        Entry entry = new Entry(template, values, createETag(graphVersion, template, values),
+                graphVersion);
+        synchronized (this) {
+            invalidateIfStale(graphVersion);
+            // never let a response from an older graph replace newer ones
+            if (graphVersion == this.graphVersion)
+                entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Discards every cached response.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    // discards all entries when the graph has been reloaded since they were
+    // cached, but ignores requests that began before that reload
+    private void invalidateIfStale(long graphVersion) {
+        if (graphVersion > this.graphVersion) {
+            entries.clear();
+            this.graphVersion = graphVersion;
+        }
+    }
+
+    // a strong entity tag changes whenever the bytes of a response change
+    private static String createETag(long graphVersion, HtmlTemplate template,
+            byte[][] values) throws IOException {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            template.write(new DigestOutputStream(OutputStream.nullOutputStream(), sha), values);
+            byte[] digest = sha.digest();
+            StringBuilder etag = new StringBuilder("\"").append(graphVersion).append('-');
+            for (int i = 0; i < 12; i++)
+                etag.append(Character.forDigit((digest[i] >> 4) & 0xF, 16))
+                    .append(Character.forDigit(digest[i] & 0xF, 16));
+            return etag.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
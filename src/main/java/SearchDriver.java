@@ -0,0 +1,260 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * A SearchDriver runs the searches that every graph with int node indexes
+ * answers in the same way: the shortest path between two nodes, the costs of
+ * many paths from one start, the rows of a cost matrix computed in parallel,
+ * and the tree of shortest paths from one start. It only knows a graph
+ * through a few hooks, of which indexOf and relax are the ones that matter:
+ * how data is found among the indexes, and how the edges leaving a settled
+ * index are relaxed into a SearchWorkspace.
+ *
+ * DijkstraGraph and SnapshotGraph each keep a driver over their own indexes,
+ * so both settle nodes in the same order, and find exactly the same costs.
+ * Any number of threads can search through one driver at the same time, as
+ * long as getWorkspace returns a different workspace to each of them.
+ */
+public abstract class SearchDriver<NodeType> {
+
+    // the rows of a cost matrix that are computed in parallel before any of
+    // them are passed on
+    public static final int MATRIX_BLOCK_SIZE = 64;
+
+    /**
+     * Returns one more than the highest index of any node.
+     */
+    protected abstract int getIndexCount();
+
+    /**
+     * Returns the data of the node with an index.
+     *
+     * @param index the index of a node
+     */
+    protected abstract NodeType getData(int index);
+
+    /**
+     * Returns the index of the node containing data, or -1 when there is
+     * none (including when data is null).
+     *
+     * @param data the data of the node to find
+     */
+    protected abstract int indexOf(NodeType data);
+
+    /**
+     * Returns this thread's workspace, emptied and ready for a new search.
+     */
+    protected abstract SearchWorkspace getWorkspace();
+
+    /**
+     * Reaches every neighbor of the settled node at index whose cost through
+     * that node is lower than any found before, and pushes it onto the heap
+     * of workspace, following the edges leaving that node in their order.
+     *
+     * @param workspace the workspace of the search
+     * @param index     the index of the settled node
+     * @param cost      the cost of reaching that node
+     */
+    protected abstract void relax(SearchWorkspace workspace, int index, double cost);
+
+    /**
+     * Searches from the node at startIndex until the node at endIndex is
+     * settled, or until every node that can be reached has been.
+     *
+     * @param startIndex the index of the starting node of the path
+     * @param endIndex   the index of the destination node of the path
+     * @return this thread's workspace, holding the cost of, the predecessor
+     *         along, and the weight of the edge into each node on the
+     *         shortest path to the node at endIndex
+     * @throws NoSuchElementException when no path from start to end is found
+     */
+    public SearchWorkspace computePath(int startIndex, int endIndex) {
+        // The workspace holds the lowest cost found so far to each node, the
+        // node before it along that path and the weight of the edge between
+        // them, along with a heap of each unsettled node that has been
+        // reached, by its cost. It is reused by every search on this thread.
+        SearchWorkspace workspace = getWorkspace();
+        IndexedDaryHeap heap = workspace.getHeap();
+        workspace.reach(startIndex, 0.0, -1, 0.0);
+        heap.push(startIndex, 0.0);
+        while (!heap.isEmpty()) {
+            // the node with the lowest cost is settled: no other path can be shorter
+            int current = heap.pop();
+            if (current == endIndex)
+                return workspace;
+            relax(workspace, current, workspace.getCost(current));
+        }
+        throw new NoSuchElementException("No path found between the start and end nodes.");
+    }
+
+    /**
+     * The destinations of a search for the costs of many paths: the index of
+     * the node that each end refers to (or -1 when there is none), and a mark
+     * on every distinct one of those nodes. Once created, these are only
+     * read, so many searches can share them.
+     */
+    public class Targets {
+        final int[] indexes;
+        final boolean[] marked;
+        final int count;
+
+        /**
+         * Finds the index of each of ends.
+         *
+         * @param ends the data in each destination node
+         */
+        public Targets(List<NodeType> ends) {
+            this(resolve(ends));
+        }
+
+        /**
+         * Marks the nodes with each of endIndexes, ignoring any that are out
+         * of range.
+         *
+         * @param endIndexes the index of each destination node
+         */
+        public Targets(int[] endIndexes) {
+            indexes = new int[endIndexes.length];
+            marked = new boolean[getIndexCount()];
+            int count = 0;
+            for (int i = 0; i < endIndexes.length; i++) {
+                int index = endIndexes[i] < marked.length ? endIndexes[i] : -1;
+                indexes[i] = index;
+                if (index >= 0 && !marked[index]) {
+                    marked[index] = true;
+                    count++;
+                }
+            }
+            this.count = count;
+        }
+    }
+
+    // the index of each of ends, or -1 for ends that are not in the graph
+    private int[] resolve(List<NodeType> ends) {
+        int[] resolved = new int[ends.size()];
+        int i = 0;
+        for (NodeType end : ends)
+            resolved[i++] = indexOf(end);
+        return resolved;
+    }
+
+    /**
+     * Searches from start until every one of targets has been settled.
+     *
+     * @param start   the data in the starting node of every path
+     * @param targets the destinations of those paths
+     * @return the cost of reaching each of targets, in order, which is
+     *         Double.POSITIVE_INFINITY for those that cannot be reached, and
+     *         for all of them when start is not in the graph
+     */
+    public double[] computeCosts(NodeType start, Targets targets) {
+        int startIndex = indexOf(start);
+        if (startIndex < 0) {
+            double[] costs = new double[targets.indexes.length];
+            Arrays.fill(costs, Double.POSITIVE_INFINITY);
+            return costs;
+        }
+        return computeCosts(startIndex, targets);
+    }
+
+    /**
+     * Searches from the node at startIndex until every one of targets has
+     * been settled.
+     *
+     * @param startIndex the index of the starting node of every path
+     * @param targets    the destinations of those paths
+     * @return the cost of reaching each of targets, in order, which is
+     *         Double.POSITIVE_INFINITY for those that cannot be reached
+     */
+    public double[] computeCosts(int startIndex, Targets targets) {
+        int remaining = targets.count;
+        SearchWorkspace workspace = getWorkspace();
+        IndexedDaryHeap heap = workspace.getHeap();
+        workspace.reach(startIndex, 0.0, -1, 0.0);
+        heap.push(startIndex, 0.0);
+        while (remaining > 0 && !heap.isEmpty()) {
+            int current = heap.pop();
+            if (targets.marked[current])
+                remaining--;
+            relax(workspace, current, workspace.getCost(current));
+        }
+        // every target has been settled by now, or else the heap ran out, in
+        // which case every node that was reached has been settled as well
+        double[] costs = new double[targets.indexes.length];
+        for (int i = 0; i < costs.length; i++) {
+            int index = targets.indexes[i];
+            costs[i] = index < 0 ? Double.POSITIVE_INFINITY : workspace.getCost(index);
+        }
+        return costs;
+    }
+
+    /**
+     * Computes the cost of the shortest path from each of starts to each of
+     * ends, one row for each start, and passes each row to rows as soon as it
+     * is ready. The rows are computed in parallel on the common ForkJoinPool,
+     * MATRIX_BLOCK_SIZE at a time, and are always passed to rows in order on
+     * the thread that called this method.
+     *
+     * @param starts the data in the starting nodes, one for each row
+     * @param ends   the data in the destination nodes, one for each column
+     * @param rows   accepts each row along with the index of its start
+     */
+    public void computeCostMatrix(List<NodeType> starts, List<NodeType> ends,
+            ObjIntConsumer<double[]> rows) {
+        List<NodeType> sources = new ArrayList<>(starts); // indexed from many threads
+        Targets targets = new Targets(ends);
+        double[][] block = new double[Math.min(sources.size(), MATRIX_BLOCK_SIZE)][];
+        for (int first = 0; first < sources.size(); first += MATRIX_BLOCK_SIZE) {
+            int offset = first;
+            int size = Math.min(sources.size() - first, MATRIX_BLOCK_SIZE);
+            // each search runs on its own thread's workspace
+            IntStream.range(0, size).parallel()
+                    .forEach(i -> block[i] = computeCosts(sources.get(offset + i), targets));
+            for (int i = 0; i < size; i++) {
+                rows.accept(block[i], first + i);
+                block[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Searches from the node at startIndex until every node that can be
+     * reached from it has been settled.
+     *
+     * @param startIndex the index of the starting node of every path
+     * @return the cost of, the predecessor along, and the weight of the edge
+     *         into each node on the shortest path to every reachable node
+     */
+    public ShortestPathTree<NodeType> computeTree(int startIndex) {
+        int count = getIndexCount();
+        // the position of each node index within the settled order of the tree
+        int[] positions = new int[count];
+        List<NodeType> settled = new ArrayList<>();
+        double[] settledCosts = new double[count];
+        int[] parents = new int[count];
+        double[] weights = new double[count];
+        SearchWorkspace workspace = getWorkspace();
+        IndexedDaryHeap heap = workspace.getHeap();
+        workspace.reach(startIndex, 0.0, -1, 0.0);
+        heap.push(startIndex, 0.0);
+        while (!heap.isEmpty()) {
+            int current = heap.pop();
+            // settle this node into the tree, below its already settled predecessor
+            int position = settled.size();
+            positions[current] = position;
+            settled.add(getData(current));
+            double cost = workspace.getCost(current);
+            settledCosts[position] = cost;
+            int predecessor = workspace.getPredecessor(current);
+            parents[position] = predecessor < 0 ? -1 : positions[predecessor];
+            weights[position] = workspace.getWeight(current);
+            relax(workspace, current, cost);
+        }
+        return new ShortestPathTree<>(settled, Arrays.copyOf(settledCosts, settled.size()),
+                Arrays.copyOf(parents, settled.size()), Arrays.copyOf(weights, settled.size()));
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.Arrays;
+
+/**
+ * A SearchWorkspace holds the state of one shortest path search at a time:
+ * the lowest cost found so far to each node index, the node index before it
+ * along that path, the weight of the edge between them, and the heap of
+ * nodes that have been reached but not yet settled. Everything is stored in
+ * primitive arrays, which are allocated once and then reused by every
+ * search, so a search allocates nothing for its own state.
+ *
+ * Rather than clearing those arrays, each search begins a new generation,
+ * and every node index is stamped with the generation in which it was last
+ * reached. Values stamped with an older generation are treated as unset, so
+ * beginning a search takes constant time, however large the graph.
+ *
+ * A workspace must only be used by one search, and so by one thread, at a
+ * time. DijkstraGraph keeps one for each thread that searches it.
+ */
+public class SearchWorkspace {
+
+    // the generation in which each index was last reached
+    private final int[] stamps;
+    private int generation = 0;
+    // the values for each index, which are only set when it is stamped
+    private final double[] costs;
+    private final int[] predecessors;
+    private final double[] weights;
+    private final IndexedDaryHeap heap;
+
+    /**
+     * Creates a workspace for searches that order the indexes 0 through
+     * heap.getCapacity() - 1 with heap.
+     *
+     * @param heap the heap that every search in this workspace uses
+     */
+    public SearchWorkspace(IndexedDaryHeap heap) {
+        int capacity = heap.getCapacity();
+        this.stamps = new int[capacity];
+        this.costs = new double[capacity];
+        this.predecessors = new int[capacity];
+        this.weights = new double[capacity];
+        this.heap = heap;
+    }
+
+    /**
+     * Returns one more than the largest index this workspace can hold.
+     */
+    public int getCapacity() {
+        return stamps.length;
+    }
+
+    /**
+     * Returns the heap of this workspace, which begin empties.
+     */
+    public IndexedDaryHeap getHeap() {
+        return heap;
+    }
+
+    /**
+     * Forgets everything about the previous search, so that no index has been
+     * reached and the heap is empty.
+     */
+    public void begin() {
+        generation++;
+        if (generation == 0) {
+            // after 2^32 searches the stamps wrap around, and must be cleared
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+        heap.clear();
+    }
+
+    /**
+     * Checks whether index has been reached since the search began.
+     */
+    public boolean isReached(int index) {
+        return stamps[index] == generation;
+    }
+
+    /**
+     * Returns the lowest cost found to index since the search began, or
+     * Double.POSITIVE_INFINITY when index has not been reached.
+     */
+    public double getCost(int index) {
+        return stamps[index] == generation ? costs[index] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the index before index along the lowest cost path found to it,
+     * or -1 for the start of the search. This is only meaningful for indexes
+     * that have been reached.
+     */
+    public int getPredecessor(int index) {
+        return predecessors[index];
+    }
+
+    /**
+     * Returns the weight of the edge from index's predecessor to index. This
+     * is only meaningful for indexes that have been reached.
+     */
+    public double getWeight(int index) {
+        return weights[index];
+    }
+
+    /**
+     * Records a new lowest cost path to index, which reaches it when it has
+     * not been reached yet.
+     *
+     * @param index       the index that this path ends at
+     * @param cost        the cost of this path
+     * @param predecessor the index before index along this path, or -1 when
+     *                    index is the start
+     * @param weight      the weight of the edge from predecessor to index
+     */
+    public void reach(int index, double cost, int predecessor, double weight) {
+        stamps[index] = generation;
+        costs[index] = cost;
+        predecessors[index] = predecessor;
+        weights[index] = weight;
+    }
+}
@@ -0,0 +1,419 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * ServerMetrics counts the requests that WebApp answers on each route, and
+ * records how long each phase of those requests took in log-bucketed
+ * histograms. Every recording only adds to LongAdders, so request threads
+ * never contend on a lock. These metrics are served in the Prometheus
+ * plain-text exposition format, along with the size of the loaded graph:
+ *
+ *     campuspath_requests_total{route="/",kind="shortest_path"} 12
+ *     campuspath_request_phase_seconds_bucket{route="/",phase="search",le="0.000512"} 9
+ *     campuspath_graph_nodes 160
+ *
+ * Each request is timed by a Request, which splits its total time into:
+ * parsing its arguments; searching the graph, which is the time spent in
+ * the backends returned by meter; and rendering, which is everything else.
+ */
+public class ServerMetrics {
+
+    /**
+     * The kinds of requests that are counted separately.
+     */
+    public enum Kind {
+        // asks for the shortest path between two locations
+        SHORTEST_PATH,
+        // asks for the furthest destination from a location
+        FURTHEST,
+        // asks no question, and is only answered with the prompts
+        PROMPT,
+        // was answered with an error status (400 or above)
+        ERROR
+    }
+
+    /**
+     * The phases that each request's time is split into.
+     */
+    public enum Phase {
+        PARSE,
+        SEARCH,
+        RENDER
+    }
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    // bucket i counts durations of at most 2^i microseconds, and the final
+    // bucket counts all of the durations that are longer than that
+    private static final int BUCKETS = 26;
+
+    // the request being timed by each thread, which is only set between the
+    // begin and end of that request
+    private static final ThreadLocal<Request> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private final Supplier<BackendInterface> backend;
+
+    /**
+     * Creates an empty set of metrics.
+     *
+     * @param backend supplies the backend whose graph size is reported
+     */
+    public ServerMetrics(Supplier<BackendInterface> backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * Returns the metrics for one route, creating them on first use.
+     *
+     * @param path the path of the context that this route is served on
+     * @return the metrics that requests on this route are recorded in
+     */
+    public Route route(String path) {
+        return routes.computeIfAbsent(path, Route::new);
+    }
+
+    /**
+     * The request counts and phase histograms of a single route.
+     */
+    public static final class Route {
+        private final String path;
+        private final LongAdder[] counts = new LongAdder[Kind.values().length];
+        private final Histogram[] phases = new Histogram[Phase.values().length];
+
+        private Route(String path) {
+            this.path = path;
+            for (int i = 0; i < counts.length; i++)
+                counts[i] = new LongAdder();
+            for (int i = 0; i < phases.length; i++)
+                phases[i] = new Histogram();
+        }
+
+        /**
+         * Starts timing a request on this route, from the current thread.
+         * Its parse phase lasts until endParse is called.
+         *
+         * @return the request, which must be ended on this same thread
+         */
+        public Request begin() {
+            Request request = new Request(this);
+            CURRENT.set(request);
+            return request;
+        }
+
+        /**
+         * Returns the number of requests of a kind answered on this route.
+         */
+        public long getCount(Kind kind) {
+            return counts[kind.ordinal()].sum();
+        }
+    }
+
+    /**
+     * Times the phases of one request, which is counted once it ends.
+     */
+    public static final class Request {
+        private final Route route;
+        private final long startTime = System.nanoTime();
+        private long parseTime = -1; // when parsing ended, once it has
+        private long searchNanos = 0;
+
+        private Request(Route route) {
+            this.route = route;
+        }
+
+        /**
+         * Counts this request as a kind, and records the time of its phases.
+         *
+         * @param kind   what this request asked for
+         * @param status the http status code that this request was answered
+         *               with, which counts it as an ERROR when 400 or above
+         */
+        public void end(Kind kind, int status) {
+            long endTime = System.nanoTime();
+            if (CURRENT.get() == this)
+                CURRENT.remove();
+            long parsed = parseTime < 0 ? startTime : parseTime;
+            route.counts[(status >= 400 ? Kind.ERROR : kind).ordinal()].increment();
+            route.phases[Phase.PARSE.ordinal()].record(parsed - startTime);
+            route.phases[Phase.SEARCH.ordinal()].record(searchNanos);
+            route.phases[Phase.RENDER.ordinal()].record(
+                    Math.max(0, endTime - parsed - searchNanos));
+        }
+    }
+
+    /**
+     * Ends the parse phase of the request being timed by the current thread,
+     * if any. Only the first call for each request has any effect.
+     */
+    public static void endParse() {
+        Request request = CURRENT.get();
+        if (request != null && request.parseTime < 0)
+            request.parseTime = System.nanoTime();
+    }
+
+    /**
+     * Wraps a backend, so that the time spent searching its graph is added
+     * to the search phase of whichever request is being timed by the calling
+     * thread. Calls from threads that are not timing a request are simply
+     * passed through.
+     *
+     * @param backend the backend to measure
+     * @return a backend that answers every call with backend
+     */
+    public static BackendInterface meter(BackendInterface backend) {
+        return new MeteredBackend(backend);
+    }
+
+    /**
+     * Creates an HttpHandler that answers GET requests with these metrics.
+     *
+     * @return a handler that can be registered with an HttpServer context
+     */
+    public HttpHandler handler() {
+        return exchange -> {
+            try (exchange) {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().set("Allow", "GET");
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+                byte[] body = format().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                exchange.getResponseHeaders().set("Cache-Control", "no-store");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+            }
+        };
+    }
+
+    /**
+     * Formats every metric in the Prometheus plain-text exposition format.
+     *
+     * @return the current value of every metric
+     */
+    public String format() {
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        List<Route> sorted = routes.values().stream()
+                .sorted((a, b) -> a.path.compareTo(b.path)).toList();
+
+        out.println("# HELP campuspath_requests_total Requests answered, by route and kind.");
+        out.println("# TYPE campuspath_requests_total counter");
+        for (Route route : sorted)
+            for (Kind kind : Kind.values())
+                out.printf("campuspath_requests_total{route=\"%s\",kind=\"%s\"} %d%n",
+                        route.path, label(kind), route.getCount(kind));
+
+        out.println("# HELP campuspath_request_phase_seconds"
+                + " Time spent in each phase of a request.");
+        out.println("# TYPE campuspath_request_phase_seconds histogram");
+        for (Route route : sorted)
+            for (Phase phase : Phase.values())
+                route.phases[phase.ordinal()].format(out, "campuspath_request_phase_seconds",
+                        "route=\"" + route.path + "\",phase=\"" + label(phase) + "\"");
+
+        BackendInterface backend = this.backend.get();
+        if (backend != null) {
+            out.println("# HELP campuspath_graph_nodes Locations in the loaded graph.");
+            out.println("# TYPE campuspath_graph_nodes gauge");
+            out.println("campuspath_graph_nodes " + backend.getNodeCount());
+            out.println("# HELP campuspath_graph_edges"
+                    + " Paths between locations in the loaded graph.");
+            out.println("# TYPE campuspath_graph_edges gauge");
+            out.println("campuspath_graph_edges " + backend.getEdgeCount());
+            out.println("# HELP campuspath_graph_version Times that graph data has been loaded.");
+            out.println("# TYPE campuspath_graph_version gauge");
+            out.println("campuspath_graph_version " + backend.getGraphVersion());
+        }
+        out.flush();
+        return text.toString();
+    }
+
+    private static String label(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    // a histogram of durations whose buckets double in width
+    private static final class Histogram {
+        private final LongAdder[] buckets = new LongAdder[BUCKETS + 1];
+        private final LongAdder sumNanos = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++)
+                buckets[i] = new LongAdder();
+        }
+
+        void record(long nanos) {
+            long micros = (nanos + 999) / 1000;
+            // the smallest i for which micros <= 2^i
+            int bucket = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+            buckets[Math.min(bucket, BUCKETS)].increment();
+            sumNanos.add(nanos);
+        }
+
+        // writes the cumulative buckets, sum and count of this histogram
+        void format(PrintWriter out, String name, String labels) {
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                count += buckets[i].sum();
+                out.printf(Locale.ROOT, "%s_bucket{%s,le=\"%.6f\"} %d%n", name, labels,
+                        (1L << i) / 1e6, count);
+            }
+            count += buckets[BUCKETS].sum();
+            out.printf(Locale.ROOT, "%s_bucket{%s,le=\"+Inf\"} %d%n", name, labels, count);
+            out.printf(Locale.ROOT, "%s_sum{%s} %.9f%n", name, labels, sumNanos.sum() / 1e9);
+            out.printf(Locale.ROOT, "%s_count{%s} %d%n", name, labels, count);
+        }
+    }
+
+    // adds the time of every graph search to the current thread's request
+    private static final class MeteredBackend implements BackendInterface {
+        private final BackendInterface backend;
+
+        MeteredBackend(BackendInterface backend) {
+            this.backend = backend;
+        }
+
+        // adds the time since startTime to the current request's search
+        private static void endSearch(long startTime) {
+            Request request = CURRENT.get();
+            if (request != null)
+                request.searchNanos += System.nanoTime() - startTime;
+        }
+
+        @Override
+        public void loadGraphData(String filename) throws IOException {
+            backend.loadGraphData(filename);
+        }
+
+        @Override
+        public long getGraphVersion() {
+            return backend.getGraphVersion();
+        }
+
+        @Override
+        public int getNodeCount() {
+            return backend.getNodeCount();
+        }
+
+        @Override
+        public int getEdgeCount() {
+            return backend.getEdgeCount();
+        }
+
+        @Override
+        public List<String> getListOfAllLocations() {
+            return backend.getListOfAllLocations();
+        }
+
+        @Override
+        public List<String> findLocationsOnShortestPath(String startLocation, String endLocation) {
+            long startTime = System.nanoTime();
+            try {
+                return backend.findLocationsOnShortestPath(startLocation, endLocation);
+            } finally {
+                endSearch(startTime);
+            }
+        }
+
+        @Override
+        public List<Double> findTimesOnShortestPath(String startLocation, String endLocation) {
+            long startTime = System.nanoTime();
+            try {
+                return backend.findTimesOnShortestPath(startLocation, endLocation);
+            } finally {
+                endSearch(startTime);
+            }
+        }
+
+        @Override
+        public ShortestPath<String> findShortestPath(String startLocation, String endLocation)
+                throws NoSuchElementException {
+            long startTime = System.nanoTime();
+            try {
+                return backend.findShortestPath(startLocation, endLocation);
+            } finally {
+                endSearch(startTime);
+            }
+        }
+
+        @Override
+        public String getFurthestDestinationFrom(String startLocation)
+                throws NoSuchElementException {
+            long startTime = System.nanoTime();
+            try {
+                return backend.getFurthestDestinationFrom(startLocation);
+            } finally {
+                endSearch(startTime);
+            }
+        }
+
+        @Override
+        public List<String> findPathToFurthestDestinationFrom(String startLocation)
+                throws NoSuchElementException {
+            long startTime = System.nanoTime();
+            try {
+                return backend.findPathToFurthestDestinationFrom(startLocation);
+            } finally {
+                endSearch(startTime);
+            }
+        }
+
+        @Override
+        public ShortestPath<String> findShortestPathToFurthestDestinationFrom(
+                String startLocation) throws NoSuchElementException {
+            long startTime = System.nanoTime();
+            try {
+                return backend.findShortestPathToFurthestDestinationFrom(startLocation);
+            } finally {
+                endSearch(startTime);
+            }
+        }
+
+        @Override
+        public double[] findShortestPathCosts(List<String> startLocations,
+                List<String> endLocations) {
+            long startTime = System.nanoTime();
+            try {
+                return backend.findShortestPathCosts(startLocations, endLocations);
+            } finally {
+                endSearch(startTime);
+            }
+        }
+
+        @Override
+        public double[][] findShortestPathCostMatrix(List<String> startLocations,
+                List<String> endLocations) {
+            long startTime = System.nanoTime();
+            try {
+                return backend.findShortestPathCostMatrix(startLocations, endLocations);
+            } finally {
+                endSearch(startTime);
+            }
+        }
+
+        @Override
+        public void findShortestPathCostMatrix(List<String> startLocations,
+                List<String> endLocations, ObjIntConsumer<double[]> rows) {
+            long startTime = System.nanoTime();
+            try {
+                backend.findShortestPathCostMatrix(startLocations, endLocations, rows);
+            } finally {
+                endSearch(startTime);
+            }
+        }
+    }
+}
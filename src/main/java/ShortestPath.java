@@ -0,0 +1,110 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A ShortestPath holds everything that one search finds out about the
+ * shortest path between two nodes: the nodes along it, the weight of each
+ * edge between them, and the cost of reaching each of those nodes. All of
+ * this is read from the predecessor chain of that search, so answering a
+ * request from it needs no further searches or edge lookups.
+ *
+ * Paths are immutable, and so can be shared by any number of threads.
+ */
+public class ShortestPath<NodeType> {
+
+    // the nodes along this path, from the start to the end
+    private final List<NodeType> nodes;
+    // the weight of the edge from the node at each position to the next one
+    private final double[] weights;
+    // the cost of the path from the start to the node at each position
+    private final double[] costs;
+
+    /**
+     * Creates a path from the nodes along it, and the edge weights and costs
+     * that the search recorded for them.
+     *
+     * @param nodes   the nodes along the path, from start to end
+     * @param weights the weight of the edge leaving each node but the last
+     * @param costs   the cost of the path up to each node, which is 0.0 for
+     *                the start
+     * @throws IllegalArgumentException if nodes is empty, or if there is not
+     *                                  a weight for each edge and a cost for
+     *                                  each node
+     */
+    public ShortestPath(List<NodeType> nodes, double[] weights, double[] costs) {
+        if (nodes.isEmpty() || weights.length != nodes.size() - 1
+                || costs.length != nodes.size())
+            throw new IllegalArgumentException("Expected a weight for every edge and a cost "
+                + "for every node");
+        this.nodes = List.copyOf(nodes);
+        this.weights = weights.clone();
+        this.costs = costs.clone();
+    }
+
+    /**
+     * Returns the node that this path starts from.
+     */
+    public NodeType getStart() {
+        return nodes.get(0);
+    }
+
+    /**
+     * Returns the node that this path ends at.
+     */
+    public NodeType getEnd() {
+        return nodes.get(nodes.size() - 1);
+    }
+
+    /**
+     * Returns the number of nodes along this path, including its start and
+     * end, which is one more than the number of edges.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns the nodes along this path, in order from the start to the end.
+     */
+    public List<NodeType> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the weight of the edge from the node at position i to the node
+     * at position i + 1.
+     *
+     * @throws IndexOutOfBoundsException if there is no such edge
+     */
+    public double getWeight(int i) {
+        return weights[i];
+    }
+
+    /**
+     * Returns the weight of every edge along this path, in order.
+     */
+    public List<Double> getWeights() {
+        List<Double> list = new ArrayList<>(weights.length);
+        for (double weight : weights)
+            list.add(weight);
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Returns the cost of this path from the start up to the node at
+     * position i.
+     *
+     * @throws IndexOutOfBoundsException if there is no such position
+     */
+    public double getCostTo(int i) {
+        return costs[i];
+    }
+
+    /**
+     * Returns the cost of this whole path, from the start to the end.
+     */
+    public double getCost() {
+        return costs[costs.length - 1];
+    }
+}
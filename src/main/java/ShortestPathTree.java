@@ -0,0 +1,156 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A ShortestPathTree holds the result of a single search outward from one
+ * start node: the cost of the shortest path to every node that can be
+ * reached from that start, and the predecessor of each of those nodes along
+ * that path, along with the weight of the edge from it. Any number of
+ * shortest paths from the start can then be read from this tree, without
+ * searching the graph again.
+ *
+ * Trees are immutable, and so can be shared by any number of threads.
+ */
+public class ShortestPathTree<NodeType> {
+
+    // every reachable node, in the order they were settled by the search:
+    // the start comes first, and costs never decrease along this list
+    private final List<NodeType> nodes;
+    // the cost of the shortest path to the node at each position
+    private final double[] costs;
+    // the position of each node's predecessor, or -1 for the start node
+    private final int[] parents;
+    // the weight of the edge from each node's predecessor to it, or 0.0 for
+    // the start node
+    private final double[] weights;
+    // the position of each node within nodes
+    private final Map<NodeType, Integer> positions;
+
+    /**
+     * Creates a tree from the nodes settled by a search, in the order that
+     * they were settled, starting with the start node itself.
+     *
+     * @param nodes   every node reachable from the start, in settled order
+     * @param costs   the cost of the shortest path to each of those nodes
+     * @param parents the position within nodes of each node's predecessor,
+     *                which is -1 for the start node
+     * @param weights the weight of the edge from each node's predecessor to
+     *                it, which is 0.0 for the start node
+     * @throws IllegalArgumentException if these are not the same length, or
+     *                                  nodes is empty
+     */
+    public ShortestPathTree(List<NodeType> nodes, double[] costs, int[] parents,
+            double[] weights) {
+        if (nodes.isEmpty() || costs.length != nodes.size() || parents.length != nodes.size()
+                || weights.length != nodes.size())
+            throw new IllegalArgumentException("Expected a cost, parent and weight for every "
+                + "node");
+        this.nodes = List.copyOf(nodes);
+        this.costs = costs.clone();
+        this.parents = parents.clone();
+        this.weights = weights.clone();
+        this.positions = new HashMap<>(nodes.size() * 2);
+        for (int i = 0; i < nodes.size(); i++)
+            positions.put(nodes.get(i), i);
+    }
+
+    /**
+     * Returns the node that every path in this tree starts from.
+     */
+    public NodeType getStart() {
+        return nodes.get(0);
+    }
+
+    /**
+     * Returns the number of nodes reachable from the start, including itself.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns every node reachable from the start, in order of increasing
+     * cost (the order in which the search settled them).
+     */
+    public List<NodeType> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Checks whether node can be reached from the start.
+     */
+    public boolean contains(NodeType node) {
+        return positions.containsKey(node);
+    }
+
+    /**
+     * Returns the cost of the shortest path from the start to node.
+     *
+     * @throws NoSuchElementException if node cannot be reached from the start
+     */
+    public double getCost(NodeType node) {
+        return costs[position(node)];
+    }
+
+    /**
+     * Returns the node before node along the shortest path from the start.
+     *
+     * @return that predecessor, or null when node is the start itself
+     * @throws NoSuchElementException if node cannot be reached from the start
+     */
+    public NodeType getPredecessor(NodeType node) {
+        int parent = parents[position(node)];
+        return parent < 0 ? null : nodes.get(parent);
+    }
+
+    /**
+     * Returns the nodes along the shortest path from the start to node.
+     *
+     * @return a list that begins with the start and ends with node
+     * @throws NoSuchElementException if node cannot be reached from the start
+     */
+    public List<NodeType> getPathTo(NodeType node) {
+        List<NodeType> path = new ArrayList<>();
+        for (int i = position(node); i >= 0; i = parents[i])
+            path.add(nodes.get(i));
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Returns the shortest path from the start to node, with the weight of
+     * each edge along it and the cost of reaching each of its nodes, all as
+     * recorded by the search that built this tree.
+     *
+     * @throws NoSuchElementException if node cannot be reached from the start
+     */
+    public ShortestPath<NodeType> getShortestPathTo(NodeType node) {
+        int size = 0;
+        for (int i = position(node); i >= 0; i = parents[i])
+            size++;
+        // fill the path in from the end, following parents back
+        List<NodeType> path = new ArrayList<>(Collections.nCopies(size, null));
+        double[] pathWeights = new double[size - 1];
+        double[] pathCosts = new double[size];
+        int i = position(node);
+        for (int j = size - 1; j >= 0; j--) {
+            path.set(j, nodes.get(i));
+            pathCosts[j] = costs[i];
+            if (j > 0)
+                pathWeights[j - 1] = weights[i];
+            i = parents[i];
+        }
+        return new ShortestPath<>(path, pathWeights, pathCosts);
+    }
+
+    private int position(NodeType node) {
+        Integer position = positions.get(node);
+        if (position == null)
+            throw new NoSuchElementException(node + " cannot be reached from " + getStart());
+        return position;
+    }
+}
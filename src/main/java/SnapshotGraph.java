@@ -0,0 +1,266 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A SnapshotGraph is an immutable graph that numbers its nodes with int
+ * indexes, and answers the same queries as DijkstraGraph by searching over
+ * those indexes with a SearchWorkspace. Subclasses decide how the edges
+ * leaving each index are stored: CompressedGraph packs all of them into flat
+ * arrays, while each version of a VersionedGraph keeps them in rows that can
+ * be shared with the versions before and after it.
+ *
+ * Since nothing changes after a snapshot is created, it can be shared by any
+ * number of threads, each of which searches it with a workspace of its own,
+ * and every method that would modify it throws
+ * UnsupportedOperationException instead.
+ */
+public abstract class SnapshotGraph<NodeType> implements GraphADT<NodeType, Double> {
+
+    // the workspace that each thread searches this snapshot with
+    private final ThreadLocal<SearchWorkspace> workspaces;
+
+    // runs every search over the indexes of this snapshot, through its hooks
+    private final SearchDriver<NodeType> driver = new SearchDriver<>() {
+        @Override
+        protected int getIndexCount() {
+            return SnapshotGraph.this.getIndexCount();
+        }
+
+        @Override
+        protected NodeType getData(int index) {
+            return SnapshotGraph.this.getData(index);
+        }
+
+        @Override
+        protected int indexOf(NodeType data) {
+            return SnapshotGraph.this.indexOf(data);
+        }
+
+        @Override
+        protected SearchWorkspace getWorkspace() {
+            SearchWorkspace workspace = workspaces.get();
+            workspace.begin();
+            return workspace;
+        }
+
+        @Override
+        protected void relax(SearchWorkspace workspace, int index, double cost) {
+            SnapshotGraph.this.relax(workspace, index, cost);
+        }
+    };
+
+    /**
+     * Creates a snapshot that each thread searches with its own workspace
+     * from workspaces, which must have room for every index of this snapshot.
+     * Snapshots with the same number of indexes can share those workspaces.
+     *
+     * @param workspaces the workspace of each thread
+     */
+    protected SnapshotGraph(ThreadLocal<SearchWorkspace> workspaces) {
+        this.workspaces = workspaces;
+    }
+
+    /**
+     * Creates the workspaces for snapshots with indexCount indexes, which
+     * each thread creates its own of the first time it searches.
+     *
+     * @param indexCount the number of indexes that each workspace must hold
+     * @return the workspace of each thread
+     */
+    protected static ThreadLocal<SearchWorkspace> createWorkspaces(int indexCount) {
+        return ThreadLocal.withInitial(
+                () -> new SearchWorkspace(new IndexedDaryHeap(indexCount)));
+    }
+
+    /**
+     * Returns one more than the highest index of any node in this snapshot.
+     */
+    protected abstract int getIndexCount();
+
+    /**
+     * Returns the data of the node with an index.
+     *
+     * @param index the index of a node in this snapshot
+     */
+    protected abstract NodeType getData(int index);
+
+    /**
+     * Returns the index of the node containing data, or -1 when there is
+     * none (including when data is null).
+     *
+     * @param data the data of the node to find
+     */
+    protected abstract int indexOf(NodeType data);
+
+    /**
+     * Returns the weight of the edge between the nodes with two indexes, or
+     * null when there is none.
+     *
+     * @param from the index of the edge's predecessor
+     * @param to   the index of the edge's successor
+     */
+    protected abstract Double findEdgeWeight(int from, int to);
+
+    /**
+     * Reaches every neighbor of the settled node at index whose cost through
+     * that node is lower than any found before, and pushes it onto the heap
+     * of workspace, following the edges leaving that node in their order.
+     *
+     * @param workspace the workspace of the search
+     * @param index     the index of the settled node
+     * @param cost      the cost of reaching that node
+     */
+    protected abstract void relax(SearchWorkspace workspace, int index, double cost);
+
+    /**
+     * Snapshots cannot be modified.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean insertNode(NodeType data) {
+        throw new UnsupportedOperationException("Snapshots cannot be modified.");
+    }
+
+    /**
+     * Snapshots cannot be modified.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean removeNode(NodeType data) {
+        throw new UnsupportedOperationException("Snapshots cannot be modified.");
+    }
+
+    /**
+     * Snapshots cannot be modified.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean insertEdge(NodeType pred, NodeType succ, Double weight) {
+        throw new UnsupportedOperationException("Snapshots cannot be modified.");
+    }
+
+    /**
+     * Snapshots cannot be modified.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean removeEdge(NodeType pred, NodeType succ) {
+        throw new UnsupportedOperationException("Snapshots cannot be modified.");
+    }
+
+    @Override
+    public boolean containsNode(NodeType data) {
+        return indexOf(data) >= 0;
+    }
+
+    @Override
+    public boolean containsEdge(NodeType pred, NodeType succ) {
+        return findEdgeWeight(pred, succ) != null;
+    }
+
+    /**
+     * Returns the weight of the edge from pred to succ, as a double.
+     *
+     * @param pred the data item contained in the source node for the edge
+     * @param succ the data item contained in the target node for the edge
+     * @return the weight of the edge between those nodes
+     * @throws NoSuchElementException if either node or the edge between them
+     *                                are not found within this snapshot
+     */
+    @Override
+    public Double getEdge(NodeType pred, NodeType succ) {
+        Double weight = findEdgeWeight(pred, succ);
+        if (weight == null)
+            throw new NoSuchElementException("No edge from " + pred + " to " + succ);
+        return weight;
+    }
+
+    // the weight of the edge from pred to succ, or null when there is none
+    private Double findEdgeWeight(NodeType pred, NodeType succ) {
+        int from = indexOf(pred);
+        int to = indexOf(succ);
+        if (from < 0 || to < 0)
+            return null;
+        return findEdgeWeight(from, to);
+    }
+
+    // Searches from start until end is settled, and returns the workspace
+    // holding the path to it
+    private SearchWorkspace search(NodeType start, NodeType end) {
+        int startIndex = indexOf(start);
+        int endIndex = indexOf(end);
+        if (startIndex < 0)
+            throw new NoSuchElementException("Start node not found in the graph.");
+        if (endIndex < 0)
+            throw new NoSuchElementException("End node not found in the graph.");
+        return driver.computePath(startIndex, endIndex);
+    }
+
+    @Override
+    public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+        return shortestPath(start, end).getNodes();
+    }
+
+    @Override
+    public double shortestPathCost(NodeType start, NodeType end) {
+        return search(start, end).getCost(indexOf(end));
+    }
+
+    @Override
+    public ShortestPath<NodeType> shortestPath(NodeType start, NodeType end) {
+        SearchWorkspace workspace = search(start, end);
+        int endIndex = indexOf(end);
+        int size = 1;
+        for (int index = endIndex; workspace.getPredecessor(index) >= 0;
+                index = workspace.getPredecessor(index))
+            size++;
+        // fill the path in from the end, following predecessors back
+        List<NodeType> path = new ArrayList<>(Collections.nCopies(size, null));
+        double[] pathWeights = new double[size - 1];
+        double[] costs = new double[size];
+        int index = endIndex;
+        for (int i = size - 1; i >= 0; i--) {
+            path.set(i, getData(index));
+            costs[i] = workspace.getCost(index);
+            if (i > 0)
+                pathWeights[i - 1] = workspace.getWeight(index);
+            index = workspace.getPredecessor(index);
+        }
+        return new ShortestPath<>(path, pathWeights, costs);
+    }
+
+    @Override
+    public double[] shortestPathCosts(NodeType start, List<NodeType> ends) {
+        if (indexOf(start) < 0)
+            throw new NoSuchElementException("Start node not found in the graph.");
+        return driver.computeCosts(start, driver.new Targets(ends));
+    }
+
+    @Override
+    public double[][] shortestPathCostMatrix(List<NodeType> starts, List<NodeType> ends) {
+        double[][] matrix = new double[starts.size()][];
+        shortestPathCostMatrix(starts, ends, (row, i) -> matrix[i] = row);
+        return matrix;
+    }
+
+    @Override
+    public void shortestPathCostMatrix(List<NodeType> starts, List<NodeType> ends,
+            ObjIntConsumer<double[]> rows) {
+        driver.computeCostMatrix(starts, ends, rows);
+    }
+
+    @Override
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+        int startIndex = indexOf(start);
+        if (startIndex < 0)
+            throw new NoSuchElementException("Start node not found in the graph.");
+        return driver.computeTree(startIndex);
+    }
+}
@@ -0,0 +1,600 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A VersionedGraph lets a graph be edited while queries keep running on it,
+ * like when facilities closes walkways during the day. It holds a sequence of
+ * immutable versions of the graph, numbered from 0. Readers pin the latest
+ * version, by reading a single volatile field, and run their whole query on
+ * it without ever taking a lock, so each query sees one consistent graph,
+ * however many edits are published meanwhile. Writers take turns: each one
+ * applies its edits to a copy of the latest version, which becomes the next
+ * version when it is published by a single write to that field.
+ *
+ * Versions share everything that their edits did not change. The edges
+ * leaving and entering each node are kept in immutable rows of their own,
+ * and those rows are kept in chunks of CHUNK_SIZE rows. Editing an edge only
+ * copies the rows of its two nodes, the chunks holding them, and the short
+ * arrays of chunks. The data of each node is shared by every version until a
+ * node is inserted or removed, which copies it. Nodes are numbered by a
+ * NodeDictionary that only grows: a removed node keeps its index, which it
+ * gets back if it is inserted again, so the dictionary is only copied when
+ * data that it has never held before is inserted.
+ */
+public class VersionedGraph<NodeType> {
+
+    // the rows in each chunk, which is a power of two
+    private static final int CHUNK_BITS = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // the latest version, which readers pin by reading this once
+    private volatile Version<NodeType> latest;
+
+    /**
+     * Creates a versioned graph whose version 0 is empty.
+     */
+    public VersionedGraph() {
+        latest = new Version<>(0, new Nodes<>(new Object[0], new NodeDictionary<>(), null),
+                new Row[0][], new Row[0][], 0);
+    }
+
+    /**
+     * Creates a versioned graph whose version 0 has the nodes and edges that
+     * graph holds right now, with their weights as doubles. Later changes to
+     * graph do not affect it.
+     *
+     * @param graph the graph to copy
+     */
+    public VersionedGraph(BaseGraph<NodeType, ?> graph) {
+        int count = graph.nodesByIndex.size();
+        Object[] data = new Object[count];
+        NodeDictionary<NodeType> ids = new NodeDictionary<>(graph.ids); // ids are indexes
+        Row[][] leaving = createChunks(count);
+        Row[][] entering = createChunks(count);
+        int edgeCount = 0;
+        for (BaseGraph<NodeType, ?>.Node node : graph.nodesByIndex) {
+            data[node.index] = node.data;
+            int[] ends = new int[node.edgesLeaving.size()];
+            double[] weights = new double[ends.length];
+            for (int i = 0; i < ends.length; i++) {
+                ends[i] = node.edgesLeaving.get(i).successor.index;
+                weights[i] = node.edgesLeaving.get(i).data.doubleValue();
+            }
+            leaving[node.index >>> CHUNK_BITS][node.index & CHUNK_MASK] = new Row(ends, weights);
+            ends = new int[node.edgesEntering.size()];
+            weights = new double[ends.length];
+            for (int i = 0; i < ends.length; i++) {
+                ends[i] = node.edgesEntering.get(i).predecessor.index;
+                weights[i] = node.edgesEntering.get(i).data.doubleValue();
+            }
+            entering[node.index >>> CHUNK_BITS][node.index & CHUNK_MASK] = new Row(ends, weights);
+            edgeCount += node.edgesLeaving.size();
+        }
+        latest = new Version<>(0, new Nodes<>(data, ids, null), leaving, entering, edgeCount);
+    }
+
+    // enough chunks for count rows, which are all empty
+    private static Row[][] createChunks(int count) {
+        Row[][] chunks = new Row[(count + CHUNK_SIZE - 1) >>> CHUNK_BITS][];
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            chunks[chunk] = new Row[CHUNK_SIZE];
+            Arrays.fill(chunks[chunk], Row.EMPTY);
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns the latest version, which stays exactly as it is for as long as
+     * the caller holds on to it, so that several queries can all be answered
+     * from the same version.
+     *
+     * @return the latest version
+     */
+    public Version<NodeType> pin() {
+        return latest;
+    }
+
+    /**
+     * Returns the number of the latest version.
+     */
+    public long getVersion() {
+        return latest.getVersion();
+    }
+
+    /**
+     * Applies edits to a copy of the latest version, and then publishes that
+     * copy as the next version, unless the edits did not change anything.
+     * Queries keep running on the versions they pinned in the meantime. Only
+     * one writer applies its edits at a time, so none of them are lost, and
+     * when edits throws an exception, nothing is published at all.
+     *
+     * @param edits the edits to apply, which must not use their editor once
+     *              they return
+     * @return the version that is now the latest
+     */
+    public synchronized Version<NodeType> update(Consumer<? super Editor<NodeType>> edits) {
+        Editor<NodeType> editor = new Editor<>(latest);
+        edits.accept(editor);
+        Version<NodeType> next = editor.finish();
+        latest = next;
+        return next;
+    }
+
+    /**
+     * Answers query from the latest version, and returns its answer along
+     * with the number of that version.
+     *
+     * @param query the query to answer, from a version that does not change
+     * @return the answer to query, and the version it was computed on
+     */
+    public <ValueType> Result<ValueType> query(
+            Function<? super Version<NodeType>, ValueType> query) {
+        Version<NodeType> version = latest;
+        return new Result<>(query.apply(version), version.getVersion());
+    }
+
+    /**
+     * Finds the shortest path from start to end in the latest version.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return that path, and the version it was found in
+     * @throws java.util.NoSuchElementException if either node is missing or
+     *                                          there is no such path
+     */
+    public Result<ShortestPath<NodeType>> shortestPath(NodeType start, NodeType end) {
+        return query(version -> version.shortestPath(start, end));
+    }
+
+    /**
+     * Finds the cost of the shortest path from start to end in the latest
+     * version.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return that cost, and the version it was found in
+     * @throws java.util.NoSuchElementException if either node is missing or
+     *                                          there is no such path
+     */
+    public Result<Double> shortestPathCost(NodeType start, NodeType end) {
+        return query(version -> version.shortestPathCost(start, end));
+    }
+
+    /**
+     * A Result is the answer to a query, along with the number of the version
+     * that it was computed on.
+     */
+    public static final class Result<ValueType> {
+        private final ValueType value;
+        private final long version;
+
+        private Result(ValueType value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+
+        /**
+         * Returns the answer to the query.
+         */
+        public ValueType getValue() {
+            return value;
+        }
+
+        /**
+         * Returns the number of the version that the answer was computed on.
+         */
+        public long getVersion() {
+            return version;
+        }
+    }
+
+    // The indexes and weights of the edges leaving or entering one node, in
+    // the order they were inserted, which are never changed once created
+    private static final class Row {
+        static final Row EMPTY = new Row(new int[0], new double[0]);
+
+        final int[] ends;
+        final double[] weights;
+
+        Row(int[] ends, double[] weights) {
+            this.ends = ends;
+            this.weights = weights;
+        }
+
+        // the position of the edge to or from end, or -1 when there is none
+        int find(int end) {
+            for (int i = 0; i < ends.length; i++)
+                if (ends[i] == end)
+                    return i;
+            return -1;
+        }
+
+        // a copy of this row with the edge at position, or else a new edge at
+        // the end, to or from end weighing weight
+        Row with(int position, int end, double weight) {
+            if (position < 0) {
+                position = ends.length;
+                Row row = new Row(Arrays.copyOf(ends, ends.length + 1),
+                        Arrays.copyOf(weights, ends.length + 1));
+                row.ends[position] = end;
+                row.weights[position] = weight;
+                return row;
+            }
+            Row row = new Row(ends, weights.clone());
+            row.weights[position] = weight;
+            return row;
+        }
+
+        // a copy of this row without the edge at position, keeping the order
+        // of the others
+        Row without(int position) {
+            if (ends.length == 1)
+                return EMPTY;
+            int[] newEnds = new int[ends.length - 1];
+            double[] newWeights = new double[ends.length - 1];
+            System.arraycopy(ends, 0, newEnds, 0, position);
+            System.arraycopy(ends, position + 1, newEnds, position, newEnds.length - position);
+            System.arraycopy(weights, 0, newWeights, 0, position);
+            System.arraycopy(weights, position + 1, newWeights, position,
+                    newWeights.length - position);
+            return new Row(newEnds, newWeights);
+        }
+    }
+
+    // The data of the node with each index (or null for the indexes of
+    // removed nodes), the index of each data item that any node has held,
+    // and the workspaces to search them with, which versions share until
+    // their nodes change
+    private static final class Nodes<NodeType> {
+        final Object[] data;
+        final NodeDictionary<NodeType> ids;
+        final List<NodeType> allNodes;
+        final ThreadLocal<SearchWorkspace> workspaces;
+
+        @SuppressWarnings("unchecked")
+        Nodes(Object[] data, NodeDictionary<NodeType> ids, Nodes<NodeType> previous) {
+            this.data = data;
+            this.ids = ids;
+            List<NodeType> nodes = new ArrayList<>(data.length);
+            for (Object node : data)
+                if (node != null)
+                    nodes.add((NodeType) node);
+            allNodes = Collections.unmodifiableList(nodes);
+            // workspaces only need to be replaced when there are more indexes
+            workspaces = previous != null && previous.data.length == data.length
+                    ? previous.workspaces
+                    : SnapshotGraph.createWorkspaces(data.length);
+        }
+
+        // the index of the node containing data, or -1 when there is none
+        int indexOf(Object data) {
+            if (data == null)
+                return -1;
+            int index = ids.getId(data);
+            return index >= 0 && this.data[index] != null ? index : -1;
+        }
+    }
+
+    /**
+     * A Version is one immutable version of a VersionedGraph, which answers
+     * the same queries as DijkstraGraph, and lists its nodes in the order
+     * that they were first inserted. Like any SnapshotGraph, it can be shared by
+     * any number of threads, and every method that would modify it throws
+     * UnsupportedOperationException: edits go through VersionedGraph.update.
+     */
+    public static final class Version<NodeType> extends SnapshotGraph<NodeType> {
+        private final long number;
+        private final Nodes<NodeType> nodes;
+        // the row of edges leaving and entering the node with each index,
+        // in chunks of CHUNK_SIZE rows
+        private final Row[][] leaving;
+        private final Row[][] entering;
+        private final int edgeCount;
+
+        private Version(long number, Nodes<NodeType> nodes, Row[][] leaving, Row[][] entering,
+                int edgeCount) {
+            super(nodes.workspaces);
+            this.number = number;
+            this.nodes = nodes;
+            this.leaving = leaving;
+            this.entering = entering;
+            this.edgeCount = edgeCount;
+        }
+
+        /**
+         * Returns the number of this version, which is one more than the
+         * number of the version that it was edited from.
+         */
+        public long getVersion() {
+            return number;
+        }
+
+        @Override
+        protected int getIndexCount() {
+            return nodes.data.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected NodeType getData(int index) {
+            return (NodeType) nodes.data[index];
+        }
+
+        @Override
+        protected int indexOf(NodeType data) {
+            return nodes.indexOf(data);
+        }
+
+        @Override
+        public List<NodeType> getAllNodes() {
+            return nodes.allNodes;
+        }
+
+        @Override
+        public int getNodeCount() {
+            return nodes.allNodes.size();
+        }
+
+        @Override
+        public int getEdgeCount() {
+            return edgeCount;
+        }
+
+        // scans the shorter of from's leaving and to's entering edges
+        @Override
+        protected Double findEdgeWeight(int from, int to) {
+            Row edgesLeaving = leaving[from >>> CHUNK_BITS][from & CHUNK_MASK];
+            Row edgesEntering = entering[to >>> CHUNK_BITS][to & CHUNK_MASK];
+            if (edgesLeaving.ends.length <= edgesEntering.ends.length) {
+                int position = edgesLeaving.find(to);
+                return position < 0 ? null : edgesLeaving.weights[position];
+            }
+            int position = edgesEntering.find(from);
+            return position < 0 ? null : edgesEntering.weights[position];
+        }
+
+        @Override
+        protected void relax(SearchWorkspace workspace, int index, double cost) {
+            IndexedDaryHeap heap = workspace.getHeap();
+            Row row = leaving[index >>> CHUNK_BITS][index & CHUNK_MASK];
+            for (int edge = 0; edge < row.ends.length; edge++) {
+                int neighbor = row.ends[edge];
+                double newCost = cost + row.weights[edge];
+                if (newCost < workspace.getCost(neighbor)) {
+                    workspace.reach(neighbor, newCost, index, row.weights[edge]);
+                    heap.push(neighbor, newCost);
+                }
+            }
+        }
+    }
+
+    // The rows of a version being edited, which copies the array of chunks,
+    // and each chunk, the first time that one of its rows changes, so that
+    // the version it was copied from never changes
+    private static final class RowTable {
+        Row[][] chunks;
+        private boolean chunksCopied = false;
+        private boolean[] chunkCopied;
+
+        RowTable(Row[][] chunks) {
+            this.chunks = chunks;
+            chunkCopied = new boolean[chunks.length];
+        }
+
+        Row get(int index) {
+            return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+        }
+
+        void set(int index, Row row) {
+            int chunk = index >>> CHUNK_BITS;
+            if (!chunksCopied) {
+                chunks = chunks.clone();
+                chunksCopied = true;
+            }
+            if (!chunkCopied[chunk]) {
+                chunks[chunk] = chunks[chunk].clone();
+                chunkCopied[chunk] = true;
+            }
+            chunks[chunk][index & CHUNK_MASK] = row;
+        }
+
+        // makes room for an empty row at index, which is one past the last
+        void add(int index) {
+            int chunk = index >>> CHUNK_BITS;
+            if (chunk < chunks.length)
+                return; // the rows past the last one in a chunk are empty
+            chunks = Arrays.copyOf(chunks, chunk + 1);
+            chunksCopied = true;
+            chunkCopied = Arrays.copyOf(chunkCopied, chunk + 1);
+            chunks[chunk] = new Row[CHUNK_SIZE];
+            Arrays.fill(chunks[chunk], Row.EMPTY);
+            chunkCopied[chunk] = true;
+        }
+    }
+
+    /**
+     * An Editor applies edits to a copy of a version, during a call to
+     * VersionedGraph.update, which publishes them all together as the next
+     * version. Each method works just like the BaseGraph method of the same
+     * name, except that weights are doubles. An editor cannot be used after
+     * its edits have been published.
+     */
+    public static final class Editor<NodeType> {
+        private final Version<NodeType> base;
+        // the data of each node, which is copied when a node is first
+        // inserted or removed, and the dictionary of indexes, which is
+        // copied when new data is first inserted; both are otherwise shared
+        // with base
+        private Object[] data;
+        private NodeDictionary<NodeType> ids;
+        private boolean nodesCopied = false;
+        private boolean idsCopied = false;
+        private final RowTable leaving;
+        private final RowTable entering;
+        private int edgeCount;
+        private boolean changed = false;
+        private boolean finished = false;
+
+        private Editor(Version<NodeType> base) {
+            this.base = base;
+            data = base.nodes.data;
+            ids = base.nodes.ids;
+            leaving = new RowTable(base.leaving);
+            entering = new RowTable(base.entering);
+            edgeCount = base.edgeCount;
+        }
+
+        // checks that this editor can still be used
+        private void checkOpen() {
+            if (finished)
+                throw new IllegalStateException("These edits have already been published");
+        }
+
+        // copies the data of each node, unless it has been already
+        private void copyNodes() {
+            if (!nodesCopied) {
+                data = data.clone();
+                nodesCopied = true;
+            }
+        }
+
+        // the index of the node containing data, or -1 when there is none
+        private int indexOf(NodeType data) {
+            if (data == null)
+                return -1;
+            int index = ids.getId(data);
+            return index >= 0 && this.data[index] != null ? index : -1;
+        }
+
+        /**
+         * Inserts a new node.
+         *
+         * @param data the data item stored in the new node
+         * @return true if the data is unique and can be inserted into a new
+         *         node, or false if this data is already in the graph
+         * @throws NullPointerException if data is null
+         */
+        public boolean insertNode(NodeType data) {
+            checkOpen();
+            if (data == null)
+                throw new NullPointerException("Cannot insert null node");
+            if (indexOf(data) >= 0)
+                return false;
+            changed = true;
+            copyNodes();
+            int index = ids.getId(data);
+            if (index < 0) {
+                // new data gets the next index, with empty rows
+                if (!idsCopied) {
+                    ids = new NodeDictionary<>(ids);
+                    idsCopied = true;
+                }
+                index = ids.add(data);
+                if (index == this.data.length)
+                    this.data = Arrays.copyOf(this.data, Math.max(index * 2, CHUNK_SIZE));
+                leaving.add(index);
+                entering.add(index);
+            }
+            this.data[index] = data;
+            return true;
+        }
+
+        /**
+         * Removes a node, along with every edge to or from it.
+         *
+         * @param data the data item stored in the node to be removed
+         * @return true if a node with data is found and removed, or false if
+         *         that data value is not found in the graph
+         */
+        public boolean removeNode(NodeType data) {
+            checkOpen();
+            int index = indexOf(data);
+            if (index < 0)
+                return false;
+            changed = true;
+            copyNodes();
+            Row edgesLeaving = leaving.get(index);
+            Row edgesEntering = entering.get(index);
+            for (int succ : edgesLeaving.ends)
+                if (succ != index)
+                    entering.set(succ, entering.get(succ).without(entering.get(succ).find(index)));
+            for (int pred : edgesEntering.ends)
+                if (pred != index)
+                    leaving.set(pred, leaving.get(pred).without(leaving.get(pred).find(index)));
+            // an edge from this node to itself is in both of its rows
+            edgeCount -= edgesLeaving.ends.length + edgesEntering.ends.length
+                    - (edgesLeaving.find(index) >= 0 ? 1 : 0);
+            leaving.set(index, Row.EMPTY);
+            entering.set(index, Row.EMPTY);
+            this.data[index] = null;
+            return true;
+        }
+
+        /**
+         * Inserts a new directed edge, or updates the weight of the edge
+         * between pred and succ when there already is one.
+         *
+         * @param pred   the data item contained in the edge's predecessor
+         * @param succ   the data item contained in the edge's successor
+         * @param weight the non-negative weight of the edge
+         * @return true if the edge could be inserted or updated, or false if
+         *         the pred or succ data are not found in any nodes
+         */
+        public boolean insertEdge(NodeType pred, NodeType succ, double weight) {
+            checkOpen();
+            int from = indexOf(pred);
+            int to = indexOf(succ);
+            if (from < 0 || to < 0)
+                return false;
+            changed = true;
+            int position = leaving.get(from).find(to);
+            if (position < 0)
+                edgeCount++;
+            leaving.set(from, leaving.get(from).with(position, to, weight));
+            entering.set(to, entering.get(to).with(entering.get(to).find(from), from, weight));
+            return true;
+        }
+
+        /**
+         * Removes a directed edge.
+         *
+         * @param pred the data item contained in the edge's predecessor
+         * @param succ the data item contained in the edge's successor
+         * @return true if the edge could be removed, or false if there is no
+         *         such edge
+         */
+        public boolean removeEdge(NodeType pred, NodeType succ) {
+            checkOpen();
+            int from = indexOf(pred);
+            int to = indexOf(succ);
+            if (from < 0 || to < 0)
+                return false;
+            int position = leaving.get(from).find(to);
+            if (position < 0)
+                return false;
+            changed = true;
+            edgeCount--;
+            leaving.set(from, leaving.get(from).without(position));
+            entering.set(to, entering.get(to).without(entering.get(to).find(from)));
+            return true;
+        }
+
+        // the next version, with every edit applied, or base when nothing
+        // was changed; this editor cannot be used afterwards
+        private Version<NodeType> finish() {
+            finished = true;
+            if (!changed)
+                return base;
+            Nodes<NodeType> nodes = base.nodes;
+            if (nodesCopied)
+                nodes = new Nodes<>(Arrays.copyOf(data, ids.size()), ids, base.nodes);
+            return new Version<>(base.number + 1, nodes, leaving.chunks, entering.chunks,
+                    edgeCount);
+        }
+    }
+}
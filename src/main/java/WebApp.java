@@ -7,10 +7,10 @@ import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpExchange;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.File;
-import java.util.Scanner;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 /**
@@ -25,9 +25,47 @@ import java.util.stream.Stream;
  *     copy all files to /afs/cs.wisc.edu/p/cs400-web/CS_LOGIN/
  *     compile WebApp in that location
  *     there is no need to run your sever, the provided index.cgi handles this 
+ *     by running: java NavigatorDaemon "$QUERY_STRING"
+ *     optionally keep a warm navigator running for index.cgi to forward its
+ *     requests to, from that same location: java WebApp --daemon &
  * Then visit through browser via https://cs400-web.cs.wisc.edu/CS_LOGIN/
  */
 public class WebApp {
+
+    // The backend and frontend that every request is answered with.  These
+    // are built once at startup, and never modified afterwards, so they can
+    // safely be shared by all of the exchanges handled by this server.
+    private static final class Navigator {
+	final BackendInterface backend;
+	final FrontendInterface frontend;
+	// template.html with this frontend's prompts already filled in
+	final HtmlTemplate page;
+	// the most frequently requested pages, already rendered
+	final ResponseCache cache;
+
+	Navigator(BackendInterface backend, FrontendInterface frontend,
+		  HtmlTemplate page, ResponseCache cache) {
+	    this.backend = backend;
+	    this.frontend = frontend;
+	    this.page = page;
+	    this.cache = cache;
+	}
+    }
+
+    // published once by main before the server starts accepting requests
+    private static volatile Navigator navigator = null;
+
+    // comments within template.html that are replaced in each response
+    private static final String RESPONSE_PLACEHOLDER = "<!-- RESPONSE GOES HERE -->";
+    private static final String PROMPTS_PLACEHOLDER = "<!-- PROMPTS GO HERE -->";
+    // request counts and latencies for every context served by createServer
+    private static final ServerMetrics metrics =
+	new ServerMetrics(() -> navigator == null ? null : navigator.backend);
+    private static final ServerMetrics.Route pageMetrics = metrics.route("/");
+
+    // the command line argument that runs this program as a warm daemon
+    private static final String DAEMON_ARGUMENT = "--daemon";
+
     public static void main(String[] args) throws IOException {
 	// expects the port number as a command line argument to this program
 	// or if a non-numeric argument is passed treat this like the query
@@ -35,7 +73,12 @@ public class WebApp {
 	if(args.length != 1) {
 	    throw new IllegalArgumentException("You must pass a command line" +
 					       " argument representing the port that this servers should be" +
-					       " bound to when running this program.  Or a Query string.");
+					       " bound to when running this program.  Or a Query string," +
+					       " or --daemon.");
+	}
+	if(args[0].equals(DAEMON_ARGUMENT)) {
+	    startDaemon();
+	    return;
 	}
 	int portNumber = -1;
 	try {
@@ -44,58 +87,193 @@ public class WebApp {
 	    // When a non integer argument is passed, treat as a query string
 	    // and output response through standard out.  This is only used
 	    // when running through index.cgi on department linux machines.
-	    handleSingleResponse(args[0]);
+	    NavigatorDaemon.main(args);
 	    return;
 	}
 				
+	// load the campus graph once, and share it across every request
+	long startTime = System.nanoTime();
+	loadNavigator("./campus.dot","template.html");
+	System.out.println("Loaded campus graph in " +
+			   elapsedMillis(startTime) + " ms");
+
 	// configure and start server on this port, responding in this way
-	InetSocketAddress address = new InetSocketAddress(portNumber);
-	HttpServer server = HttpServer.create(address,8);
+	// reported as the mode actually used, since virtual threads need JDK 21
+	RequestExecutors.Mode mode = RequestExecutors.getSupportedMode(
+	    RequestExecutors.getConfiguredMode());
+	int backlog = RequestExecutors.getConfiguredBacklog();
+	AccessLog accessLog = AccessLog.createConfigured();
+	if(accessLog != null) // write out any records still queued on exit
+	    Runtime.getRuntime().addShutdownHook(new Thread(accessLog::close));
+	HttpServer server = createServer(new InetSocketAddress(portNumber),
+					 RequestExecutors.create(mode), backlog,
+					 accessLog);
+	System.out.println("Starting Campus Navigator Server (executor: " +
+			   mode + ", backlog: " + backlog + ", engine: " +
+			   GraphEngines.getConfiguredEngine() + ", access log: " +
+			   System.getProperty(AccessLog.FILE_PROPERTY,
+					      AccessLog.DEFAULT_FILE) + ")...");
+	server.start();
+    }
+
+    // keeps a navigator loaded for index.cgi to forward its queries to,
+    // through the unix-domain socket described by campuspath.daemon.socket
+    private static void startDaemon() throws IOException {
+	long startTime = System.nanoTime();
+	loadNavigator("./campus.dot","template.html");
+	System.out.println("Loaded campus graph in " +
+			   elapsedMillis(startTime) + " ms");
+	RequestExecutors.Mode mode = RequestExecutors.getSupportedMode(
+	    RequestExecutors.getConfiguredMode());
+	Path socket = NavigatorDaemon.getConfiguredSocket();
+	NavigatorDaemon daemon = new NavigatorDaemon(socket,
+						     RequestExecutors.create(mode),
+						     (query,out) -> writeSingleResponse(query,WebApp.navigator,out));
+	Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+		    try { daemon.close(); }
+		    catch(IOException e) { e.printStackTrace(); }
+	}));
+	System.out.println("Starting Campus Navigator Daemon (executor: " +
+			   mode + ", socket: " + socket + ")...");
+	daemon.start();
+    }
+
+    // loads the graph and page template that every request is answered from
+    static void loadNavigator(String graphFilename, String templateFilename)
+	throws IOException {
+	navigator = createWorkingNavigator(graphFilename,templateFilename);
+    }
+
+    // answers every request from backend, which has already loaded its
+    // graph, and the page template in templateFilename
+    static void loadNavigator(BackendInterface backend, String templateFilename)
+	throws IOException {
+	navigator = createNavigator(backend,templateFilename);
+    }
+
+    // creates a server that runs its requests on executor, or on its own
+    // dispatcher thread when executor is null, and records every request in
+    // accessLog unless that is null
+    static HttpServer createServer(InetSocketAddress address, Executor executor,
+				   int backlog, AccessLog accessLog) throws IOException {
+	HttpServer server = HttpServer.create(address,backlog);
 	HttpContext context = server.createContext("/");
 	context.setHandler( WebApp::requestHandler );
-	System.out.println("Starting Campus Navigator Server...");
-	server.start();
+	// the JSON api answers programmatic clients without rendering any html
+	HttpContext[] otherContexts = {
+	    server.createContext("/api/path",
+				 JsonApi.handler(JsonApi::handlePath, () -> navigator.backend,
+						 metrics.route("/api/path"),
+						 ServerMetrics.Kind.SHORTEST_PATH)),
+	    server.createContext("/api/furthest",
+				 JsonApi.handler(JsonApi::handleFurthest, () -> navigator.backend,
+						 metrics.route("/api/furthest"),
+						 ServerMetrics.Kind.FURTHEST)),
+	    server.createContext("/api/batch",
+				 JsonApi.handler(JsonApi::handleBatch, () -> navigator.backend,
+						 metrics.route("/api/batch"),
+						 ServerMetrics.Kind.SHORTEST_PATH)),
+	    server.createContext("/metrics", metrics.handler())
+	};
+	if(accessLog != null) {
+	    context.getFilters().add(accessLog.filter());
+	    for(HttpContext otherContext : otherContexts)
+		otherContext.getFilters().add(accessLog.filter());
+	}
+	server.setExecutor(executor);
+	return server;
     }
 
     // http request handler handler for the context "/"
     public static void requestHandler(HttpExchange exchange) {
+	ServerMetrics.Request request = pageMetrics.begin();
+	ServerMetrics.Kind kind = ServerMetrics.Kind.PROMPT;
 	try {
-	    // extract the query (part of URI after?) part of URI
-	    String query = exchange.getRequestURI().getQuery();	    
-	    System.out.println("Received Request with query: " + query);
 	    // extract argument key-value pairs from request query
 	    Map<String,String> keyValuePairs = parseQuery(
 							  exchange.getRequestURI().getQuery());
-	    System.out.println("Query includes args: "+keyValuePairs);
+	    if(keyValuePairs.containsKey("start") && keyValuePairs.containsKey("end"))
+		kind = ServerMetrics.Kind.SHORTEST_PATH;
+	    else if(keyValuePairs.containsKey("from"))
+		kind = ServerMetrics.Kind.FURTHEST;
 	    
-	    // create backend and frontend objects to respond to this request
-	    FrontendInterface frontend = createWorkingFrontend("./campus.dot");
-	    // compute answer to user's requested problem based on query args:
-	    String response = generateResponseHTML(keyValuePairs,frontend);
-	    // generate HTML prompts for user for make next requests
-	    String prompts = generatePromptHTML(frontend);
-	    // compose response and prompts into a complete html template
-	    String html = composeHTML(response,prompts);
-		
-	    // complete exchange response to send this html back to requester
-	    byte[] bytes = html.getBytes();
-	    exchange.sendResponseHeaders(200,bytes.length);
-	    OutputStream out = exchange.getResponseBody();
-	    out.write(bytes);
-	    out.close();
+	    // reuse the frontend that was created when this server started
+	    Navigator navigator = WebApp.navigator;
+	    // reuse the cached page for these args, unless the graph has been
+	    // reloaded since it was rendered
+	    String key = ResponseCache.key(keyValuePairs);
+	    ServerMetrics.endParse();
+	    long version = navigator.backend.getGraphVersion();
+	    ResponseCache.Entry page = navigator.cache.get(key,version);
+	    if(page == null) {
+		// compute answer to user's requested problem based on query args
+		byte[] response = HtmlTemplate.encode(
+		    generateResponseHTML(keyValuePairs,navigator.frontend));
+		page = navigator.cache.put(key,version,navigator.page,response);
+	    }
+
+	    // clients must revalidate each time, since the graph can change
+	    boolean gzip = acceptsGzip(
+		exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+	    exchange.getResponseHeaders().set("ETag",page.getETag(gzip));
+	    exchange.getResponseHeaders().set("Cache-Control","no-cache");
+	    exchange.getResponseHeaders().set("Vary","Accept-Encoding");
+	    if(page.matches(exchange.getRequestHeaders().getFirst("If-None-Match"),
+			    gzip)) {
+		exchange.sendResponseHeaders(304,-1);
+		exchange.close();
+	    } else if(gzip) {
+		// only the response itself is compressed for this request, the
+		// rest of the page was compressed along with the template
+		byte[] body = page.getGzipBody();
+		exchange.getResponseHeaders().set("Content-Encoding","gzip");
+		exchange.sendResponseHeaders(200,body.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(body);
+		out.close();
+	    } else {
+		// complete exchange response by splicing this response into the
+		// page template, which already contains the prompts for next time
+		exchange.sendResponseHeaders(200,page.getContentLength());
+		OutputStream out = exchange.getResponseBody();
+		page.write(out);
+		out.close();
+	    }
 	    
 	    // unless something goes wrong, in which case report problem
 	} catch (Exception e) {
-	    System.out.println("Exception Thrown: "+e.toString());
-	    e.printStackTrace();
+	    AccessLog.reportError(e);
 	    // attempt to send 500 Server Error Response to client
 	    try { exchange.sendResponseHeaders(500,-1); }
 	    catch(IOException i){} // do nothing when this fails
+	} finally {
+	    request.end(kind,exchange.getResponseCode());
+	}
+    }
+
+    // checks whether an Accept-Encoding header allows a gzip response
+    static boolean acceptsGzip(String acceptEncoding) {
+	if(acceptEncoding == null) return false;
+	for(String coding : acceptEncoding.split(",")) {
+	    String[] parts = coding.split(";");
+	    String name = parts[0].trim();
+	    if(!name.equalsIgnoreCase("gzip") && !name.equals("*")) continue;
+	    // a quality of zero means that this coding is not acceptable
+	    for(int i = 1; i < parts.length; i++) {
+		String parameter = parts[i].trim();
+		if(parameter.startsWith("q=")) {
+		    try {
+			if(Double.parseDouble(parameter.substring(2)) <= 0) return false;
+		    } catch(NumberFormatException e) { return false; }
+		}
+	    }
+	    return true;
 	}
+	return false;
     }
 
     // reads key value pairs from the query string of a URI into a map
-    private static Map<String,String> parseQuery(String query) {
+    static Map<String,String> parseQuery(String query) {
 	HashMap<String,String> map = new HashMap<>();
 	if(query != null && query.contains("="))
 	    Stream.of(query.split("&")).forEach(arg -> {
@@ -109,13 +287,33 @@ public class WebApp {
 	return map;
     }
 
-    // creates a working Frontend, Backend, DijkstraGraph, and HashtableMap
-    private static FrontendInterface createWorkingFrontend(String filename) throws IOException {
-	GraphADT<String,Double> graph = new DijkstraGraph<>();
+    // creates a working Frontend, Backend, DijkstraGraph, and HashtableMap,
+    // searching with the engine configured by campuspath.engine
+    private static Navigator createWorkingNavigator(String graphFilename,
+						    String templateFilename) throws IOException {
+	GraphADT<String,Double> graph = GraphEngines.create(
+	    GraphEngines.getConfiguredEngine());
 	BackendInterface backend = new Backend(graph);
-	backend.loadGraphData(filename);			
+	backend.loadGraphData(graphFilename);			
+	return createNavigator(backend,templateFilename);
+    }
+
+    // creates the Frontend and page template that answer requests from backend
+    private static Navigator createNavigator(BackendInterface backend,
+					     String templateFilename) throws IOException {
+	// attribute the time spent in graph searches to each request's metrics
+	backend = ServerMetrics.meter(backend);
 	FrontendInterface frontend = new Frontend(backend);
-	return frontend;
+	// the prompts are identical in every response, so fill them in once
+	HtmlTemplate page = HtmlTemplate.load(templateFilename,
+					      RESPONSE_PLACEHOLDER, PROMPTS_PLACEHOLDER)
+	    .bind(PROMPTS_PLACEHOLDER, generatePromptHTML(frontend));
+	return new Navigator(backend,frontend,page,ResponseCache.createConfigured());
+    }
+
+    // reports the whole milliseconds that have passed since startTime
+    private static long elapsedMillis(long startTime) {
+	return (System.nanoTime() - startTime) / 1_000_000;
     }
 
     // creates the html response for the kind of question requeted (if any)
@@ -147,38 +345,16 @@ public class WebApp {
 	return firstPrompt + secondPrompt;
     }
 
-    // compose reponse with prompts inside a complete html tree
-    private static String composeHTML(String response, String prompts) throws IOException {
-	// read contents of template file into html string
-	String html = "";
-	Scanner in = new Scanner(new File("template.html"));
-	while(in.hasNextLine()) html += in.nextLine() + "\n";
-
-	// replace placeholders for response and prompts
-	html = html.replaceFirst("<!-- RESPONSE GOES HERE -->",response);
-	html = html.replaceFirst("<!-- PROMPTS GO HERE -->",prompts);
-	
-	return html;
-    }
-
     // Since we cannot run a public webserver on the department's linux
     // machines, we are using a cgi script to pass the query argument to
-    // the method below, and then displaying a response to standard out.
+    // NavigatorDaemon.main, which calls the method below to display a
+    // response to standard out whenever no warm daemon is running.
     public static void handleSingleResponse(String query) {
 	try {
-	    query = URLDecoder.decode(query, StandardCharsets.UTF_8);
-	    Map<String,String> keyValuePairs = parseQuery(query);
-	    
-	    // create backend and frontend objects to respond to this request
-	    FrontendInterface frontend = createWorkingFrontend("./campus.dot");
-	    // compute answer to user's requested problem based on query args:
-	    String response = generateResponseHTML(keyValuePairs,frontend);
-	    // generate HTML prompts for user for make next requests
-	    String prompts = generatePromptHTML(frontend);
-	    // compose response and prompts into a complete html template
-	    String html = composeHTML(response,prompts);
-		
-	    System.out.println(html);
+	    // create backend and frontend objects to respond
+	    Navigator navigator = createWorkingNavigator("./campus.dot",
+							  "template.html");
+	    writeSingleResponse(query,navigator,System.out);
 						
 	    // unless something goes wrong, in which case report problem
 	} catch (Exception e) {
@@ -186,4 +362,33 @@ public class WebApp {
 	    e.printStackTrace();
 	}
     }
+
+    // writes the complete page that index.cgi displays for query to out
+    private static void writeSingleResponse(String query, Navigator navigator,
+					    OutputStream out) throws IOException {
+	try {
+	    query = URLDecoder.decode(query, StandardCharsets.UTF_8);
+	    Map<String,String> keyValuePairs = parseQuery(query);
+
+	    // compute answer to user's requested problem based on query args,
+	    // unless the daemon has already rendered the same page
+	    String key = ResponseCache.key(keyValuePairs);
+	    long version = navigator.backend.getGraphVersion();
+	    ResponseCache.Entry page = navigator.cache.get(key,version);
+	    if(page == null) {
+		byte[] response = HtmlTemplate.encode(
+		    generateResponseHTML(keyValuePairs,navigator.frontend));
+		page = navigator.cache.put(key,version,navigator.page,response);
+	    }
+	    // splice that response into the page template, which already
+	    // contains the prompts for the user to make their next request
+	    page.write(out);
+	    out.write(HtmlTemplate.encode(System.lineSeparator()));
+	} catch (RuntimeException e) {
+	    out.write(HtmlTemplate.encode("Exception Thrown: "+e.toString()+
+					  System.lineSeparator()));
+	    AccessLog.reportError(e);
+	}
+	out.flush();
+    }
 }
\ No newline at end of file
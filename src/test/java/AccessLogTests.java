@@ -0,0 +1,55 @@
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AccessLogTests {
+
+  /**
+   * The concurrentLogTest method checks that every record logged by several threads at once is
+   * written exactly once under the BLOCK policy, even though the ring is much smaller than the
+   * number of records.
+   */
+  @Test
+  public void concurrentLogTest() throws InterruptedException {
+    StringWriter text = new StringWriter();
+    AccessLog log = new AccessLog(new PrintWriter(text), 16, AccessLog.FullPolicy.BLOCK);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      final int thread = t;
+      threads.add(new Thread(() -> {
+        for (int i = 0; i < 1000; i++)
+          log.log(0, "GET", "/t" + thread + "/" + i, 200, i, 1000, null);
+      }));
+    }
+    for (Thread thread : threads)
+      thread.start();
+    for (Thread thread : threads)
+      thread.join();
+    log.close();
+    String[] lines = text.toString().split("\n");
+    Assertions.assertEquals(4000, lines.length);
+    Assertions.assertEquals(0, log.getDroppedCount());
+    for (int t = 0; t < 4; t++)
+      Assertions.assertTrue(text.toString().contains(" /t" + t + "/999 200 999B "));
+  }
+
+  /**
+   * The dropTest method checks that records logged after the log is closed are dropped and
+   * counted rather than blocking, and that errors are written along with their request.
+   */
+  @Test
+  public void dropTest() {
+    StringWriter text = new StringWriter();
+    AccessLog log = new AccessLog(new PrintWriter(text), 1, AccessLog.FullPolicy.DROP);
+    Assertions.assertTrue(log.log(0, "GET", "/", 500, 0, 0, new IllegalStateException("boom")));
+    log.close();
+    Assertions.assertFalse(log.log(0, "GET", "/late", 200, 0, 0, null));
+    Assertions.assertEquals(1, log.getDroppedCount());
+    Assertions.assertTrue(text.toString().contains("GET / 500 0B"));
+    Assertions.assertTrue(text.toString().contains("java.lang.IllegalStateException: boom"));
+    Assertions.assertFalse(text.toString().contains("/late"));
+  }
+}
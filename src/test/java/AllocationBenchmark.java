@@ -0,0 +1,74 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Measures the bytes that each point to point query allocates on the heap,
+ * for each search engine, on the campus graph and on a synthetic grid. The
+ * bytes are counted by the JVM for the querying thread, so they include
+ * every array and object that a search creates, along with the path that it
+ * returns. Once their workspaces exist, no engine should allocate more than
+ * the path itself, whatever the size of the graph. This is not run as part
+ * of the unit tests. After running mvn
+ * test-compile:
+ *
+ *     java -cp target/classes:target/test-classes AllocationBenchmark [queries]
+ */
+public class AllocationBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int queries = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    System.out.printf("%-16s %-22s %14s %14s%n", "graph", "engine", "cost bytes/q",
+        "data bytes/q");
+    for (GraphEngines.Engine engine : GraphEngines.Engine.values()) {
+      DijkstraGraph<String, Double> campus = GraphEngines.create(engine);
+      new Backend(campus).loadGraphData("data/campus.dot");
+      measure(threads, "campus", engine, campus,
+          DijkstraBenchmark.createPairs(campus.getAllNodes(), queries, 17));
+    }
+    for (GraphEngines.Engine engine : GraphEngines.Engine.values()) {
+      DijkstraGraph<Integer, Double> grid = GraphEngines.create(engine);
+      DijkstraBenchmark.createGridGraph(grid, 100, 1);
+      measure(threads, "grid 100x100", engine, grid,
+          DijkstraBenchmark.createPairs(grid.getAllNodes(), queries / 10, 18));
+    }
+  }
+
+  // answers the same queries three times, and reports the allocations of the last round, by
+  // which time each engine's workspaces (forward and backward) exist and its searches are compiled
+  private static <T> void measure(com.sun.management.ThreadMXBean threads, String name,
+      GraphEngines.Engine engine, DijkstraGraph<T, Double> graph, List<List<T>> pairs) {
+    long threadId = Thread.currentThread().getId();
+    long costBytes = 0;
+    long dataBytes = 0;
+    double total = 0.0;
+    for (int round = 0; round < 3; round++) {
+      long start = threads.getThreadAllocatedBytes(threadId);
+      for (List<T> pair : pairs) {
+        try {
+          total += graph.shortestPathCost(pair.get(0), pair.get(1));
+        } catch (NoSuchElementException e) {
+          // unreachable pairs still search
+        }
+      }
+      costBytes = threads.getThreadAllocatedBytes(threadId) - start;
+      start = threads.getThreadAllocatedBytes(threadId);
+      for (List<T> pair : pairs) {
+        try {
+          total += graph.shortestPathData(pair.get(0), pair.get(1)).size();
+        } catch (NoSuchElementException e) {
+          // unreachable pairs still search
+        }
+      }
+      dataBytes = threads.getThreadAllocatedBytes(threadId) - start;
+    }
+    if (total < 0)
+      throw new IllegalStateException("Negative path costs on " + name);
+    System.out.printf("%-16s %-22s %14.0f %14.0f%n", name, engine.name().toLowerCase(),
+        (double) costBytes / pairs.size(), (double) dataBytes / pairs.size());
+  }
+}
@@ -0,0 +1,40 @@
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BackendTests {
+
+  /**
+   * The shortestPathCostsTest method checks that pairs sharing a start are answered by a single
+   * search from that start, in the order the starts first appear, and that every cost is
+   * returned in the order of its pair, with infinity for unknown or unreachable locations.
+   */
+  @Test
+  public void shortestPathCostsTest() {
+    List<String> searched = new ArrayList<>();
+    DijkstraGraph<String, Double> graph = new DijkstraGraph<>() {
+      @Override
+      public double[] shortestPathCosts(String start, List<String> ends) {
+        searched.add(start + ends);
+        return super.shortestPathCosts(start, ends);
+      }
+    };
+    for (String node : new String[] {"A", "B", "C", "D"}) {
+      graph.insertNode(node);
+    }
+    graph.insertEdge("A", "B", 1.0);
+    graph.insertEdge("B", "C", 2.0);
+    graph.insertEdge("C", "A", 4.0);
+    Backend backend = new Backend(graph);
+    double[] costs = backend.findShortestPathCosts(
+        List.of("B", "A", "B", "Z", "A", "D", "A"),
+        List.of("A", "C", "B", "A", "Z", "A", "D"));
+    Assertions.assertArrayEquals(new double[] {6.0, 3.0, 0.0, Double.POSITIVE_INFINITY,
+        Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY}, costs);
+    Assertions.assertEquals(List.of("B[A, B]", "A[C, Z, D]", "D[A]"), searched);
+    Assertions.assertEquals(0, backend.findShortestPathCosts(List.of(), List.of()).length);
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> backend.findShortestPathCosts(List.of("A"), List.of()));
+  }
+}
@@ -0,0 +1,99 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Compares the nodes settled (popped from a heap) per point to point query by
+ * a forward DijkstraGraph search and by BidirectionalDijkstraGraph, along
+ * with the wall time per query, on the campus graph and on synthetic grids
+ * the size of a campus and of a small city.
+ * This is not run as part of the unit tests. After running mvn test-compile:
+ *
+ *     java -cp target/classes:target/test-classes BidirectionalBenchmark [queries]
+ */
+public class BidirectionalBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int queries = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+    System.out.printf("%-16s %-14s %12s %10s%n", "graph", "engine", "settled/q", "us/q");
+    DijkstraBenchmark.CountingDijkstraGraph<String> campus =
+        new DijkstraBenchmark.CountingDijkstraGraph<>();
+    new Backend(campus).loadGraphData("data/campus.dot");
+    CountingBidirectionalGraph<String> bidirectionalCampus = new CountingBidirectionalGraph<>();
+    new Backend(bidirectionalCampus).loadGraphData("data/campus.dot");
+    compare("campus", campus, bidirectionalCampus,
+        DijkstraBenchmark.createPairs(campus.getAllNodes(), queries * 10, 13));
+
+    for (int side : new int[] {30, 300}) {
+      DijkstraBenchmark.CountingDijkstraGraph<Integer> grid =
+          new DijkstraBenchmark.CountingDijkstraGraph<>();
+      CountingBidirectionalGraph<Integer> bidirectionalGrid = new CountingBidirectionalGraph<>();
+      DijkstraBenchmark.createGridGraph(grid, side, 1);
+      DijkstraBenchmark.createGridGraph(bidirectionalGrid, side, 1);
+      compare("grid " + side + "x" + side, grid, bidirectionalGrid,
+          DijkstraBenchmark.createPairs(grid.getAllNodes(), queries, 14));
+    }
+  }
+
+  // answers the same queries with both engines, after warming each one up
+  private static <T> void compare(String name, DijkstraBenchmark.CountingDijkstraGraph<T> forward,
+      CountingBidirectionalGraph<T> bidirectional, List<List<T>> pairs) {
+    for (int round = 0; round < 2; round++) { // the first round warms up
+      forward.pops = 0;
+      bidirectional.pops = 0;
+      long start = System.nanoTime();
+      double forwardTotal = 0.0;
+      for (List<T> pair : pairs)
+        forwardTotal += cost(forward, pair);
+      long forwardNanos = System.nanoTime() - start;
+      start = System.nanoTime();
+      double bidirectionalTotal = 0.0;
+      for (List<T> pair : pairs)
+        bidirectionalTotal += cost(bidirectional, pair);
+      long bidirectionalNanos = System.nanoTime() - start;
+      if (forwardTotal != bidirectionalTotal)
+        throw new IllegalStateException("Engines disagree on " + name);
+      if (round == 1) {
+        int n = pairs.size();
+        System.out.printf("%-16s %-14s %12.1f %10.1f%n", name, "forward",
+            (double) forward.pops / n, forwardNanos / 1e3 / n);
+        System.out.printf("%-16s %-14s %12.1f %10.1f%n", name, "bidirectional",
+            (double) bidirectional.pops / n, bidirectionalNanos / 1e3 / n);
+      }
+    }
+  }
+
+  private static <T> double cost(DijkstraGraph<T, Double> graph, List<T> pair) {
+    try {
+      return graph.shortestPathCost(pair.get(0), pair.get(1));
+    } catch (NoSuchElementException e) {
+      return 0.0;
+    }
+  }
+
+  // counts the nodes settled by both of the heaps used by each search
+  static class CountingBidirectionalGraph<T> extends BidirectionalDijkstraGraph<T, Double> {
+    long pops;
+    private final List<IndexedDaryHeap> heaps = new ArrayList<>();
+
+    @Override
+    protected IndexedDaryHeap createHeap(int capacity) {
+      IndexedDaryHeap heap = super.createHeap(capacity);
+      heaps.add(heap);
+      return heap;
+    }
+
+    @Override
+    public double shortestPathCost(T start, T end) {
+      try {
+        return super.shortestPathCost(start, end);
+      } finally {
+        for (IndexedDaryHeap heap : heaps)
+          pops += heap.getPopCount();
+        heaps.clear();
+      }
+    }
+  }
+}
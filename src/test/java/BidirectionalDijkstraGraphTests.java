@@ -0,0 +1,60 @@
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BidirectionalDijkstraGraphTests {
+
+  /**
+   * The randomGraphTest method checks that bidirectional search finds paths of exactly the same
+   * cost as a forward search between every pair of nodes in sparse random graphs (which include
+   * zero weight edges, self loops and unreachable pairs), and that each path it returns really
+   * does cost that much.
+   */
+  @Test
+  public void randomGraphTest() {
+    for (long seed = 0; seed < 5; seed++) {
+      DijkstraGraph<Integer, Integer> forward = new DijkstraGraph<>();
+      BidirectionalDijkstraGraph<Integer, Integer> bidirectional =
+          new BidirectionalDijkstraGraph<>();
+      RandomGraphs.createIntegerGraph(forward, 40, 90, seed);
+      RandomGraphs.createIntegerGraph(bidirectional, 40, 90, seed);
+      for (int start = 0; start < 40; start++) {
+        for (int end = 0; end < 40; end++) {
+          double expected;
+          try {
+            expected = forward.shortestPathCost(start, end);
+          } catch (NoSuchElementException e) {
+            final int s = start;
+            final int t = end;
+            Assertions.assertThrows(NoSuchElementException.class,
+                () -> bidirectional.shortestPathData(s, t));
+            continue;
+          }
+          Assertions.assertEquals(expected, bidirectional.shortestPathCost(start, end));
+          List<Integer> path = bidirectional.shortestPathData(start, end);
+          Assertions.assertEquals(start, path.get(0));
+          Assertions.assertEquals(end, path.get(path.size() - 1));
+          double cost = 0;
+          for (int i = 0; i + 1 < path.size(); i++) {
+            cost += bidirectional.getEdge(path.get(i), path.get(i + 1));
+          }
+          Assertions.assertEquals(expected, cost);
+        }
+      }
+    }
+  }
+
+  /**
+   * The missingNodeTest method checks that queries naming nodes that are not in the graph throw
+   * NoSuchElementException, like DijkstraGraph.
+   */
+  @Test
+  public void missingNodeTest() {
+    BidirectionalDijkstraGraph<String, Integer> graph = new BidirectionalDijkstraGraph<>();
+    graph.insertNode("A");
+    Assertions.assertEquals(List.of("A"), graph.shortestPathData("A", "A"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathCost("A", "Z"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathCost("Z", "A"));
+  }
+}
@@ -0,0 +1,81 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Compares the wall time per point to point query of the PriorityQueue search
+ * that DijkstraGraph used to run, DijkstraGraph's indexed d-ary heap, and the
+ * bucket queue of BucketQueueDijkstraGraph at several resolutions, on the
+ * campus graph and on synthetic grids. Every engine must agree on the total
+ * cost of all of the queries.
+ * This is not run as part of the unit tests. After running mvn test-compile:
+ *
+ *     java -cp target/classes:target/test-classes BucketQueueBenchmark [queries]
+ */
+public class BucketQueueBenchmark {
+
+  private static final double[] RESOLUTIONS = {0.1, 1.0, 10.0, 100.0};
+
+  public static void main(String[] args) throws IOException {
+    int queries = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+    System.out.printf("%-16s %-18s %10s%n", "graph", "engine", "us/q");
+    List<String> names = new ArrayList<>();
+    List<DijkstraGraph<String, Double>> campus = new ArrayList<>();
+    names.add("priority queue");
+    campus.add(new DijkstraBenchmark.LazyDijkstraGraph<>());
+    names.add("heap");
+    campus.add(new DijkstraGraph<>());
+    for (double resolution : RESOLUTIONS) {
+      names.add("buckets " + resolution);
+      campus.add(new BucketQueueDijkstraGraph<>(resolution));
+    }
+    for (DijkstraGraph<String, Double> graph : campus)
+      new Backend(graph).loadGraphData("data/campus.dot");
+    compare("campus", names, campus,
+        DijkstraBenchmark.createPairs(campus.get(0).getAllNodes(), queries * 10, 19));
+
+    for (int side : new int[] {100, 300}) {
+      List<DijkstraGraph<Integer, Double>> grids = new ArrayList<>();
+      grids.add(new DijkstraBenchmark.LazyDijkstraGraph<>());
+      grids.add(new DijkstraGraph<>());
+      for (double resolution : RESOLUTIONS)
+        grids.add(new BucketQueueDijkstraGraph<>(resolution));
+      for (DijkstraGraph<Integer, Double> graph : grids)
+        DijkstraBenchmark.createGridGraph(graph, side, 1);
+      compare("grid " + side + "x" + side, names, grids,
+          DijkstraBenchmark.createPairs(grids.get(0).getAllNodes(), queries, 20));
+    }
+  }
+
+  // answers the same queries with every engine, after warming each one up
+  private static <T> void compare(String name, List<String> names,
+      List<DijkstraGraph<T, Double>> graphs, List<List<T>> pairs) {
+    for (int round = 0; round < 2; round++) { // the first round warms up
+      double expected = Double.NaN;
+      for (int i = 0; i < graphs.size(); i++) {
+        long start = System.nanoTime();
+        double total = 0.0;
+        for (List<T> pair : pairs)
+          total += cost(graphs.get(i), pair);
+        long nanos = System.nanoTime() - start;
+        if (i == 0)
+          expected = total;
+        else if (total != expected)
+          throw new IllegalStateException(names.get(i) + " disagrees on " + name);
+        if (round == 1)
+          System.out.printf("%-16s %-18s %10.1f%n", name, names.get(i),
+              nanos / 1e3 / pairs.size());
+      }
+    }
+  }
+
+  private static <T> double cost(DijkstraGraph<T, Double> graph, List<T> pair) {
+    try {
+      return graph.shortestPathCost(pair.get(0), pair.get(1));
+    } catch (NoSuchElementException e) {
+      return 0.0;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BucketQueueDijkstraGraphTests {
+
+  /**
+   * The randomGraphTest method checks that the bucket queue finds paths of exactly the same cost
+   * as the heap between every pair of nodes in sparse random graphs, which include zero weight
+   * edges and unreachable pairs, for resolutions much finer and much coarser than the weights.
+   */
+  @Test
+  public void randomGraphTest() {
+    for (double resolution : new double[] {0.1, 1.0, 7.5}) {
+      DijkstraGraph<Integer, Double> heap = new DijkstraGraph<>();
+      BucketQueueDijkstraGraph<Integer, Double> buckets =
+          new BucketQueueDijkstraGraph<>(resolution);
+      RandomGraphs.createDoubleGraph(heap, 60, 150, (long) (resolution * 10));
+      RandomGraphs.createDoubleGraph(buckets, 60, 150, (long) (resolution * 10));
+      Assertions.assertTrue(buckets.usesBuckets());
+      for (int start = 0; start < 60; start++) {
+        for (int end = 0; end < 60; end++) {
+          try {
+            double expected = heap.shortestPathCost(start, end);
+            Assertions.assertEquals(expected, buckets.shortestPathCost(start, end));
+            List<Integer> path = buckets.shortestPathData(start, end);
+            Assertions.assertEquals(start, path.get(0));
+            Assertions.assertEquals(end, path.get(path.size() - 1));
+          } catch (NoSuchElementException e) {
+            final int s = start;
+            final int t = end;
+            Assertions.assertThrows(NoSuchElementException.class,
+                () -> buckets.shortestPathCost(s, t));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * The fallbackTest method checks that a graph whose weights need too many buckets answers
+   * queries with the heap instead, and uses buckets again once those weights are removed.
+   */
+  @Test
+  public void fallbackTest() {
+    BucketQueueDijkstraGraph<String, Double> graph = new BucketQueueDijkstraGraph<>(1.0);
+    for (String node : new String[] {"A", "B", "C"}) {
+      graph.insertNode(node);
+    }
+    graph.insertEdge("A", "B", 2.5);
+    graph.insertEdge("B", "C", 4.0);
+    Assertions.assertTrue(graph.usesBuckets());
+    Assertions.assertEquals(6.5, graph.shortestPathCost("A", "C"));
+    graph.insertEdge("A", "C", 1e9);
+    Assertions.assertFalse(graph.usesBuckets());
+    Assertions.assertEquals(6.5, graph.shortestPathCost("A", "C"));
+    Assertions.assertEquals(List.of("A", "B", "C"), graph.shortestPathData("A", "C"));
+    graph.removeEdge("A", "C");
+    Assertions.assertTrue(graph.usesBuckets());
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathCost("C", "A"));
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> new BucketQueueDijkstraGraph<String, Double>(0.0));
+  }
+
+  /**
+   * The sameBucketTest method checks that nodes reached through edges lighter than one bucket,
+   * which all land in the same bucket, are settled in the same order as the heap would settle
+   * them, so the bucket queue finds the very same paths.
+   */
+  @Test
+  public void sameBucketTest() {
+    BucketQueueDijkstraGraph<String, Double> graph = new BucketQueueDijkstraGraph<>(1.0);
+    DijkstraGraph<String, Double> heap = new DijkstraGraph<>();
+    for (DijkstraGraph<String, Double> each : List.of(graph, heap)) {
+      for (String node : new String[] {"A", "B", "C", "D", "E"}) {
+        each.insertNode(node);
+      }
+      each.insertEdge("A", "B", 0.0);
+      each.insertEdge("B", "C", 0.0);
+      each.insertEdge("C", "D", 0.25);
+      each.insertEdge("A", "D", 0.5);
+      each.insertEdge("E", "A", 3.0);
+    }
+    Assertions.assertTrue(graph.usesBuckets());
+    for (String end : new String[] {"A", "B", "C", "D"}) {
+      Assertions.assertEquals(heap.shortestPathData("E", end), graph.shortestPathData("E", end));
+    }
+    Assertions.assertEquals(3.25, graph.shortestPathCost("E", "D"));
+  }
+
+}
@@ -0,0 +1,83 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Compares the linked representation of DijkstraGraph, with its lists of Edge
+ * objects and boxed weights, against the CompressedGraph snapshot it freezes
+ * into: the heap memory that each of them takes per edge (including their
+ * nodes), and the wall time per point to point query, on the campus graph
+ * and on synthetic grids. Both must agree on the total cost of all queries.
+ * This is not run as part of the unit tests. After running mvn test-compile:
+ *
+ *     java -cp target/classes:target/test-classes CompressedGraphBenchmark [queries]
+ */
+public class CompressedGraphBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int queries = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+    System.out.printf("%-16s %-12s %12s %10s%n", "graph", "layout", "bytes/edge", "us/q");
+    long before = usedMemory();
+    DijkstraGraph<String, Double> campus = new DijkstraGraph<>();
+    new Backend(campus).loadGraphData("data/campus.dot");
+    compare("campus", campus, before, queries * 10);
+    for (int side : new int[] {100, 300}) {
+      before = usedMemory();
+      DijkstraGraph<Integer, Double> grid = new DijkstraGraph<>();
+      DijkstraBenchmark.createGridGraph(grid, side, 1);
+      compare("grid " + side + "x" + side, grid, before, queries);
+    }
+  }
+
+  // measures the memory that graph took since before, freezes it, and then
+  // answers the same queries with both
+  private static <T> void compare(String name, DijkstraGraph<T, Double> graph, long before,
+      int queries) {
+    double linkedBytes = (double) (usedMemory() - before) / graph.getEdgeCount();
+    before = usedMemory();
+    CompressedGraph<T> snapshot = graph.freeze();
+    double compressedBytes = (double) (usedMemory() - before) / snapshot.getEdgeCount();
+
+    List<List<T>> pairs = DijkstraBenchmark.createPairs(graph.getAllNodes(), queries, 21);
+    double[] linkedMicros = new double[1];
+    double[] compressedMicros = new double[1];
+    for (int round = 0; round < 2; round++) { // the first round warms up
+      double expected = time(graph, pairs, linkedMicros);
+      if (time(snapshot, pairs, compressedMicros) != expected)
+        throw new IllegalStateException("The snapshot disagrees on " + name);
+    }
+    System.out.printf("%-16s %-12s %12.1f %10.1f%n", name, "linked", linkedBytes,
+        linkedMicros[0]);
+    System.out.printf("%-16s %-12s %12.1f %10.1f%n", name, "compressed", compressedBytes,
+        compressedMicros[0]);
+  }
+
+  // answers every pair's query, stores the time per query in micros, and
+  // returns the total cost of all of them
+  private static <T> double time(GraphADT<T, Double> graph, List<List<T>> pairs,
+      double[] micros) {
+    long start = System.nanoTime();
+    double total = 0.0;
+    for (List<T> pair : pairs) {
+      try {
+        total += graph.shortestPathCost(pair.get(0), pair.get(1));
+      } catch (NoSuchElementException e) {
+        // unreachable pairs add nothing
+      }
+    }
+    micros[0] = (System.nanoTime() - start) / 1e3 / pairs.size();
+    return total;
+  }
+
+  // the heap memory in use after collecting as much garbage as possible
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    long used = Long.MAX_VALUE;
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+      used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+    }
+    return used;
+  }
+}
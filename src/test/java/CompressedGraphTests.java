@@ -0,0 +1,131 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CompressedGraphTests {
+
+  // the random graph from RandomGraphs for any given seed, from which a few nodes are then
+  // removed to move others into their indexes
+  private static DijkstraGraph<Integer, Double> createRandomGraph(int nodes, int edges,
+      long seed) {
+    DijkstraGraph<Integer, Double> graph = new DijkstraGraph<>();
+    RandomGraphs.createDoubleGraph(graph, nodes, edges, seed);
+    Random random = new Random(seed);
+    for (int i = 0; i < 3; i++) {
+      graph.removeNode(random.nextInt(nodes));
+    }
+    return graph;
+  }
+
+  /**
+   * The randomGraphTest method checks that a snapshot finds exactly the same paths, costs, trees
+   * and edges as the graph it was frozen from, between every pair of nodes in sparse random
+   * graphs, which include zero weight edges, unreachable pairs and removed nodes.
+   */
+  @Test
+  public void randomGraphTest() {
+    for (long seed = 1; seed <= 3; seed++) {
+      DijkstraGraph<Integer, Double> graph = createRandomGraph(60, 150, seed);
+      CompressedGraph<Integer> snapshot = graph.freeze();
+      Assertions.assertEquals(graph.getAllNodes(), snapshot.getAllNodes());
+      Assertions.assertEquals(graph.getNodeCount(), snapshot.getNodeCount());
+      List<Integer> all = new ArrayList<>();
+      for (int i = 0; i < 62; i++) {
+        all.add(i); // including some nodes that are not in the graph
+      }
+      int edges = 0;
+      for (int pred : graph.getAllNodes()) {
+        for (int succ : graph.getAllNodes()) {
+          edges += graph.containsEdge(pred, succ) ? 1 : 0;
+        }
+      }
+      Assertions.assertEquals(edges, snapshot.getEdgeCount());
+      Assertions.assertEquals(graph.getEdgeCount(), snapshot.getEdgeCount());
+      Assertions.assertArrayEquals(graph.shortestPathCostMatrix(all, all),
+          snapshot.shortestPathCostMatrix(all, all));
+      for (int start : graph.getAllNodes()) {
+        Assertions.assertEquals(graph.shortestPathTree(start).getNodes(),
+            snapshot.shortestPathTree(start).getNodes());
+        for (int end : all) {
+          Assertions.assertEquals(graph.containsEdge(start, end),
+              snapshot.containsEdge(start, end));
+          if (graph.containsEdge(start, end)) {
+            Assertions.assertEquals(graph.getEdge(start, end), snapshot.getEdge(start, end));
+          }
+          try {
+            ShortestPath<Integer> expected = graph.shortestPath(start, end);
+            ShortestPath<Integer> path = snapshot.shortestPath(start, end);
+            Assertions.assertEquals(expected.getNodes(), path.getNodes());
+            Assertions.assertEquals(expected.getWeights(), path.getWeights());
+            Assertions.assertEquals(expected.getCost(), path.getCost());
+            Assertions.assertEquals(expected.getCost(), snapshot.shortestPathCost(start, end));
+          } catch (NoSuchElementException e) {
+            final int s = start;
+            final int t = end;
+            Assertions.assertThrows(NoSuchElementException.class,
+                () -> snapshot.shortestPath(s, t));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * The snapshotTest method checks that a snapshot keeps the edges it was frozen with after its
+   * graph changes, and that it cannot be modified itself.
+   */
+  @Test
+  public void snapshotTest() {
+    DijkstraGraph<String, Integer> graph = new DijkstraGraph<>();
+    for (String node : new String[] {"A", "B", "C"}) {
+      graph.insertNode(node);
+    }
+    graph.insertEdge("A", "B", 2);
+    graph.insertEdge("B", "C", 3);
+    graph.insertEdge("A", "C", 9);
+    CompressedGraph<String> snapshot = graph.freeze();
+    graph.insertEdge("A", "C", 1);
+    graph.removeNode("B");
+
+    Assertions.assertEquals(List.of("A", "B", "C"), snapshot.shortestPathData("A", "C"));
+    Assertions.assertEquals(5.0, snapshot.shortestPathCost("A", "C"));
+    Assertions.assertEquals(9.0, snapshot.getEdge("A", "C"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> snapshot.getEdge("C", "A"));
+    Assertions.assertThrows(NoSuchElementException.class,
+        () -> snapshot.shortestPathCost("C", "A"));
+    Assertions.assertThrows(UnsupportedOperationException.class, () -> snapshot.insertNode("D"));
+    Assertions.assertThrows(UnsupportedOperationException.class,
+        () -> snapshot.insertEdge("C", "A", 1.0));
+    Assertions.assertThrows(UnsupportedOperationException.class,
+        () -> snapshot.removeEdge("A", "B"));
+    Assertions.assertThrows(UnsupportedOperationException.class, () -> snapshot.removeNode("A"));
+    Assertions.assertThrows(UnsupportedOperationException.class,
+        () -> snapshot.getAllNodes().add("D"));
+  }
+
+  /**
+   * The emptyTest method checks that a snapshot of a graph with no nodes, whether it never had
+   * any or they have all been removed, has no nodes, edges or paths.
+   */
+  @Test
+  public void emptyTest() {
+    DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+    CompressedGraph<String> empty = graph.freeze();
+    Assertions.assertEquals(0, empty.getNodeCount());
+    Assertions.assertEquals(0, empty.getEdgeCount());
+    Assertions.assertThrows(NoSuchElementException.class, () -> empty.shortestPath("A", "A"));
+    graph.insertNode("A");
+    graph.insertEdge("A", "A", 1.0);
+    graph.removeNode("A");
+    CompressedGraph<String> emptied = graph.freeze();
+    Assertions.assertEquals(List.of(), emptied.getAllNodes());
+    Assertions.assertEquals(0, emptied.getEdgeCount());
+    Assertions.assertFalse(emptied.containsNode("A"));
+    Assertions.assertThrows(NoSuchElementException.class,
+        () -> emptied.shortestPathCosts("A", List.of("A")));
+  }
+
+}
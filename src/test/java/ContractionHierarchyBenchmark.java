@@ -0,0 +1,110 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Compares the nodes settled per point to point query and the wall time per
+ * query of a forward DijkstraGraph search and the upward searches of
+ * ContractionHierarchyGraph, on the campus graph and on a synthetic grid the
+ * size of a small city. The time to contract the graph, and the number of
+ * shortcuts that adds, are reported separately, since contraction is only
+ * paid once per reload.
+ * This is not run as part of the unit tests. After running mvn test-compile:
+ *
+ *     java -cp target/classes:target/test-classes ContractionHierarchyBenchmark [queries]
+ */
+public class ContractionHierarchyBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int queries = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+    System.out.printf("%-16s %-14s %12s %10s %14s %10s%n", "graph", "engine", "settled/q", "us/q",
+        "preprocess ms", "shortcuts");
+    DijkstraBenchmark.CountingDijkstraGraph<String> campus =
+        new DijkstraBenchmark.CountingDijkstraGraph<>();
+    new Backend(campus).loadGraphData("data/campus.dot");
+    CountingHierarchyGraph<String> hierarchyCampus = new CountingHierarchyGraph<>();
+    new Backend(hierarchyCampus).loadGraphData("data/campus.dot");
+    compare("campus", campus, hierarchyCampus,
+        DijkstraBenchmark.createPairs(campus.getAllNodes(), queries * 10, 15));
+
+    for (int side : new int[] {30, 300}) {
+      DijkstraBenchmark.CountingDijkstraGraph<Integer> grid =
+          new DijkstraBenchmark.CountingDijkstraGraph<>();
+      CountingHierarchyGraph<Integer> hierarchyGrid = new CountingHierarchyGraph<>();
+      DijkstraBenchmark.createGridGraph(grid, side, 1);
+      DijkstraBenchmark.createGridGraph(hierarchyGrid, side, 1);
+      compare("grid " + side + "x" + side, grid, hierarchyGrid,
+          DijkstraBenchmark.createPairs(grid.getAllNodes(), queries, 16));
+    }
+  }
+
+  // answers the same queries with both engines, after warming each one up
+  private static <T> void compare(String name, DijkstraBenchmark.CountingDijkstraGraph<T> forward,
+      CountingHierarchyGraph<T> hierarchy, List<List<T>> pairs) {
+    long start = System.nanoTime();
+    hierarchy.getShortcutCount(); // contracts the graph
+    long preprocessNanos = System.nanoTime() - start;
+    for (int round = 0; round < 2; round++) { // the first round warms up
+      forward.pops = 0;
+      hierarchy.pops = 0;
+      start = System.nanoTime();
+      double forwardTotal = 0.0;
+      for (List<T> pair : pairs)
+        forwardTotal += cost(forward, pair);
+      long forwardNanos = System.nanoTime() - start;
+      start = System.nanoTime();
+      double hierarchyTotal = 0.0;
+      for (List<T> pair : pairs)
+        hierarchyTotal += cost(hierarchy, pair);
+      long hierarchyNanos = System.nanoTime() - start;
+      if (forwardTotal != hierarchyTotal)
+        throw new IllegalStateException("Engines disagree on " + name);
+      if (round == 1) {
+        int n = pairs.size();
+        System.out.printf("%-16s %-14s %12.1f %10.1f %14s %10s%n", name, "dijkstra",
+            (double) forward.pops / n, forwardNanos / 1e3 / n, "-", "-");
+        System.out.printf("%-16s %-14s %12.1f %10.1f %14.1f %10d%n", name, "hierarchy",
+            (double) hierarchy.pops / n, hierarchyNanos / 1e3 / n, preprocessNanos / 1e6,
+            hierarchy.getShortcutCount());
+      }
+    }
+  }
+
+  private static <T> double cost(DijkstraGraph<T, Double> graph, List<T> pair) {
+    try {
+      return graph.shortestPathCost(pair.get(0), pair.get(1));
+    } catch (NoSuchElementException e) {
+      return 0.0;
+    }
+  }
+
+  // counts the nodes settled by the heaps of each query, which every query on a thread reuses once
+  // they are created, so only their new pops count
+  static class CountingHierarchyGraph<T> extends ContractionHierarchyGraph<T, Double> {
+    long pops;
+    private final List<IndexedDaryHeap> heaps = new ArrayList<>();
+    private long popsSeen;
+
+    @Override
+    protected IndexedDaryHeap createHeap(int capacity) {
+      IndexedDaryHeap heap = super.createHeap(capacity);
+      heaps.add(heap);
+      return heap;
+    }
+
+    @Override
+    public double shortestPathCost(T start, T end) {
+      try {
+        return super.shortestPathCost(start, end);
+      } finally {
+        long total = 0;
+        for (IndexedDaryHeap heap : heaps)
+          total += heap.getPopCount();
+        pops += total - popsSeen;
+        popsSeen = total;
+      }
+    }
+  }
+}
@@ -0,0 +1,196 @@
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ContractionHierarchyGraphTests {
+
+  // fills graph with the same grid of two way streets for any seed, whose random weights are
+  // whole numbers from 1 to 3 (so that many paths tie) when whole is true, and otherwise real
+  private static void createGridGraph(DijkstraGraph<Integer, Double> graph, int side, long seed,
+      boolean whole) {
+    Random random = new Random(seed);
+    for (int i = 0; i < side * side; i++) {
+      graph.insertNode(i);
+    }
+    for (int node = 0; node < side * side; node++) {
+      if (node % side + 1 < side) {
+        graph.insertEdge(node, node + 1, weight(random, whole));
+        graph.insertEdge(node + 1, node, weight(random, whole));
+      }
+      if (node + side < side * side) {
+        graph.insertEdge(node, node + side, weight(random, whole));
+        graph.insertEdge(node + side, node, weight(random, whole));
+      }
+    }
+  }
+
+  // a random weight for createGridGraph
+  private static double weight(Random random, boolean whole) {
+    return whole ? 1 + random.nextInt(3) : 1.0 + random.nextDouble();
+  }
+
+  /**
+   * The randomGraphTest method checks that the hierarchy finds paths of exactly the same cost as
+   * a forward search between every pair of nodes in sparse random graphs, which include loops,
+   * zero weight edges and unreachable pairs, and that each unpacked path is the forward search's
+   * and follows edges of the graph whose weights add up to that cost.
+   */
+  @Test
+  public void randomGraphTest() {
+    for (long seed = 1; seed <= 3; seed++) {
+      DijkstraGraph<Integer, Integer> forward = new DijkstraGraph<>();
+      ContractionHierarchyGraph<Integer, Integer> hierarchy = new ContractionHierarchyGraph<>();
+      RandomGraphs.createIntegerGraph(forward, 50, 110, seed);
+      RandomGraphs.createIntegerGraph(hierarchy, 50, 110, seed);
+      for (int start = 0; start < 50; start++) {
+        for (int end = 0; end < 50; end++) {
+          try {
+            double expected = forward.shortestPathCost(start, end);
+            Assertions.assertEquals(expected, hierarchy.shortestPathCost(start, end));
+            List<Integer> path = hierarchy.shortestPathData(start, end);
+            Assertions.assertEquals(forward.shortestPathData(start, end), path);
+            Assertions.assertEquals(start, path.get(0));
+            Assertions.assertEquals(end, path.get(path.size() - 1));
+            double cost = 0.0;
+            for (int i = 1; i < path.size(); i++) {
+              cost += hierarchy.getEdge(path.get(i - 1), path.get(i));
+            }
+            Assertions.assertEquals(expected, cost);
+          } catch (NoSuchElementException e) {
+            final int s = start;
+            final int t = end;
+            Assertions.assertThrows(NoSuchElementException.class,
+                () -> hierarchy.shortestPathCost(s, t));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * The uniquePathTest method checks that when every shortest path is unique (as it almost
+   * surely is with random real weights), the hierarchy returns exactly the same node sequences
+   * and costs as a forward search, on a grid of two way streets.
+   */
+  @Test
+  public void uniquePathTest() {
+    DijkstraGraph<Integer, Double> forward = new DijkstraGraph<>();
+    ContractionHierarchyGraph<Integer, Double> hierarchy = new ContractionHierarchyGraph<>();
+    createGridGraph(forward, 12, 7, false);
+    createGridGraph(hierarchy, 12, 7, false);
+    Assertions.assertTrue(hierarchy.getShortcutCount() > 0);
+    for (int start = 0; start < 144; start += 5) {
+      for (int end = 0; end < 144; end++) {
+        Assertions.assertEquals(forward.shortestPathData(start, end),
+            hierarchy.shortestPathData(start, end));
+        Assertions.assertEquals(forward.shortestPathCost(start, end),
+            hierarchy.shortestPathCost(start, end));
+      }
+    }
+  }
+
+  /**
+   * The tieTest method checks that the hierarchy returns exactly the same node sequences and
+   * costs as a forward search when many shortest paths tie, on a grid of two way streets with
+   * whole number weights, and on a small graph whose paths tie exactly, or only to within the
+   * rounding of floating point sums.
+   */
+  @Test
+  public void tieTest() {
+    DijkstraGraph<Integer, Double> forward = new DijkstraGraph<>();
+    ContractionHierarchyGraph<Integer, Double> hierarchy = new ContractionHierarchyGraph<>();
+    createGridGraph(forward, 12, 7, true);
+    createGridGraph(hierarchy, 12, 7, true);
+    for (int start = 0; start < 144; start += 5) {
+      for (int end = 0; end < 144; end++) {
+        Assertions.assertEquals(forward.shortestPathData(start, end),
+            hierarchy.shortestPathData(start, end));
+        Assertions.assertEquals(forward.shortestPathCost(start, end),
+            hierarchy.shortestPathCost(start, end));
+      }
+    }
+
+    // A to C directly costs a little less than, exactly as much as, and a little more than A to
+    // C through B, whose weights add up to 0.30000000000000004
+    for (double direct : new double[] {0.3, 0.1 + 0.2, 0.30000000000000010}) {
+      DijkstraGraph<String, Double> expected = new DijkstraGraph<>();
+      ContractionHierarchyGraph<String, Double> graph = new ContractionHierarchyGraph<>();
+      List<String> nodes = List.of("A", "B", "C", "D", "E");
+      for (DijkstraGraph<String, Double> each : List.of(expected, graph)) {
+        for (String node : nodes) {
+          each.insertNode(node);
+        }
+        each.insertEdge("A", "B", 0.1);
+        each.insertEdge("B", "C", 0.2);
+        each.insertEdge("A", "C", direct);
+        each.insertEdge("C", "D", 1.0);
+        each.insertEdge("B", "E", 0.7);
+        each.insertEdge("E", "D", 0.5);
+        each.insertEdge("D", "A", 2.0);
+      }
+      for (String start : nodes) {
+        for (String end : nodes) {
+          Assertions.assertEquals(expected.shortestPathData(start, end),
+              graph.shortestPathData(start, end));
+          Assertions.assertEquals(expected.shortestPathCost(start, end),
+              graph.shortestPathCost(start, end));
+        }
+      }
+    }
+  }
+
+  /**
+   * The rebuildTest method checks that the hierarchy is contracted again after the graph
+   * changes, so that a newly inserted edge is used and a removed node is no longer reachable.
+   */
+  @Test
+  public void rebuildTest() {
+    ContractionHierarchyGraph<String, Integer> graph = new ContractionHierarchyGraph<>();
+    for (String node : new String[] {"A", "B", "C", "D"}) {
+      graph.insertNode(node);
+    }
+    graph.insertEdge("A", "B", 10);
+    graph.insertEdge("B", "C", 10);
+    graph.insertEdge("C", "D", 10);
+    graph.insertEdge("D", "A", 10);
+    Assertions.assertEquals(30, graph.shortestPathCost("A", "D"));
+    Assertions.assertEquals(List.of("A", "B", "C", "D"), graph.shortestPathData("A", "D"));
+    graph.insertEdge("A", "D", 1);
+    Assertions.assertEquals(1, graph.shortestPathCost("A", "D"));
+    Assertions.assertEquals(List.of("A", "D"), graph.shortestPathData("A", "D"));
+    graph.removeNode("D");
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathCost("A", "D"));
+    Assertions.assertEquals(20, graph.shortestPathCost("A", "C"));
+    Assertions.assertEquals(List.of("A"), graph.shortestPathData("A", "A"));
+  }
+
+  /**
+   * The staleShortcutTest method checks that shortcuts over zero weight edges unpack into the
+   * whole path, and that the hierarchy is also contracted again after an edge's weight is lowered
+   * or an edge is removed, so that no stale shortcut is followed.
+   */
+  @Test
+  public void staleShortcutTest() {
+    ContractionHierarchyGraph<String, Integer> graph = new ContractionHierarchyGraph<>();
+    for (String node : new String[] {"A", "B", "C", "D", "E"}) {
+      graph.insertNode(node);
+    }
+    graph.insertEdge("A", "B", 0);
+    graph.insertEdge("B", "C", 0);
+    graph.insertEdge("C", "D", 12);
+    graph.insertEdge("A", "D", 20);
+    graph.insertEdge("E", "A", 4);
+    Assertions.assertEquals(List.of("E", "A", "B", "C", "D"), graph.shortestPathData("E", "D"));
+    Assertions.assertEquals(16, graph.shortestPathCost("E", "D"));
+    graph.insertEdge("A", "D", 5); // replaces the weight of 20
+    Assertions.assertEquals(List.of("E", "A", "D"), graph.shortestPathData("E", "D"));
+    Assertions.assertEquals(9, graph.shortestPathCost("E", "D"));
+    graph.removeEdge("A", "D");
+    graph.removeEdge("B", "C");
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathCost("E", "D"));
+    Assertions.assertEquals(List.of("E", "A", "B"), graph.shortestPathData("E", "B"));
+  }
+
+}
@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how the single source searches of DeltaSteppingDijkstraGraph scale
+ * with the number of threads in their ForkJoinPool, from 1 up to the number
+ * of available processors, against the sequential DijkstraGraph, on a large
+ * synthetic grid. Each search computes the cost from one start to every node,
+ * and every engine must compute exactly the same costs. Several deltas are
+ * then compared with every processor in use.
+ * This is not run as part of the unit tests. After running mvn test-compile:
+ *
+ *     java -cp target/classes:target/test-classes DeltaSteppingBenchmark [side] [sources]
+ */
+public class DeltaSteppingBenchmark {
+
+  public static void main(String[] args) {
+    int side = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+    int sources = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+    int processors = Runtime.getRuntime().availableProcessors();
+
+    DijkstraGraph<Integer, Double> sequential = new DijkstraGraph<>();
+    DijkstraBenchmark.createGridGraph(sequential, side, 1);
+    // getAllNodes returns a linked list, which is slow to index into
+    List<Integer> all = new ArrayList<>(sequential.getAllNodes());
+    List<Integer> starts = all.subList(0, sources);
+    double[][] expected = new double[sources][];
+    long nanos = 0;
+    for (int round = 0; round < 2; round++) { // the first round warms up
+      long start = System.nanoTime();
+      for (int i = 0; i < sources; i++)
+        expected[i] = sequential.shortestPathCosts(starts.get(i), all);
+      nanos = System.nanoTime() - start;
+    }
+    System.out.printf("grid %dx%d, %d processors%n", side, side, processors);
+    System.out.printf("%-22s %8s %10s %8s%n", "engine", "threads", "ms/source", "speedup");
+    double sequentialMs = nanos / 1e6 / sources;
+    System.out.printf("%-22s %8d %10.1f %8.2f%n", "dijkstra", 1, sequentialMs, 1.0);
+
+    for (int threads = 1; threads <= processors; threads *= 2)
+      run(sequential, side, threads, 0.0, starts, all, expected, sequentialMs);
+    if (Integer.bitCount(processors) != 1)
+      run(sequential, side, processors, 0.0, starts, all, expected, sequentialMs);
+    for (double delta : new double[] {10.0, 100.0, 1000.0})
+      run(sequential, side, processors, delta, starts, all, expected, sequentialMs);
+  }
+
+  // times delta-stepping searches from each start on a pool of threads
+  private static void run(DijkstraGraph<Integer, Double> sequential, int side, int threads,
+      double delta, List<Integer> starts, List<Integer> all, double[][] expected,
+      double sequentialMs) {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      DeltaSteppingDijkstraGraph<Integer, Double> parallel =
+          new DeltaSteppingDijkstraGraph<>(pool, delta);
+      DijkstraBenchmark.createGridGraph(parallel, side, 1);
+      long nanos = 0;
+      for (int round = 0; round < 2; round++) { // the first round warms up
+        long start = System.nanoTime();
+        for (int i = 0; i < starts.size(); i++) {
+          double[] costs = parallel.shortestPathCosts(starts.get(i), all);
+          if (!Arrays.equals(costs, expected[i]))
+            throw new IllegalStateException("Delta-stepping disagrees from " + starts.get(i));
+        }
+        nanos = System.nanoTime() - start;
+      }
+      double ms = nanos / 1e6 / starts.size();
+      String name = String.format("delta-stepping %.0f", parallel.getDelta());
+      System.out.printf("%-22s %8d %10.1f %8.2f%n", name, threads, ms, sequentialMs / ms);
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
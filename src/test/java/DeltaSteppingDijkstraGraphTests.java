@@ -0,0 +1,122 @@
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DeltaSteppingDijkstraGraphTests {
+
+  /**
+   * The randomGraphTest method checks that the parallel search computes exactly the same costs
+   * from every start as the sequential one, in random graphs with zero weight edges and
+   * unreachable nodes, for deltas smaller than, around and larger than every weight.
+   */
+  @Test
+  public void randomGraphTest() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (double delta : new double[] {0.0, 0.5, 4.0, 100.0}) {
+        DijkstraGraph<Integer, Double> sequential = new DijkstraGraph<>();
+        DeltaSteppingDijkstraGraph<Integer, Double> parallel =
+            new DeltaSteppingDijkstraGraph<>(pool, delta);
+        RandomGraphs.createDoubleGraph(sequential, 400, 1200, (long) delta);
+        RandomGraphs.createDoubleGraph(parallel, 400, 1200, (long) delta);
+        List<Integer> all = sequential.getAllNodes();
+        for (int start = 0; start < 400; start += 7) {
+          Assertions.assertArrayEquals(sequential.shortestPathCosts(start, all),
+              parallel.shortestPathCosts(start, all));
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * The shortestPathTreeTest method checks that the tree from a parallel search has the same
+   * costs as the sequential tree, lists nodes in order of increasing cost, and follows edges
+   * whose weights it records and that add up to each node's cost, even through zero weight edges.
+   */
+  @Test
+  public void shortestPathTreeTest() {
+    DijkstraGraph<Integer, Double> sequential = new DijkstraGraph<>();
+    DeltaSteppingDijkstraGraph<Integer, Double> parallel = new DeltaSteppingDijkstraGraph<>();
+    RandomGraphs.createDoubleGraph(sequential, 200, 500, 3);
+    RandomGraphs.createDoubleGraph(parallel, 200, 500, 3);
+    ShortestPathTree<Integer> expected = sequential.shortestPathTree(0);
+    ShortestPathTree<Integer> tree = parallel.shortestPathTree(0);
+    Assertions.assertEquals(expected.size(), tree.size());
+    Assertions.assertEquals(0, tree.getStart());
+    double previous = 0.0;
+    for (int node : tree.getNodes()) {
+      Assertions.assertEquals(expected.getCost(node), tree.getCost(node));
+      Assertions.assertTrue(tree.getCost(node) >= previous);
+      previous = tree.getCost(node);
+      List<Integer> path = tree.getPathTo(node);
+      ShortestPath<Integer> route = tree.getShortestPathTo(node);
+      Assertions.assertEquals(path, route.getNodes());
+      double cost = 0.0;
+      for (int i = 1; i < path.size(); i++) {
+        Assertions.assertEquals(parallel.getEdge(path.get(i - 1), path.get(i)),
+            route.getWeight(i - 1));
+        cost += parallel.getEdge(path.get(i - 1), path.get(i));
+      }
+      Assertions.assertEquals(tree.getCost(node), cost);
+      Assertions.assertEquals(cost, route.getCost());
+    }
+    Assertions.assertThrows(NoSuchElementException.class, () -> parallel.shortestPathTree(-1));
+  }
+
+  /**
+   * The zeroWeightClusterTest method checks that a long chain of nodes joined by zero weight
+   * edges, whose nodes are numbered against the direction of the chain, is listed in the tree
+   * with every node after its predecessor along the chain.
+   */
+  @Test
+  public void zeroWeightClusterTest() {
+    DeltaSteppingDijkstraGraph<Integer, Double> graph = new DeltaSteppingDijkstraGraph<>();
+    int length = 2000;
+    for (int i = 0; i <= length; i++) {
+      graph.insertNode(i);
+    }
+    // the start leads to the far end of the chain, which leads back down to 1
+    graph.insertEdge(0, length, 2.0);
+    for (int i = length; i > 1; i--) {
+      graph.insertEdge(i, i - 1, 0.0);
+    }
+    ShortestPathTree<Integer> tree = graph.shortestPathTree(0);
+    Assertions.assertEquals(length + 1, tree.size());
+    for (int node = 1; node <= length; node++) {
+      Assertions.assertEquals(2.0, tree.getCost(node));
+    }
+    Assertions.assertEquals(length + 1, tree.getPathTo(1).size());
+    Assertions.assertEquals(List.of(0, length, length - 1), tree.getPathTo(length - 1));
+  }
+
+  /**
+   * The deltaChangeTest method checks that the parallel search buckets nodes by the mean weight
+   * of the graph as it is after each edit, so that a heavy edge that raises that mean, and turns
+   * earlier heavy edges light, still leaves every cost and path exact.
+   */
+  @Test
+  public void deltaChangeTest() {
+    DeltaSteppingDijkstraGraph<String, Double> graph = new DeltaSteppingDijkstraGraph<>();
+    for (String node : new String[] {"A", "B", "C", "D"}) {
+      graph.insertNode(node);
+    }
+    graph.insertEdge("A", "B", 0.0);
+    graph.insertEdge("B", "C", 6.0);
+    graph.insertEdge("D", "A", 1.0);
+    List<String> ends = List.of("A", "B", "C", "D");
+    Assertions.assertEquals(7.0 / 3, graph.getDelta());
+    Assertions.assertArrayEquals(new double[] {0.0, 0.0, 6.0, Double.POSITIVE_INFINITY},
+        graph.shortestPathCosts("A", ends));
+    graph.insertEdge("A", "C", 0.5);
+    graph.insertEdge("C", "D", 100.0);
+    Assertions.assertEquals(107.5 / 5, graph.getDelta());
+    Assertions.assertArrayEquals(new double[] {0.0, 0.0, 0.5, 100.5},
+        graph.shortestPathCosts("A", ends));
+    Assertions.assertEquals(List.of("A", "C", "D"), graph.shortestPathTree("A").getPathTo("D"));
+  }
+
+}
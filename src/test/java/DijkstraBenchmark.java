@@ -0,0 +1,192 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Compares DijkstraGraph's indexed d-ary heap (which holds each node once, and
+ * lowers its key when a shorter path is found) against the lazy insertion
+ * that it replaced (which pushed a new SearchNode for every relaxation and
+ * skipped stale ones as they were popped). Both answer the same random
+ * queries on the campus graph and on larger synthetic grids, and report heap
+ * pushes and pops per query along with the wall time per query.
+ * This is not run as part of the unit tests. After running mvn test-compile:
+ *
+ *     java -cp target/classes:target/test-classes DijkstraBenchmark [queries]
+ */
+public class DijkstraBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int queries = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+    System.out.printf("%-16s %-8s %12s %12s %12s %10s%n", "graph", "engine", "pushes/q",
+        "pops/q", "decreases/q", "us/q");
+    LazyDijkstraGraph<String> lazyCampus = new LazyDijkstraGraph<>();
+    new Backend(lazyCampus).loadGraphData("data/campus.dot");
+    CountingDijkstraGraph<String> campus = new CountingDijkstraGraph<>();
+    new Backend(campus).loadGraphData("data/campus.dot");
+    List<String> locations = campus.getAllNodes();
+    compare("campus", lazyCampus, campus, createPairs(locations, queries * 10, 11));
+
+    for (int side : new int[] {100, 300}) {
+      LazyDijkstraGraph<Integer> lazyGrid = new LazyDijkstraGraph<>();
+      CountingDijkstraGraph<Integer> grid = new CountingDijkstraGraph<>();
+      createGridGraph(lazyGrid, side, 1);
+      createGridGraph(grid, side, 1);
+      compare("grid " + side + "x" + side, lazyGrid, grid,
+          createPairs(grid.getAllNodes(), queries, 12));
+    }
+  }
+
+  // answers the same queries with both engines, after warming each one up
+  private static <T> void compare(String name, LazyDijkstraGraph<T> lazy,
+      CountingDijkstraGraph<T> heap, List<List<T>> pairs) {
+    for (int round = 0; round < 2; round++) { // the first round warms up
+      lazy.pushes = lazy.pops = 0;
+      heap.pushes = heap.pops = heap.decreases = 0;
+      double lazyTotal = 0.0;
+      double heapTotal = 0.0;
+      long start = System.nanoTime();
+      for (List<T> pair : pairs)
+        lazyTotal += cost(lazy, pair);
+      long lazyNanos = System.nanoTime() - start;
+      start = System.nanoTime();
+      for (List<T> pair : pairs)
+        heapTotal += cost(heap, pair);
+      long heapNanos = System.nanoTime() - start;
+      if (lazyTotal != heapTotal)
+        throw new IllegalStateException("Engines disagree on " + name);
+      if (round == 1) {
+        int n = pairs.size();
+        System.out.printf("%-16s %-8s %12.1f %12.1f %12s %10.1f%n", name, "lazy",
+            (double) lazy.pushes / n, (double) lazy.pops / n, "-", lazyNanos / 1e3 / n);
+        System.out.printf("%-16s %-8s %12.1f %12.1f %12.1f %10.1f%n", name, "heap",
+            (double) heap.pushes / n, (double) heap.pops / n, (double) heap.decreases / n,
+            heapNanos / 1e3 / n);
+      }
+    }
+  }
+
+  private static <T> double cost(DijkstraGraph<T, Double> graph, List<T> pair) {
+    try {
+      return graph.shortestPathCost(pair.get(0), pair.get(1));
+    } catch (NoSuchElementException e) {
+      return 0.0;
+    }
+  }
+
+  /**
+   * Chooses random (start, end) pairs of nodes.
+   */
+  static <T> List<List<T>> createPairs(List<T> nodes, int count, long seed) {
+    Random random = new Random(seed);
+    List<List<T>> pairs = new ArrayList<>(count);
+    for (int i = 0; i < count; i++)
+      pairs.add(List.of(nodes.get(random.nextInt(nodes.size())),
+          nodes.get(random.nextInt(nodes.size()))));
+    return pairs;
+  }
+
+  /**
+   * Fills graph with a side by side grid of nodes, a little like city blocks, in which each node
+   * is connected to its neighbors in both directions by edges weighted between 10 and 100.
+   */
+  static void createGridGraph(DijkstraGraph<Integer, Double> graph, int side, long seed) {
+    Random random = new Random(seed);
+    for (int i = 0; i < side * side; i++)
+      graph.insertNode(i);
+    for (int row = 0; row < side; row++) {
+      for (int column = 0; column < side; column++) {
+        int node = row * side + column;
+        if (column + 1 < side) {
+          double weight = 10 + random.nextInt(91);
+          graph.insertEdge(node, node + 1, weight);
+          graph.insertEdge(node + 1, node, weight);
+        }
+        if (row + 1 < side) {
+          double weight = 10 + random.nextInt(91);
+          graph.insertEdge(node, node + side, weight);
+          graph.insertEdge(node + side, node, weight);
+        }
+      }
+    }
+  }
+
+  // counts the operations of the indexed heap used by each search, which is
+  // reused by every search on a thread, so only its new operations count
+  static class CountingDijkstraGraph<T> extends DijkstraGraph<T, Double> {
+    long pushes;
+    long pops;
+    long decreases;
+    private IndexedDaryHeap heap = null;
+    private long pushesSeen;
+    private long popsSeen;
+    private long decreasesSeen;
+
+    @Override
+    protected IndexedDaryHeap createHeap(int capacity) {
+      collect();
+      heap = super.createHeap(capacity);
+      pushesSeen = popsSeen = decreasesSeen = 0;
+      return heap;
+    }
+
+    @Override
+    public double shortestPathCost(T start, T end) {
+      try {
+        return super.shortestPathCost(start, end);
+      } finally {
+        collect();
+      }
+    }
+
+    private void collect() {
+      if (heap != null) {
+        pushes += heap.getPushCount() - pushesSeen;
+        pops += heap.getPopCount() - popsSeen;
+        decreases += heap.getDecreaseCount() - decreasesSeen;
+        pushesSeen = heap.getPushCount();
+        popsSeen = heap.getPopCount();
+        decreasesSeen = heap.getDecreaseCount();
+      }
+    }
+  }
+
+  // the lazy insertion search that DijkstraGraph used before its indexed heap
+  static class LazyDijkstraGraph<T> extends DijkstraGraph<T, Double> {
+    long pushes;
+    long pops;
+
+    @Override
+    protected SearchNode computeShortestPath(T start, T end) {
+      if (!containsNode(start) || !containsNode(end)) {
+        throw new NoSuchElementException("Start or end node not found in the graph.");
+      }
+      PriorityQueue<SearchNode> pq = new PriorityQueue<>();
+      pq.add(new SearchNode(nodes.get(start), 0.0, null, 0.0));
+      pushes++;
+      HashtableMap<Node, Boolean> visitedMap = new HashtableMap<>();
+      while (!pq.isEmpty()) {
+        SearchNode current = pq.poll();
+        pops++;
+        if (visitedMap.containsKey(current.node)) {
+          continue;
+        }
+        visitedMap.put(current.node, true);
+        if (current.node.data.equals(end)) {
+          return current;
+        }
+        for (Edge edge : current.node.edgesLeaving) {
+          if (!visitedMap.containsKey(edge.successor)) {
+            pq.add(new SearchNode(edge.successor, current.cost + edge.data.doubleValue(),
+                current, edge.data.doubleValue()));
+            pushes++;
+          }
+        }
+      }
+      throw new NoSuchElementException("No path found between the start and end nodes.");
+    }
+  }
+}
@@ -137,4 +137,295 @@ public class DijkstraGraphTests {
       Assertions.assertTrue(true);
     }
   }
+
+  /**
+   * The shortestPathCostsTest method checks that a single search from "A" returns the same costs
+   * as shortestPathCost for each destination, in the order requested (including repeated
+   * destinations), with infinite costs for destinations that are unreachable or missing.
+   */
+  @Test
+  public void shortestPathCostsTest() {
+    DijkstraGraph<String, Integer> graph = new DijkstraGraph<>();
+    for (String node : new String[] {"A", "B", "C", "D", "E", "F", "G", "H"}) {
+      graph.insertNode(node);
+    }
+    graph.insertEdge("A", "B", 4);
+    graph.insertEdge("A", "C", 2);
+    graph.insertEdge("A", "E", 15);
+    graph.insertEdge("B", "D", 1);
+    graph.insertEdge("B", "E", 10);
+    graph.insertEdge("C", "D", 5);
+    graph.insertEdge("D", "E", 3);
+    graph.insertEdge("D", "F", 0);
+    graph.insertEdge("F", "D", 2);
+    graph.insertEdge("F", "H", 4);
+    graph.insertEdge("G", "H", 4);
+
+    double[] costs = graph.shortestPathCosts("A", List.of("E", "A", "H", "G", "Z", "E"));
+    Assertions.assertArrayEquals(new double[] {8, 0, 9, Double.POSITIVE_INFINITY,
+        Double.POSITIVE_INFINITY, 8}, costs);
+    Assertions.assertThrows(NoSuchElementException.class,
+        () -> graph.shortestPathCosts("Z", List.of("A")));
+  }
+
+  /**
+   * The removeNodeTest method checks that searches still find the shortest paths after nodes
+   * are removed from the graph, which moves other nodes into the removed nodes' indexes.
+   */
+  @Test
+  public void removeNodeTest() {
+    DijkstraGraph<String, Integer> graph = new DijkstraGraph<>();
+    for (String node : new String[] {"A", "B", "C", "D", "E"}) {
+      graph.insertNode(node);
+    }
+    graph.insertEdge("A", "B", 1);
+    graph.insertEdge("B", "E", 1);
+    graph.insertEdge("A", "C", 2);
+    graph.insertEdge("C", "D", 2);
+    graph.insertEdge("D", "E", 2);
+    Assertions.assertEquals(List.of("A", "B", "E"), graph.shortestPathData("A", "E"));
+    graph.removeNode("B");
+    Assertions.assertEquals(List.of("A", "C", "D", "E"), graph.shortestPathData("A", "E"));
+    Assertions.assertEquals(6, graph.shortestPathCost("A", "E"));
+    graph.insertNode("F");
+    graph.insertEdge("A", "F", 1);
+    graph.insertEdge("F", "E", 1);
+    graph.removeNode("A");
+    Assertions.assertEquals(List.of("F", "E"), graph.shortestPathData("F", "E"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathData("C", "F"));
+  }
+
+  /**
+   * The shortestPathTreeTest method checks that the tree from a single search agrees with
+   * shortestPathCost, shortestPathData and shortestPath for every reachable destination, lists
+   * nodes in order of increasing cost, and leaves out nodes that cannot be reached.
+   */
+  @Test
+  public void shortestPathTreeTest() {
+    DijkstraGraph<String, Integer> graph = new DijkstraGraph<>();
+    for (String node : new String[] {"A", "B", "C", "D", "E", "F", "G", "H"}) {
+      graph.insertNode(node);
+    }
+    graph.insertEdge("A", "B", 4);
+    graph.insertEdge("A", "C", 2);
+    graph.insertEdge("A", "E", 15);
+    graph.insertEdge("B", "D", 1);
+    graph.insertEdge("B", "E", 10);
+    graph.insertEdge("C", "D", 5);
+    graph.insertEdge("D", "E", 3);
+    graph.insertEdge("D", "F", 0);
+    graph.insertEdge("F", "D", 2);
+    graph.insertEdge("F", "H", 4);
+    graph.insertEdge("G", "H", 4);
+
+    ShortestPathTree<String> tree = graph.shortestPathTree("A");
+    Assertions.assertEquals("A", tree.getStart());
+    Assertions.assertEquals(7, tree.size());
+    Assertions.assertFalse(tree.contains("G"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> tree.getPathTo("G"));
+    Assertions.assertNull(tree.getPredecessor("A"));
+    double previous = 0;
+    for (String node : tree.getNodes()) {
+      Assertions.assertEquals(graph.shortestPathCost("A", node), tree.getCost(node));
+      Assertions.assertEquals(graph.shortestPathData("A", node), tree.getPathTo(node));
+      ShortestPath<String> expected = graph.shortestPath("A", node);
+      ShortestPath<String> path = tree.getShortestPathTo(node);
+      Assertions.assertEquals(expected.getNodes(), path.getNodes());
+      Assertions.assertEquals(expected.getWeights(), path.getWeights());
+      Assertions.assertEquals(expected.getCost(), path.getCost());
+      Assertions.assertTrue(tree.getCost(node) >= previous);
+      previous = tree.getCost(node);
+    }
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathTree("Z"));
+  }
+
+  /**
+   * The shortestPathTest method checks that the path from a single search holds the same nodes
+   * and cost as shortestPathData and shortestPathCost, and the weight of every edge along it,
+   * with the cost to each node being the sum of the weights before it.
+   */
+  @Test
+  public void shortestPathTest() {
+    DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+    for (String node : new String[] {"A", "B", "C", "D", "E"}) {
+      graph.insertNode(node);
+    }
+    graph.insertEdge("A", "B", 1.5);
+    graph.insertEdge("A", "C", 0.2);
+    graph.insertEdge("C", "B", 0.7);
+    graph.insertEdge("B", "D", 2.25);
+    graph.insertEdge("C", "D", 4.0);
+
+    ShortestPath<String> path = graph.shortestPath("A", "D");
+    Assertions.assertEquals(graph.shortestPathData("A", "D"), path.getNodes());
+    Assertions.assertEquals(List.of("A", "C", "B", "D"), path.getNodes());
+    Assertions.assertEquals(graph.shortestPathCost("A", "D"), path.getCost());
+    Assertions.assertEquals(List.of(0.2, 0.7, 2.25), path.getWeights());
+    Assertions.assertEquals("A", path.getStart());
+    Assertions.assertEquals("D", path.getEnd());
+    double cost = 0.0;
+    for (int i = 0; i < path.size() - 1; i++) {
+      Assertions.assertEquals(graph.getEdge(path.getNodes().get(i), path.getNodes().get(i + 1)),
+          path.getWeight(i));
+      Assertions.assertEquals(cost, path.getCostTo(i));
+      cost += path.getWeight(i);
+    }
+    Assertions.assertEquals(cost, path.getCost());
+
+    ShortestPath<String> single = graph.shortestPath("B", "B");
+    Assertions.assertEquals(List.of("B"), single.getNodes());
+    Assertions.assertTrue(single.getWeights().isEmpty());
+    Assertions.assertEquals(0.0, single.getCost());
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPath("D", "A"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPath("A", "Z"));
+  }
+
+  /**
+   * The shortestPathCostMatrixTest method checks that every row of a cost matrix, including rows
+   * for missing or repeated starts, holds the same costs as shortestPathCosts from its start, and
+   * that the streaming variant passes the same rows, in order, on the calling thread. There are
+   * more starts than are computed within one block.
+   */
+  @Test
+  public void shortestPathCostMatrixTest() {
+    DijkstraGraph<Integer, Double> graph = new DijkstraGraph<>();
+    java.util.Random random = new java.util.Random(20);
+    for (int i = 0; i < 150; i++) {
+      graph.insertNode(i);
+    }
+    for (int i = 0; i < 600; i++) {
+      graph.insertEdge(random.nextInt(150), random.nextInt(150), 1.0 + random.nextInt(100) / 7.0);
+    }
+    List<Integer> starts = new ArrayList<>();
+    for (int i = 0; i < 150; i++) {
+      starts.add(random.nextInt(160)); // some of these are not in the graph
+    }
+    starts.add(null);
+    List<Integer> ends = List.of(3, 0, 155, 77, 3, 149);
+
+    double[][] matrix = graph.shortestPathCostMatrix(starts, ends);
+    Assertions.assertEquals(starts.size(), matrix.length);
+    for (int i = 0; i < starts.size(); i++) {
+      Integer start = starts.get(i);
+      double[] expected = new double[ends.size()];
+      java.util.Arrays.fill(expected, Double.POSITIVE_INFINITY);
+      if (start != null && graph.containsNode(start)) {
+        expected = graph.shortestPathCosts(start, ends);
+      }
+      Assertions.assertArrayEquals(expected, matrix[i]);
+    }
+
+    List<double[]> rows = new ArrayList<>();
+    Thread caller = Thread.currentThread();
+    graph.shortestPathCostMatrix(starts, ends, (row, i) -> {
+      Assertions.assertEquals(rows.size(), i);
+      Assertions.assertSame(caller, Thread.currentThread());
+      rows.add(row);
+    });
+    Assertions.assertArrayEquals(matrix, rows.toArray(new double[0][]));
+    Assertions.assertEquals(0, graph.shortestPathCostMatrix(List.of(), ends).length);
+  }
+
+  /**
+   * The idTest method checks that the ById methods answer exactly like the methods that take
+   * node data, for ids resolved once up front, and that ids stay dense after a removal.
+   */
+  @Test
+  public void idTest() {
+    DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+    for (String node : new String[] {"A", "B", "C", "D"}) {
+      graph.insertNode(node);
+    }
+    int a = graph.getNodeId("A");
+    int b = graph.getNodeId("B");
+    int c = graph.getNodeId("C");
+    int d = graph.getNodeId("D");
+    Assertions.assertTrue(graph.insertEdgeById(a, b, 1.5));
+    Assertions.assertTrue(graph.insertEdgeById(b, c, 2.0));
+    Assertions.assertTrue(graph.insertEdgeById(a, c, 4.0));
+    Assertions.assertFalse(graph.insertEdgeById(a, 4, 1.0));
+    Assertions.assertEquals(2.0, graph.getEdge("B", "C"));
+    Assertions.assertEquals(4.0, graph.getEdgeById(a, c));
+    Assertions.assertTrue(graph.containsEdgeById(a, b));
+    Assertions.assertFalse(graph.containsEdgeById(c, a));
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.getEdgeById(c, a));
+
+    Assertions.assertEquals(graph.shortestPathCost("A", "C"), graph.shortestPathCostById(a, c));
+    Assertions.assertEquals(graph.shortestPath("A", "C").getNodes(),
+        graph.shortestPathById(a, c).getNodes());
+    Assertions.assertArrayEquals(graph.shortestPathCosts("A", List.of("C", "D", "A")),
+        graph.shortestPathCostsById(a, new int[] {c, d, a}));
+    Assertions.assertArrayEquals(new double[] {3.5, Double.POSITIVE_INFINITY},
+        graph.shortestPathCostsById(a, new int[] {c, 9}));
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathCostById(a, d));
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathById(-1, c));
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.getNodeId("E"));
+
+    graph.removeNode("A");
+    Assertions.assertEquals(a, graph.getNodeId("D"));
+    Assertions.assertEquals("D", graph.getNodeData(a));
+    Assertions.assertEquals(3, graph.getNodeCount());
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.getNodeData(3));
+  }
+
+  /**
+   * The edgeEditTest method checks that random insertions, updates and removals of edges and
+   * nodes leave the same edges, edge counts and shortest paths in graphs with and without an
+   * edge index, including self loops and edges of nodes that move into a removed node's id.
+   */
+  @Test
+  public void edgeEditTest() {
+    DijkstraGraph<Integer, Double> indexed = new DijkstraGraph<>();
+    DijkstraGraph<Integer, Double> scanned = new DijkstraGraph<>();
+    scanned.setEdgeIndexEnabled(false);
+    Assertions.assertTrue(indexed.isEdgeIndexEnabled());
+    Assertions.assertFalse(scanned.isEdgeIndexEnabled());
+    java.util.Map<List<Integer>, Double> expected = new java.util.HashMap<>();
+    java.util.Random random = new java.util.Random(23);
+    for (int i = 0; i < 3000; i++) {
+      int pred = random.nextInt(30);
+      int succ = random.nextInt(30);
+      int action = random.nextInt(10);
+      for (DijkstraGraph<Integer, Double> graph : List.of(indexed, scanned)) {
+        if (action == 0) {
+          graph.removeNode(pred);
+        } else if (action < 3) {
+          graph.removeEdge(pred, succ);
+        } else {
+          graph.insertNode(pred);
+          graph.insertNode(succ);
+          graph.insertEdge(pred, succ, (double) i);
+        }
+      }
+      if (action == 0) {
+        expected.keySet().removeIf(edge -> edge.contains(pred));
+      } else if (action < 3) {
+        expected.remove(List.of(pred, succ));
+      } else {
+        expected.put(List.of(pred, succ), (double) i);
+      }
+    }
+    for (DijkstraGraph<Integer, Double> graph : List.of(indexed, scanned)) {
+      Assertions.assertEquals(expected.size(), graph.getEdgeCount());
+      for (int pred = 0; pred < 30; pred++) {
+        for (int succ = 0; succ < 30; succ++) {
+          Double weight = expected.get(List.of(pred, succ));
+          Assertions.assertEquals(weight != null, graph.containsEdge(pred, succ));
+          if (weight != null) {
+            Assertions.assertEquals(weight, graph.getEdge(pred, succ));
+            Assertions.assertEquals(weight,
+                graph.getEdgeById(graph.getNodeId(pred), graph.getNodeId(succ)));
+          }
+        }
+      }
+    }
+    List<Integer> all = indexed.getAllNodes();
+    Assertions.assertArrayEquals(indexed.shortestPathCostMatrix(all, all),
+        scanned.shortestPathCostMatrix(all, all));
+    indexed.setEdgeIndexEnabled(false);
+    indexed.setEdgeIndexEnabled(true);
+    for (List<Integer> edge : expected.keySet()) {
+      Assertions.assertEquals(expected.get(edge), indexed.getEdge(edge.get(0), edge.get(1)));
+    }
+  }
 }
\ No newline at end of file
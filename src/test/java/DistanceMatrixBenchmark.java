@@ -0,0 +1,84 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Compares three ways of computing the walking times from many start
+ * locations to many end locations, on the campus graph and on a synthetic
+ * grid: one shortestPathCost query for every pair, one shortestPathCosts
+ * search for every start, and shortestPathCostMatrix, which runs those
+ * searches in parallel. All three must compute exactly the same matrix.
+ * This is not run as part of the unit tests. After running mvn test-compile:
+ *
+ *     java -cp target/classes:target/test-classes DistanceMatrixBenchmark [starts] [ends]
+ */
+public class DistanceMatrixBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int starts = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int ends = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+
+    System.out.printf("%-16s %-22s %10s%n", "graph", "method", "ms");
+    DijkstraGraph<String, Double> campus = new DijkstraGraph<>();
+    new Backend(campus).loadGraphData("data/campus.dot");
+    compare("campus", campus, starts, ends);
+    DijkstraGraph<Integer, Double> grid = new DijkstraGraph<>();
+    DijkstraBenchmark.createGridGraph(grid, 100, 1);
+    compare("grid 100x100", grid, starts, ends);
+  }
+
+  // computes the same matrix in every way, after warming each one up
+  private static <T> void compare(String name, DijkstraGraph<T, Double> graph,
+      int startCount, int endCount) {
+    List<T> nodes = new ArrayList<>(graph.getAllNodes());
+    Random random = new Random(20);
+    List<T> starts = new ArrayList<>();
+    for (int i = 0; i < startCount; i++)
+      starts.add(nodes.get(random.nextInt(nodes.size())));
+    Collections.shuffle(nodes, random);
+    List<T> ends = nodes.subList(0, Math.min(endCount, nodes.size()));
+
+    for (int round = 0; round < 2; round++) { // the first round warms up
+      long start = System.nanoTime();
+      double[][] pairs = new double[starts.size()][ends.size()];
+      for (int i = 0; i < starts.size(); i++)
+        for (int j = 0; j < ends.size(); j++)
+          pairs[i][j] = cost(graph, starts.get(i), ends.get(j));
+      long pairNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      double[][] rows = new double[starts.size()][];
+      for (int i = 0; i < starts.size(); i++)
+        rows[i] = graph.shortestPathCosts(starts.get(i), ends);
+      long rowNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      double[][] matrix = graph.shortestPathCostMatrix(starts, ends);
+      long matrixNanos = System.nanoTime() - start;
+
+      for (int i = 0; i < starts.size(); i++) {
+        if (!Arrays.equals(pairs[i], rows[i])
+            || !Arrays.equals(pairs[i], matrix[i]))
+          throw new IllegalStateException("The matrices disagree on " + name);
+      }
+      if (round == 1) {
+        System.out.printf("%-16s %-22s %10.1f%n", name, "shortestPathCost", pairNanos / 1e6);
+        System.out.printf("%-16s %-22s %10.1f%n", name, "shortestPathCosts", rowNanos / 1e6);
+        System.out.printf("%-16s %-22s %10.1f%n", name, "shortestPathCostMatrix",
+            matrixNanos / 1e6);
+      }
+    }
+  }
+
+  private static <T> double cost(DijkstraGraph<T, Double> graph, T start, T end) {
+    try {
+      return graph.shortestPathCost(start, end);
+    } catch (NoSuchElementException e) {
+      return Double.POSITIVE_INFINITY;
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/**
+ * Compares the time it takes to insert, look up and remove the edges between
+ * high degree hub nodes (like the Union or Bascom Hall, with many paths in
+ * and out) with and without BaseGraph's edge index, in a dense graph where
+ * every node has an edge to every other node. Without the index, each of
+ * these operations scans the shorter of the two hubs' lists of edges, so
+ * building the graph takes time cubic in its degree. Both graphs must end up
+ * with the same edges.
+ * This is not run as part of the unit tests. After running mvn test-compile:
+ *
+ *     java -cp target/classes:target/test-classes EdgeIndexBenchmark [degree]
+ */
+public class EdgeIndexBenchmark {
+
+  public static void main(String[] args) {
+    int degree = args.length > 0 ? Integer.parseInt(args[0]) : 600;
+
+    System.out.printf("%-8s %-10s %10s %10s %10s%n", "degree", "edges", "insert ms",
+        "lookup ms", "remove ms");
+    for (int round = 0; round < 2; round++) { // the first round warms up
+      for (boolean indexed : new boolean[] {false, true}) {
+        DijkstraGraph<Integer, Double> graph = new DijkstraGraph<>();
+        graph.setEdgeIndexEnabled(indexed);
+        for (int i = 0; i < degree; i++) {
+          graph.insertNode(i);
+        }
+        long start = System.nanoTime();
+        for (int pred = 0; pred < degree; pred++) {
+          for (int succ = 0; succ < degree; succ++) {
+            if (pred != succ)
+              graph.insertEdge(pred, succ, 1.0 + (pred + succ) % 7);
+          }
+        }
+        long insert = System.nanoTime() - start;
+        start = System.nanoTime();
+        double total = 0.0;
+        for (int pred = 0; pred < degree; pred++) {
+          for (int succ = 0; succ < degree; succ++) {
+            if (pred != succ)
+              total += graph.getEdge(succ, pred);
+          }
+        }
+        long lookup = System.nanoTime() - start;
+        start = System.nanoTime();
+        // removes every edge leaving the first half of the nodes
+        for (int pred = 0; pred < degree / 2; pred++) {
+          for (int succ = 0; succ < degree; succ++) {
+            if (pred != succ)
+              graph.removeEdge(pred, succ);
+          }
+        }
+        long remove = System.nanoTime() - start;
+        if (graph.getEdgeCount() != (long) (degree - degree / 2) * (degree - 1) || total <= 0.0)
+          throw new IllegalStateException("Unexpected edges left in the graph");
+        if (round == 1)
+          System.out.printf("%-8d %-10s %10.1f %10.1f %10.1f%n", degree,
+              indexed ? "indexed" : "scanned", insert / 1e6, lookup / 1e6, remove / 1e6);
+      }
+    }
+  }
+}
@@ -0,0 +1,65 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EdgeIndexTests {
+
+  /**
+   * The putTest method checks that edges are found by both of their node ids, in either
+   * direction independently, that putting an edge again replaces its value, and that ids whose
+   * packed keys share bits (like negative ids and very large ones) are told apart.
+   */
+  @Test
+  public void putTest() {
+    EdgeIndex<String> index = new EdgeIndex<>(1);
+    index.put(1, 2, "one to two");
+    index.put(2, 1, "two to one");
+    index.put(0, -1, "zero to minus one");
+    index.put(-1, 0, "minus one to zero");
+    index.put(Integer.MAX_VALUE, 7, "max to seven");
+    Assertions.assertEquals(5, index.size());
+    Assertions.assertEquals("one to two", index.get(1, 2));
+    Assertions.assertEquals("two to one", index.get(2, 1));
+    Assertions.assertEquals("zero to minus one", index.get(0, -1));
+    Assertions.assertEquals("minus one to zero", index.get(-1, 0));
+    Assertions.assertEquals("max to seven", index.get(Integer.MAX_VALUE, 7));
+    Assertions.assertNull(index.get(1, 1));
+    index.put(1, 2, "again");
+    Assertions.assertEquals("again", index.get(1, 2));
+    Assertions.assertEquals(5, index.size());
+    Assertions.assertThrows(NullPointerException.class, () -> index.put(3, 4, null));
+    index.clear();
+    Assertions.assertEquals(0, index.size());
+    Assertions.assertNull(index.get(2, 1));
+  }
+
+  /**
+   * The removeTest method checks that every edge stays findable through many random puts and
+   * removals, which move keys back into the gaps that removals leave.
+   */
+  @Test
+  public void removeTest() {
+    EdgeIndex<Integer> index = new EdgeIndex<>();
+    Map<List<Integer>, Integer> expected = new HashMap<>();
+    Random random = new Random(23);
+    for (int i = 0; i < 20000; i++) {
+      int pred = random.nextInt(40);
+      int succ = random.nextInt(40);
+      if (random.nextInt(3) == 0) {
+        Assertions.assertEquals(expected.remove(List.of(pred, succ)), index.remove(pred, succ));
+      } else {
+        expected.put(List.of(pred, succ), i);
+        index.put(pred, succ, i);
+      }
+      Assertions.assertEquals(expected.size(), index.size());
+    }
+    for (int pred = 0; pred < 40; pred++) {
+      for (int succ = 0; succ < 40; succ++) {
+        Assertions.assertEquals(expected.get(List.of(pred, succ)), index.get(pred, succ));
+      }
+    }
+  }
+}
@@ -0,0 +1,122 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Compares the wall time it takes to load a graph from a list of edges, like the lines of a dot
+ * file, by inserting each node and edge into a DijkstraGraph one at a time (as Backend used to)
+ * against adding them to a GraphBuilder and building a DijkstraGraph or a CompressedGraph from it,
+ * with and without telling the builder the expected size first. The edges form side by side grids
+ * of nodes with String names, and one in ten of them is listed a second time with a new weight.
+ * Every way of loading must end up with the same number of edges. This is not run as part of the
+ * unit tests. After running mvn test-compile:
+ *
+ *     java -cp target/classes:target/test-classes GraphBuilderBenchmark [side...]
+ */
+public class GraphBuilderBenchmark {
+
+  // the graph being loaded, and the number of edges that every way of loading it must end up with
+  private static String expectedGraph = "";
+  private static int expectedEdges = -1;
+
+  // the nodes and weight of each edge in a list of edges
+  private static class EdgeList {
+    List<String> preds = new ArrayList<>();
+    List<String> succs = new ArrayList<>();
+    List<Double> weights = new ArrayList<>();
+    int nodeCount;
+
+    void add(String pred, String succ, double weight) {
+      preds.add(pred);
+      succs.add(succ);
+      weights.add(weight);
+    }
+  }
+
+  public static void main(String[] args) {
+    int[] sides = args.length > 0 ? new int[args.length] : new int[] {100, 300, 600};
+    for (int i = 0; i < args.length; i++)
+      sides[i] = Integer.parseInt(args[i]);
+
+    System.out.printf("%-12s %-24s %10s%n", "graph", "load", "ms");
+    for (int side : sides) {
+      EdgeList edges = createGridEdges(side, side);
+      String name = side + "x" + side;
+      time(name, "insert loop", () -> insertAll(edges).getEdgeCount());
+      time(name, "insert loop + freeze", () -> insertAll(edges).freeze().getEdgeCount());
+      time(name, "builder", () -> addAll(new GraphBuilder<>(), edges).build().getEdgeCount());
+      time(name, "presized builder", () -> addAll(
+          new GraphBuilder<>(edges.nodeCount, edges.preds.size()), edges).build().getEdgeCount());
+      time(name, "builder compressed",
+          () -> addAll(new GraphBuilder<>(), edges).buildCompressed().getEdgeCount());
+    }
+  }
+
+  // lists the edges in both directions between neighbors in a side by side grid, with weights
+  // between 10 and 100, and lists one in ten of them again with a new weight
+  private static EdgeList createGridEdges(int side, long seed) {
+    Random random = new Random(seed);
+    EdgeList edges = new EdgeList();
+    edges.nodeCount = side * side;
+    for (int row = 0; row < side; row++) {
+      for (int column = 0; column < side; column++) {
+        String node = row + "," + column;
+        List<String> neighbors = new ArrayList<>();
+        if (column + 1 < side)
+          neighbors.add(row + "," + (column + 1));
+        if (row + 1 < side)
+          neighbors.add((row + 1) + "," + column);
+        for (String neighbor : neighbors) {
+          double weight = 10 + random.nextInt(91);
+          edges.add(node, neighbor, weight);
+          edges.add(neighbor, node, weight);
+          if (random.nextInt(10) == 0)
+            edges.add(node, neighbor, weight + 1);
+        }
+      }
+    }
+    return edges;
+  }
+
+  // inserts every edge and its nodes into a new graph, one at a time
+  private static DijkstraGraph<String, Double> insertAll(EdgeList edges) {
+    DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+    for (int i = 0; i < edges.preds.size(); i++) {
+      if (!graph.containsNode(edges.preds.get(i)))
+        graph.insertNode(edges.preds.get(i));
+      if (!graph.containsNode(edges.succs.get(i)))
+        graph.insertNode(edges.succs.get(i));
+      graph.insertEdge(edges.preds.get(i), edges.succs.get(i), edges.weights.get(i));
+    }
+    return graph;
+  }
+
+  // adds every edge to builder
+  private static GraphBuilder<String, Double> addAll(GraphBuilder<String, Double> builder,
+      EdgeList edges) {
+    for (int i = 0; i < edges.preds.size(); i++)
+      builder.addEdge(edges.preds.get(i), edges.succs.get(i), edges.weights.get(i));
+    return builder;
+  }
+
+  // prints the fastest of a few loads, after warming up, and checks that they all agree on the
+  // number of edges loaded
+  private static void time(String graph, String load, Supplier<Integer> loader) {
+    if (!graph.equals(expectedGraph)) {
+      expectedGraph = graph;
+      expectedEdges = loader.get(); // warms up, and counts the edges
+    }
+    long best = Long.MAX_VALUE;
+    for (int round = 0; round < 3; round++) {
+      System.gc();
+      long start = System.nanoTime();
+      int edges = loader.get();
+      best = Math.min(best, System.nanoTime() - start);
+      if (edges != expectedEdges)
+        throw new IllegalStateException(load + " loaded " + edges + " edges, not "
+            + expectedEdges);
+    }
+    System.out.printf("%-12s %-24s %10.1f%n", graph, load, best / 1e6);
+  }
+}
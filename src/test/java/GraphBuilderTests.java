@@ -0,0 +1,112 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GraphBuilderTests {
+
+  /**
+   * The buildTest method checks that building random graphs with many duplicate edges gives
+   * exactly the same nodes, ids, edges and paths as inserting those nodes and edges one at a time,
+   * both as a DijkstraGraph and as a CompressedGraph, and that the builder is empty afterwards.
+   */
+  @Test
+  public void buildTest() {
+    for (long seed = 1; seed <= 3; seed++) {
+      Random random = new Random(seed);
+      GraphBuilder<Integer, Double> builder = new GraphBuilder<>();
+      GraphBuilder<Integer, Double> compressedBuilder = new GraphBuilder<>(10, 10);
+      DijkstraGraph<Integer, Double> inserted = new DijkstraGraph<>();
+      for (int i = 0; i < 400; i++) {
+        int pred = random.nextInt(100);
+        int succ = random.nextInt(100);
+        double weight = random.nextInt(200) / 10.0;
+        builder.addEdge(pred, succ, weight);
+        compressedBuilder.addEdge(pred, succ, weight);
+        inserted.insertNode(pred);
+        inserted.insertNode(succ);
+        inserted.insertEdge(pred, succ, weight);
+        if (i % 3 == 0) {
+          // repeat a recent edge with a new weight
+          builder.addEdge(pred, succ, weight + 1.0);
+          compressedBuilder.addEdge(pred, succ, weight + 1.0);
+          inserted.insertEdge(pred, succ, weight + 1.0);
+        }
+      }
+      builder.addNode(1000); // a node without any edges
+      compressedBuilder.addNode(1000);
+      inserted.insertNode(1000);
+      Assertions.assertEquals(inserted.getNodeCount(), builder.getNodeCount());
+      DijkstraGraph<Integer, Double> built = builder.build();
+      CompressedGraph<Integer> compressed = compressedBuilder.buildCompressed();
+      Assertions.assertEquals(0, builder.getNodeCount());
+      Assertions.assertEquals(0, builder.getEdgeCount());
+
+      Assertions.assertEquals(inserted.getAllNodes(), built.getAllNodes());
+      Assertions.assertEquals(inserted.getEdgeCount(), built.getEdgeCount());
+      Assertions.assertEquals(inserted.getEdgeCount(), compressed.getEdgeCount());
+      List<Integer> all = new ArrayList<>();
+      for (int id = 0; id < inserted.getNodeCount(); id++) {
+        all.add(inserted.getNodeData(id));
+        Assertions.assertEquals(id, built.getNodeId(inserted.getNodeData(id)));
+      }
+      Assertions.assertEquals(all, compressed.getAllNodes());
+      Assertions.assertArrayEquals(inserted.shortestPathCostMatrix(all, all),
+          compressed.shortestPathCostMatrix(all, all));
+      for (int start : all) {
+        Assertions.assertEquals(inserted.shortestPathTree(start).getNodes(),
+            built.shortestPathTree(start).getNodes());
+        Assertions.assertEquals(inserted.shortestPathTree(start).getNodes(),
+            compressed.shortestPathTree(start).getNodes());
+        for (int end : all) {
+          Assertions.assertEquals(inserted.containsEdge(start, end),
+              built.containsEdge(start, end));
+          if (inserted.containsEdge(start, end)) {
+            Assertions.assertEquals(inserted.getEdge(start, end), built.getEdge(start, end));
+            Assertions.assertEquals(inserted.getEdge(start, end), compressed.getEdge(start, end));
+          }
+        }
+      }
+      // the built graph can still be changed like any other
+      Assertions.assertTrue(built.removeNode(all.get(0)));
+      Assertions.assertTrue(inserted.removeNode(all.get(0)));
+      Assertions.assertEquals(inserted.getEdgeCount(), built.getEdgeCount());
+      Assertions.assertEquals(inserted.shortestPathTree(all.get(1)).getNodes(),
+          built.shortestPathTree(all.get(1)).getNodes());
+    }
+  }
+
+  /**
+   * The buildIntoTest method checks that a builder fills an empty search engine, which then finds
+   * the same paths as before, and that it inserts its nodes and edges one at a time into a graph
+   * that already has nodes, keeping that graph's other nodes and edges.
+   */
+  @Test
+  public void buildIntoTest() {
+    GraphBuilder<String, Double> builder = new GraphBuilder<>();
+    builder.addEdge("A", "B", 2.0);
+    builder.addEdge("B", "C", 3.0);
+    builder.addEdge("A", "C", 9.0);
+    builder.addEdge("A", "C", 6.0);
+    BidirectionalDijkstraGraph<String, Double> engine = new BidirectionalDijkstraGraph<>();
+    engine.setEdgeIndexEnabled(false);
+    builder.buildInto(engine);
+    Assertions.assertEquals(3, engine.getEdgeCount());
+    Assertions.assertFalse(engine.isEdgeIndexEnabled());
+    Assertions.assertEquals(List.of("A", "B", "C"), engine.shortestPathData("A", "C"));
+    Assertions.assertEquals(5.0, engine.shortestPathCost("A", "C"));
+    Assertions.assertEquals(6.0, engine.getEdge("A", "C"));
+
+    builder.addEdge("C", "D", 1.0);
+    builder.addEdge("A", "C", 1.0);
+    builder.buildInto(engine);
+    Assertions.assertEquals(4, engine.getNodeCount());
+    Assertions.assertEquals(4, engine.getEdgeCount());
+    Assertions.assertEquals(List.of("A", "C", "D"), engine.shortestPathData("A", "D"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> engine.shortestPath("D", "A"));
+    Assertions.assertThrows(NullPointerException.class, () -> builder.addEdge("A", null, 1.0));
+    Assertions.assertThrows(NullPointerException.class, () -> builder.addEdge("A", "B", null));
+  }
+}
@@ -0,0 +1,51 @@
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class GraphEnginesTests {
+
+  // checks the queries about the start alone, the chain of zero weight edges from A to D, and E,
+  // which can only be left, that every engine and snapshot must answer exactly alike
+  private static void assertEdgeCases(GraphADT<String, Double> graph) {
+    Assertions.assertEquals(List.of("A"), graph.shortestPathData("A", "A"));
+    Assertions.assertEquals(0.0, graph.shortestPathCost("A", "A"));
+    Assertions.assertEquals(List.of("A", "B", "C", "D"), graph.shortestPathData("A", "D"));
+    Assertions.assertEquals(0.0, graph.shortestPathCost("A", "D"));
+    ShortestPath<String> path = graph.shortestPath("E", "D");
+    Assertions.assertEquals(List.of("E", "A", "B", "C", "D"), path.getNodes());
+    Assertions.assertEquals(4.0, path.getCost());
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathData("A", "E"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathCost("D", "A"));
+    Assertions.assertArrayEquals(new double[] {0.0, 0.0, Double.POSITIVE_INFINITY},
+        graph.shortestPathCosts("A", List.of("A", "D", "E")));
+    Assertions.assertEquals(List.of("D"), graph.shortestPathTree("D").getNodes());
+  }
+
+  /**
+   * The edgeCaseTest method checks that every engine, and a snapshot of its graph, returns the
+   * start alone when it is also the end, follows a path made only of zero weight edges, and finds
+   * no path to a node that can only be left, and that the engine answers from the graph as it is
+   * after an edge on that path is removed, while the snapshot keeps the edge.
+   */
+  @ParameterizedTest
+  @EnumSource(GraphEngines.Engine.class)
+  public void edgeCaseTest(GraphEngines.Engine engine) {
+    DijkstraGraph<String, Double> graph = GraphEngines.create(engine);
+    for (String node : new String[] {"A", "B", "C", "D", "E"}) {
+      graph.insertNode(node);
+    }
+    graph.insertEdge("A", "B", 0.0);
+    graph.insertEdge("B", "C", 0.0);
+    graph.insertEdge("C", "D", 0.0);
+    graph.insertEdge("E", "A", 4.0);
+    assertEdgeCases(graph);
+    CompressedGraph<String> snapshot = graph.freeze();
+    assertEdgeCases(snapshot);
+    graph.removeEdge("B", "C");
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathCost("E", "D"));
+    Assertions.assertEquals(List.of("E", "A", "B"), graph.shortestPathData("E", "B"));
+    assertEdgeCases(snapshot);
+  }
+}
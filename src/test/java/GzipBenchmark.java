@@ -0,0 +1,88 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares the bytes on the wire and the CPU time per response of three ways
+ * to send the campus pages: uncompressed, gzip compressing each complete page,
+ * and HtmlTemplate.gzip, which only compresses the response within each page.
+ * This is not run as part of the unit tests. After running mvn test-compile:
+ *
+ *     java -cp target/classes:target/test-classes GzipBenchmark [rounds]
+ */
+public class GzipBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+
+    // render the response html for a mix of campus queries up front
+    Backend backend = new Backend(new DijkstraGraph<>());
+    backend.loadGraphData("data/campus.dot");
+    Frontend frontend = new Frontend(backend);
+    List<String> locations = WebAppBenchmark.loadLocations("data/campus.dot");
+    Random random = new Random(400);
+    List<byte[]> responses = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      String start = locations.get(random.nextInt(locations.size()));
+      String end = locations.get(random.nextInt(locations.size()));
+      responses.add(HtmlTemplate.encode("<div id=\"response\">"
+          + frontend.generateShortestPathResponseHTML(start, end) + "</div>"));
+    }
+    HtmlTemplate page = createPage(frontend);
+
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    System.out.printf("%-16s %14s %16s%n", "encoding", "bytes/response", "CPU us/response");
+    for (String encoding : new String[] {"identity", "gzip whole page", "gzip response"}) {
+      long bytes = 0;
+      long cpu = 0;
+      for (int round = 0; round < rounds; round++) {
+        bytes = 0;
+        long start = threads.getCurrentThreadCpuTime();
+        for (byte[] response : responses)
+          bytes += encode(encoding, page, response);
+        cpu = threads.getCurrentThreadCpuTime() - start; // the last round is reported
+      }
+      System.out.printf("%-16s %14d %16.1f%n", encoding, bytes / responses.size(),
+          cpu / 1e3 / responses.size());
+    }
+  }
+
+  // sends a single response in one of the encodings, returning its length
+  private static int encode(String encoding, HtmlTemplate page, byte[] response)
+      throws IOException {
+    switch (encoding) {
+      case "identity":
+        ByteArrayOutputStream identity = new ByteArrayOutputStream();
+        page.write(identity, response);
+        return identity.size();
+      case "gzip whole page":
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+          page.write(gzip, response);
+        }
+        return compressed.size();
+      default:
+        return page.gzip(response).length;
+    }
+  }
+
+  // a page template with roughly the styling and script of a real page
+  private static HtmlTemplate createPage(Frontend frontend) {
+    StringBuilder style = new StringBuilder();
+    for (int i = 0; i < 60; i++)
+      style.append("#response li:nth-child(").append(i)
+          .append(") { color: #333; padding: 2px 4px; margin: 0 0 2px 0; }\n");
+    String source = "<!DOCTYPE html>\n<html>\n<head>\n<title>Campus Navigator</title>\n"
+        + "<style>\n" + style + "</style>\n</head>\n<body>\n<h1>Campus Navigator</h1>\n"
+        + "<!-- RESPONSE GOES HERE -->\n<!-- PROMPTS GO HERE -->\n</body>\n</html>\n";
+    return new HtmlTemplate(source, "<!-- RESPONSE GOES HERE -->", "<!-- PROMPTS GO HERE -->")
+        .bind("<!-- PROMPTS GO HERE -->", "<div id=\"firstPrompt\">"
+            + frontend.generateShortestPathPromptHTML() + "</div><div id=\"secondPrompt\">"
+            + frontend.generateFurthestDestinationFromPromptHTML() + "</div>");
+  }
+}
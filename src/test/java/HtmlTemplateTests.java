@@ -0,0 +1,76 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HtmlTemplateTests {
+
+  // renders template with the provided values for its remaining placeholders
+  private static String render(HtmlTemplate template, String... values) throws IOException {
+    byte[][] encoded = new byte[values.length][];
+    for (int i = 0; i < values.length; i++)
+      encoded[i] = HtmlTemplate.encode(values[i]);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    template.write(out, encoded);
+    Assertions.assertEquals(template.getContentLength(encoded), out.size());
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * The writeTest method checks that slot values are spliced between the static parts of a
+   * template in document order, even when the placeholders are declared in a different order,
+   * and that replacement text containing regex characters like $ is copied exactly.
+   */
+  @Test
+  public void writeTest() throws IOException {
+    HtmlTemplate template = new HtmlTemplate("<a><!-- B --><c><!-- A --><e>",
+        "<!-- A -->", "<!-- B -->");
+    Assertions.assertEquals("<a>b$1<c>a<e>", render(template, "a", "b$1"));
+    // only the first occurrence of a placeholder is replaced
+    HtmlTemplate repeated = new HtmlTemplate("<!-- A --><!-- A -->", "<!-- A -->");
+    Assertions.assertEquals("x<!-- A -->", render(repeated, "x"));
+    // placeholders that do not occur are accepted but ignored
+    HtmlTemplate missing = new HtmlTemplate("<p></p>", "<!-- A -->");
+    Assertions.assertEquals("<p></p>", render(missing, "x"));
+  }
+
+  /**
+   * The bindTest method checks that binding a placeholder removes it from the values expected by
+   * write, while leaving the remaining placeholders in their declared order.
+   */
+  @Test
+  public void bindTest() throws IOException {
+    HtmlTemplate template = new HtmlTemplate("1<!-- A -->2<!-- B -->3<!-- C -->4",
+        "<!-- C -->", "<!-- A -->", "<!-- B -->");
+    HtmlTemplate bound = template.bind("<!-- A -->", "a");
+    Assertions.assertEquals(2, bound.getPlaceholders().size());
+    Assertions.assertEquals("1a2b3c4", render(bound, "c", "b"));
+    Assertions.assertEquals("1a2b3c4", render(bound.bind("<!-- C -->", "c"), "b"));
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> bound.bind("<!-- A -->", "again"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> render(bound, "c"));
+  }
+
+  /**
+   * The gzipTest method checks that splicing precompressed segments with freshly compressed
+   * values produces a valid gzip stream that decompresses to exactly the uncompressed response.
+   */
+  @Test
+  public void gzipTest() throws IOException {
+    StringBuilder repeated = new StringBuilder();
+    for (int i = 0; i < 2000; i++)
+      repeated.append("<li>Location ").append(i).append("</li>");
+    HtmlTemplate template = new HtmlTemplate("<html>" + repeated + "<!-- A --><div><!-- B -->"
+        + "</div>" + repeated + "</html>", "<!-- A -->", "<!-- B -->");
+    for (String[] values : new String[][] {{"a", "b"}, {"", ""}, {repeated.toString(), "é"}}) {
+      byte[] gzip = template.gzip(HtmlTemplate.encode(values[0]), HtmlTemplate.encode(values[1]));
+      try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+        Assertions.assertEquals(render(template, values),
+            new String(in.readAllBytes(), StandardCharsets.UTF_8));
+      }
+    }
+  }
+}
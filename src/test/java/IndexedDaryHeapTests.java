@@ -0,0 +1,66 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IndexedDaryHeapTests {
+
+  /**
+   * The orderTest method checks that random pushes and decrease-keys are popped in order of their
+   * final keys for several arities, compared against a simple array scan, and that each index is
+   * held at most once.
+   */
+  @Test
+  public void orderTest() {
+    Random random = new Random(11);
+    for (int arity : new int[] {2, 3, 4, 8}) {
+      IndexedDaryHeap heap = new IndexedDaryHeap(500, arity);
+      double[] expected = new double[500];
+      Arrays.fill(expected, Double.NaN); // NaN marks indexes not in the heap
+      for (int i = 0; i < 2000; i++) {
+        int index = random.nextInt(500);
+        double key = random.nextInt(1000);
+        boolean lowered = Double.isNaN(expected[index]) || key < expected[index];
+        Assertions.assertEquals(lowered, heap.push(index, key));
+        if (lowered)
+          expected[index] = key;
+      }
+      double previous = Double.NEGATIVE_INFINITY;
+      int popped = 0;
+      while (!heap.isEmpty()) {
+        int index = heap.peek();
+        Assertions.assertEquals(expected[index], heap.getKey(index));
+        Assertions.assertEquals(index, heap.pop());
+        Assertions.assertFalse(heap.contains(index));
+        Assertions.assertTrue(expected[index] >= previous);
+        previous = expected[index];
+        expected[index] = Double.NaN;
+        popped++;
+      }
+      Assertions.assertEquals(popped, heap.getPopCount());
+      Assertions.assertEquals(popped, heap.getPushCount());
+      for (double key : expected)
+        Assertions.assertTrue(Double.isNaN(key));
+    }
+  }
+
+  /**
+   * The clearTest method checks that a cleared heap can be reused for the same indexes, and that
+   * popping an empty heap throws.
+   */
+  @Test
+  public void clearTest() {
+    IndexedDaryHeap heap = new IndexedDaryHeap(4);
+    heap.push(3, 1.0);
+    heap.push(1, 2.0);
+    heap.clear();
+    Assertions.assertTrue(heap.isEmpty());
+    Assertions.assertFalse(heap.contains(3));
+    Assertions.assertThrows(NoSuchElementException.class, () -> heap.pop());
+    Assertions.assertTrue(heap.push(1, 5.0));
+    Assertions.assertTrue(heap.push(1, 4.0));
+    Assertions.assertEquals(1, heap.getDecreaseCount());
+    Assertions.assertEquals(1, heap.pop());
+  }
+}
@@ -0,0 +1,189 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JsonApiTests {
+
+  @TempDir
+  Path directory;
+
+  private HttpServer server;
+  private AccessLog accessLog;
+  private StringWriter logText;
+
+  // the status and body of one response
+  private static class Response {
+    final int status;
+    final String body;
+
+    Response(int status, String body) {
+      this.status = status;
+      this.body = body;
+    }
+  }
+
+  /**
+   * Starts a server on an ephemeral port that answers from a small graph: A leads to D through B
+   * and C, F leads only to E, and nothing leads anywhere from E.
+   */
+  @BeforeEach
+  public void startServer() throws IOException {
+    Path graph = directory.resolve("test.dot");
+    Files.writeString(graph, "digraph test {\n"
+        + "  \"A\" -> \"B\" [seconds=10.0];\n"
+        + "  \"B\" -> \"C\" [seconds=20.0];\n"
+        + "  \"A\" -> \"C\" [seconds=45.0];\n"
+        + "  \"C\" -> \"D\" [seconds=5.5];\n"
+        + "  \"F\" -> \"E\" [seconds=1.0];\n"
+        + "}\n");
+    Backend backend = new Backend(new DijkstraGraph<>()) {
+      @Override
+      public ShortestPath<String> findShortestPath(String startLocation, String endLocation) {
+        if (startLocation.equals("boom")) {
+          throw new IllegalStateException("boom");
+        }
+        return super.findShortestPath(startLocation, endLocation);
+      }
+    };
+    backend.loadGraphData(graph.toString());
+    start(backend);
+  }
+
+  // starts the server, answering from backend
+  private void start(BackendInterface backend) throws IOException {
+    Path template = directory.resolve("template.html");
+    Files.writeString(template, "<!-- RESPONSE GOES HERE --><!-- PROMPTS GO HERE -->");
+    WebApp.loadNavigator(backend, template.toString());
+    logText = new StringWriter();
+    accessLog = new AccessLog(new PrintWriter(logText), 64, AccessLog.FullPolicy.BLOCK);
+    server = WebApp.createServer(new InetSocketAddress("localhost", 0), null, 16, accessLog);
+    server.start();
+  }
+
+  @AfterEach
+  public void stopServer() {
+    server.stop(0);
+    accessLog.close();
+  }
+
+  // sends a request with an optional body, and reads the complete response
+  private Response request(String method, String path, String body) throws IOException {
+    URL url = new URL("http://localhost:" + server.getAddress().getPort() + path);
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestMethod(method);
+    if (body != null) {
+      connection.setDoOutput(true);
+      try (OutputStream out = connection.getOutputStream()) {
+        out.write(body.getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    int status = connection.getResponseCode();
+    InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+    String text = "";
+    if (in != null) {
+      try (in) {
+        text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+      }
+    }
+    return new Response(status, text);
+  }
+
+  /**
+   * The pathTest method checks that a shortest path is answered with its locations, the seconds
+   * between each of them and their total, and that missing arguments are answered with 400 and
+   * unknown or unreachable locations with 404.
+   */
+  @Test
+  public void pathTest() throws IOException {
+    Response response = request("GET", "/api/path?start=A&end=D", null);
+    Assertions.assertEquals(200, response.status);
+    Assertions.assertEquals("{\"start\":\"A\",\"end\":\"D\",\"path\":[\"A\",\"B\",\"C\",\"D\"],"
+        + "\"seconds\":[10,20,5.5],\"total\":35.5}", response.body);
+    response = request("GET", "/api/path?start=A", null);
+    Assertions.assertEquals(400, response.status);
+    Assertions.assertEquals("{\"error\":\"Both start and end arguments are required.\"}",
+        response.body);
+    Assertions.assertEquals(400, request("GET", "/api/path?start=&end=D", null).status);
+    Assertions.assertEquals(404, request("GET", "/api/path?start=A&end=Z", null).status);
+    response = request("GET", "/api/path?start=A&end=E", null);
+    Assertions.assertEquals(404, response.status);
+    Assertions.assertEquals("{\"error\":\"Could not find a valid path.\"}", response.body);
+  }
+
+  /**
+   * The furthestTest method checks that a furthest destination is answered with the path to it,
+   * the seconds between each of its locations and their total, and that a missing argument is
+   * answered with 400, and unknown locations or ones that lead nowhere with 404.
+   */
+  @Test
+  public void furthestTest() throws IOException {
+    Response response = request("GET", "/api/furthest?from=A", null);
+    Assertions.assertEquals(200, response.status);
+    Assertions.assertEquals("{\"from\":\"A\",\"destination\":\"D\",\"path\":[\"A\",\"B\",\"C\","
+        + "\"D\"],\"seconds\":[10,20,5.5],\"total\":35.5}", response.body);
+    response = request("GET", "/api/furthest?from=F", null);
+    Assertions.assertEquals("{\"from\":\"F\",\"destination\":\"E\",\"path\":[\"F\",\"E\"],"
+        + "\"seconds\":[1],\"total\":1}", response.body);
+    Assertions.assertEquals(400, request("GET", "/api/furthest", null).status);
+    Assertions.assertEquals(404, request("GET", "/api/furthest?from=Z", null).status);
+    response = request("GET", "/api/furthest?from=E", null);
+    Assertions.assertEquals(404, response.status);
+    Assertions.assertTrue(response.body.startsWith("{\"error\":"));
+  }
+
+  /**
+   * The errorTest method checks that an unexpected exception from the backend is answered with
+   * 500, and reported in the access log along with its request.
+   */
+  @Test
+  public void errorTest() throws IOException {
+    Assertions.assertEquals(500, request("GET", "/api/path?start=boom&end=D", null).status);
+    server.stop(1); // waits for the exchange to be logged
+    accessLog.close();
+    String log = logText.toString();
+    Assertions.assertTrue(log.contains("GET /api/path?start=boom&end=D 500"), log);
+    Assertions.assertTrue(log.contains("java.lang.IllegalStateException: boom"), log);
+  }
+
+  /**
+   * The batchTest method checks that a batch is answered with the seconds for every pair in the
+   * order they were posted, with null for pairs without a path, and that batches which are not
+   * posted, are too large, or are not arrays of pairs are rejected with 405, 413 and 400.
+   */
+  @Test
+  public void batchTest() throws IOException {
+    Response response = request("POST", "/api/batch",
+        "[[\"A\",\"D\"], [\"F\",\"E\"], [\"A\",\"B\"], [\"A\",\"E\"], [\"Z\",\"A\"]]");
+    Assertions.assertEquals(200, response.status);
+    Assertions.assertEquals("{\"seconds\":[35.5,1,10,null,null]}", response.body);
+    Assertions.assertEquals("{\"seconds\":[]}", request("POST", "/api/batch", " [ ] ").body);
+    Assertions.assertEquals(405, request("GET", "/api/batch", null).status);
+    for (String body : new String[] {"", "[[\"A\"]]", "[[\"A\",\"B\",\"C\"]]",
+        "[[\"A\" \"B\"]]", "[[\"A\",1]]", "[[\"A\",\"B\"]] []"}) {
+      response = request("POST", "/api/batch", body);
+      Assertions.assertEquals(400, response.status, body);
+      Assertions.assertTrue(response.body.startsWith(
+          "{\"error\":\"Expected an array of [start, end] pairs: "), response.body);
+    }
+    StringBuilder tooLarge = new StringBuilder("[");
+    for (int i = 0; i <= JsonApi.MAX_BATCH_SIZE; i++) {
+      tooLarge.append(i == 0 ? "" : ",").append("[\"A\",\"B\"]");
+    }
+    Assertions.assertEquals(413, request("POST", "/api/batch", tooLarge.append("]").toString())
+        .status);
+  }
+}
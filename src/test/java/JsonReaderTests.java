@@ -0,0 +1,64 @@
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class JsonReaderTests {
+
+  /**
+   * The readTest method checks that nested arrays of strings are read in order, with whitespace
+   * between any of their tokens and every escape sequence decoded.
+   */
+  @Test
+  public void readTest() throws IOException {
+    JsonReader reader = new JsonReader(new StringReader(
+        " [ [\"A\" , \"B\\\"s\\\\\"] ,[\"\\u00e9\\n\\/\"],[ ] ]\n"));
+    reader.beginArray();
+    Assertions.assertTrue(reader.hasNext());
+    reader.beginArray();
+    Assertions.assertEquals("A", reader.nextString());
+    Assertions.assertEquals("B\"s\\", reader.nextString());
+    Assertions.assertFalse(reader.hasNext());
+    reader.endArray();
+    reader.beginArray();
+    Assertions.assertEquals("\u00e9\n/", reader.nextString());
+    reader.endArray();
+    reader.beginArray();
+    Assertions.assertFalse(reader.hasNext());
+    reader.endArray();
+    Assertions.assertFalse(reader.hasNext());
+    reader.endArray();
+    reader.endDocument();
+  }
+
+  /**
+   * The malformedTest method checks that missing commas and brackets, values other than strings,
+   * bad escapes, unterminated strings and trailing content are all rejected.
+   */
+  @Test
+  public void malformedTest() throws IOException {
+    Assertions.assertThrows(JsonReader.MalformedJsonException.class,
+        () -> new JsonReader(new StringReader("{}")).beginArray());
+    Assertions.assertThrows(JsonReader.MalformedJsonException.class,
+        () -> new JsonReader(new StringReader("")).beginArray());
+    for (String text : new String[] {"[\"A\" \"B\"]", "[1]", "[\"\\x\"]", "[\"\\u12g4\"]",
+        "[\"A", "[\"A\nB\"]", "[null]"}) {
+      JsonReader reader = new JsonReader(new StringReader(text));
+      reader.beginArray();
+      Assertions.assertThrows(JsonReader.MalformedJsonException.class, () -> {
+        while (reader.hasNext()) {
+          reader.nextString();
+        }
+      }, text);
+    }
+    JsonReader unclosed = new JsonReader(new StringReader("[\"A\""));
+    unclosed.beginArray();
+    unclosed.nextString();
+    Assertions.assertFalse(unclosed.hasNext());
+    Assertions.assertThrows(JsonReader.MalformedJsonException.class, unclosed::endArray);
+    JsonReader trailing = new JsonReader(new StringReader("[] []"));
+    trailing.beginArray();
+    trailing.endArray();
+    Assertions.assertThrows(JsonReader.MalformedJsonException.class, trailing::endDocument);
+  }
+}
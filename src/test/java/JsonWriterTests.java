@@ -0,0 +1,43 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class JsonWriterTests {
+
+  /**
+   * The structureTest method checks that commas are placed between the members of objects and the
+   * elements of arrays, including nested ones, and that numbers are written compactly.
+   */
+  @Test
+  public void structureTest() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (JsonWriter json = new JsonWriter(out, 8)) { // small buffer forces several drains
+      json.beginObject()
+          .name("path").beginArray().value("A").value("B").endArray()
+          .name("seconds").beginArray().value(1.5).value(2.0).value(-30L).endArray()
+          .name("empty").beginArray().endArray()
+          .name("nested").beginObject().name("ok").value(true).endObject()
+          .name("missing").value(Double.POSITIVE_INFINITY)
+          .endObject();
+    }
+    Assertions.assertEquals("{\"path\":[\"A\",\"B\"],\"seconds\":[1.5,2,-30],\"empty\":[],"
+        + "\"nested\":{\"ok\":true},\"missing\":null}", out.toString(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * The escapeTest method checks that quotes, backslashes and control characters are escaped, and
+   * that non-ASCII text (including characters outside the basic plane) is encoded as UTF-8.
+   */
+  @Test
+  public void escapeTest() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    String text = "Bascom \"Hall\"\\\n\u0001 café → 🎓";
+    try (JsonWriter json = new JsonWriter(out)) {
+      json.value(text);
+    }
+    Assertions.assertEquals("\"Bascom \\\"Hall\\\"\\\\\\n\\u0001 café → 🎓\"",
+        out.toString(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,105 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Compares the nodes settled per point to point query and the wall time per
+ * query of a forward DijkstraGraph search and the landmark guided A* search
+ * of LandmarkDijkstraGraph, on the campus graph and on a synthetic grid the
+ * size of a small city. The time to choose landmarks and compute their
+ * tables is reported separately, since it is only paid once per reload.
+ * This is not run as part of the unit tests. After running mvn test-compile:
+ *
+ *     java -cp target/classes:target/test-classes LandmarkBenchmark [queries]
+ */
+public class LandmarkBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int queries = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+    System.out.printf("%-16s %-14s %12s %10s %14s%n", "graph", "engine", "settled/q", "us/q",
+        "preprocess ms");
+    DijkstraBenchmark.CountingDijkstraGraph<String> campus =
+        new DijkstraBenchmark.CountingDijkstraGraph<>();
+    new Backend(campus).loadGraphData("data/campus.dot");
+    CountingLandmarkGraph<String> guidedCampus = new CountingLandmarkGraph<>();
+    new Backend(guidedCampus).loadGraphData("data/campus.dot");
+    compare("campus", campus, guidedCampus,
+        DijkstraBenchmark.createPairs(campus.getAllNodes(), queries * 10, 15));
+
+    for (int side : new int[] {30, 300}) {
+      DijkstraBenchmark.CountingDijkstraGraph<Integer> grid =
+          new DijkstraBenchmark.CountingDijkstraGraph<>();
+      CountingLandmarkGraph<Integer> guidedGrid = new CountingLandmarkGraph<>();
+      DijkstraBenchmark.createGridGraph(grid, side, 1);
+      DijkstraBenchmark.createGridGraph(guidedGrid, side, 1);
+      compare("grid " + side + "x" + side, grid, guidedGrid,
+          DijkstraBenchmark.createPairs(grid.getAllNodes(), queries, 16));
+    }
+  }
+
+  // answers the same queries with both engines, after warming each one up
+  private static <T> void compare(String name, DijkstraBenchmark.CountingDijkstraGraph<T> forward,
+      CountingLandmarkGraph<T> guided, List<List<T>> pairs) {
+    long start = System.nanoTime();
+    guided.getLandmarks(); // computes the landmark tables
+    long preprocessNanos = System.nanoTime() - start;
+    for (int round = 0; round < 2; round++) { // the first round warms up
+      forward.pops = 0;
+      guided.pops = 0;
+      guided.heaps.clear();
+      start = System.nanoTime();
+      double forwardTotal = 0.0;
+      for (List<T> pair : pairs)
+        forwardTotal += cost(forward, pair);
+      long forwardNanos = System.nanoTime() - start;
+      start = System.nanoTime();
+      double guidedTotal = 0.0;
+      for (List<T> pair : pairs)
+        guidedTotal += cost(guided, pair);
+      long guidedNanos = System.nanoTime() - start;
+      if (forwardTotal != guidedTotal)
+        throw new IllegalStateException("Engines disagree on " + name);
+      if (round == 1) {
+        int n = pairs.size();
+        System.out.printf("%-16s %-14s %12.1f %10.1f %14s%n", name, "dijkstra",
+            (double) forward.pops / n, forwardNanos / 1e3 / n, "-");
+        System.out.printf("%-16s %-14s %12.1f %10.1f %14.1f%n", name, "landmarks",
+            (double) guided.pops / n, guidedNanos / 1e3 / n, preprocessNanos / 1e6);
+      }
+    }
+  }
+
+  private static <T> double cost(DijkstraGraph<T, Double> graph, List<T> pair) {
+    try {
+      return graph.shortestPathCost(pair.get(0), pair.get(1));
+    } catch (NoSuchElementException e) {
+      return 0.0;
+    }
+  }
+
+  // counts the nodes settled by the heap of each query
+  static class CountingLandmarkGraph<T> extends LandmarkDijkstraGraph<T, Double> {
+    long pops;
+    final List<IndexedDaryHeap> heaps = new ArrayList<>();
+
+    @Override
+    protected IndexedDaryHeap createHeap(int capacity) {
+      IndexedDaryHeap heap = super.createHeap(capacity);
+      heaps.add(heap);
+      return heap;
+    }
+
+    @Override
+    public double shortestPathCost(T start, T end) {
+      try {
+        return super.shortestPathCost(start, end);
+      } finally {
+        for (IndexedDaryHeap heap : heaps)
+          pops += heap.getPopCount();
+        heaps.clear();
+      }
+    }
+  }
+}
@@ -0,0 +1,87 @@
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LandmarkDijkstraGraphTests {
+
+  /**
+   * The randomGraphTest method checks that the landmark guided search finds paths of exactly the
+   * same cost as a forward search between every pair of nodes in sparse random graphs, which
+   * include zero weight edges and unreachable pairs, for several numbers of landmarks.
+   */
+  @Test
+  public void randomGraphTest() {
+    for (int landmarks : new int[] {1, 3, 8}) {
+      DijkstraGraph<Integer, Integer> forward = new DijkstraGraph<>();
+      LandmarkDijkstraGraph<Integer, Integer> guided = new LandmarkDijkstraGraph<>(landmarks);
+      RandomGraphs.createIntegerGraph(forward, 50, 110, landmarks);
+      RandomGraphs.createIntegerGraph(guided, 50, 110, landmarks);
+      Assertions.assertEquals(landmarks, guided.getLandmarks().size());
+      for (int start = 0; start < 50; start++) {
+        for (int end = 0; end < 50; end++) {
+          try {
+            double expected = forward.shortestPathCost(start, end);
+            Assertions.assertEquals(expected, guided.shortestPathCost(start, end));
+            List<Integer> path = guided.shortestPathData(start, end);
+            Assertions.assertEquals(end, path.get(path.size() - 1));
+          } catch (NoSuchElementException e) {
+            final int s = start;
+            final int t = end;
+            Assertions.assertThrows(NoSuchElementException.class,
+                () -> guided.shortestPathCost(s, t));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * The rebuildTest method checks that the landmark tables are recomputed after the graph
+   * changes, so that a newly inserted shortcut is found rather than ruled out by stale bounds.
+   */
+  @Test
+  public void rebuildTest() {
+    LandmarkDijkstraGraph<String, Integer> graph = new LandmarkDijkstraGraph<>(2);
+    for (String node : new String[] {"A", "B", "C", "D"}) {
+      graph.insertNode(node);
+    }
+    graph.insertEdge("A", "B", 10);
+    graph.insertEdge("B", "C", 10);
+    graph.insertEdge("C", "D", 10);
+    graph.insertEdge("D", "A", 10);
+    Assertions.assertEquals(30, graph.shortestPathCost("A", "D"));
+    graph.insertEdge("A", "D", 1);
+    Assertions.assertEquals(1, graph.shortestPathCost("A", "D"));
+    Assertions.assertEquals(List.of("A", "D"), graph.shortestPathData("A", "D"));
+    graph.removeNode("D");
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathCost("A", "D"));
+    Assertions.assertEquals(20, graph.shortestPathCost("A", "C"));
+  }
+
+  /**
+   * The staleBoundTest method checks that the landmark tables are also recomputed after an edge's
+   * weight is lowered or an edge is removed, so that no path is ruled out or in by stale bounds.
+   */
+  @Test
+  public void staleBoundTest() {
+    LandmarkDijkstraGraph<String, Integer> graph = new LandmarkDijkstraGraph<>(2);
+    for (String node : new String[] {"A", "B", "C", "D", "E"}) {
+      graph.insertNode(node);
+    }
+    graph.insertEdge("A", "B", 0);
+    graph.insertEdge("B", "C", 0);
+    graph.insertEdge("C", "D", 12);
+    graph.insertEdge("A", "D", 20);
+    graph.insertEdge("E", "A", 4);
+    Assertions.assertEquals(16, graph.shortestPathCost("E", "D"));
+    graph.insertEdge("A", "D", 5); // replaces the weight of 20
+    Assertions.assertEquals(List.of("A", "D"), graph.shortestPathData("A", "D"));
+    Assertions.assertEquals(9, graph.shortestPathCost("E", "D"));
+    graph.removeEdge("A", "D");
+    Assertions.assertEquals(List.of("E", "A", "B", "C", "D"), graph.shortestPathData("E", "D"));
+    graph.removeEdge("B", "C");
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathCost("A", "D"));
+  }
+
+}
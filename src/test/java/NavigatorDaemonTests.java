@@ -0,0 +1,81 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class NavigatorDaemonTests {
+
+  @TempDir
+  Path directory;
+
+  /**
+   * The forwardTest method checks that a query forwarded to a running daemon is answered by its
+   * responder, and that forwarding reports failure (without writing anything) once the daemon has
+   * been closed and its socket removed.
+   */
+  @Test
+  public void forwardTest() throws IOException {
+    Path socket = directory.resolve("test.sock");
+    NavigatorDaemon daemon = new NavigatorDaemon(socket, null,
+        (query, out) -> out.write(("<p>" + query + "</p>").getBytes(StandardCharsets.UTF_8)));
+    daemon.start();
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      Assertions.assertTrue(NavigatorDaemon.forward(socket, "from=Union%20South", out));
+      Assertions.assertEquals("<p>from=Union%20South</p>", out.toString(StandardCharsets.UTF_8));
+      // a second daemon cannot take over a socket that is still in use
+      Assertions.assertThrows(IOException.class, () -> new NavigatorDaemon(socket, null,
+          (query, out2) -> {}));
+    } finally {
+      daemon.close();
+    }
+    Assertions.assertFalse(Files.exists(socket));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Assertions.assertFalse(NavigatorDaemon.forward(socket, "from=Union%20South", out));
+    Assertions.assertEquals(0, out.size());
+  }
+
+  /**
+   * The staleSocketTest method checks that a daemon replaces a socket file left behind by one
+   * that exited without closing, and that a client falls back when the daemon answers nothing.
+   */
+  @Test
+  public void staleSocketTest() throws IOException {
+    Path socket = directory.resolve("stale.sock");
+    Files.createFile(socket);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Assertions.assertFalse(NavigatorDaemon.forward(socket, "", out));
+    try (NavigatorDaemon daemon = new NavigatorDaemon(socket, null, (query, page) -> {})) {
+      daemon.start();
+      Assertions.assertFalse(NavigatorDaemon.forward(socket, "", out));
+      Assertions.assertEquals(0, out.size());
+    }
+  }
+
+  /**
+   * The mainTest method checks that the cgi client copies the page of a daemon listening on the
+   * configured socket to standard out.
+   */
+  @Test
+  public void mainTest() throws IOException {
+    Path socket = directory.resolve("main.sock");
+    PrintStream stdout = System.out;
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (NavigatorDaemon daemon = new NavigatorDaemon(socket, null,
+        (query, page) -> page.write(("<p>" + query + "</p>").getBytes(StandardCharsets.UTF_8)))) {
+      daemon.start();
+      System.setProperty(NavigatorDaemon.SOCKET_PROPERTY, socket.toString());
+      System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+      NavigatorDaemon.main(new String[] {"from=Memorial%20Union"});
+    } finally {
+      System.setOut(stdout);
+      System.clearProperty(NavigatorDaemon.SOCKET_PROPERTY);
+    }
+    Assertions.assertEquals("<p>from=Memorial%20Union</p>", out.toString(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,99 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class NodeDictionaryTests {
+
+  /**
+   * The addTest method checks that data is numbered in the order it is added, that adding data
+   * again returns its existing id, and that ids and data can be found from each other.
+   */
+  @Test
+  public void addTest() {
+    NodeDictionary<String> dictionary = new NodeDictionary<>(1);
+    Assertions.assertEquals(0, dictionary.add("Atmospheric, Oceanic and Space Sciences"));
+    Assertions.assertEquals(1, dictionary.add("Bascom Hall"));
+    Assertions.assertEquals(2, dictionary.add("Memorial Union"));
+    Assertions.assertEquals(1, dictionary.add(new String("Bascom Hall")));
+    Assertions.assertEquals(3, dictionary.size());
+    Assertions.assertEquals(2, dictionary.getId("Memorial Union"));
+    Assertions.assertEquals(-1, dictionary.getId("Union South"));
+    Assertions.assertEquals("Bascom Hall", dictionary.getData(1));
+    Assertions.assertThrows(NoSuchElementException.class, () -> dictionary.getData(3));
+    Assertions.assertThrows(NullPointerException.class, () -> dictionary.add(null));
+  }
+
+  /**
+   * The removeTest method checks that removing data moves the data with the highest id into the
+   * removed id, and that every id stays findable through many random additions and removals,
+   * including data whose hash codes collide.
+   */
+  @Test
+  public void removeTest() {
+    NodeDictionary<String> dictionary = new NodeDictionary<>();
+    dictionary.add("A");
+    dictionary.add("B");
+    dictionary.add("C");
+    Assertions.assertEquals(0, dictionary.remove("A"));
+    Assertions.assertEquals("C", dictionary.getData(0));
+    Assertions.assertEquals(0, dictionary.getId("C"));
+    Assertions.assertEquals(-1, dictionary.remove("A"));
+    Assertions.assertEquals(1, dictionary.remove("B"));
+    Assertions.assertEquals(1, dictionary.size());
+
+    // "Aa" and "BB" have the same hash code, as do any strings made of them
+    NodeDictionary<String> random = new NodeDictionary<>();
+    List<String> ids = new ArrayList<>();
+    Map<String, Integer> expected = new HashMap<>();
+    Random rng = new Random(22);
+    for (int i = 0; i < 5000; i++) {
+      String data = (rng.nextBoolean() ? "Aa" : "BB") + (rng.nextBoolean() ? "Aa" : "BB")
+          + rng.nextInt(300);
+      if (rng.nextInt(3) == 0) {
+        Integer id = expected.remove(data);
+        Assertions.assertEquals(id == null ? -1 : id, random.remove(data));
+        if (id != null) {
+          String last = ids.remove(ids.size() - 1);
+          if (id < ids.size()) {
+            ids.set(id, last);
+            expected.put(last, id);
+          }
+        }
+      } else if (!expected.containsKey(data)) {
+        expected.put(data, ids.size());
+        ids.add(data);
+        Assertions.assertEquals(ids.size() - 1, random.add(data));
+      }
+      Assertions.assertEquals(ids.size(), random.size());
+    }
+    for (int id = 0; id < ids.size(); id++) {
+      Assertions.assertEquals(ids.get(id), random.getData(id));
+      Assertions.assertEquals(id, random.getId(ids.get(id)));
+    }
+  }
+
+  /**
+   * The copyTest method checks that a copy finds the same data under the same ids as the
+   * dictionary it was copied from, and that later changes to either one leave the other alone.
+   */
+  @Test
+  public void copyTest() {
+    NodeDictionary<String> dictionary = new NodeDictionary<>();
+    dictionary.add("Bascom Hall");
+    dictionary.add("Memorial Union");
+    NodeDictionary<String> copy = new NodeDictionary<>(dictionary);
+    dictionary.remove("Bascom Hall");
+    Assertions.assertEquals(2, copy.add("Union South"));
+    Assertions.assertEquals(0, copy.getId("Bascom Hall"));
+    Assertions.assertEquals("Memorial Union", copy.getData(1));
+    Assertions.assertEquals(-1, dictionary.getId("Union South"));
+    Assertions.assertEquals(0, dictionary.getId("Memorial Union"));
+    Assertions.assertEquals(3, new NodeDictionary<>(copy).size());
+    Assertions.assertEquals(0, new NodeDictionary<>(new NodeDictionary<String>()).add("A"));
+  }
+}
@@ -0,0 +1,51 @@
+import java.util.Random;
+
+/**
+ * Fills graphs with the same sparse random directed graph for any given seed, so that tests can
+ * compare each search engine with a plain DijkstraGraph built from the same seed. Nodes are
+ * numbered from 0, and edges join random pairs of them, so these graphs include loops, zero
+ * weight edges and pairs of nodes that cannot reach each other.
+ */
+public class RandomGraphs {
+
+  private RandomGraphs() {}
+
+  /**
+   * Fills graph with nodes 0 to nodes - 1, and edges whose weights are whole numbers from 0 to 19.
+   *
+   * @param graph the empty graph to fill
+   * @param nodes the number of nodes to insert
+   * @param edges the number of random edges to insert, some of which replace earlier ones
+   * @param seed  the seed that decides every edge
+   */
+  public static void createIntegerGraph(DijkstraGraph<Integer, Integer> graph, int nodes,
+      int edges, long seed) {
+    Random random = new Random(seed);
+    for (int i = 0; i < nodes; i++) {
+      graph.insertNode(i);
+    }
+    for (int i = 0; i < edges; i++) {
+      graph.insertEdge(random.nextInt(nodes), random.nextInt(nodes), random.nextInt(20));
+    }
+  }
+
+  /**
+   * Fills graph with nodes 0 to nodes - 1, and edges whose weights are multiples of a tenth from
+   * 0 to 19.9.
+   *
+   * @param graph the empty graph to fill
+   * @param nodes the number of nodes to insert
+   * @param edges the number of random edges to insert, some of which replace earlier ones
+   * @param seed  the seed that decides every edge
+   */
+  public static void createDoubleGraph(DijkstraGraph<Integer, Double> graph, int nodes,
+      int edges, long seed) {
+    Random random = new Random(seed);
+    for (int i = 0; i < nodes; i++) {
+      graph.insertNode(i);
+    }
+    for (int i = 0; i < edges; i++) {
+      graph.insertEdge(random.nextInt(nodes), random.nextInt(nodes), random.nextInt(200) / 10.0);
+    }
+  }
+}
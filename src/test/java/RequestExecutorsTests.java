@@ -0,0 +1,76 @@
+import java.util.concurrent.ExecutorService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RequestExecutorsTests {
+
+  /**
+   * The parseModeTest method checks that mode names are matched regardless of case, surrounding
+   * spaces, or dashes in place of underscores, and that unknown names are rejected.
+   */
+  @Test
+  public void parseModeTest() {
+    Assertions.assertEquals(RequestExecutors.Mode.WORK_STEALING,
+        RequestExecutors.parseMode("work-stealing"));
+    Assertions.assertEquals(RequestExecutors.Mode.WORK_STEALING,
+        RequestExecutors.parseMode("WORK_STEALING"));
+    Assertions.assertEquals(RequestExecutors.Mode.VIRTUAL, RequestExecutors.parseMode(" Virtual "));
+    Assertions.assertEquals(RequestExecutors.Mode.DISPATCHER,
+        RequestExecutors.parseMode("dispatcher"));
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> RequestExecutors.parseMode("threads"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> RequestExecutors.parseMode(""));
+  }
+
+  /**
+   * The backlogTest method checks that the backlog defaults to DEFAULT_BACKLOG, that positive
+   * values are read, and that non-positive values and junk are rejected.
+   */
+  @Test
+  public void backlogTest() {
+    String previous = System.getProperty(RequestExecutors.BACKLOG_PROPERTY);
+    try {
+      System.clearProperty(RequestExecutors.BACKLOG_PROPERTY);
+      Assertions.assertEquals(RequestExecutors.DEFAULT_BACKLOG,
+          RequestExecutors.getConfiguredBacklog());
+      System.setProperty(RequestExecutors.BACKLOG_PROPERTY, " 256 ");
+      Assertions.assertEquals(256, RequestExecutors.getConfiguredBacklog());
+      for (String value : new String[] {"0", "-5", "lots", "12.5"}) {
+        System.setProperty(RequestExecutors.BACKLOG_PROPERTY, value);
+        Assertions.assertThrows(IllegalArgumentException.class,
+            RequestExecutors::getConfiguredBacklog);
+      }
+    } finally {
+      if (previous == null) {
+        System.clearProperty(RequestExecutors.BACKLOG_PROPERTY);
+      } else {
+        System.setProperty(RequestExecutors.BACKLOG_PROPERTY, previous);
+      }
+    }
+  }
+
+  /**
+   * The createTest method checks that the DISPATCHER mode creates no executor, so that the
+   * HttpServer keeps its own thread, that every other mode creates one that runs tasks, and that
+   * getSupportedMode only changes virtual threads, on a JVM without them.
+   */
+  @Test
+  public void createTest() throws Exception {
+    Assertions.assertNull(RequestExecutors.create(RequestExecutors.Mode.DISPATCHER));
+    for (RequestExecutors.Mode mode : RequestExecutors.Mode.values()) {
+      if (mode == RequestExecutors.Mode.DISPATCHER) {
+        continue;
+      }
+      ExecutorService executor = RequestExecutors.create(mode);
+      try {
+        Assertions.assertEquals(mode.name(), executor.submit(mode::name).get());
+      } finally {
+        executor.shutdown();
+      }
+      RequestExecutors.Mode expected = mode == RequestExecutors.Mode.VIRTUAL
+          && !RequestExecutors.isVirtualThreadSupported()
+          ? RequestExecutors.Mode.WORK_STEALING : mode;
+      Assertions.assertEquals(expected, RequestExecutors.getSupportedMode(mode));
+    }
+  }
+}
@@ -0,0 +1,55 @@
+import java.io.IOException;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ResponseCacheTests {
+
+  private static final HtmlTemplate PAGE = new HtmlTemplate("<p><!-- R --></p>", "<!-- R -->");
+
+  private static byte[] value(int value) {
+    return HtmlTemplate.encode(Integer.toString(value));
+  }
+
+  /**
+   * The evictionTest method checks that the least recently used response is evicted once the
+   * cache is full, and that equivalent queries share one key.
+   */
+  @Test
+  public void evictionTest() throws IOException {
+    ResponseCache cache = new ResponseCache(2);
+    cache.put("a", 1, PAGE, value(1));
+    cache.put("b", 1, PAGE, value(2));
+    Assertions.assertNotNull(cache.get("a", 1)); // a is now more recently used than b
+    cache.put("c", 1, PAGE, value(3));
+    Assertions.assertNull(cache.get("b", 1));
+    Assertions.assertNotNull(cache.get("a", 1));
+    Assertions.assertNotNull(cache.get("c", 1));
+    Assertions.assertEquals(ResponseCache.key(Map.of("end", "B", "start", "A", "x", "1")),
+        ResponseCache.key(Map.of("start", "A", "end", "B")));
+  }
+
+  /**
+   * The versionTest method checks that a newer graph version invalidates every cached response,
+   * that responses from an older version are never cached, and that entity tags change along
+   * with the version and bytes of a response.
+   */
+  @Test
+  public void versionTest() throws IOException {
+    ResponseCache cache = new ResponseCache(8);
+    ResponseCache.Entry first = cache.put("a", 1, PAGE, value(1));
+    Assertions.assertTrue(first.matches("\"x\", " + first.getETag(false), false));
+    Assertions.assertTrue(first.matches("W/" + first.getETag(false), false));
+    Assertions.assertFalse(first.matches(null, false));
+    // the gzip representation of a response has its own entity tag
+    Assertions.assertFalse(first.matches(first.getETag(false), true));
+    Assertions.assertTrue(first.matches(first.getETag(true), true));
+    Assertions.assertNull(cache.get("a", 2));
+    Assertions.assertEquals(0, cache.size());
+    ResponseCache.Entry second = cache.put("a", 2, PAGE, value(1));
+    Assertions.assertNotEquals(first.getETag(false), second.getETag(false));
+    cache.put("b", 1, PAGE, value(2)); // rendered before the reload
+    Assertions.assertNull(cache.get("b", 2));
+    Assertions.assertSame(second, cache.get("a", 2));
+  }
+}
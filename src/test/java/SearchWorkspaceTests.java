@@ -0,0 +1,69 @@
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SearchWorkspaceTests {
+
+  /**
+   * The beginTest method checks that beginning a new search forgets every index reached by the
+   * previous one, along with anything left in the heap, without reallocating any of its state.
+   */
+  @Test
+  public void beginTest() {
+    IndexedDaryHeap heap = new IndexedDaryHeap(5);
+    SearchWorkspace workspace = new SearchWorkspace(heap);
+    Assertions.assertEquals(5, workspace.getCapacity());
+    workspace.begin();
+    workspace.reach(0, 0.0, -1, 0.0);
+    workspace.reach(3, 2.5, 0, 2.5);
+    heap.push(3, 2.5);
+    Assertions.assertTrue(workspace.isReached(3));
+    Assertions.assertEquals(2.5, workspace.getCost(3));
+    Assertions.assertEquals(0, workspace.getPredecessor(3));
+    Assertions.assertEquals(2.5, workspace.getWeight(3));
+    Assertions.assertFalse(workspace.isReached(1));
+    Assertions.assertEquals(Double.POSITIVE_INFINITY, workspace.getCost(1));
+
+    workspace.begin();
+    Assertions.assertSame(heap, workspace.getHeap());
+    Assertions.assertTrue(heap.isEmpty());
+    for (int i = 0; i < 5; i++) {
+      Assertions.assertFalse(workspace.isReached(i));
+      Assertions.assertEquals(Double.POSITIVE_INFINITY, workspace.getCost(i));
+    }
+    workspace.reach(3, 1.0, 4, 1.0);
+    Assertions.assertEquals(1.0, workspace.getCost(3));
+    Assertions.assertEquals(4, workspace.getPredecessor(3));
+  }
+
+  /**
+   * The reuseTest method checks that a graph answers many queries, before and after nodes are
+   * added to it, exactly as it answers each of them on its own.
+   */
+  @Test
+  public void reuseTest() {
+    DijkstraGraph<String, Integer> graph = new DijkstraGraph<>();
+    for (String node : new String[] {"A", "B", "C"}) {
+      graph.insertNode(node);
+    }
+    graph.insertEdge("A", "B", 2);
+    graph.insertEdge("B", "C", 3);
+    graph.insertEdge("A", "C", 7);
+    for (int i = 0; i < 3; i++) {
+      Assertions.assertEquals(5, graph.shortestPathCost("A", "C"));
+      Assertions.assertEquals(3, graph.shortestPathCost("B", "C"));
+      Assertions.assertThrows(NoSuchElementException.class,
+          () -> graph.shortestPathCost("C", "A"));
+    }
+    // a larger graph needs a larger workspace
+    graph.insertNode("D");
+    graph.insertEdge("C", "D", 1);
+    graph.insertEdge("D", "A", 1);
+    Assertions.assertEquals(2, graph.shortestPathCost("C", "A"));
+    Assertions.assertEquals(List.of("B", "C", "D", "A"),
+        graph.shortestPathData("B", "A"));
+    Assertions.assertArrayEquals(new double[] {0, 2, 5, 6},
+        graph.shortestPathCosts("A", List.of("A", "B", "C", "D")));
+  }
+}
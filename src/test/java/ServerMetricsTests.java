@@ -0,0 +1,58 @@
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ServerMetricsTests {
+
+  /**
+   * The countTest method checks that requests are counted by route and kind, that any request
+   * answered with an error status is counted as an error instead, and that every request adds
+   * one sample to the cumulative histogram of each phase.
+   */
+  @Test
+  public void countTest() {
+    ServerMetrics metrics = new ServerMetrics(() -> null);
+    ServerMetrics.Route route = metrics.route("/a");
+    Assertions.assertSame(route, metrics.route("/a"));
+    route.begin().end(ServerMetrics.Kind.SHORTEST_PATH, 200);
+    route.begin().end(ServerMetrics.Kind.SHORTEST_PATH, 200);
+    route.begin().end(ServerMetrics.Kind.FURTHEST, 404);
+    Assertions.assertEquals(2, route.getCount(ServerMetrics.Kind.SHORTEST_PATH));
+    Assertions.assertEquals(0, route.getCount(ServerMetrics.Kind.FURTHEST));
+    Assertions.assertEquals(1, route.getCount(ServerMetrics.Kind.ERROR));
+    String text = metrics.format();
+    Assertions.assertTrue(text.contains(
+        "campuspath_requests_total{route=\"/a\",kind=\"shortest_path\"} 2\n"));
+    Assertions.assertTrue(text.contains(
+        "campuspath_request_phase_seconds_bucket{route=\"/a\",phase=\"search\","
+            + "le=\"0.000001\"} 3\n"));
+    Assertions.assertTrue(text.contains(
+        "campuspath_request_phase_seconds_count{route=\"/a\",phase=\"render\"} 3\n"));
+    Assertions.assertFalse(text.contains("campuspath_graph_nodes"));
+  }
+
+  /**
+   * The meterTest method checks that time spent in a metered backend is only attributed to a
+   * request while that request is being timed, and that graph sizes are reported.
+   */
+  @Test
+  public void meterTest() {
+    Backend backend = new Backend(new DijkstraGraph<>());
+    BackendInterface metered = ServerMetrics.meter(backend);
+    ServerMetrics metrics = new ServerMetrics(() -> metered);
+    // calls made while no request is being timed are simply passed through
+    Assertions.assertEquals(0, metered.findShortestPathCosts(List.of(), List.of()).length);
+    ServerMetrics.Route route = metrics.route("/b");
+    ServerMetrics.Request request = route.begin();
+    ServerMetrics.endParse();
+    metered.findShortestPathCosts(List.of("x"), List.of("y"));
+    request.end(ServerMetrics.Kind.SHORTEST_PATH, 200);
+    String text = metrics.format();
+    Assertions.assertTrue(text.contains(
+        "campuspath_request_phase_seconds_count{route=\"/b\",phase=\"search\"} 1\n"));
+    Assertions.assertFalse(text.contains(
+        "campuspath_request_phase_seconds_sum{route=\"/b\",phase=\"search\"} 0.000000000\n"));
+    Assertions.assertTrue(text.contains("campuspath_graph_nodes 0\n"));
+    Assertions.assertTrue(text.contains("campuspath_graph_edges 0\n"));
+  }
+}
@@ -0,0 +1,117 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Compares two ways of closing and reopening walkways while queries keep running: publishing
+ * each edit as the next version of a VersionedGraph, against making the edit to a DijkstraGraph
+ * and then freezing a whole new CompressedGraph snapshot for readers. It reports the wall time
+ * per published edit, and the time per point to point query on the published graphs, on the
+ * campus graph and on synthetic grids. Both must agree on the total cost of all queries. This
+ * is not run as part of the unit tests. After running mvn test-compile:
+ *
+ *     java -cp target/classes:target/test-classes VersionedGraphBenchmark [edits]
+ */
+public class VersionedGraphBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int edits = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+    System.out.printf("%-16s %-12s %12s %10s%n", "graph", "publishing", "us/edit", "us/q");
+    DijkstraGraph<String, Double> campus = new DijkstraGraph<>();
+    new Backend(campus).loadGraphData("data/campus.dot");
+    compare("campus", campus, edits, 2000);
+    for (int side : new int[] {100, 300}) {
+      DijkstraGraph<Integer, Double> grid = new DijkstraGraph<>();
+      DijkstraBenchmark.createGridGraph(grid, side, 1);
+      compare("grid " + side + "x" + side, grid, edits, 200);
+    }
+  }
+
+  // closes and reopens walkways in graph, by publishing versions and by freezing snapshots, and
+  // then answers the same queries with the last of each
+  private static <T> void compare(String name, DijkstraGraph<T, Double> graph, int edits,
+      int queries) {
+    List<List<T>> pairs = DijkstraBenchmark.createPairs(graph.getAllNodes(), queries, 25);
+    List<List<T>> walkways = findEdges(graph, pairs);
+    VersionedGraph<T> versioned = new VersionedGraph<>(graph);
+    double[] versionedMicros = new double[2];
+    double[] frozenMicros = new double[2];
+    for (int round = 0; round < 2; round++) { // the first round warms up
+      long start = System.nanoTime();
+      for (int i = 0; i < edits; i++) {
+        List<T> walkway = walkways.get(i % walkways.size());
+        versioned.update(editor -> toggle(editor, walkway.get(0), walkway.get(1)));
+      }
+      versionedMicros[0] = (System.nanoTime() - start) / 1e3 / edits;
+      CompressedGraph<T> snapshot = null;
+      start = System.nanoTime();
+      for (int i = 0; i < edits; i++) {
+        List<T> walkway = walkways.get(i % walkways.size());
+        T pred = walkway.get(0);
+        T succ = walkway.get(1);
+        if (graph.containsEdge(pred, succ)) {
+          graph.removeEdge(pred, succ);
+          graph.removeEdge(succ, pred);
+        } else {
+          graph.insertEdge(pred, succ, 60.0);
+          graph.insertEdge(succ, pred, 60.0);
+        }
+        snapshot = graph.freeze();
+      }
+      frozenMicros[0] = (System.nanoTime() - start) / 1e3 / edits;
+      double expected = time(snapshot, pairs, frozenMicros);
+      if (time(versioned.pin(), pairs, versionedMicros) != expected)
+        throw new IllegalStateException("The versions disagree on " + name);
+    }
+    System.out.printf("%-16s %-12s %12.1f %10.1f%n", name, "versioned", versionedMicros[0],
+        versionedMicros[1]);
+    System.out.printf("%-16s %-12s %12.1f %10.1f%n", name, "frozen", frozenMicros[0],
+        frozenMicros[1]);
+  }
+
+  // closes the walkway between pred and succ in both directions when it is open, and otherwise
+  // opens it again with a weight of 60 seconds
+  private static <T> void toggle(VersionedGraph.Editor<T> editor, T pred, T succ) {
+    if (editor.removeEdge(pred, succ)) {
+      editor.removeEdge(succ, pred);
+    } else {
+      editor.insertEdge(pred, succ, 60.0);
+      editor.insertEdge(succ, pred, 60.0);
+    }
+  }
+
+  // the edges along the shortest path between each pair, which are walkways that queries use
+  private static <T> List<List<T>> findEdges(DijkstraGraph<T, Double> graph,
+      List<List<T>> pairs) {
+    List<List<T>> edges = new ArrayList<>();
+    for (List<T> pair : pairs) {
+      try {
+        List<T> path = graph.shortestPathData(pair.get(0), pair.get(1));
+        for (int i = 0; i + 1 < path.size(); i++)
+          edges.add(List.of(path.get(i), path.get(i + 1)));
+      } catch (NoSuchElementException e) {
+        // unreachable pairs have no edges to use
+      }
+    }
+    return edges;
+  }
+
+  // answers every pair's query, stores the time per query in micros[1], and returns the total
+  // cost of all of them
+  private static <T> double time(GraphADT<T, Double> graph, List<List<T>> pairs,
+      double[] micros) {
+    long start = System.nanoTime();
+    double total = 0.0;
+    for (List<T> pair : pairs) {
+      try {
+        total += graph.shortestPathCost(pair.get(0), pair.get(1));
+      } catch (NoSuchElementException e) {
+        // unreachable pairs add nothing
+      }
+    }
+    micros[1] = (System.nanoTime() - start) / 1e3 / pairs.size();
+    return total;
+  }
+}
@@ -0,0 +1,161 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class VersionedGraphTests {
+
+  // checks that version has exactly the nodes, edges and shortest path costs of graph, between
+  // every pair of nodes in all, which includes nodes that neither of them have
+  private static void assertSameGraph(DijkstraGraph<Integer, Double> graph,
+      VersionedGraph.Version<Integer> version, List<Integer> all) {
+    Assertions.assertEquals(graph.getNodeCount(), version.getNodeCount());
+    Assertions.assertEquals(graph.getEdgeCount(), version.getEdgeCount());
+    Assertions.assertEquals(graph.getNodeCount(), version.getAllNodes().size());
+    Assertions.assertArrayEquals(graph.shortestPathCostMatrix(all, all),
+        version.shortestPathCostMatrix(all, all));
+    for (int pred : all) {
+      Assertions.assertEquals(graph.containsNode(pred), version.containsNode(pred));
+      for (int succ : all) {
+        Assertions.assertEquals(graph.containsEdge(pred, succ), version.containsEdge(pred, succ));
+        if (graph.containsEdge(pred, succ)) {
+          Assertions.assertEquals(graph.getEdge(pred, succ), version.getEdge(pred, succ));
+        }
+      }
+    }
+  }
+
+  /**
+   * The editTest method checks that each version of a graph matches a DijkstraGraph given the
+   * same random batches of edits, including inserted and removed nodes, that a pinned version
+   * keeps the graph it had when it was published, and that versions are numbered in order.
+   */
+  @Test
+  public void editTest() {
+    Random random = new Random(25);
+    DijkstraGraph<Integer, Double> graph = new DijkstraGraph<>();
+    for (int i = 0; i < 100; i++) {
+      graph.insertNode(i);
+    }
+    for (int i = 0; i < 300; i++) {
+      graph.insertEdge(random.nextInt(100), random.nextInt(100), random.nextInt(200) / 10.0);
+    }
+    VersionedGraph<Integer> versioned = new VersionedGraph<>(graph);
+    List<Integer> all = new ArrayList<>();
+    for (int i = 0; i < 110; i++) {
+      all.add(i);
+    }
+    assertSameGraph(graph, versioned.pin(), all);
+
+    for (int batch = 1; batch <= 20; batch++) {
+      VersionedGraph.Version<Integer> pinned = versioned.pin();
+      CompressedGraph<Integer> before = graph.freeze();
+      VersionedGraph.Version<Integer> next = versioned.update(editor -> {
+        for (int i = 0; i < 15; i++) {
+          int pred = random.nextInt(110);
+          int succ = random.nextInt(110);
+          switch (random.nextInt(6)) {
+            case 0:
+              Assertions.assertEquals(graph.insertNode(pred), editor.insertNode(pred));
+              break;
+            case 1:
+              Assertions.assertEquals(graph.removeNode(pred), editor.removeNode(pred));
+              break;
+            case 2:
+              Assertions.assertEquals(graph.removeEdge(pred, succ), editor.removeEdge(pred, succ));
+              break;
+            default:
+              double weight = random.nextInt(200) / 10.0;
+              Assertions.assertEquals(graph.insertEdge(pred, succ, weight),
+                  editor.insertEdge(pred, succ, weight));
+          }
+        }
+      });
+      Assertions.assertEquals(batch, next.getVersion());
+      Assertions.assertSame(next, versioned.pin());
+      assertSameGraph(graph, next, all);
+      Assertions.assertEquals(batch - 1, pinned.getVersion());
+      Assertions.assertEquals(before.getEdgeCount(), pinned.getEdgeCount());
+      Assertions.assertArrayEquals(before.shortestPathCostMatrix(all, all),
+          pinned.shortestPathCostMatrix(all, all));
+    }
+
+    // edits that change nothing publish nothing, and editors cannot be used afterwards
+    AtomicReference<VersionedGraph.Editor<Integer>> escaped = new AtomicReference<>();
+    VersionedGraph.Version<Integer> latest = versioned.pin();
+    Assertions.assertSame(latest, versioned.update(editor -> {
+      escaped.set(editor);
+      editor.removeEdge(-1, -2);
+    }));
+    Assertions.assertThrows(IllegalStateException.class, () -> escaped.get().insertNode(-1));
+    Assertions.assertThrows(UnsupportedOperationException.class, () -> latest.insertNode(-1));
+
+    // a node that is removed and then inserted again keeps its place among the nodes
+    List<Integer> nodes = latest.getAllNodes();
+    versioned.update(editor -> {
+      editor.removeNode(nodes.get(0));
+      editor.insertNode(nodes.get(0));
+    });
+    Assertions.assertEquals(nodes, versioned.pin().getAllNodes());
+    Assertions.assertEquals(nodes, latest.getAllNodes());
+  }
+
+  /**
+   * The concurrentQueryTest method checks that queries running while a walkway is closed and
+   * reopened over and over always find the cost of the version they report, without ever seeing
+   * an edit half made.
+   */
+  @Test
+  public void concurrentQueryTest() throws InterruptedException {
+    VersionedGraph<String> versioned = new VersionedGraph<>();
+    versioned.update(editor -> {
+      for (String node : new String[] {"A", "B", "C"}) {
+        editor.insertNode(node);
+      }
+      editor.insertEdge("A", "B", 2.0);
+      editor.insertEdge("B", "C", 3.0);
+      editor.insertEdge("A", "C", 9.0);
+    });
+    // odd versions have the walkway from B to C, and even versions are missing it
+    Thread writer = new Thread(() -> {
+      for (int i = 0; i < 500; i++) {
+        versioned.update(editor -> {
+          if (!editor.removeEdge("B", "C")) {
+            editor.insertEdge("B", "C", 3.0);
+          }
+        });
+      }
+    });
+    List<Throwable> failures = new ArrayList<>();
+    List<Thread> readers = new ArrayList<>();
+    for (int r = 0; r < 3; r++) {
+      readers.add(new Thread(() -> {
+        try {
+          while (versioned.getVersion() < 501) {
+            VersionedGraph.Result<ShortestPath<String>> result = versioned.shortestPath("A", "C");
+            double expected = result.getVersion() % 2 == 1 ? 5.0 : 9.0;
+            Assertions.assertEquals(expected, result.getValue().getCost());
+            Assertions.assertEquals(expected == 5.0 ? 3 : 2, result.getValue().size());
+          }
+        } catch (Throwable e) {
+          synchronized (failures) {
+            failures.add(e);
+          }
+        }
+      }));
+    }
+    readers.forEach(Thread::start);
+    writer.start();
+    writer.join();
+    for (Thread reader : readers) {
+      reader.join();
+    }
+    Assertions.assertEquals(List.of(), failures);
+    Assertions.assertEquals(501, versioned.getVersion());
+    Assertions.assertEquals(5.0, versioned.shortestPathCost("A", "C").getValue());
+    Assertions.assertThrows(NoSuchElementException.class, () -> versioned.shortestPath("C", "A"));
+  }
+}
@@ -0,0 +1,147 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Measures the throughput and latency of WebApp when running its requests in
+ * each of the RequestExecutors modes, under the same concurrent load: a mix
+ * of shortest path queries and the much slower furthest destination queries.
+ * This is not run as part of the unit tests. After running mvn test-compile:
+ *
+ *     java -cp target/classes:target/test-classes WebAppBenchmark [clients] [requests]
+ */
+public class WebAppBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+    int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+    // answer requests using the campus graph, and a minimal page template
+    Path template = Files.createTempFile("template", ".html");
+    Files.writeString(template, "<html><body>\n<!-- RESPONSE GOES HERE -->\n" +
+        "<!-- PROMPTS GO HERE -->\n</body></html>\n");
+    WebApp.loadNavigator("data/campus.dot", template.toString());
+    List<String> locations = loadLocations("data/campus.dot");
+    List<String> queries = createQueries(locations, 200);
+
+    // keep the server's own request logging out of the results
+    PrintStream results = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+    results.printf("%d clients x %d requests, %d processors%n", clients,
+        requestsPerClient, Runtime.getRuntime().availableProcessors());
+    results.printf("%-14s %12s %10s %10s %10s%n", "mode", "requests/s", "p50 ms",
+        "p99 ms", "max ms");
+    for (RequestExecutors.Mode mode : RequestExecutors.Mode.values()) {
+      ExecutorService executor = RequestExecutors.create(mode);
+      HttpServer server = WebApp.createServer(new InetSocketAddress("localhost", 0),
+          executor, RequestExecutors.DEFAULT_BACKLOG, null);
+      server.start();
+      String base = "http://localhost:" + server.getAddress().getPort() + "/?";
+      try {
+        runLoad(base, queries, clients, Math.max(1, requestsPerClient / 5)); // warm up
+        long start = System.nanoTime();
+        long[] latencies = runLoad(base, queries, clients, requestsPerClient);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Arrays.sort(latencies);
+        results.printf("%-14s %12.1f %10.2f %10.2f %10.2f%n", mode,
+            latencies.length / seconds, percentile(latencies, 0.50),
+            percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+      } finally {
+        server.stop(0);
+        if (executor != null)
+          executor.shutdownNow();
+      }
+    }
+    Files.delete(template);
+  }
+
+  // every client thread sends its requests one after another, and the
+  // latency of every request is returned in nanoseconds
+  private static long[] runLoad(String base, List<String> queries, int clients,
+      int requestsPerClient) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(clients);
+    try {
+      List<Future<long[]>> results = new ArrayList<>();
+      for (int c = 0; c < clients; c++) {
+        final int client = c;
+        results.add(pool.submit(() -> {
+          long[] latencies = new long[requestsPerClient];
+          for (int i = 0; i < requestsPerClient; i++) {
+            String query = queries.get((client * requestsPerClient + i) % queries.size());
+            long start = System.nanoTime();
+            fetch(base + query);
+            latencies[i] = System.nanoTime() - start;
+          }
+          return latencies;
+        }));
+      }
+      long[] all = new long[clients * requestsPerClient];
+      for (int c = 0; c < clients; c++)
+        System.arraycopy(results.get(c).get(), 0, all, c * requestsPerClient,
+            requestsPerClient);
+      return all;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  // sends one GET request and reads the complete response body
+  static void fetch(String url) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    if (connection.getResponseCode() != 200)
+      throw new IOException("Unexpected status " + connection.getResponseCode() + " for " + url);
+    try (InputStream in = connection.getInputStream()) {
+      in.readAllBytes();
+    }
+  }
+
+  // creates a reproducible mix of queries: 1 in 10 asks for a furthest
+  // destination, and the rest ask for a shortest path
+  static List<String> createQueries(List<String> locations, int count) {
+    Random random = new Random(400);
+    List<String> queries = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      String start = encode(locations.get(random.nextInt(locations.size())));
+      if (i % 10 == 0)
+        queries.add("from=" + start);
+      else
+        queries.add("start=" + start + "&end="
+            + encode(locations.get(random.nextInt(locations.size()))));
+    }
+    return queries;
+  }
+
+  // reads the location names from a dot file using the backend
+  static List<String> loadLocations(String filename) throws IOException {
+    Backend backend = new Backend(new DijkstraGraph<>());
+    backend.loadGraphData(filename);
+    List<String> locations = new ArrayList<>(backend.getListOfAllLocations());
+    locations.sort(null);
+    return locations;
+  }
+
+  private static String encode(String location) {
+    return URLEncoder.encode(location, StandardCharsets.UTF_8).replace("+", "%20");
+  }
+
+  private static double percentile(long[] sorted, double fraction) {
+    return sorted[(int) Math.min(sorted.length - 1, fraction * sorted.length)] / 1e6;
+  }
+}